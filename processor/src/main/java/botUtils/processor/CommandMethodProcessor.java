@@ -0,0 +1,326 @@
+package botUtils.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Generates a {@code CommandMethodRegistry} for every class with methods annotated with {@code @CommandMethod}, and
+ * lists them all in {@code META-INF/services} so that a {@code CommandManager} can find them with {@link
+ * java.util.ServiceLoader}.
+ * <p><br>
+ * For a class {@code com.example.Dice}, the generated class is {@code com.example.Dice_CommandMethods}. It registers a
+ * {@code CommandInvoker} for each annotated method that calls the method through a method reference, so nothing is
+ * looked up or invoked with reflection at runtime. The registry replaces the reflective scan for the whole class, so it
+ * also registers every other public static method taking a {@code CommandCallData}, named after the method, just like
+ * the scan would. This way a class can be annotated one method at a time.
+ * <p><br>
+ * Every annotated method is checked at compile time. It must be public and static, its class must be accessible, it
+ * must take exactly one {@code CommandCallData} (or subclass) parameter, and no two methods in the same class may use
+ * the same command name. Anything else is reported as a compile error.
+ * <p><br>
+ * The {@code META-INF/services} file keeps the registries listed by earlier incremental compiles, unless the class they
+ * were generated for no longer exists or no longer has any annotated methods.
+ * <p><br>
+ * The library's types are only referenced by name, so this processor doesn't depend on the library or JDA.
+ */
+@SupportedAnnotationTypes(CommandMethodProcessor.ANNOTATION)
+public class CommandMethodProcessor extends AbstractProcessor {
+    static final String ANNOTATION = "botUtils.commandsSystem.manager.CommandMethod";
+    private static final String REGISTRY = "botUtils.commandsSystem.manager.CommandMethodRegistry";
+    private static final String INVOKER = "botUtils.commandsSystem.manager.CommandInvoker";
+    private static final String CALL_DATA = "botUtils.commandsSystem.types.CommandCallData";
+    private static final String SERVICE_FILE = "META-INF/services/" + REGISTRY;
+
+    /**
+     * The fully qualified names of every registry generated so far, across all rounds, mapped to the qualified names
+     * of the classes they were generated for.
+     */
+    private final Map<String, String> registries = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            // Written even if nothing was generated, so that registries which no longer exist are dropped
+            writeServiceFile();
+            return false;
+        }
+
+        Elements elements = processingEnv.getElementUtils();
+        TypeElement annotation = elements.getTypeElement(ANNOTATION);
+        TypeElement callData = elements.getTypeElement(CALL_DATA);
+        if (annotation == null || callData == null)
+            return false;
+
+        // Group the valid methods by the class they're in, keyed by lowercase command name
+        Map<TypeElement, Map<String, ExecutableElement>> classes = new LinkedHashMap<>();
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            ExecutableElement method = (ExecutableElement) element;
+            if (!isValid(method, callData.asType()))
+                continue;
+
+            String name = getCommandName(method, annotation).toLowerCase(Locale.ROOT);
+            TypeElement owner = (TypeElement) method.getEnclosingElement();
+            Map<String, ExecutableElement> methods = classes.computeIfAbsent(owner, k -> new LinkedHashMap<>());
+
+            if (methods.containsKey(name))
+                error(method, "More than one command method with same name: " + name);
+            else
+                methods.put(name, method);
+        }
+
+        // The registry replaces the reflective scan, so it must also cover the methods the scan would have found
+        for (Map.Entry<TypeElement, Map<String, ExecutableElement>> entry : classes.entrySet())
+            for (Element member : entry.getKey().getEnclosedElements())
+                if (member.getKind() == ElementKind.METHOD && !isAnnotated(member, annotation) &&
+                    isEligible((ExecutableElement) member, callData.asType())) {
+                    String name = member.getSimpleName().toString().toLowerCase(Locale.ROOT);
+                    if (entry.getValue().containsKey(name))
+                        error(member, "More than one command method with same name: " + name);
+                    else
+                        entry.getValue().put(name, (ExecutableElement) member);
+                }
+
+        for (Map.Entry<TypeElement, Map<String, ExecutableElement>> entry : classes.entrySet())
+            writeRegistry(entry.getKey(), entry.getValue());
+
+        return true;
+    }
+
+    /**
+     * Checks that an annotated method can be called directly from generated code with a {@code CommandCallData}. Any
+     * problems are reported as compile errors.
+     *
+     * @param method   the annotated method
+     * @param callData the {@code CommandCallData} type
+     * @return true if the method is valid; false otherwise
+     */
+    private boolean isValid(ExecutableElement method, TypeMirror callData) {
+        Types types = processingEnv.getTypeUtils();
+
+        if (!method.getModifiers().containsAll(Set.of(Modifier.PUBLIC, Modifier.STATIC))) {
+            error(method, "@CommandMethod methods must be public and static.");
+            return false;
+        }
+
+        if (method.getParameters().size() != 1 ||
+            !types.isAssignable(types.erasure(method.getParameters().get(0).asType()), callData)) {
+            error(method, "@CommandMethod methods must take a single CommandCallData (or subclass) parameter.");
+            return false;
+        }
+
+        for (Element e = method.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement()) {
+            TypeElement type = (TypeElement) e;
+            if (!type.getModifiers().contains(Modifier.PUBLIC) ||
+                (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) ||
+                type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+                error(method, "@CommandMethod methods must be in a public top level class or public static " +
+                              "nested class.");
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether a method without the annotation would be found by the reflective scan: it must be public and
+     * static, and take a single {@code CommandCallData} (or subclass) parameter. Unlike {@link
+     * #isValid(ExecutableElement, TypeMirror)}, nothing is reported, since most methods aren't meant to be commands.
+     *
+     * @param method   the method
+     * @param callData the {@code CommandCallData} type
+     * @return true if the method is a command method; false otherwise
+     */
+    private boolean isEligible(ExecutableElement method, TypeMirror callData) {
+        Types types = processingEnv.getTypeUtils();
+        return method.getModifiers().containsAll(Set.of(Modifier.PUBLIC, Modifier.STATIC)) &&
+               method.getParameters().size() == 1 &&
+               types.isAssignable(types.erasure(method.getParameters().get(0).asType()), callData);
+    }
+
+    /**
+     * Checks whether an element is annotated with {@code @CommandMethod}.
+     *
+     * @param element    the element
+     * @param annotation the {@code CommandMethod} annotation type
+     * @return true if it has the annotation; false otherwise
+     */
+    private static boolean isAnnotated(Element element, TypeElement annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors())
+            if (mirror.getAnnotationType().asElement().equals(annotation))
+                return true;
+        return false;
+    }
+
+    /**
+     * Gets the command name for an annotated method, which is the annotation's value or the method's name if the
+     * value is empty.
+     *
+     * @param method     the annotated method
+     * @param annotation the {@code CommandMethod} annotation type
+     * @return the command name
+     */
+    private String getCommandName(ExecutableElement method, TypeElement annotation) {
+        for (AnnotationMirror mirror : method.getAnnotationMirrors())
+            if (mirror.getAnnotationType().asElement().equals(annotation))
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                        mirror.getElementValues().entrySet())
+                    if (entry.getKey().getSimpleName().contentEquals("value")) {
+                        String value = entry.getValue().getValue().toString();
+                        if (!value.isEmpty())
+                            return value;
+                    }
+
+        return method.getSimpleName().toString();
+    }
+
+    /**
+     * Writes the source of the registry for one class.
+     *
+     * @param owner   the class with the annotated methods
+     * @param methods the annotated methods and every other command method in the class, keyed by lowercase command
+     *                name
+     */
+    private void writeRegistry(TypeElement owner, Map<String, ExecutableElement> methods) {
+        Elements elements = processingEnv.getElementUtils();
+        Types types = processingEnv.getTypeUtils();
+
+        String packageName = elements.getPackageOf(owner).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(owner).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                                    .replace('$', '_') + "_CommandMethods";
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        String ownerName = owner.getQualifiedName().toString();
+
+        try {
+            FileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, owner);
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(file.openOutputStream(),
+                    StandardCharsets.UTF_8))) {
+                if (!packageName.isEmpty())
+                    out.println("package " + packageName + ";\n");
+
+                out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+                out.println("public final class " + simpleName + " implements " + REGISTRY + " {");
+                out.println("    @Override");
+                out.println("    public Class<?> getDeclaringClass() {");
+                out.println("        return " + ownerName + ".class;");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public void register(java.util.Map<String, " + INVOKER + "> methods) {");
+
+                for (Map.Entry<String, ExecutableElement> entry : methods.entrySet()) {
+                    ExecutableElement method = entry.getValue();
+                    String parameter = types.erasure(method.getParameters().get(0).asType()).toString();
+                    out.println("        methods.put(" + quote(entry.getKey()) + ", " + INVOKER + ".of(" +
+                                parameter + ".class, " + ownerName + "::" + method.getSimpleName() + "));");
+                }
+
+                out.println("    }");
+                out.println("}");
+            }
+            registries.put(qualifiedName, ownerName);
+        } catch (IOException e) {
+            error(owner, "Failed to write the command method registry " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the {@link java.util.ServiceLoader} file listing every generated registry. Each line names the class the
+     * registry was generated for in a comment, which {@link java.util.ServiceLoader} ignores. Registries already
+     * listed from an earlier incremental compile are kept if that class still exists and still has annotated methods.
+     * Otherwise they are dropped, since a {@link java.util.ServiceLoader} fails on registries that no longer exist.
+     */
+    private void writeServiceFile() {
+        Filer filer = processingEnv.getFiler();
+        Elements elements = processingEnv.getElementUtils();
+        TypeElement annotation = elements.getTypeElement(ANNOTATION);
+
+        try {
+            FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(existing.openInputStream(),
+                    StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    int comment = line.indexOf('#');
+                    String registry = (comment < 0 ? line : line.substring(0, comment)).trim();
+                    String owner = comment < 0 ? "" : line.substring(comment + 1).trim();
+                    if (!registry.isEmpty() && !registries.containsKey(registry) &&
+                        elements.getTypeElement(registry) != null && hasAnnotatedMethods(owner, annotation))
+                        registries.put(registry, owner);
+                }
+            }
+        } catch (IOException ignore) {
+            // There is no existing file
+        }
+
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(file.openOutputStream(),
+                    StandardCharsets.UTF_8))) {
+                for (Map.Entry<String, String> registry : registries.entrySet())
+                    out.println(registry.getKey() + " # " + registry.getValue());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + SERVICE_FILE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether a class from an earlier compile still exists and still has any {@code @CommandMethod} methods.
+     *
+     * @param owner      the qualified name of the class, which is empty if it isn't known
+     * @param annotation the {@code CommandMethod} annotation type
+     * @return true if the class still needs its registry; false otherwise
+     */
+    private boolean hasAnnotatedMethods(String owner, TypeElement annotation) {
+        TypeElement type = owner.isEmpty() || annotation == null ?
+                null : processingEnv.getElementUtils().getTypeElement(owner);
+        if (type == null)
+            return false;
+
+        for (Element member : type.getEnclosedElements())
+            if (member.getKind() == ElementKind.METHOD && isAnnotated(member, annotation))
+                return true;
+        return false;
+    }
+
+    /**
+     * Escapes a command name as a Java string literal.
+     *
+     * @param value the name
+     * @return the quoted literal
+     */
+    private static String quote(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray())
+            if (c == '"' || c == '\\')
+                builder.append('\\').append(c);
+            else if (c < 0x20 || c > 0x7E)
+                builder.append(String.format("\\u%04x", (int) c));
+            else
+                builder.append(c);
+        return builder.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,128 @@
+package examples;
+
+import botUtils.commandsSystem.manager.CommandManager;
+import botUtils.exceptions.ManagerBuildException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Measures how long it takes to build a {@link CommandManager} with and without the command cache set through
+ * {@link botUtils.commandsSystem.manager.ManagerConfig#setCommandCacheFile(File)}.
+ * <p><br>
+ * A temporary folder is filled with generated Function and CallResponse commands. Then three kinds of builds are timed
+ * several times each:
+ * <ul>
+ *     <li><b>No cache:</b> the cache is disabled, so every command is built.</li>
+ *     <li><b>Cold:</b> the cache file is deleted first, so every command is built and the cache is written.</li>
+ *     <li><b>Warm:</b> the cache from the previous build is used, so no file is read and only the base keys of each
+ *     command are read from the cache.</li>
+ * </ul>
+ * Run it with {@code gradlew benchmark}, optionally followed by {@code --args=<number>} for the number of commands to
+ * generate (the default is 2000). No bot token is needed, as building a manager never connects to Discord. It's kept in
+ * the benchmark source set so that it isn't packaged with the library.
+ */
+public class CommandCacheBenchmark {
+    private static final int ROUNDS = 7;
+
+    public static void main(String[] args) throws IOException, ManagerBuildException {
+        int commandCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        Path root = Files.createTempDirectory("command-cache-benchmark");
+        Path commands = Files.createDirectory(root.resolve("commands"));
+        File cacheFile = root.resolve("commands.cache").toFile();
+
+        try {
+            for (int i = 0; i < commandCount; i++)
+                Files.writeString(commands.resolve("command" + i + ".json"),
+                        i % 2 == 0 ? makeFunction(i) : makeCallResponse(i));
+
+            // The manager is only built, never run, so it doesn't need a JDA instance
+            CommandManager manager = CommandManager.of(null, commands.toFile(), "Benchmark");
+
+            // Warm up the JVM before timing anything
+            for (int i = 0; i < 3; i++)
+                time(manager);
+
+            long[] noCache = new long[ROUNDS], cold = new long[ROUNDS], warm = new long[ROUNDS];
+            for (int i = 0; i < ROUNDS; i++) {
+                manager.getConfigManager().setCommandCacheFile(null);
+                noCache[i] = time(manager);
+
+                manager.getConfigManager().setCommandCacheFile(cacheFile);
+                Files.deleteIfExists(cacheFile.toPath());
+                cold[i] = time(manager);
+                warm[i] = time(manager);
+            }
+
+            System.out.println();
+            System.out.println("Built " + commandCount + " commands " + ROUNDS + " times each (median):");
+            System.out.printf("   No cache: %8.2f ms%n", median(noCache) / 1e6);
+            System.out.printf("   Cold:     %8.2f ms%n", median(cold) / 1e6);
+            System.out.printf("   Warm:     %8.2f ms%n", median(warm) / 1e6);
+            System.out.printf("   Cache file size: %d KB%n", cacheFile.length() / 1024);
+        } finally {
+            try (Stream<Path> stream = Files.walk(root)) {
+                stream.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    /**
+     * Builds the manager once and returns how long it took.
+     *
+     * @param manager the manager to build
+     * @return the time it took in nanoseconds
+     * @throws ManagerBuildException if the manager couldn't be built
+     */
+    private static long time(CommandManager manager) throws ManagerBuildException {
+        manager.unbuild();
+        long start = System.nanoTime();
+        manager.build();
+        return System.nanoTime() - start;
+    }
+
+    private static double median(long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static String makeFunction(int i) {
+        return "{\n" +
+               "  \"type\": \"Function\",\n" +
+               "  \"name\": \"roll" + i + "\",\n" +
+               "  \"description\": \"Rolls one or more dice with the given number of sides and shows the total.\",\n" +
+               "  \"shortDescription\": \"Roll some dice\",\n" +
+               "  \"aliases\": [\"dice" + i + "\", \"r" + i + "\"],\n" +
+               "  \"syntax\": [[\"sides\"], [\"count\", \"sides\"]],\n" +
+               "  \"arguments\": [\n" +
+               "    {\"name\": \"sides\", \"description\": \"The number of sides\", \"type\": \"integer\", " +
+               "\"floor\": 1},\n" +
+               "    {\"name\": \"count\", \"description\": \"The number of dice\", \"type\": \"integer\", " +
+               "\"floor\": 1, \"ceiling\": 100}\n" +
+               "  ]\n" +
+               "}\n";
+    }
+
+    private static String makeCallResponse(int i) {
+        return "{\n" +
+               "  \"type\": \"CallResponse\",\n" +
+               "  \"name\": \"hello" + i + "\",\n" +
+               "  \"description\": \"Says hello in a few different ways, depending on what you ask for.\",\n" +
+               "  \"shortDescription\": \"Say hi\",\n" +
+               "  \"responses\": [\n" +
+               "    {\"type\": \"text\", \"keys\": [\"\", \"there\"], \"contents\": \"Hello!\"},\n" +
+               "    {\"type\": \"embed\", \"keys\": \"embed\", \"title\": \"Hi\", \"color\": \"blue\", " +
+               "\"description\": \"Hello from an embed.\",\n" +
+               "     \"fields\": [{\"title\": \"First\", \"text\": \"One\", \"inline\": true}, " +
+               "{\"title\": \"Second\", \"text\": \"Two\", \"inline\": true}]}\n" +
+               "  ]\n" +
+               "}\n";
+    }
+}
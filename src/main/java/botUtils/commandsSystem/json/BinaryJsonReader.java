@@ -0,0 +1,287 @@
+package botUtils.commandsSystem.json;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link JsonReader} that reads Json from a compact binary token stream instead of text. The token stream is created
+ * with {@link #encode(JsonReader)}, which transcodes any other {@link JsonReader}.
+ * <p><br>
+ * Each token is a single tag byte, followed by a length prefixed UTF-8 payload for names, strings, and numbers. There is
+ * no whitespace, quoting, or escaping to deal with, so replaying a command this way is considerably cheaper than
+ * tokenizing its original text. Because this is a {@link JsonReader}, anything that streams Json (such as the
+ * streaming {@link botUtils.commandsSystem.types.Command} constructors) can read from it unchanged.
+ */
+public class BinaryJsonReader extends JsonReader {
+    private static final byte END_DOCUMENT = 0;
+    private static final byte BEGIN_OBJECT = 1;
+    private static final byte END_OBJECT = 2;
+    private static final byte BEGIN_ARRAY = 3;
+    private static final byte END_ARRAY = 4;
+    private static final byte NAME = 5;
+    private static final byte STRING = 6;
+    private static final byte NUMBER = 7;
+    private static final byte TRUE = 8;
+    private static final byte FALSE = 9;
+    private static final byte NULL = 10;
+
+    private static final Reader UNREADABLE = new Reader() {
+        @Override
+        public int read(char @NotNull [] buffer, int offset, int count) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private final byte[] tokens;
+    private int position;
+
+    private BinaryJsonReader(byte @NotNull [] tokens) {
+        super(UNREADABLE);
+        this.tokens = tokens;
+    }
+
+    /**
+     * Creates a new {@link BinaryJsonReader} over a token stream created by {@link #encode(JsonReader)}.
+     *
+     * @param tokens the binary token stream
+     * @return a new reader positioned at the first token
+     */
+    public static @NotNull BinaryJsonReader of(byte @NotNull [] tokens) {
+        return new BinaryJsonReader(tokens);
+    }
+
+    /**
+     * Reads every token from the given {@link JsonReader} and writes it to a new binary token stream that can be read
+     * with {@link #of(byte[])}. Only a single top level value is read.
+     *
+     * @param reader the reader to transcode, positioned at the start of a value
+     * @return the binary token stream
+     * @throws IOException if the Json could not be read
+     */
+    public static byte @NotNull [] encode(@NotNull JsonReader reader) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        int depth = 0;
+
+        do {
+            switch (reader.peek()) {
+                case BEGIN_OBJECT -> {
+                    reader.beginObject();
+                    out.writeByte(BEGIN_OBJECT);
+                    depth++;
+                }
+                case END_OBJECT -> {
+                    reader.endObject();
+                    out.writeByte(END_OBJECT);
+                    depth--;
+                }
+                case BEGIN_ARRAY -> {
+                    reader.beginArray();
+                    out.writeByte(BEGIN_ARRAY);
+                    depth++;
+                }
+                case END_ARRAY -> {
+                    reader.endArray();
+                    out.writeByte(END_ARRAY);
+                    depth--;
+                }
+                case NAME -> writeText(out, NAME, reader.nextName());
+                case STRING -> writeText(out, STRING, reader.nextString());
+                // Numbers are kept as their original literal so that no precision is lost
+                case NUMBER -> writeText(out, NUMBER, reader.nextString());
+                case BOOLEAN -> out.writeByte(reader.nextBoolean() ? TRUE : FALSE);
+                case NULL -> {
+                    reader.nextNull();
+                    out.writeByte(NULL);
+                }
+                default -> throw new IOException("Unexpected end of Json.");
+            }
+        } while (depth > 0);
+
+        out.writeByte(END_DOCUMENT);
+        return bytes.toByteArray();
+    }
+
+    private static void writeText(@NotNull DataOutputStream out, byte tag, @NotNull String text) throws IOException {
+        byte[] utf = text.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(tag);
+        out.writeInt(utf.length);
+        out.write(utf);
+    }
+
+    private @NotNull String readText() {
+        int length = ((tokens[position] & 0xFF) << 24) | ((tokens[position + 1] & 0xFF) << 16) |
+                ((tokens[position + 2] & 0xFF) << 8) | (tokens[position + 3] & 0xFF);
+        String text = new String(tokens, position + 4, length, StandardCharsets.UTF_8);
+        position += 4 + length;
+        return text;
+    }
+
+    private void consume(byte expected, @NotNull String name) {
+        if (tokens[position] != expected)
+            throw new IllegalStateException("Expected " + name + " but was " + peekToken() + " at " + getPath());
+        position++;
+    }
+
+    private @NotNull JsonToken peekToken() {
+        return switch (tokens[position]) {
+            case BEGIN_OBJECT -> JsonToken.BEGIN_OBJECT;
+            case END_OBJECT -> JsonToken.END_OBJECT;
+            case BEGIN_ARRAY -> JsonToken.BEGIN_ARRAY;
+            case END_ARRAY -> JsonToken.END_ARRAY;
+            case NAME -> JsonToken.NAME;
+            case STRING -> JsonToken.STRING;
+            case NUMBER -> JsonToken.NUMBER;
+            case TRUE, FALSE -> JsonToken.BOOLEAN;
+            case NULL -> JsonToken.NULL;
+            default -> JsonToken.END_DOCUMENT;
+        };
+    }
+
+    @Override
+    public void beginArray() {
+        consume(BEGIN_ARRAY, "BEGIN_ARRAY");
+    }
+
+    @Override
+    public void endArray() {
+        consume(END_ARRAY, "END_ARRAY");
+    }
+
+    @Override
+    public void beginObject() {
+        consume(BEGIN_OBJECT, "BEGIN_OBJECT");
+    }
+
+    @Override
+    public void endObject() {
+        consume(END_OBJECT, "END_OBJECT");
+    }
+
+    @Override
+    public boolean hasNext() {
+        byte tag = tokens[position];
+        return tag != END_OBJECT && tag != END_ARRAY && tag != END_DOCUMENT;
+    }
+
+    @Override
+    public JsonToken peek() {
+        return peekToken();
+    }
+
+    @Override
+    public String nextName() {
+        consume(NAME, "NAME");
+        return readText();
+    }
+
+    @Override
+    public String nextString() {
+        byte tag = tokens[position];
+        if (tag != STRING && tag != NUMBER)
+            throw new IllegalStateException("Expected a string but was " + peekToken() + " at " + getPath());
+        position++;
+        return readText();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        byte tag = tokens[position];
+        if (tag != TRUE && tag != FALSE)
+            throw new IllegalStateException("Expected a boolean but was " + peekToken() + " at " + getPath());
+        position++;
+        return tag == TRUE;
+    }
+
+    @Override
+    public void nextNull() {
+        consume(NULL, "NULL");
+    }
+
+    @Override
+    public double nextDouble() {
+        int start = position;
+        double value = Double.parseDouble(nextString());
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            position = start;
+            throw new NumberFormatException("JSON forbids NaN and infinities: " + value);
+        }
+        return value;
+    }
+
+    @Override
+    public long nextLong() {
+        int start = position;
+        String text = nextString();
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            // Gson also accepts doubles with no fractional part, like 1.0
+            double value = Double.parseDouble(text);
+            if ((long) value != value) {
+                position = start;
+                throw new NumberFormatException("Expected a long but was " + text);
+            }
+            return (long) value;
+        }
+    }
+
+    @Override
+    public int nextInt() {
+        int start = position;
+        long value = nextLong();
+        if ((int) value != value) {
+            position = start;
+            throw new NumberFormatException("Expected an int but was " + value);
+        }
+        return (int) value;
+    }
+
+    @Override
+    public void skipValue() {
+        int depth = 0;
+        do {
+            switch (tokens[position]) {
+                case BEGIN_OBJECT, BEGIN_ARRAY -> {
+                    position++;
+                    depth++;
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    position++;
+                    depth--;
+                }
+                case NAME, STRING, NUMBER -> {
+                    position++;
+                    readText();
+                }
+                case END_DOCUMENT -> {
+                    return;
+                }
+                default -> position++;
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() {
+        position = tokens.length - 1;
+    }
+
+    @Override
+    public String getPath() {
+        return "$ (binary offset " + position + ")";
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " at offset " + position;
+    }
+}
@@ -0,0 +1,83 @@
+package botUtils.commandsSystem.json;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the commands in a command pack one at a time. A command pack is a single file with one command Json object on
+ * each line (NDJSON), which can be optionally compressed with gzip. Loading one pack is much cheaper than opening
+ * thousands of small Json files. Packs can be created from a folder of Json files with {@link CommandPackWriter}.
+ * <p><br>
+ * The pack is decoded as it is read, so only one line is ever held in memory at a time. Whether the pack is compressed
+ * is determined from its first bytes rather than its name. Blank lines are skipped.
+ */
+public class CommandPackReader implements Closeable {
+    private final BufferedReader reader;
+    private int lineNumber = 0;
+
+    private CommandPackReader(@NotNull BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Opens a command pack for reading.
+     *
+     * @param pack the pack file
+     * @return a new reader at the start of the pack
+     * @throws IOException if the file could not be opened
+     */
+    public static @NotNull CommandPackReader of(@NotNull Path pack) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(pack), 65536);
+
+        try {
+            // Every gzip stream starts with the same two bytes
+            in.mark(2);
+            int first = in.read(), second = in.read();
+            in.reset();
+
+            if (first == (GZIPInputStream.GZIP_MAGIC & 0xFF) && second == (GZIPInputStream.GZIP_MAGIC >> 8))
+                in = new GZIPInputStream(in, 65536);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+
+        return new CommandPackReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Reads the Json for the next command in the pack.
+     *
+     * @return the Json on the next line that isn't blank, or null if the end of the pack has been reached
+     * @throws IOException if the pack could not be read or decompressed
+     */
+    public @Nullable String next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.isBlank())
+                return line;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the line number (starting from 1) of the command most recently returned by {@link #next()}.
+     *
+     * @return the line number
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,98 @@
+package botUtils.commandsSystem.json;
+
+import botUtils.tools.Checks;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Packs a folder of command Json files into a single command pack that can be read by {@link CommandPackReader}. Each
+ * Json file is written on its own line without any extra whitespace. If the name of the pack ends with ".gz", it is
+ * compressed with gzip.
+ * <p><br>
+ * This can be run directly as part of a build, with the folder and pack as arguments:
+ * <pre>{@code java botUtils.commandsSystem.json.CommandPackWriter src/main/resources/commands commands.ndjson.gz}</pre>
+ */
+public class CommandPackWriter {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: CommandPackWriter <commands folder> <pack file>");
+            return;
+        }
+
+        Path pack = Paths.get(args[1]);
+        int count = writePack(Paths.get(args[0]), pack);
+        System.out.println("Packed " + count + " commands into '" + pack + "' (" + Files.size(pack) / 1024 + " KB)");
+    }
+
+    /**
+     * Writes every Json file in the given folder (and its sub folders) to a command pack. The files are written in
+     * order of their paths, so packing the same folder twice gives the same pack. The pack is written to a temporary
+     * file first and then moved into place.
+     *
+     * @param folder the folder of command Json files
+     * @param pack   the pack file to create or replace. If its name ends with ".gz", it is compressed.
+     * @return the number of commands written to the pack
+     * @throws IllegalArgumentException if the folder is not a directory or the pack's name isn't a command pack name
+     * @throws IOException              if a Json file could not be read, is not a Json object, or the pack could not
+     *                                  be written
+     */
+    public static int writePack(@NotNull Path folder, @NotNull Path pack) throws IOException {
+        Checks.pathIsDirectory(folder);
+        if (!Checks.pathIsCommandPackBool(pack))
+            throw new IllegalArgumentException("'" + pack.getFileName() + "' must end with .ndjson, .jsonl, " +
+                    ".ndjson.gz, or .jsonl.gz.");
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(folder)) {
+            files = stream.filter(Files::isRegularFile).filter(Checks::pathIsJsonBool).sorted()
+                    .collect(Collectors.toList());
+        }
+
+        Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+        boolean gzip = pack.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+        Path temp = pack.resolveSibling(pack.getFileName() + ".tmp");
+
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 65536);
+        if (gzip)
+            out = new GZIPOutputStream(out, 65536);
+
+        try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            for (Path file : files) {
+                JsonElement json;
+                try (Reader reader = Files.newBufferedReader(file)) {
+                    json = gson.fromJson(reader, JsonElement.class);
+                } catch (JsonParseException e) {
+                    throw new IOException("'" + file + "' is not valid Json.", e);
+                }
+
+                if (json == null || !json.isJsonObject())
+                    throw new IOException("'" + file + "' must contain a Json object.");
+
+                // The default Gson output never contains a line break, since any inside strings are escaped
+                gson.toJson(json, writer);
+                writer.write('\n');
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Files.move(temp, pack, StandardCopyOption.REPLACE_EXISTING);
+        return files.size();
+    }
+}
@@ -0,0 +1,218 @@
+package botUtils.commandsSystem.json;
+
+import botUtils.tools.EmbedField;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A pool of canonical values used while loading commands. Descriptions, help keys, aliases, footer texts, image URLs
+ * and embed fields tend to repeat across many command files, and without a pool every file creates its own copy of
+ * each one. With a pool, every equal value after the first is replaced with the first instance, and the duplicate can
+ * be garbage collected.
+ * <p><br>
+ * The parsing code in {@link JsonParser}, {@link JsonStreamReader}, {@link EmbedField} and the command classes has no
+ * reference to the {@link botUtils.commandsSystem.manager.CommandManager CommandManager} doing the loading, so a pool
+ * is made available to them by {@link #open() opening} it on the current thread. The static {@code intern} methods use
+ * whichever pool is open on the calling thread, and simply return their input unchanged if there isn't one.
+ * <p><br>
+ * Only immutable values (or values that are never modified after loading) may be pooled, since pooled values are
+ * shared between commands.
+ * <p><br>
+ * The number of bytes saved is an estimate. It assumes a 64-bit JVM with compressed object pointers and compact
+ * (Latin-1) Strings, which is the default for most bots.
+ */
+public final class InternPool {
+    /**
+     * The pool open on each thread, if any.
+     */
+    private static final ThreadLocal<InternPool> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, String> strings = new HashMap<>();
+    private final Map<List<String>, String[]> arrays = new HashMap<>();
+    private final Map<Object, Object> objects = new HashMap<>();
+
+    private int duplicates = 0;
+    private long savedBytes = 0;
+
+    private InternPool() {
+    }
+
+    /**
+     * Creates a new, empty {@link InternPool}.
+     *
+     * @return the new pool
+     */
+    public static @NotNull InternPool of() {
+        return new InternPool();
+    }
+
+    /**
+     * Makes this pool the one used by the {@code intern} methods on the current thread until the returned {@link Scope}
+     * is closed. Close it in a finally block so the pool doesn't stay open on the thread if loading fails:
+     * <pre>{@code
+     * InternPool.Scope scope = pool.open();
+     * try {
+     *     // load commands
+     * } finally {
+     *     scope.close();
+     * }
+     * }</pre>
+     * Closing the scope restores whichever pool was open before (usually none).
+     *
+     * @return the scope to close when loading is done
+     */
+    public @NotNull Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(this);
+        return scope;
+    }
+
+    /**
+     * Gets the canonical instance of a String from the pool open on the current thread.
+     *
+     * @param value the String
+     * @return the first equal String added to the pool, or the given String if there is no pool or it was the first
+     */
+    public static @Nullable String intern(@Nullable String value) {
+        InternPool pool = CURRENT.get();
+        return pool == null || value == null ? value : pool.internString(value);
+    }
+
+    /**
+     * Gets the canonical instance of a String array from the pool open on the current thread. The Strings inside the
+     * array are pooled as well. The returned array must never be modified.
+     *
+     * @param value the array
+     * @return the first equal array added to the pool, or the given array if there is no pool or it was the first
+     */
+    public static @Nullable String[] intern(@Nullable String[] value) {
+        InternPool pool = CURRENT.get();
+        return pool == null || value == null ? value : pool.internArray(value);
+    }
+
+    /**
+     * Gets the canonical instance of an {@link EmbedField} from the pool open on the current thread.
+     *
+     * @param value the field
+     * @return the first equal field added to the pool, or the given field if there is no pool or it was the first
+     */
+    public static @Nullable EmbedField intern(@Nullable EmbedField value) {
+        InternPool pool = CURRENT.get();
+        // An EmbedField is an object header plus two references and a boolean
+        return pool == null || value == null ? value : pool.internObject(value, 24);
+    }
+
+    private synchronized @NotNull String internString(@NotNull String value) {
+        String canonical = strings.putIfAbsent(value, value);
+        if (canonical == null)
+            return value;
+
+        duplicate(stringBytes(value));
+        return canonical;
+    }
+
+    private synchronized @NotNull String[] internArray(@NotNull String[] value) {
+        String[] canonical = arrays.get(Arrays.asList(value));
+        if (canonical != null) {
+            // The Strings inside a duplicate array are garbage too, unless they were pooled on their own already
+            long bytes = align(16 + 4L * value.length);
+            for (int i = 0; i < value.length; i++)
+                if (value[i] != canonical[i])
+                    bytes += stringBytes(value[i]);
+            duplicate(bytes);
+            return canonical;
+        }
+
+        for (int i = 0; i < value.length; i++)
+            value[i] = internString(value[i]);
+        arrays.put(Arrays.asList(value), value);
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> @NotNull T internObject(@NotNull T value, long bytes) {
+        Object canonical = objects.putIfAbsent(value, value);
+        if (canonical == null)
+            return value;
+
+        duplicate(bytes);
+        return (T) canonical;
+    }
+
+    private void duplicate(long bytes) {
+        duplicates++;
+        savedBytes += bytes;
+    }
+
+    /**
+     * Estimates the memory used by a String: the String object itself, plus its backing byte array.
+     *
+     * @param value the String
+     * @return the estimated size in bytes
+     */
+    private static long stringBytes(@NotNull String value) {
+        return 24 + align(16 + value.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Gets the number of duplicate values that were replaced with their canonical instance.
+     *
+     * @return the number of duplicates
+     */
+    public synchronized int getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Gets the number of distinct values in the pool.
+     *
+     * @return the number of canonical Strings, String arrays and {@link EmbedField EmbedFields}
+     */
+    public synchronized int getUniqueValues() {
+        return strings.size() + arrays.size() + objects.size();
+    }
+
+    /**
+     * Gets the estimated number of bytes of heap saved by replacing duplicates with their canonical instance.
+     *
+     * @return the estimated savings in bytes
+     */
+    public synchronized long getSavedBytes() {
+        return savedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return getDuplicates() + " duplicates pooled saving ~" +
+                String.format(Locale.ROOT, "%.1f", getSavedBytes() / 1024.0) + " KB";
+    }
+
+    /**
+     * Returned by {@link #open()}. Closing it restores the pool that was open on the thread before.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final @Nullable InternPool previous;
+
+        private Scope(@Nullable InternPool previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null)
+                CURRENT.remove();
+            else
+                CURRENT.set(previous);
+        }
+    }
+}
@@ -10,10 +10,12 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
 import net.dv8tion.jda.api.EmbedBuilder;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
@@ -189,4 +191,66 @@ public class JsonBuilder {
                 title, link, description, color, footer, footerImg, author,
                 authorUrl, authorImg, thumbnail, image, time, fields);
     }
+
+    /**
+     * This is the streaming equivalent of {@link #makeEmbedBuilder(JsonObject)}. It collects the embed keys from an
+     * object that is being read by a {@link JsonReader}, and once the object is finished, {@link
+     * #build()} creates the {@link EmbedBuilder}. The recognized keys are the same as those for {@link
+     * #makeEmbedBuilder(JsonObject)}.
+     * <p><br>
+     * Because an embed's keys are usually mixed in with others (such as the {@code type} and {@code keys} of a {@link
+     * botUtils.commandsSystem.types.callResponse.Response}), this implements {@link JsonStreamReader.KeyReader} and
+     * ignores keys it doesn't recognize.
+     */
+    public static class EmbedReader implements JsonStreamReader.KeyReader {
+        private String title, link, description, color, footer, footerImg, author, authorUrl, authorImg, timestamp,
+                image, thumbnail;
+        private EmbedField[] fields;
+
+        @Override
+        public boolean read(@NotNull String key, @NotNull JsonReader reader)
+                throws IOException, JsonParseException {
+            switch (key) {
+                case "title" -> title = JsonStreamReader.nextString(reader, key);
+                case "link" -> link = JsonStreamReader.nextString(reader, key);
+                case "description" -> description = JsonStreamReader.nextString(reader, key);
+                case "color" -> color = JsonStreamReader.nextString(reader, key);
+                case "footerText" -> footer = JsonStreamReader.nextString(reader, key);
+                case "footerImg" -> footerImg = JsonStreamReader.nextString(reader, key);
+                case "authorText" -> author = JsonStreamReader.nextString(reader, key);
+                case "authorUrl" -> authorUrl = JsonStreamReader.nextString(reader, key);
+                case "authorImg" -> authorImg = JsonStreamReader.nextString(reader, key);
+                case "timestamp" -> timestamp = JsonStreamReader.nextString(reader, key);
+                case "mainImg" -> image = JsonStreamReader.nextString(reader, key);
+                case "thumbnailImg" -> thumbnail = JsonStreamReader.nextString(reader, key);
+                case "fields" -> fields = EmbedField.ofArray(reader, key);
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Creates the {@link EmbedBuilder} from all the keys that were read.
+         *
+         * @return the completed embed
+         */
+        public @NotNull EmbedBuilder build() {
+            Color c;
+            try {
+                c = Colors.parseColor(color);
+            } catch (UnknownColorException e) {
+                e.printStackTrace();
+                c = null;
+            }
+
+            LocalDateTime time = timestamp == null ? null : LocalDateTime.parse(timestamp,
+                    DateTimeFormatter.ofPattern("hh:mm:ss MM/dd/yyyy"));
+
+            return MessageUtils.makeEmbedBuilder(
+                    title, link, description, c, footer, footerImg, author,
+                    authorUrl, authorImg, thumbnail, image, time, fields);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,275 @@
+package botUtils.commandsSystem.json;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A {@link JsonReader} that walks a {@link JsonElement} tree that is already in memory, such as the {@link
+ * com.google.gson.JsonObject} from a {@link botUtils.commandsSystem.builder.Builder Builder}. The tree is never written
+ * out as text and parsed again. This only uses Gson's public API, so it works wherever Gson is a module.
+ * <p><br>
+ * This is returned by {@link JsonStreamReader#of(JsonElement)}, and {@link ReplayingJsonReader} uses one to replay the
+ * members it already read.
+ */
+final class JsonElementReader extends JsonReader {
+    private static final Reader UNREADABLE = new Reader() {
+        @Override
+        public int read(char @NotNull [] buffer, int offset, int count) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * An object or array that has been entered.
+     */
+    private static final class Frame {
+        private final @NotNull Iterator<?> iterator;
+        private final boolean object;
+
+        /**
+         * The name of the current member of an object, for {@link #getPath()}.
+         */
+        private @Nullable String name;
+
+        /**
+         * The index of the current element of an array, for {@link #getPath()}.
+         */
+        private int index = -1;
+
+        private Frame(@NotNull Iterator<?> iterator, boolean object) {
+            this.iterator = iterator;
+            this.object = object;
+        }
+    }
+
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+
+    /**
+     * The name that will be read next, or null if the next token isn't a name.
+     */
+    private @Nullable String name;
+
+    /**
+     * The value that will be read next (after the {@link #name}, if there is one), or null if it hasn't been taken from
+     * the current object or array yet.
+     */
+    private @Nullable JsonElement value;
+
+    JsonElementReader(@NotNull JsonElement json) {
+        super(UNREADABLE);
+        this.value = json;
+    }
+
+    @Override
+    public JsonToken peek() {
+        if (name != null)
+            return JsonToken.NAME;
+
+        if (value == null) {
+            Frame frame = frames.peek();
+            if (frame == null)
+                return JsonToken.END_DOCUMENT;
+            if (!frame.iterator.hasNext())
+                return frame.object ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+
+            if (frame.object) {
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) frame.iterator.next();
+                name = frame.name = (String) entry.getKey();
+                value = (JsonElement) entry.getValue();
+                return JsonToken.NAME;
+            }
+            value = (JsonElement) frame.iterator.next();
+            frame.index++;
+        }
+
+        if (value.isJsonObject())
+            return JsonToken.BEGIN_OBJECT;
+        if (value.isJsonArray())
+            return JsonToken.BEGIN_ARRAY;
+        if (value.isJsonNull())
+            return JsonToken.NULL;
+
+        JsonPrimitive primitive = value.getAsJsonPrimitive();
+        return primitive.isBoolean() ? JsonToken.BOOLEAN : primitive.isNumber() ? JsonToken.NUMBER : JsonToken.STRING;
+    }
+
+    /**
+     * Takes the next value from the current object or array if it hasn't been taken yet, so that a failed read can put
+     * it back.
+     *
+     * @return the next value, or null if the next token isn't a value
+     */
+    private @Nullable JsonElement peekValue() {
+        peek();
+        return name == null ? value : null;
+    }
+
+    private void expect(@NotNull JsonToken expected) {
+        JsonToken token = peek();
+        if (token != expected)
+            throw new IllegalStateException("Expected " + expected + " but was " + token + " at " + getPath());
+    }
+
+    /**
+     * Takes the next value, which must be a String or a number.
+     *
+     * @return the value
+     */
+    private @NotNull JsonPrimitive nextPrimitive() {
+        JsonToken token = peek();
+        if (token != JsonToken.STRING && token != JsonToken.NUMBER)
+            throw new IllegalStateException("Expected a string but was " + token + " at " + getPath());
+        JsonPrimitive primitive = value.getAsJsonPrimitive();
+        value = null;
+        return primitive;
+    }
+
+    @Override
+    public void beginArray() {
+        expect(JsonToken.BEGIN_ARRAY);
+        frames.push(new Frame(value.getAsJsonArray().iterator(), false));
+        value = null;
+    }
+
+    @Override
+    public void endArray() {
+        expect(JsonToken.END_ARRAY);
+        frames.pop();
+    }
+
+    @Override
+    public void beginObject() {
+        expect(JsonToken.BEGIN_OBJECT);
+        frames.push(new Frame(value.getAsJsonObject().entrySet().iterator(), true));
+        value = null;
+    }
+
+    @Override
+    public void endObject() {
+        expect(JsonToken.END_OBJECT);
+        frames.pop();
+    }
+
+    @Override
+    public boolean hasNext() {
+        JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public String nextName() {
+        expect(JsonToken.NAME);
+        String next = name;
+        name = null;
+        return next;
+    }
+
+    @Override
+    public String nextString() {
+        return nextPrimitive().getAsString();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        expect(JsonToken.BOOLEAN);
+        boolean next = value.getAsBoolean();
+        value = null;
+        return next;
+    }
+
+    @Override
+    public void nextNull() {
+        expect(JsonToken.NULL);
+        value = null;
+    }
+
+    @Override
+    public double nextDouble() {
+        JsonElement start = peekValue();
+        double next = nextPrimitive().getAsDouble();
+        if (!isLenient() && (Double.isNaN(next) || Double.isInfinite(next))) {
+            value = start;
+            throw new NumberFormatException("JSON forbids NaN and infinities: " + next);
+        }
+        return next;
+    }
+
+    @Override
+    public long nextLong() {
+        JsonElement start = peekValue();
+        String text = nextPrimitive().getAsString();
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            // Gson also accepts doubles with no fractional part, like 1.0
+            double next = Double.parseDouble(text);
+            if ((long) next != next) {
+                value = start;
+                throw new NumberFormatException("Expected a long but was " + text);
+            }
+            return (long) next;
+        }
+    }
+
+    @Override
+    public int nextInt() {
+        JsonElement start = peekValue();
+        long next = nextLong();
+        if ((int) next != next) {
+            value = start;
+            throw new NumberFormatException("Expected an int but was " + next);
+        }
+        return (int) next;
+    }
+
+    @Override
+    public void skipValue() {
+        switch (peek()) {
+            case NAME -> name = null;
+            case END_OBJECT, END_ARRAY -> frames.pop();
+            case END_DOCUMENT -> {
+            }
+            // The whole value is already in memory, so there's nothing to read past
+            default -> value = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        frames.clear();
+        name = null;
+        value = null;
+    }
+
+    @Override
+    public String getPath() {
+        StringBuilder path = new StringBuilder("$");
+        for (Iterator<Frame> i = frames.descendingIterator(); i.hasNext(); ) {
+            Frame frame = i.next();
+            if (frame.object) {
+                if (frame.name != null)
+                    path.append('.').append(frame.name);
+            } else if (frame.index >= 0)
+                path.append('[').append(frame.index).append(']');
+        }
+        return path.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " at " + getPath();
+    }
+}
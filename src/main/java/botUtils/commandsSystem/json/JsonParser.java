@@ -67,7 +67,7 @@ public class JsonParser {
     public static String getString(@NotNull JsonObject json, @NotNull String key, @Nullable String defaultValue)
             throws JsonParseException {
         try {
-            return json.has(key) ? json.get(key).getAsString() : defaultValue;
+            return json.has(key) ? InternPool.intern(json.get(key).getAsString()) : defaultValue;
         } catch (Exception ignore) {
             throw new JsonParseException("Unexpected type at key '" + key + "'. Expected String.");
         }
@@ -86,7 +86,7 @@ public class JsonParser {
             throws JsonParseException {
         Checks.jsonContainsKey(json, key);
         try {
-            return json.get(key).getAsString();
+            return InternPool.intern(json.get(key).getAsString());
         } catch (Exception ignore) {
             throw new JsonParseException("Unexpected type at key '" + key + "'. Expected String.");
         }
@@ -259,7 +259,7 @@ public class JsonParser {
         Checks.jsonContainsKey(json, key);
         try {
             if (json.get(key).isJsonPrimitive())
-                return new String[]{json.get(key).getAsString()};
+                return new String[]{InternPool.intern(json.get(key).getAsString())};
             return primitiveToStringArray(jsonElementArrayToPrimitive(parseJsonArray(json.get(key).getAsJsonArray())));
         } catch (Exception ignore) {
             throw new JsonParseException("Unexpected type at key '" + key + "'. Expected array of Strings.");
@@ -542,7 +542,7 @@ public class JsonParser {
      */
     public static String[] primitiveToStringArray(@NotNull JsonPrimitive... primitive) throws JsonParseException {
         try {
-            return Arrays.stream(primitive).map(JsonPrimitive::getAsString).toArray(String[]::new);
+            return Arrays.stream(primitive).map(p -> InternPool.intern(p.getAsString())).toArray(String[]::new);
         } catch (Exception ignore) {
             throw new JsonParseException("Failed to read primitive as String(s).");
         }
@@ -0,0 +1,406 @@
+package botUtils.commandsSystem.json;
+
+import botUtils.exceptions.JsonParseException;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This is the streaming counterpart to {@link JsonParser}. Rather than materializing a full {@link
+ * com.google.gson.JsonObject} tree and then copying values out of it, these methods pull values straight off a Gson
+ * {@link JsonReader} as each key is encountered. Classes that support streaming construction (such as {@link
+ * botUtils.commandsSystem.types.function.Function} and {@link botUtils.commandsSystem.types.callResponse.CallResponse})
+ * use these to decode their Json directly into their final fields.
+ * <p><br>
+ * Error messages mirror those thrown by {@link JsonParser} so that a malformed command file produces the same report
+ * regardless of which path was used to read it.
+ */
+public class JsonStreamReader {
+
+    /**
+     * Receives a single key from a Json object while it is being streamed. Implementations should consume the value for
+     * any key they recognize and return true. If the key is not recognized, nothing should be consumed and false should
+     * be returned, in which case the value is skipped.
+     */
+    @FunctionalInterface
+    public interface KeyReader {
+        /**
+         * Attempts to read the value at the given key.
+         *
+         * @param key    the name of the key that was just read
+         * @param reader the reader, positioned at the start of the value for that key
+         * @return true if the value was consumed; false if the key is unknown and the value should be skipped
+         * @throws IOException        if there is an error reading from the underlying source
+         * @throws JsonParseException if the value is the wrong type or otherwise invalid
+         */
+        boolean read(@NotNull String key, @NotNull JsonReader reader) throws IOException, JsonParseException;
+    }
+
+    /**
+     * Reads a single element of a Json array while it is being streamed.
+     *
+     * @param <T> the type produced from each element
+     */
+    @FunctionalInterface
+    public interface ElementReader<T> {
+        /**
+         * Reads the next element from the reader.
+         *
+         * @param reader the reader, positioned at the start of the element
+         * @return the decoded element
+         * @throws IOException        if there is an error reading from the underlying source
+         * @throws JsonParseException if the element is invalid
+         */
+        T read(@NotNull JsonReader reader) throws IOException, JsonParseException;
+    }
+
+    /**
+     * The result of {@link #scanFor(JsonReader, String)}: the value of one key, and a reader over the whole object.
+     */
+    public static final class Scan {
+        private final @Nullable String value;
+        private final @NotNull JsonReader reader;
+
+        private Scan(@Nullable String value, @NotNull JsonReader reader) {
+            this.value = value;
+            this.reader = reader;
+        }
+
+        /**
+         * Gets the value of the key that was scanned for.
+         *
+         * @return the String at the key, or null if the key is not present
+         */
+        public @Nullable String getValue() {
+            return value;
+        }
+
+        /**
+         * Gets a reader positioned at the start of the object, as if nothing had been read from it yet. It can only be
+         * used once.
+         *
+         * @return the reader
+         */
+        public @NotNull JsonReader getReader() {
+            return reader;
+        }
+    }
+
+    /**
+     * Creates a new lenient {@link JsonReader} over the given Json text. Lenient mode matches the behavior of {@link
+     * com.google.gson.Gson#fromJson(java.io.Reader, Class)}, which the tree-based loading path uses.
+     *
+     * @param json the Json text
+     * @return a new reader positioned at the start of the text
+     */
+    public static @NotNull JsonReader of(@NotNull String json) {
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * Creates a new lenient {@link JsonReader} that streams Json from the given source, such as a file. Nothing is read
+     * until the reader is used, and closing the reader closes the source.
+     *
+     * @param source the source of the Json text
+     * @return a new reader positioned at the start of the source
+     */
+    public static @NotNull JsonReader of(@NotNull Reader source) {
+        JsonReader reader = new JsonReader(source);
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * Creates a new {@link JsonReader} over a Json tree that is already in memory, such as the {@link
+     * com.google.gson.JsonObject} from a {@link botUtils.commandsSystem.builder.Builder Builder}. The tree is walked
+     * directly, so it is never written out as text and parsed again.
+     *
+     * @param json the Json tree
+     * @return a new reader positioned at the start of the tree
+     */
+    public static @NotNull JsonReader of(@NotNull JsonElement json) {
+        return new JsonElementReader(json);
+    }
+
+    /**
+     * Reads an entire Json object, passing each key to the given {@link KeyReader}. Any value that the key reader does
+     * not consume is skipped without being materialized.
+     *
+     * @param reader    the reader, positioned at the start of an object
+     * @param keyReader the handler for each key
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if the value is not an object or the key reader rejects a value
+     */
+    public static void readObject(@NotNull JsonReader reader, @NotNull KeyReader keyReader)
+            throws IOException, JsonParseException {
+        beginObject(reader);
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (!keyReader.read(key, reader))
+                reader.skipValue();
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Confirms that the next value in the reader is a Json object and consumes its opening brace. This is for classes
+     * that iterate over the keys themselves rather than through {@link #readObject(JsonReader, KeyReader)}.
+     *
+     * @param reader the reader, positioned at the start of an object
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if the next value is not an object
+     */
+    public static void beginObject(@NotNull JsonReader reader) throws IOException, JsonParseException {
+        expect(reader, JsonToken.BEGIN_OBJECT, "JsonObject");
+        reader.beginObject();
+    }
+
+    /**
+     * Reads a Json array, decoding each element with the given {@link ElementReader}.
+     *
+     * @param reader        the reader, positioned at the start of an array
+     * @param key           the key of the array (used for error messages)
+     * @param elementReader the decoder for each element
+     * @param <T>           the type of each element
+     * @return a list of the decoded elements in order
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if the value is not an array or an element is invalid
+     */
+    public static <T> @NotNull List<T> readArray(@NotNull JsonReader reader, @NotNull String key,
+                                                 @NotNull ElementReader<T> elementReader)
+            throws IOException, JsonParseException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY)
+            throw new JsonParseException("Unexpected type at key '" + key + "'. Expected array.");
+
+        List<T> list = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext())
+            list.add(elementReader.read(reader));
+        reader.endArray();
+        return list;
+    }
+
+    /**
+     * Reads a String value. Like {@link JsonParser#getString(com.google.gson.JsonObject, String)}, numbers and booleans
+     * are accepted and converted to their String form. A Json null is returned as null.
+     * <p><br>
+     * If an {@link InternPool} is open on the current thread, the String is replaced with its canonical instance.
+     *
+     * @param reader the reader, positioned at the value
+     * @param key    the key of the value (used for error messages)
+     * @return the String, or null if the value was a Json null
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if the value is an object or array
+     */
+    public static @Nullable String nextString(@NotNull JsonReader reader, @NotNull String key)
+            throws IOException, JsonParseException {
+        switch (reader.peek()) {
+            case STRING, NUMBER -> {
+                return InternPool.intern(reader.nextString());
+            }
+            case BOOLEAN -> {
+                return InternPool.intern(String.valueOf(reader.nextBoolean()));
+            }
+            case NULL -> {
+                reader.nextNull();
+                return null;
+            }
+            default -> throw new JsonParseException("Unexpected type at key '" + key + "'. Expected String.");
+        }
+    }
+
+    /**
+     * Reads a boolean value.
+     *
+     * @param reader the reader, positioned at the value
+     * @param key    the key of the value (used for error messages)
+     * @return the boolean
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if the value is not a boolean
+     */
+    public static boolean nextBoolean(@NotNull JsonReader reader, @NotNull String key)
+            throws IOException, JsonParseException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.BOOLEAN)
+            return reader.nextBoolean();
+        if (token == JsonToken.STRING)
+            // Gson's JsonPrimitive.getAsBoolean() accepts the String "true" as well, so do the same here
+            return Boolean.parseBoolean(reader.nextString());
+        throw new JsonParseException("Unexpected type at key '" + key + "'. Expected boolean.");
+    }
+
+    /**
+     * Reads an integer value.
+     *
+     * @param reader the reader, positioned at the value
+     * @param key    the key of the value (used for error messages)
+     * @return the integer
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if the value is not an integer
+     */
+    public static int nextInteger(@NotNull JsonReader reader, @NotNull String key)
+            throws IOException, JsonParseException {
+        try {
+            return reader.nextInt();
+        } catch (IllegalStateException | NumberFormatException ignore) {
+            throw new JsonParseException("Unexpected type at key '" + key + "'. Expected integer.");
+        }
+    }
+
+    /**
+     * Reads a double value.
+     *
+     * @param reader the reader, positioned at the value
+     * @param key    the key of the value (used for error messages)
+     * @return the double
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if the value is not a number
+     */
+    public static double nextDouble(@NotNull JsonReader reader, @NotNull String key)
+            throws IOException, JsonParseException {
+        try {
+            return reader.nextDouble();
+        } catch (IllegalStateException | NumberFormatException ignore) {
+            throw new JsonParseException("Unexpected type at key '" + key + "'. Expected double.");
+        }
+    }
+
+    /**
+     * Reads an array of Strings directly into a {@link String} array. Like {@link
+     * JsonParser#getStringArray(com.google.gson.JsonObject, String)}, a single primitive value is accepted and treated
+     * as an array containing only that value.
+     * <p><br>
+     * The values are written straight into a growing array without any intermediate {@link
+     * com.google.gson.JsonElement} or stream copies.
+     *
+     * @param reader the reader, positioned at the value
+     * @param key    the key of the value (used for error messages)
+     * @return the array of Strings
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if the value is not a String or array of Strings
+     */
+    public static @NotNull String[] nextStringArray(@NotNull JsonReader reader, @NotNull String key)
+            throws IOException, JsonParseException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            String value = nextString(reader, key);
+            if (value == null)
+                throw new JsonParseException("Unexpected type at key '" + key + "'. Expected array of Strings.");
+            return new String[]{value};
+        }
+
+        String[] array = new String[4];
+        int size = 0;
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String value = nextString(reader, key);
+            if (value == null)
+                throw new JsonParseException("Unexpected type at key '" + key + "'. Expected array of Strings.");
+            if (size == array.length)
+                array = Arrays.copyOf(array, size * 2);
+            array[size++] = value;
+        }
+        reader.endArray();
+
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    /**
+     * Reads an array of Strings like {@link #nextStringArray(JsonReader, String)}, except that a Json null or a value
+     * of the wrong type is skipped and an empty array is returned instead. This is the streaming equivalent of {@link
+     * JsonParser#getStringArrayNoError(com.google.gson.JsonObject, String)}.
+     *
+     * @param reader the reader, positioned at the value
+     * @param key    the key of the value (used for error messages)
+     * @return the array of Strings, or an empty array if the value was not usable
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if an array element is not a String
+     */
+    public static @NotNull String[] nextStringArrayNoError(@NotNull JsonReader reader, @NotNull String key)
+            throws IOException, JsonParseException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.BEGIN_ARRAY || token == JsonToken.STRING ||
+                token == JsonToken.NUMBER || token == JsonToken.BOOLEAN)
+            return nextStringArray(reader, key);
+
+        reader.skipValue();
+        return new String[0];
+    }
+
+    /**
+     * Finds the String at the given key at the top level of a Json object, such as the {@code type} of a command, while
+     * it is being streamed. The object is only read once: the members before the key are kept in a small {@link
+     * JsonObject}, and everything after it is left in the stream. The returned {@link Scan#getReader() reader} replays
+     * the members that were kept, and then reads the rest of the object from the stream.
+     * <p><br>
+     * Nothing is kept if the key comes first, which is where it's recommended to put the {@code type} of a command. If
+     * the key isn't present at all, the whole object ends up being kept.
+     *
+     * @param reader the reader, positioned at the start of an object
+     * @param key    the key to look for
+     * @return the value at the key and a reader over the whole object
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if the Json is not an object or the value is not a String
+     */
+    public static @NotNull Scan scanFor(@NotNull JsonReader reader, @NotNull String key)
+            throws IOException, JsonParseException {
+        beginObject(reader);
+        JsonObject read = new JsonObject();
+
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals(key)) {
+                String value = nextString(reader, key);
+                read.addProperty(key, value);
+                return new Scan(value, new ReplayingJsonReader(read, reader));
+            }
+            read.add(name, com.google.gson.JsonParser.parseReader(reader));
+        }
+
+        return new Scan(null, new ReplayingJsonReader(read, reader));
+    }
+
+    /**
+     * Confirms that a required value was present in the Json. This is the streaming equivalent of {@link
+     * botUtils.tools.Checks#jsonContainsKey(com.google.gson.JsonObject, String)}, and it throws the same message.
+     *
+     * @param value the value that was read, or null if the key was never encountered
+     * @param key   the key of the value
+     * @param <T>   the type of the value
+     * @return the value, if it is not null
+     * @throws JsonParseException if the value is null
+     */
+    public static <T> @NotNull T required(@Nullable T value, @NotNull String key) throws JsonParseException {
+        if (value == null)
+            throw new JsonParseException("Missing value for key '" + key + "'.");
+        return value;
+    }
+
+    /**
+     * Confirms that the next token in the reader is of the expected type.
+     *
+     * @param reader   the reader
+     * @param token    the expected token
+     * @param typeName the name of the expected type for the error message
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if the next token is of a different type
+     */
+    private static void expect(@NotNull JsonReader reader, @NotNull JsonToken token, @NotNull String typeName)
+            throws IOException, JsonParseException {
+        if (reader.peek() != token)
+            throw new JsonParseException("Unexpected token " + reader.peek() + " at " + reader.getPath() +
+                    ". Expected " + typeName + ".");
+    }
+}
@@ -0,0 +1,165 @@
+package botUtils.commandsSystem.json;
+
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A {@link JsonReader} over a Json object whose first few members were already read from a stream. Those members are
+ * replayed from a small {@link JsonObject}, and then the rest of the object is read from the stream where it left off.
+ * To whoever reads it, it looks like one reader positioned at the start of the whole object.
+ * <p><br>
+ * This is returned by {@link JsonStreamReader#scanFor(JsonReader, String)}, which only buffers the members before the
+ * key it's looking for.
+ */
+final class ReplayingJsonReader extends JsonReader {
+    private static final Reader UNREADABLE = new Reader() {
+        @Override
+        public int read(char @NotNull [] buffer, int offset, int count) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * The reader over the members that were already read, or null once they've all been replayed.
+     */
+    private @Nullable JsonReader buffered;
+
+    /**
+     * The stream, positioned inside the object right after the members that were already read.
+     */
+    private final @NotNull JsonReader stream;
+
+    /**
+     * How deeply nested the reader currently is. The outer object is depth 1.
+     */
+    private int depth = 0;
+
+    ReplayingJsonReader(@NotNull JsonObject read, @NotNull JsonReader stream) {
+        super(UNREADABLE);
+        this.buffered = new JsonElementReader(read);
+        this.stream = stream;
+    }
+
+    /**
+     * Gets the reader to use for the next token, switching to the stream once the buffered members run out.
+     *
+     * @return the reader
+     * @throws IOException if there is an error reading from the stream
+     */
+    private @NotNull JsonReader current() throws IOException {
+        if (buffered != null && depth == 1 && buffered.peek() == JsonToken.END_OBJECT)
+            buffered = null;
+        return buffered == null ? stream : buffered;
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        current().beginArray();
+        depth++;
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        current().endArray();
+        depth--;
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        current().beginObject();
+        depth++;
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        current().endObject();
+        depth--;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        return current().hasNext();
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        return current().peek();
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        return current().nextName();
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        return current().nextString();
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        return current().nextBoolean();
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        current().nextNull();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        return current().nextDouble();
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        return current().nextLong();
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        return current().nextInt();
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        if (depth > 0) {
+            current().skipValue();
+            return;
+        }
+
+        // Skipping the whole object means skipping the rest of it in the stream too
+        buffered = null;
+        while (stream.hasNext()) {
+            stream.nextName();
+            stream.skipValue();
+        }
+        stream.endObject();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffered = null;
+        stream.close();
+    }
+
+    @Override
+    public String getPath() {
+        return buffered == null ? stream.getPath() : buffered.getPath();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " at " + getPath();
+    }
+}
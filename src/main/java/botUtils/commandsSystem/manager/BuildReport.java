@@ -0,0 +1,359 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.tools.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * This is a record of where the time went during one {@link CommandManager#build()}. The most recent report can be
+ * retrieved with {@link CommandManager#getBuildReport()}.
+ * <p><br>
+ * It contains the time spent in each {@link Phase} of the build, along with a {@link FileTiming} for every Json file
+ * that was loaded. When a bot is slow to start, {@link #getSlowestFiles(int)} shows which command files are to blame.
+ * <p><br>
+ * All times are measured with {@link System#nanoTime()} and stored in nanoseconds.
+ */
+public class BuildReport {
+    /**
+     * The separate stages of a {@link CommandManager#build()}, in the order they happen.
+     */
+    public enum Phase {
+        /**
+         * Finding every method that commands can call, through generated registries or reflection.
+         */
+        METHOD_DISCOVERY,
+        /**
+         * Walking the commands folder to find every Json file.
+         */
+        FILE_WALK,
+        /**
+         * Reading the command cache, if there is one.
+         */
+        CACHE_LOAD,
+        /**
+         * Reading and building every Json file. The time spent on each file is in its {@link FileTiming}.
+         */
+        FILE_LOAD,
+        /**
+         * Writing the command cache, if there is one.
+         */
+        CACHE_SAVE,
+        /**
+         * Indexing the commands, rendering the pages of the command list and assembling the {@link Registry}.
+         */
+        REGISTRY
+    }
+
+    private final @NotNull String managerName;
+    private final long start = System.nanoTime();
+    private long totalNanos;
+
+    private final Map<Phase, Long> phases = new EnumMap<>(Phase.class);
+    private final List<FileTiming> files = new ArrayList<>();
+
+    private int pooledDuplicates;
+    private long pooledBytesSaved;
+
+    BuildReport(@NotNull String managerName) {
+        this.managerName = managerName;
+    }
+
+    /**
+     * Records the time spent in one phase of the build.
+     *
+     * @param phase      the phase
+     * @param startNanos the {@link System#nanoTime()} when the phase began
+     */
+    void recordPhase(@NotNull Phase phase, long startNanos) {
+        phases.merge(phase, System.nanoTime() - startNanos, Long::sum);
+    }
+
+    /**
+     * Adds the timing for a Json file. The timing can still be updated until the build finishes.
+     *
+     * @param timing the timing for the file
+     */
+    void addFile(@NotNull FileTiming timing) {
+        files.add(timing);
+    }
+
+    /**
+     * Records how many duplicate values the {@link botUtils.commandsSystem.json.InternPool InternPool} replaced during
+     * the build, and roughly how much memory that saved.
+     *
+     * @param duplicates the number of duplicates
+     * @param bytesSaved the estimated number of bytes saved
+     */
+    void setPoolSavings(int duplicates, long bytesSaved) {
+        this.pooledDuplicates = duplicates;
+        this.pooledBytesSaved = bytesSaved;
+    }
+
+    /**
+     * Marks the end of the build, recording its total time.
+     *
+     * @return this {@link BuildReport} instance for chaining
+     */
+    @NotNull BuildReport finish() {
+        totalNanos = System.nanoTime() - start;
+        return this;
+    }
+
+    /**
+     * Gets the name of the {@link CommandManager} that was built.
+     *
+     * @return the manager name
+     */
+    public @NotNull String getManagerName() {
+        return managerName;
+    }
+
+    /**
+     * Gets the total time the build took, from start to finish.
+     *
+     * @return the total time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Gets the time spent in the given phase of the build.
+     *
+     * @param phase the phase
+     * @return the time in nanoseconds, or 0 if the phase didn't happen (for example, if there is no cache)
+     */
+    public long getPhaseNanos(@NotNull Phase phase) {
+        return phases.getOrDefault(phase, 0L);
+    }
+
+    /**
+     * Gets the time spent in every phase of the build that happened, in the order they happened.
+     *
+     * @return an unmodifiable map of each phase to its time in nanoseconds
+     */
+    public @NotNull Map<Phase, Long> getPhases() {
+        return Collections.unmodifiableMap(phases);
+    }
+
+    /**
+     * Gets the timing for every Json file that was loaded, in the order they were loaded. This includes files that
+     * failed.
+     *
+     * @return an unmodifiable list of file timings
+     */
+    public @NotNull List<FileTiming> getFiles() {
+        return Collections.unmodifiableList(files);
+    }
+
+    /**
+     * Gets the files that took the longest to load, slowest first.
+     *
+     * @param count the maximum number of files to return
+     * @return the slowest files
+     */
+    public @NotNull List<FileTiming> getSlowestFiles(int count) {
+        List<FileTiming> sorted = new ArrayList<>(files);
+        sorted.sort(Comparator.comparingLong(FileTiming::getTotalNanos).reversed());
+        return sorted.subList(0, Math.min(Math.max(count, 0), sorted.size()));
+    }
+
+    /**
+     * Gets the number of files that failed to load.
+     *
+     * @return the number of errors
+     */
+    public int getErrorCount() {
+        int errors = 0;
+        for (FileTiming file : files)
+            if (file.getError() != null)
+                errors++;
+        return errors;
+    }
+
+    /**
+     * Gets the number of files that were found in the command cache instead of being read and built.
+     *
+     * @return the number of cached files
+     */
+    public int getCachedCount() {
+        int cached = 0;
+        for (FileTiming file : files)
+            if (file.isFromCache())
+                cached++;
+        return cached;
+    }
+
+    /**
+     * Gets the number of duplicate Strings, String arrays and embed fields that were replaced with a single shared
+     * instance during the build (see {@link ManagerConfig#doPoolValues()}).
+     *
+     * @return the number of duplicates, or 0 if values weren't pooled
+     */
+    public int getPooledDuplicates() {
+        return pooledDuplicates;
+    }
+
+    /**
+     * Gets the estimated heap memory saved by pooling duplicate values during the build. This is an estimate based on
+     * the usual size of each object, not a measurement.
+     *
+     * @return the estimated savings in bytes, or 0 if values weren't pooled
+     */
+    public long getPooledBytesSaved() {
+        return pooledBytesSaved;
+    }
+
+    /**
+     * Creates a single line summarizing the total time and the time spent in each phase.
+     *
+     * @return the summary
+     */
+    public @NotNull String getPhaseSummary() {
+        StringBuilder builder = new StringBuilder("Built '" + managerName + "' in " + millis(totalNanos) + " ms (");
+        boolean first = true;
+        for (Map.Entry<Phase, Long> phase : phases.entrySet()) {
+            builder.append(first ? "" : ", ").append(phase.getKey().name().toLowerCase(Locale.ROOT))
+                    .append(' ').append(millis(phase.getValue())).append(" ms");
+            first = false;
+        }
+        return builder.append(')').toString();
+    }
+
+    /**
+     * Creates a line listing the files that took the longest to load, along with where their time went.
+     *
+     * @param count the maximum number of files to list
+     * @return the list of slowest files
+     */
+    public @NotNull String getSlowestFilesSummary(int count) {
+        StringBuilder builder = new StringBuilder("Slowest command files in '" + managerName + "':");
+        for (FileTiming file : getSlowestFiles(count))
+            builder.append("\n   ").append(file);
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getPhaseSummary();
+    }
+
+    /**
+     * Formats nanoseconds as milliseconds with two decimal places.
+     *
+     * @param nanos the time in nanoseconds
+     * @return the formatted time
+     */
+    private static @NotNull String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+    }
+
+    /**
+     * The time spent loading a single Json file, or a single command in a command pack. Loading is split into two
+     * steps:
+     * <ul>
+     *     <li><b>Read:</b> getting the Json by reading the file, or checking that the file hasn't changed since it was
+     *     put in the command cache.</li>
+     *     <li><b>Build:</b> parsing the Json and constructing the {@link botUtils.commandsSystem.types.Command Command}.
+     *     The Json is streamed straight into the command, so parsing and construction happen in the same pass and
+     *     can't be timed separately. With {@link ManagerConfig#isLazyCommands() lazy commands}, this only includes the
+     *     base keys.</li>
+     * </ul>
+     */
+    public static class FileTiming {
+        private final @NotNull Path file;
+        private long readNanos;
+        private long buildNanos;
+        private boolean fromCache;
+        private @Nullable String error;
+
+        FileTiming(@NotNull Path file) {
+            this.file = file;
+        }
+
+        void setReadNanos(long readNanos) {
+            this.readNanos = readNanos;
+        }
+
+        void setBuildNanos(long buildNanos) {
+            this.buildNanos = buildNanos;
+        }
+
+        void setFromCache(boolean fromCache) {
+            this.fromCache = fromCache;
+        }
+
+        void setError(@NotNull String error) {
+            this.error = error;
+        }
+
+        /**
+         * Gets the Json file.
+         *
+         * @return the file
+         */
+        public @NotNull Path getFile() {
+            return file;
+        }
+
+        /**
+         * Gets the time spent reading the file or taking it from the cache.
+         *
+         * @return the read time in nanoseconds
+         */
+        public long getReadNanos() {
+            return readNanos;
+        }
+
+        /**
+         * Gets the time spent parsing the Json and constructing the command.
+         *
+         * @return the build time in nanoseconds
+         */
+        public long getBuildNanos() {
+            return buildNanos;
+        }
+
+        /**
+         * Gets the total time spent loading this file.
+         *
+         * @return the total time in nanoseconds
+         */
+        public long getTotalNanos() {
+            return readNanos + buildNanos;
+        }
+
+        /**
+         * Returns whether the command was made from the command cache without the file being read.
+         *
+         * @return true if it was cached; false otherwise
+         */
+        public boolean isFromCache() {
+            return fromCache;
+        }
+
+        /**
+         * Gets the error that prevented this file from loading.
+         *
+         * @return the name of the exception, or null if the file loaded successfully
+         */
+        public @Nullable String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            // Commands from a command pack are keyed by the pack and their line number
+            Path parent = file.getParent();
+            String name = parent != null && Checks.pathIsCommandPackBool(parent) ?
+                    parent.getFileName() + " line " + file.getFileName() : String.valueOf(file.getFileName());
+
+            return name + ": " + millis(getTotalNanos()) + " ms (read " + millis(readNanos) +
+                    " ms" + (fromCache ? " from cache" : "") + ", build " + millis(buildNanos) + " ms)" +
+                    (error == null ? "" : " failed with " + error);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.commandsSystem.json.BinaryJsonReader;
+import botUtils.commandsSystem.json.JsonStreamReader;
+import botUtils.commandsSystem.types.Command;
+import botUtils.commandsSystem.types.LazyCommand;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * This is the on-disk cache of command headers used by {@link CommandManager#build()} when a {@link
+ * ManagerConfig#getCommandCacheFile() cache file} is set.
+ * <p><br>
+ * For every Json file, the cache stores the file's size, last modified time, and a hash of its contents, along with the
+ * command's type and its base {@link Command} values (the name, aliases, descriptions, and so on) encoded as a {@link
+ * BinaryJsonReader} token stream. When the manager is built again, each file is checked against its entry:
+ * <ul>
+ *     <li>If the size and modified time match, the file isn't read at all.</li>
+ *     <li>If they don't match but the hash of the contents does (for example after a git checkout touches the file),
+ *     the entry is still used.</li>
+ *     <li>Otherwise, the file is built normally and its entry is replaced.</li>
+ * </ul>
+ * A file that is found in the cache becomes a {@link LazyCommand} made from its cached values, so neither the file nor
+ * the rest of the command is read until the command is first used. An entry is only saved after its command was built
+ * successfully, and it remembers whether the command was built in full, so that a manager that doesn't use {@link
+ * ManagerConfig#isLazyCommands() lazy commands} only uses entries whose Json was fully checked.
+ * <p><br>
+ * The whole cache is a single small file that is read once, which is much cheaper than opening and building every
+ * command. It starts with a format version and the version of this library, and if either doesn't match, the cache is
+ * ignored and rewritten from scratch.
+ */
+class CommandCache {
+    /**
+     * The first four bytes of every cache file, "JCMC".
+     */
+    private static final int MAGIC = 0x4A434D43;
+
+    /**
+     * The version of the cache format. Increment this whenever the layout of the cache or the {@link BinaryJsonReader}
+     * token format changes.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    private final File file;
+
+    /**
+     * The entries read from the {@link #file}, keyed by the {@link #key(Path) key} of each Json file.
+     */
+    private final Map<String, Entry> loaded;
+
+    /**
+     * The entries used during the current build, keyed by the {@link #key(Path) key} of each Json file. Only these
+     * are saved, so entries for deleted files are dropped.
+     */
+    private final Map<String, Entry> used = new LinkedHashMap<>();
+
+    private boolean changed;
+    private int hits;
+    private int misses;
+
+    private CommandCache(@NotNull File file, @NotNull Map<String, Entry> loaded) {
+        this.file = file;
+        this.loaded = loaded;
+    }
+
+    /**
+     * Loads the cache from the given file. If the file doesn't exist, can't be read, or was written by a different
+     * format or library version, an empty cache is returned instead.
+     *
+     * @param file the cache file
+     * @return the loaded cache
+     */
+    static @NotNull CommandCache load(@NotNull File file) {
+        Map<String, Entry> entries = new HashMap<>();
+
+        if (file.isFile())
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() == MAGIC && in.readInt() == FORMAT_VERSION &&
+                    in.readUTF().equals(getLibraryVersion())) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        String path = in.readUTF();
+                        entries.put(path, Entry.read(in));
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Ignoring unreadable command cache '" + file.getPath() + "': " + e.getMessage());
+                entries.clear();
+            }
+
+        return new CommandCache(file, entries);
+    }
+
+    /**
+     * Gets the version of this library, which is stored in the cache so that upgrading the library invalidates it.
+     *
+     * @return the implementation version from the jar manifest, or "dev" if there isn't one
+     */
+    private static @NotNull String getLibraryVersion() {
+        String version = CommandCache.class.getPackage().getImplementationVersion();
+        return version == null ? "dev" : version;
+    }
+
+    /**
+     * Gets the cache {@link Entry} for the given Json file, if the file hasn't changed since it was cached. The file is
+     * only read if its modified time changed, to compare the hash of its contents. A found entry is kept for the next
+     * {@link #save()}.
+     *
+     * @param path  the Json file
+     * @param built true to only accept an entry whose command was built in full when it was cached
+     * @return the entry, or null if the file has to be built from its Json and {@link #put(Path, byte[], String,
+     * Command) put} in the cache again
+     * @throws IOException if the file could not be read
+     */
+    @Nullable Entry get(@NotNull Path path, boolean built) throws IOException {
+        String key = key(path);
+        Entry entry = loaded.get(key);
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+
+        if (entry == null || (built && !entry.built) || entry.size != attributes.size() ||
+            (entry.modified != modified && entry.hash != hash(Files.readAllBytes(path)))) {
+            misses++;
+            return null;
+        }
+
+        if (entry.modified != modified) {
+            // The contents are the same, so only the modified time needs updating
+            entry = new Entry(entry.size, modified, entry.hash, entry.type, entry.header, entry.built);
+            changed = true;
+        }
+
+        hits++;
+        used.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * Caches a Json file whose command was just built without errors. Only the type and the base {@link Command} values
+     * (the name, aliases, descriptions, and so on) are kept, which are taken from the command rather than the Json.
+     *
+     * @param path    the Json file
+     * @param bytes   the contents of the file that the command was built from
+     * @param type    the value of the top level "type" key in the Json
+     * @param command the command, which is a {@link LazyCommand} if it wasn't built in full
+     * @throws IOException if the file's attributes could not be read
+     */
+    void put(@NotNull Path path, byte @NotNull [] bytes, @NotNull String type, @NotNull Command command)
+            throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        // The file changed while it was being built, so the next build will read it again anyway
+        if (attributes.size() != bytes.length)
+            return;
+
+        JsonObject header = new JsonObject();
+        header.addProperty("name", command.getName());
+        header.addProperty("description", command.getDescription());
+        header.addProperty("shortDescription", command.getShortDescription());
+        if (command.getLink() != null)
+            header.addProperty("link", command.getLink());
+        header.addProperty("includeInCommandsList", command.doIncludeInCommandsList());
+        header.addProperty("allowNoArgs", command.doAllowNoArgs());
+        header.addProperty("helpEmbedTimeout", command.getHelpEmbedTimeout());
+        header.add("helpKeys", toArray(command.getHelpKeys()));
+        header.add("aliases", toArray(command.getAliases()));
+        header.add("typoAliases", toArray(command.getTypoAliases()));
+
+        used.put(key(path), new Entry(bytes.length, attributes.lastModifiedTime().toMillis(),
+                hash(bytes), type, BinaryJsonReader.encode(JsonStreamReader.of(header)),
+                !(command instanceof LazyCommand)));
+        changed = true;
+    }
+
+    private static @NotNull JsonArray toArray(@NotNull String[] values) {
+        JsonArray array = new JsonArray(values.length);
+        for (String value : values)
+            array.add(value);
+        return array;
+    }
+
+    /**
+     * Gets the key of the given Json file in the cache. Files inside a jar are keyed by their URI, which includes the
+     * jar. Other files are keyed by their absolute path, since getting their URI checks on the disk whether they are a
+     * folder.
+     *
+     * @param path the Json file
+     * @return the key
+     */
+    private static @NotNull String key(@NotNull Path path) {
+        return path.getFileSystem() == FileSystems.getDefault() ? path.toAbsolutePath().toString() :
+                path.toUri().toString();
+    }
+
+    /**
+     * Computes the hash of a file's contents.
+     *
+     * @param bytes the contents
+     * @return the hash
+     */
+    private static long hash(byte @NotNull [] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * Writes every entry used since this cache was loaded back to the {@link #file}, if anything changed. The cache is
+     * written to a temporary file first and then moved into place, so a crash partway through can't leave a corrupt
+     * cache behind.
+     *
+     * @throws IOException if the cache could not be written
+     */
+    void save() throws IOException {
+        if (!changed && used.size() == loaded.size())
+            return;
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null)
+            Files.createDirectories(parent.toPath());
+
+        Path temp = new File(file.getPath() + ".tmp").toPath();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(getLibraryVersion());
+            out.writeInt(used.size());
+            for (Map.Entry<String, Entry> e : used.entrySet()) {
+                out.writeUTF(e.getKey());
+                e.getValue().write(out);
+            }
+        }
+
+        Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Gets the number of files that were found in the cache, and so weren't built.
+     *
+     * @return the number of cache hits
+     */
+    int getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of files that had to be built because they weren't in the cache or had changed.
+     *
+     * @return the number of cache misses
+     */
+    int getMisses() {
+        return misses;
+    }
+
+    /**
+     * A single cached Json file.
+     */
+    static class Entry {
+        private final long size;
+        private final long modified;
+        private final long hash;
+        private final @Nullable String type;
+        private final byte[] header;
+        private final boolean built;
+
+        private Entry(long size, long modified, long hash, @Nullable String type, byte @NotNull [] header,
+                      boolean built) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+            this.type = type;
+            this.header = header;
+            this.built = built;
+        }
+
+        private static @NotNull Entry read(@NotNull DataInputStream in) throws IOException {
+            long size = in.readLong();
+            long modified = in.readLong();
+            long hash = in.readLong();
+            String type = in.readBoolean() ? in.readUTF() : null;
+            byte[] header = new byte[in.readInt()];
+            in.readFully(header);
+            return new Entry(size, modified, hash, type, header, in.readBoolean());
+        }
+
+        private void write(@NotNull DataOutputStream out) throws IOException {
+            out.writeLong(size);
+            out.writeLong(modified);
+            out.writeLong(hash);
+            out.writeBoolean(type != null);
+            if (type != null)
+                out.writeUTF(type);
+            out.writeInt(header.length);
+            out.write(header);
+            out.writeBoolean(built);
+        }
+
+        /**
+         * Gets the value of the top level "type" key in the cached Json.
+         *
+         * @return the command type, or null if the Json didn't have one
+         */
+        @Nullable String getType() {
+            return type;
+        }
+
+        /**
+         * Creates a new {@link JsonReader} over a Json object with only the cached base {@link Command} values, which
+         * is enough to create a {@link LazyCommand}.
+         *
+         * @return a new reader at the start of the object
+         */
+        @NotNull JsonReader header() {
+            return BinaryJsonReader.of(header);
+        }
+    }
+}
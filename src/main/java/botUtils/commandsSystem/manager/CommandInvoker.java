@@ -0,0 +1,113 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.commandsSystem.types.Command;
+import botUtils.commandsSystem.types.CommandCallData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Runs the code for a {@link Command}. Invokers are created by the {@link CommandMethodRegistry} classes generated
+ * for {@link CommandMethod} annotations, which call the method directly, or by {@link #of(Method)} for methods found
+ * through reflection.
+ * <p><br>
+ * Unlike {@link Method#invoke(Object, Object...)}, exceptions thrown by the code are never wrapped. They are thrown
+ * from {@link #invoke(CommandCallData)} exactly as the code threw them.
+ */
+public interface CommandInvoker {
+    /**
+     * Runs the code with the given data about the user's message.
+     *
+     * @param data the data about the command call, which must be an instance of {@link #getParameterType()}
+     * @throws Exception whatever the code throws
+     */
+    void invoke(@NotNull CommandCallData data) throws Exception;
+
+    /**
+     * Gets the type of {@link CommandCallData} that the code accepts.
+     *
+     * @return the parameter type
+     */
+    @NotNull Class<? extends CommandCallData> getParameterType();
+
+    /**
+     * Gets the reflected {@link Method} for this code, if it was found through reflection.
+     *
+     * @return the method, or null if this invoker calls the code directly
+     */
+    default @Nullable Method getMethod() {
+        return null;
+    }
+
+    /**
+     * The body of a {@link CommandInvoker} that calls a method directly. Generated registries use a method reference,
+     * so the parameter type is checked by the compiler.
+     *
+     * @param <T> the type of {@link CommandCallData} the method accepts
+     */
+    @FunctionalInterface
+    interface Body<T extends CommandCallData> {
+        void invoke(@NotNull T data) throws Exception;
+    }
+
+    /**
+     * Creates a {@link CommandInvoker} that calls the given body directly.
+     *
+     * @param type the type of {@link CommandCallData} the body accepts
+     * @param body the code to run, usually a method reference
+     * @param <T>  the type of {@link CommandCallData}
+     * @return the new invoker
+     */
+    static <T extends CommandCallData> @NotNull CommandInvoker of(@NotNull Class<T> type, @NotNull Body<T> body) {
+        return new CommandInvoker() {
+            @Override
+            public void invoke(@NotNull CommandCallData data) throws Exception {
+                body.invoke(type.cast(data));
+            }
+
+            @Override
+            public @NotNull Class<? extends CommandCallData> getParameterType() {
+                return type;
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link CommandInvoker} that calls a public static method through reflection. This is used for code
+     * classes that don't have a generated {@link CommandMethodRegistry}.
+     *
+     * @param method the method, which must take a single {@link CommandCallData} parameter
+     * @return the new invoker
+     */
+    static @NotNull CommandInvoker of(@NotNull Method method) {
+        Class<? extends CommandCallData> type = method.getParameterTypes()[0].asSubclass(CommandCallData.class);
+
+        return new CommandInvoker() {
+            @Override
+            public void invoke(@NotNull CommandCallData data) throws Exception {
+                try {
+                    method.invoke(null, data);
+                } catch (InvocationTargetException e) {
+                    // Unwrap the exception so that it looks the same as one thrown by a direct call
+                    if (e.getCause() instanceof Exception)
+                        throw (Exception) e.getCause();
+                    if (e.getCause() instanceof Error)
+                        throw (Error) e.getCause();
+                    throw e;
+                }
+            }
+
+            @Override
+            public @NotNull Class<? extends CommandCallData> getParameterType() {
+                return type;
+            }
+
+            @Override
+            public @NotNull Method getMethod() {
+                return method;
+            }
+        };
+    }
+}
@@ -0,0 +1,258 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.commandsSystem.types.Command;
+import botUtils.tools.EmbedField;
+import botUtils.tools.MessageUtils;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.IntFunction;
+
+/**
+ * Every page of the command list for one {@link Registry}, rendered ahead of time as immutable {@link MessageEmbed
+ * MessageEmbeds}. Sending a page or flipping to another one is just an array lookup.
+ * <p><br>
+ * The pages are checked against Discord's embed limits while they are rendered. A page that would be rejected by
+ * Discord is shortened to fit, and a warning is printed explaining which setting or command to change.
+ * <p><br>
+ * When the commands change without a full rebuild (through {@link CommandManager#reload(java.util.Collection)} or
+ * {@link CommandManager#addCommand(Command)}, for example), {@link #update(CommandSet)} only renders the pages whose
+ * commands actually changed.
+ */
+final class CommandListPages implements PageFlipper.Pages {
+    /**
+     * The most fields Discord allows in a single embed.
+     */
+    static final int MAX_FIELDS = 25;
+
+    private final @NotNull String title;
+    private final @NotNull ManagerConfig config;
+    private final @NotNull CommandSet commandSet;
+    private final int commandsPerPage;
+    private final @NotNull MessageEmbed[] pages;
+
+    /**
+     * Whether to print warnings about pages that go over Discord's limits. They're only printed on a full build, so
+     * that the same warning isn't repeated every time a single command is added or removed.
+     */
+    private final boolean warn;
+
+    private CommandListPages(@NotNull String title, @NotNull CommandSet commandSet, @NotNull ManagerConfig config,
+                             @Nullable CommandListPages previous) {
+        this.title = title;
+        this.config = config;
+        this.commandSet = commandSet;
+        this.warn = previous == null;
+        this.commandsPerPage = Math.max(1, Math.min(config.getCommandsPerPage(), MAX_FIELDS));
+
+        int count = commandSet.getListEligibleCommands();
+        this.pages = new MessageEmbed[Math.max(1, (count + commandsPerPage - 1) / commandsPerPage)];
+
+        // The footer of every page includes the total, so pages can only be reused if the total is the same
+        boolean reuse = previous != null && previous.pages.length == pages.length;
+        int[] changes = reuse ? commandSet.getListChanges(previous.commandSet) : null;
+        boolean sameCount = reuse && count == previous.commandSet.getListEligibleCommands();
+        for (int page = 0; page < pages.length; page++) {
+            // Pages entirely outside the changed positions are known to be the same without comparing them
+            int from = page * commandsPerPage;
+            boolean unchanged = changes != null &&
+                    (from + commandsPerPage <= changes[0] || (sameCount && from >= changes[1]));
+            pages[page] = reuse && (unchanged || previous.isSamePage(commandSet, page)) ?
+                    previous.pages[page] : render(page);
+        }
+    }
+
+    /**
+     * Renders every page of the command list.
+     *
+     * @param title      the title of the command list (see {@link CommandManager#getCommandListTitle()})
+     * @param commandSet the commands
+     * @param config     the settings the manager was built with
+     * @return the pages
+     */
+    static @NotNull CommandListPages of(@NotNull String title, @NotNull CommandSet commandSet,
+                                        @NotNull ManagerConfig config) {
+        if (config.getCommandsPerPage() > MAX_FIELDS)
+            System.out.println("Warning: the command list for '" + title + "' is set to show " +
+                    config.getCommandsPerPage() + " commands per page, but Discord only allows " + MAX_FIELDS +
+                    " fields in an embed. Only " + MAX_FIELDS + " will be shown per page.");
+
+        return new CommandListPages(title, commandSet, config, null);
+    }
+
+    /**
+     * Creates the pages for a new set of commands with the same title and settings. Pages showing exactly the same
+     * commands as before are reused rather than rendered again. If the new commands were created from the old ones
+     * with {@link CommandSet#withChanges(java.util.Map, java.util.Map)}, only the pages around the changes are
+     * compared.
+     *
+     * @param commandSet the new commands
+     * @return the new pages, or these ones if the commands are the same
+     */
+    @NotNull CommandListPages update(@NotNull CommandSet commandSet) {
+        return commandSet == this.commandSet ? this : new CommandListPages(title, commandSet, config, this);
+    }
+
+    /**
+     * Checks whether a page would show the same commands for the given {@link CommandSet} as it does now.
+     *
+     * @param other the other commands
+     * @param page  the page, starting at 0
+     * @return true if the page has the same commands in the same order; false otherwise
+     */
+    private boolean isSamePage(@NotNull CommandSet other, int page) {
+        int from = page * commandsPerPage;
+        int to = Math.min(from + commandsPerPage, commandSet.getListEligibleCommands());
+        if (to != Math.min(from + commandsPerPage, other.getListEligibleCommands()))
+            return false;
+
+        for (int i = from; i < to; i++)
+            if (commandSet.getListCommand(i) != other.getListCommand(i))
+                return false;
+        return true;
+    }
+
+    /**
+     * Renders one page of the command list.
+     *
+     * @param page the page, starting at 0
+     * @return the finished page
+     */
+    private @NotNull MessageEmbed render(int page) {
+        int count = commandSet.getListEligibleCommands();
+        int from = page * commandsPerPage;
+        return render(count == 0 ? "There are no commands to list." : config.getCommandListDescription(),
+                commandSet::getListCommand, from, Math.min(from + commandsPerPage, count), page, pages.length,
+                "page " + (page + 1) + " of the command list for '" + title + "'", warn);
+    }
+
+    /**
+     * Renders a page listing some {@link Command Commands} with the title, colors and footer of the command list,
+     * shortening anything that goes over Discord's limits.
+     *
+     * @param description the description at the top of the page
+     * @param commands    the function giving the command at each position
+     * @param from        the position of the first command on the page
+     * @param to          the position after the last command on the page
+     * @param page        the page, starting at 0
+     * @param totalPages  the total number of pages, for the footer
+     * @param where       a description of the page for warnings
+     * @param warn        whether to print warnings about anything that was shortened
+     * @return the finished page
+     */
+    private @NotNull MessageEmbed render(@NotNull String description, @NotNull IntFunction<Command> commands,
+                                         int from, int to, int page, int totalPages, @NotNull String where,
+                                         boolean warn) {
+        description = fit(description, MessageEmbed.TEXT_MAX_LENGTH, "the description on " + where, warn);
+        String footer = fit("Page " + (page + 1) + " of " + totalPages +
+                        (config.getCommandListFooter() == null ? "" : " | " + config.getCommandListFooter()),
+                MessageEmbed.TEXT_MAX_LENGTH, "the footer on " + where, warn);
+        String pageTitle = fit(title, MessageEmbed.TITLE_MAX_LENGTH, "the title on " + where, warn);
+
+        String[] names = new String[to - from];
+        String[] values = new String[to - from];
+        int length = pageTitle.length() + description.length() + footer.length();
+        for (int i = 0; i < names.length; i++) {
+            Command command = commands.apply(from + i);
+            names[i] = fit(command.getName(), MessageEmbed.TITLE_MAX_LENGTH,
+                    "the name of '" + command.getName() + "' on " + where, warn);
+            values[i] = fit(command.getShortDescription(), MessageEmbed.VALUE_MAX_LENGTH,
+                    "the short description of '" + command.getName() + "' on " + where, warn);
+            length += names[i].length() + values[i].length();
+        }
+
+        // If the whole page is too long, share the remaining space evenly between the short descriptions
+        if (length > MessageEmbed.EMBED_MAX_LENGTH_BOT) {
+            if (warn)
+                System.out.println("Warning: " + where + " has " + length + " characters, but Discord only allows " +
+                        MessageEmbed.EMBED_MAX_LENGTH_BOT + ". Lower the commands per page or shorten the short " +
+                        "descriptions. The short descriptions on this page were shortened to fit.");
+
+            int space = MessageEmbed.EMBED_MAX_LENGTH_BOT - pageTitle.length() - description.length() -
+                    footer.length();
+            for (String name : names)
+                space -= name.length();
+            int each = Math.max(1, space / Math.max(1, values.length));
+            for (int i = 0; i < values.length; i++)
+                values[i] = shorten(values[i], each);
+        }
+
+        EmbedField[] fields = new EmbedField[names.length];
+        for (int i = 0; i < fields.length; i++)
+            fields[i] = EmbedField.of(names[i], values[i]);
+
+        return MessageUtils.makeEmbedBuilder(pageTitle, "", description, config.getCommandListColor(), footer,
+                config.getCommandListFooterImg(), fields).build();
+    }
+
+    /**
+     * Creates the pages showing the results of a search through the command list (see {@link
+     * Registry#searchCommands(String)}). They look just like the command list, with the same number of commands on
+     * each page. The pages are only rendered as they're shown, and nothing is printed if they go over Discord's
+     * limits, since that was already reported for the command list itself.
+     *
+     * @param query   the search, which is shown in the description
+     * @param results the matching commands, best match first
+     * @return the pages of results, which has a single page saying nothing matched if there are no results
+     */
+    @NotNull Paginator getSearchResults(@NotNull String query, @NotNull Command[] results) {
+        String shown = shorten(query.replace("`", ""), MessageEmbed.TITLE_MAX_LENGTH);
+        String description = results.length == 0 ?
+                "No commands match `" + shown + "`." : "Commands matching `" + shown + "`:";
+        int totalPages = Math.max(1, (results.length + commandsPerPage - 1) / commandsPerPage);
+
+        return Paginator.of(totalPages, page -> {
+            int from = (page - 1) * commandsPerPage;
+            return new EmbedBuilder(render(description, i -> results[i], from,
+                    Math.min(from + commandsPerPage, results.length), page - 1, totalPages,
+                    "page " + page + " of the search results for '" + title + "'", false));
+        });
+    }
+
+    /**
+     * Makes sure some text fits within one of Discord's embed limits, printing a warning if it doesn't.
+     *
+     * @param text the text
+     * @param max  the maximum number of characters
+     * @param what a description of the text for the warning
+     * @param warn whether to print the warning
+     * @return the text, shortened if it was too long
+     */
+    private static @NotNull String fit(@NotNull String text, int max, @NotNull String what, boolean warn) {
+        if (text.length() <= max)
+            return text;
+
+        if (warn)
+            System.out.println("Warning: " + what + " has " + text.length() + " characters, but Discord only allows " +
+                    max + ". It was shortened to fit.");
+        return shorten(text, max);
+    }
+
+    private static @NotNull String shorten(@NotNull String text, int max) {
+        return text.length() <= max ? text : text.substring(0, Math.max(0, max - 3)) + "...";
+    }
+
+    /**
+     * Gets the number of pages in the command list. There is always at least one page, even if there are no commands.
+     *
+     * @return the number of pages
+     */
+    @Override
+    public int getTotalPages() {
+        return pages.length;
+    }
+
+    /**
+     * Gets a page of the command list. Page numbers out of range wrap around, so the page before the first one is the
+     * last one, and the page after the last one is the first one.
+     *
+     * @param page the page number, starting at 1
+     * @return the page
+     */
+    @Override
+    public @NotNull MessageEmbed getPage(int page) {
+        return pages[page < 1 ? pages.length - 1 : page > pages.length ? 0 : page - 1];
+    }
+}
@@ -1,8 +1,13 @@
 package botUtils.commandsSystem.manager;
 
+import botUtils.commandsSystem.builder.CommandBuilder;
+import botUtils.commandsSystem.json.CommandPackReader;
+import botUtils.commandsSystem.json.InternPool;
 import botUtils.commandsSystem.json.JsonParser;
+import botUtils.commandsSystem.json.JsonStreamReader;
 import botUtils.commandsSystem.types.Command;
 import botUtils.commandsSystem.types.CommandCallData;
+import botUtils.commandsSystem.types.LazyCommand;
 import botUtils.commandsSystem.types.function.Function;
 import botUtils.exceptions.JsonParseException;
 import botUtils.exceptions.ManagerBuildException;
@@ -11,13 +16,13 @@ import botUtils.exceptions.DuplicateMethodsException;
 import botUtils.tools.*;
 import botUtils.commandsSystem.types.callResponse.CallResponse;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
-import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageChannel;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.events.Event;
 import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
 import net.dv8tion.jda.api.events.message.guild.react.GuildMessageReactionAddEvent;
@@ -27,14 +32,28 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.FileReader;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class CommandManager {
-    private final File folder;
+    /**
+     * This is the root folder containing all the Json files for this {@link CommandManager}. It may be in any {@link
+     * FileSystem}, so for example it could be a folder inside a jar file that is read without being extracted.
+     * <p><br>
+     * Instead of a folder, this can also be a single command pack file (see {@link CommandPackReader}).
+     */
+    private final Path folder;
     /**
      * This is the name of the {@link CommandManager}. It is shown to the user when they request the command list.
      * <p><br>
@@ -50,10 +69,54 @@ public class CommandManager {
     private final JDA jda;
 
     /**
-     * This is a list of all the {@link Command} instances created from Json files when building the {@link
-     * CommandManager}.
+     * If this {@link CommandManager} shares the command definitions of another manager, this is that manager. Instead
+     * of reading any Json, this manager uses the same {@link CommandSet} as the other one, along with its own methods
+     * and {@link ManagerConfig}. See {@link #of(JDA, CommandManager, String)}.
+     */
+    private final @Nullable CommandManager definitions;
+
+    /**
+     * The built managers that share the command definitions of this one. Whenever this manager's commands change, their
+     * {@link Registry Registries} are updated to use the new {@link CommandSet}. A manager joins this list when it is
+     * built and leaves it when it is {@link #unbuild() unbuilt}, so discarded managers aren't kept alive.
+     */
+    private final List<CommandManager> sharingManagers = new CopyOnWriteArrayList<>();
+
+    /**
+     * This is the {@link Registry} with all the state used to dispatch events: the {@link Command} instances created
+     * from Json files, the index used to find them, the methods they call, and the {@link ManagerConfig} they were
+     * built with. It is null whenever this {@link CommandManager} is not built.
+     * <p><br>
+     * A {@link Registry} is never modified. Whenever the commands change (during a build or a {@link
+     * #reload(Collection)}), a new one is published in its place. That way, events that are being dispatched on other
+     * threads always see either the complete old state or the complete new state, without needing any locks.
      */
-    private final ArrayList<Command> commands = new ArrayList<>();
+    private volatile @Nullable Registry registry;
+
+    /**
+     * This is the {@link BuildReport} from the most recent {@link #build()}, showing where the time went. It is null
+     * until this {@link CommandManager} is built for the first time, and it is kept after {@link #unbuild()}.
+     */
+    private volatile @Nullable BuildReport buildReport;
+
+    /**
+     * The {@link InternPool} that deduplicates the values read from the command Json files, if {@link
+     * ManagerConfig#doPoolValues()} is enabled. It is kept while this {@link CommandManager} is built, so that commands
+     * that are reloaded or lazily read later share values with the ones loaded during the build.
+     */
+    private volatile @Nullable InternPool internPool;
+
+    /**
+     * This lock is held while building or reloading this {@link CommandManager}, so that only one new {@link
+     * Registry} is being assembled at a time. It is never needed to read the current {@link #registry}.
+     */
+    private final Object buildLock = new Object();
+
+    /**
+     * This is the {@link CommandWatcher} that is currently watching the {@link #folder} for changes, or null if the
+     * folder is not being watched. See {@link #watch(long)}.
+     */
+    private @Nullable CommandWatcher watcher;
 
     /**
      * These are the classes that contain code that a {@link Function} instance can call, as specified in the Json.
@@ -61,79 +124,74 @@ public class CommandManager {
     private final List<Class<?>> commandCodeClasses = new ArrayList<>();
 
     /**
-     * This is a list of types of {@link Command} subtypes that can be used by Json files. They must be hardcoded before
-     * building as classes that extend {@link Command}. Currently, the two default options are {@link CallResponse} and
-     * {@link Function}.
+     * This is the {@link CommandTypeFactory} for each type of {@link Command} that can be used by Json files, keyed by
+     * the value of the "type" key in the Json. It starts with every factory found through {@link ServiceLoader}, which
+     * includes the two default options {@link CallResponse} and {@link Function}. More can be added with {@link
+     * #addCommandType(String, CommandTypeFactory.Creator)}.
      */
-    private final Map<String, Class<? extends Command>> commandTypes = new HashMap<>();
+    private final Map<String, CommandTypeFactory> commandTypes = new HashMap<>();
 
     /**
-     * These are all the methods found in the classes in {@link #commandCodeClasses} that are eligible for {@link
-     * Function} use.
+     * This supplies every {@link Command} added in code with {@link #register(CommandBuilder)} or {@link
+     * #addCommand(Command)}, keyed by the lowercase command name. It is kept so that the registered commands are
+     * included every time this {@link CommandManager} is built. Commands from builders are created again from their
+     * Json, and commands added directly are reused as they are. It is only modified while holding the {@link
+     * #buildLock}.
      */
-    private final Map<String, Method> commandCodeMethods = new HashMap<>();
+    private final Map<String, Callable<Command>> registeredSources = new LinkedHashMap<>();
 
     /**
-     * This is a cache of messages the bot sent in Discord that contain a list of commands for this {@link
-     * CommandManager}. When a user reacts with emojis to change the page and see more commands, having this message
-     * cached is very helpful because it improves the bot's reaction time by not requiring it to retrieve the message
-     * from Discord to check to see if it's a command lis or not.
+     * This remembers the messages the bot sent in Discord that contain a list of commands for this {@link
+     * CommandManager} or the pages of a {@link Paginator}, along with the page each one shows. When a user reacts with
+     * emojis to change the page and see more commands, having the message remembered is very helpful because it
+     * improves the bot's reaction time by not requiring it to retrieve the message from Discord to check to see if it's
+     * a command list or not.
+     * <p><br>
+     * The store is bounded and forgets messages after a while, so it doesn't grow for as long as the bot runs. The
+     * messages are remembered across builds, so command lists sent before a reload keep working. If the {@link
+     * ManagerConfig#getCommandListCacheSize() size}, {@link ManagerConfig#getCommandListCacheSeconds() time to live} or
+     * {@link ManagerConfig#getCommandListStateFile() state file} changes, the store is replaced on the next {@link
+     * #build()} and the messages are moved to the new one. With a state file, they're also remembered across restarts.
      */
-    private final Map<Long, Message> commandListMessageCache = new HashMap<>();
+    private volatile @NotNull PageStateStore commandListStore = updateCommandListStore(null, ManagerConfig.of());
 
     /**
-     * This is updated every time the {@link CommandManager} is built. It stores the number of commands attached to this
-     * manager that are eligible for inclusion in the commands list. This is used to determine how many pages are
-     * necessary to list all the commands.
-     * <p><br>
-     * A {@link Command} is determined to be list eligible based on {@link Command#doIncludeInCommandsList()}.
+     * This combines rapid clicks on the arrows of command list messages into as few edits as possible. See {@link
+     * PageFlipper}.
      */
-    private int listEligibleCommands;
-    // TODO actually set these values when building
+    private final PageFlipper pageFlipper = PageFlipper.of();
 
     /**
-     * Just like {@link #listEligibleCommands}, this is updated every time the {@link CommandManager} is built. It
-     * stores the number of pages required to print all the commands in this manager, given {@link
-     * ManagerConfig#getCommandsPerPage()}.
-     * <p>
-     * Only list eligible commands are included in the count for the commands list. A {@link Command} is determined to
-     * be list eligible based on {@link Command#doIncludeInCommandsList()}.
+     * This drops duplicate replies and throttles the errors sent in each channel, according to the settings in {@link
+     * ManagerConfig#getDuplicateErrorWindow()}, {@link ManagerConfig#getDuplicateMessageWindow()} and {@link
+     * ManagerConfig#getErrorLimit()}. See {@link ReplyLimiter}.
      */
-    private int totalCommandListPages;
+    private final ReplyLimiter replyLimiter = ReplyLimiter.of();
 
     /**
      * This is the {@link ManagerConfig} configuration class that contains all the settings for this {@link
      * CommandManager}. If you would like to change the settings for this manager, use this configuration. Unlike the
-     * {@link #builtConfig}, this configuration does not necessarily reflect the current configuration of the {@link
-     * CommandManager}. To update the current configuration to this one, run {@link #build()}.
+     * {@link Registry#getConfig() built config}, this configuration does not necessarily reflect the current
+     * configuration of the {@link CommandManager}. To update the current configuration to this one, run {@link
+     * #build()}.
      */
     private @NotNull ManagerConfig workingConfig = ManagerConfig.of();
 
     /**
      * This is the list of all the Json files found in the {@link #folder} given to this {@link CommandManager}. It is
-     * set when calling {@link #setJsonFiles(File)} in {@link #rawBuild()}.
+     * set when calling {@link #setJsonFiles(Path)} in {@link #rawBuild()}.
      */
     private @NotNull
-    final ArrayList<File> jsonFiles = new ArrayList<>();
-
-    /**
-     * This is a saved non-modifiable version of the {@link ManagerConfig} used by this {@link CommandManager}. It
-     * should never be modified with setter methods, and should only be used for the purpose of retrieving existing
-     * settings. This configuration instance is only modified with {@link #build()} is called. If you would like to make
-     * changes to the configuration for this {@link CommandManager}, retrieve {@link #workingConfig}.
-     */
-    private ManagerConfig builtConfig;
-
-    private boolean built = false;
+    final ArrayList<Path> jsonFiles = new ArrayList<>();
 
     /**
      * @param jda       the {@link JDABuilder} for the bot
      * @param directory the directory to scan for json files
      * @param name      the name of the manager (shown to user when they request a commands list)
      * @param prefixes  the prefixes recognized by this manager
-     * @throws IllegalArgumentException if the given file is null or not a directory
+     * @throws IllegalArgumentException if the given path is null or not a directory
      */
-    private CommandManager(@NotNull JDA jda, @NotNull File directory, @NotNull String name, @NotNull String[] prefixes) {
+    private CommandManager(@NotNull JDA jda, @NotNull Path directory, @NotNull String name, @NotNull String[] prefixes) {
         this(jda, directory, name);
         getConfig().setPrefixes(prefixes);
     }
@@ -142,17 +200,39 @@ public class CommandManager {
      * @param jda       the {@link JDABuilder} for the bot
      * @param directory the directory to scan for json files
      * @param name      the name of the manager (shown to user when they request a commands list)
-     * @throws IllegalArgumentException if the given file is null or not a directory
+     * @throws IllegalArgumentException if the given path is null or not a directory or command pack
      */
-    private CommandManager(@NotNull JDA jda, @NotNull File directory, @NotNull String name) {
-        Checks.fileIsDirectory(directory);
+    private CommandManager(@NotNull JDA jda, @NotNull Path directory, @NotNull String name) {
+        if (!Checks.pathIsCommandPackBool(directory) || !Files.isRegularFile(directory))
+            Checks.pathIsDirectory(directory);
         this.jda = jda;
         this.folder = directory;
         this.name = name;
+        this.definitions = null;
+
+        // All the command types provided by this library and any others on the classpath
+        for (CommandTypeFactory factory : ServiceLoader.load(CommandTypeFactory.class))
+            commandTypes.put(factory.getType(), factory);
+
+        // The service file can be lost when a bot is shaded into one jar, but the builtin types must always exist
+        commandTypes.putIfAbsent("Function", new Function.Factory());
+        commandTypes.putIfAbsent("CallResponse", new CallResponse.Factory());
+    }
+
+    /**
+     * @param jda         the {@link JDABuilder} for the bot
+     * @param definitions the manager whose command definitions are shared
+     * @param name        the name of the manager (shown to user when they request a commands list)
+     */
+    private CommandManager(@NotNull JDA jda, @NotNull CommandManager definitions, @NotNull String name) {
+        // Always share with the manager that actually reads the Json
+        while (definitions.definitions != null)
+            definitions = definitions.definitions;
 
-        // All the builtin in library classes that extend Command
-        commandTypes.put("Function", Function.class);
-        commandTypes.put("CallResponse", CallResponse.class);
+        this.jda = jda;
+        this.folder = definitions.folder;
+        this.name = name;
+        this.definitions = definitions;
     }
 
     /**
@@ -167,7 +247,8 @@ public class CommandManager {
      */
     public static CommandManager of(
             @NotNull JDA jda, @NotNull File directory, @NotNull String name, @NotNull String[] prefixes) {
-        return new CommandManager(jda, directory, name, prefixes);
+        Checks.fileIsDirectory(directory);
+        return new CommandManager(jda, directory.toPath(), name, prefixes);
     }
 
     /**
@@ -180,9 +261,110 @@ public class CommandManager {
      * @throws IllegalArgumentException if the given {@link File} is null or not a directory
      */
     public static CommandManager of(@NotNull JDA jda, @NotNull File directory, @NotNull String name) {
+        Checks.fileIsDirectory(directory);
+        return new CommandManager(jda, directory.toPath(), name);
+    }
+
+    /**
+     * Same as {@link #of(JDA, File, String, String[])}, except that the folder is given as a {@link Path}. The path
+     * can belong to any {@link FileSystem}, so commands can be read straight out of a zip or jar file opened with
+     * {@link FileSystems#newFileSystem(Path, ClassLoader)}.
+     * <p><br>
+     * The path may also be a single command pack file rather than a folder. See {@link CommandPackReader}.
+     *
+     * @param jda       the {@link JDA} instance for this bot
+     * @param directory the folder or command pack with all the commands to import
+     * @param name      the {@link #name} of the {@link CommandManager}
+     * @param prefixes  a list of the prefixes this manager should accept
+     * @throws IllegalArgumentException if the given {@link Path} is null or not a directory or command pack
+     */
+    public static CommandManager of(
+            @NotNull JDA jda, @NotNull Path directory, @NotNull String name, @NotNull String[] prefixes) {
+        return new CommandManager(jda, directory, name, prefixes);
+    }
+
+    /**
+     * Same as {@link #of(JDA, File, String)}, except that the folder is given as a {@link Path}. The path can belong
+     * to any {@link FileSystem}, so commands can be read straight out of a zip or jar file opened with {@link
+     * FileSystems#newFileSystem(Path, ClassLoader)}.
+     *
+     * @param jda       the {@link JDA} instance for this bot
+     * @param directory the folder or command pack with all the commands to import
+     * @param name      the {@link #name} of the {@link CommandManager}
+     * @throws IllegalArgumentException if the given {@link Path} is null or not a directory or command pack
+     */
+    public static CommandManager of(@NotNull JDA jda, @NotNull Path directory, @NotNull String name) {
         return new CommandManager(jda, directory, name);
     }
 
+    /**
+     * Create a new {@link CommandManager} that shares the {@link Command} definitions of another manager, rather than
+     * reading the Json files again. This is useful when running many bots from the same commands in a single JVM, as
+     * every command, argument, syntax, and response is only loaded once.
+     * <p><br>
+     * The new manager has its own {@link ManagerConfig} (including its prefixes and colors), its own command code
+     * classes, and its own name. Anything that depends on those is applied when a command is run, so the same {@link
+     * Command} can appear differently in each manager.
+     * <p><br>
+     * The other manager must be built before this one is. After that, whenever the other manager is rebuilt or
+     * reloaded, this one starts using the new commands automatically, until it is {@link #unbuild() unbuilt}.
+     * Reloading this manager reloads the other one. Settings that control how the Json is loaded, such as {@link
+     * ManagerConfig#isLazyCommands()} and the command cache, are taken from the other manager.
+     *
+     * @param jda         the {@link JDA} instance for this bot
+     * @param definitions the manager that loads the command definitions
+     * @param name        the {@link #name} of the {@link CommandManager}
+     * @param prefixes    a list of the prefixes this manager should accept
+     */
+    public static CommandManager of(@NotNull JDA jda, @NotNull CommandManager definitions, @NotNull String name,
+                                    @NotNull String[] prefixes) {
+        CommandManager manager = new CommandManager(jda, definitions, name);
+        manager.getConfig().setPrefixes(prefixes);
+        return manager;
+    }
+
+    /**
+     * Same as {@link #of(JDA, CommandManager, String, String[])}, but without setting any prefixes.
+     *
+     * @param jda         the {@link JDA} instance for this bot
+     * @param definitions the manager that loads the command definitions
+     * @param name        the {@link #name} of the {@link CommandManager}
+     */
+    public static CommandManager of(@NotNull JDA jda, @NotNull CommandManager definitions, @NotNull String name) {
+        return new CommandManager(jda, definitions, name);
+    }
+
+    /**
+     * Create a new {@link CommandManager} that reads its Json files from a folder on the classpath, as found by {@link
+     * ClassLoader#getResource(String)}. If the folder is inside a jar (as it is when the bot is packaged), the files
+     * are read from the jar directly without extracting them. See {@link CommandUtils#getResourcePath(String)}.
+     *
+     * @param jda      the {@link JDA} instance for this bot
+     * @param resource the classpath resource name of the folder, such as {@code "commands"}
+     * @param name     the {@link #name} of the {@link CommandManager}
+     * @param prefixes a list of the prefixes this manager should accept
+     * @throws IllegalArgumentException if the resource doesn't exist or is not a directory
+     * @throws IOException              if the jar containing the resource could not be opened
+     */
+    public static CommandManager ofResource(@NotNull JDA jda, @NotNull String resource, @NotNull String name,
+                                            @NotNull String[] prefixes) throws IOException {
+        return new CommandManager(jda, CommandUtils.getResourcePath(resource), name, prefixes);
+    }
+
+    /**
+     * Same as {@link #ofResource(JDA, String, String, String[])}, but without setting any prefixes.
+     *
+     * @param jda      the {@link JDA} instance for this bot
+     * @param resource the classpath resource name of the folder, such as {@code "commands"}
+     * @param name     the {@link #name} of the {@link CommandManager}
+     * @throws IllegalArgumentException if the resource doesn't exist or is not a directory
+     * @throws IOException              if the jar containing the resource could not be opened
+     */
+    public static CommandManager ofResource(@NotNull JDA jda, @NotNull String resource, @NotNull String name)
+            throws IOException {
+        return new CommandManager(jda, CommandUtils.getResourcePath(resource), name);
+    }
+
     /**
      * Get the {@link ManagerConfig} configuration class where you can change all the settings for this {@link
      * CommandManager}. Unless you specified a set of prefixes while creating this {@link CommandManager}, the {@link
@@ -195,8 +377,8 @@ public class CommandManager {
     }
 
     /**
-     * Gets either the {@link #builtConfig} if the bot has been built or the {@link #workingConfig} if it hasn't been
-     * built yet.
+     * Gets either the {@link ManagerConfig} from the current {@link Registry} if the bot has been built or the {@link
+     * #workingConfig} if it hasn't been built yet.
      * <p><br>
      * <b>WARNING: Only use this method if you need the currently active {@link ManagerConfig} instance.</b>
      * You should almost certainly be using {@link #getConfigManager()} instead of this method. Only use this if you
@@ -208,7 +390,8 @@ public class CommandManager {
      */
     @NotNull
     public ManagerConfig getConfig() {
-        return built ? builtConfig : workingConfig;
+        Registry registry = this.registry;
+        return registry != null ? registry.getConfig() : workingConfig;
     }
 
     /**
@@ -244,26 +427,54 @@ public class CommandManager {
     }
 
     /**
-     * Get a method that has code for a {@link Command} based on its name (which should be the name of the command
-     * itself). This is simply grabbing a method from the {@link #commandCodeMethods} {@link HashMap}, which was defined
-     * through {@link #build()}. It contains methods extracted from classes added to this {@link CommandManager} with
+     * Get the {@link CommandInvoker} that runs the code for a {@link Command} based on its name (which should be the
+     * name of the command itself). This is simply grabbing an invoker from the current {@link Registry}, which was
+     * defined through {@link #build()}. It contains the methods from classes added to this {@link CommandManager} with
      * {@link #addCommandCodeClass}.
      *
      * @param name the name of the method
-     * @return the method with a matching name, or null if no matching method was found
+     * @return the invoker with a matching name, or null if no matching method was found
+     */
+    public @Nullable CommandInvoker getCommandInvoker(@NotNull String name) {
+        Registry registry = this.registry;
+        return registry == null ? null : registry.getMethod(name);
+    }
+
+    /**
+     * Convenience method that calls {@link #getCommandInvoker(String)} based on the method name of the given {@link
+     * Command}.
+     *
+     * @param command the command to look for
+     * @return the invoker with a matching name, or null if no matching method was found
+     */
+    public @Nullable CommandInvoker getCommandInvoker(@NotNull Command command) {
+        return getCommandInvoker(command.getMethodName());
+    }
+
+    /**
+     * Get a method that has code for a {@link Command} based on its name. This only works for methods that were found
+     * through reflection. Methods from a generated {@link CommandMethodRegistry} are called directly and have no
+     * {@link Method}.
+     *
+     * @param name the name of the method
+     * @return the method with a matching name, or null if no matching reflected method was found
+     * @deprecated use {@link #getCommandInvoker(String)}, which works for every method
      */
+    @Deprecated
     public @Nullable Method getCommandCodeMethod(@NotNull String name) {
-        return commandCodeMethods.get(name);
+        CommandInvoker invoker = getCommandInvoker(name);
+        return invoker == null ? null : invoker.getMethod();
     }
 
     /**
-     * Convenience method that called {@link #getCommandCodeMethod(String)} based on the name of the given {@link
-     * Command} (converted to lowercase). This simply finds a method that was given to this {@link CommandManager} that
-     * has the same name as the specified command.
+     * Convenience method that calls {@link #getCommandCodeMethod(String)} based on the method name of the given
+     * {@link Command}.
      *
      * @param command the command to look for
-     * @return the method with a matching name, or null if no matching method was found
+     * @return the method with a matching name, or null if no matching reflected method was found
+     * @deprecated use {@link #getCommandInvoker(Command)}, which works for every method
      */
+    @Deprecated
     public @Nullable Method getCommandCodeMethod(@NotNull Command command) {
         return getCommandCodeMethod(command.getMethodName());
     }
@@ -293,22 +504,91 @@ public class CommandManager {
     /**
      * Get the list of {@link Command} objects imported from Json files that are in this {@link CommandManager}. This
      * will not work if the manager has not yet been built with {@link #build()}.
+     * <p><br>
+     * The returned list is unmodifiable, and it is a consistent snapshot. If the commands are reloaded while you are
+     * iterating over it, the list you have is unaffected.
      *
      * @return the list of commands.
      * @throws IllegalStateException if the {@link CommandManager} is not yet built
      */
-    public @NotNull ArrayList<Command> getCommands() {
-        Checks.commandManagerBuildState(this, true);
-        return commands;
+    public @NotNull List<Command> getCommands() {
+        return getRegistry().getCommands();
+    }
+
+    /**
+     * Gets the current {@link Registry} for this {@link CommandManager}. This is an immutable snapshot of everything
+     * used to dispatch events. When handling an event, retrieve it once and use it for the whole event, so that a
+     * reload happening at the same time can't mix old and new state.
+     *
+     * @return the current registry
+     * @throws IllegalStateException if the {@link CommandManager} is not yet built
+     */
+    public @NotNull Registry getRegistry() {
+        Registry registry = this.registry;
+        if (registry == null)
+            throw new IllegalStateException("CommandManager must be built.");
+        return registry;
+    }
+
+    /**
+     * Gets the {@link BuildReport} from the most recent {@link #build()}, which shows how long each phase of the build
+     * took and how long each Json file took to load. To have the slowest files printed after every build, see {@link
+     * ManagerConfig#setSlowestFilesToLog(int)}.
+     *
+     * @return the most recent build report, or null if this {@link CommandManager} has never been built
+     */
+    public @Nullable BuildReport getBuildReport() {
+        return buildReport;
+    }
+
+    /**
+     * Returns the {@link #commandListStore}, which remembers the command list messages sent by this {@link
+     * CommandManager}. Its counters show how often page changes were served without retrieving the message from
+     * Discord.
+     *
+     * @return the store of command list messages
+     */
+    public @NotNull PageStateStore getCommandListStore() {
+        return commandListStore;
     }
 
     /**
-     * Returns the {@link #commandListMessageCache}.
+     * Returns the {@link #pageFlipper}.
      *
-     * @return the cache of command list messages
+     * @return the page flipper for command lists
      */
-    @NotNull Map<Long, Message> getCommandListMessageCache() {
-        return commandListMessageCache;
+    @NotNull PageFlipper getPageFlipper() {
+        return pageFlipper;
+    }
+
+    /**
+     * Returns the {@link #replyLimiter}. Its counters show how many replies were dropped as duplicates or because a
+     * channel reached the error limit.
+     *
+     * @return the reply limiter
+     */
+    public @NotNull ReplyLimiter getReplyLimiter() {
+        return replyLimiter;
+    }
+
+    /**
+     * Gets a {@link PageStateStore} for command list messages using the given settings. If there is a {@link
+     * ManagerConfig#getCommandListStateFile() state file}, the messages saved in it are remembered again.
+     *
+     * @param store  the current store, or null to create a new one
+     * @param config the settings
+     * @return the given store if its settings haven't changed, or otherwise a new store with the same messages (see
+     * {@link PageStateStore#withSettings(int, long, File)})
+     */
+    private static @NotNull PageStateStore updateCommandListStore(@Nullable PageStateStore store,
+                                                                  @NotNull ManagerConfig config) {
+        int size = Math.max(1, config.getCommandListCacheSize());
+        long ttl = Math.max(1, config.getCommandListCacheSeconds()) * 1000L;
+        File file = config.getCommandListStateFile();
+
+        if (store != null)
+            return store.withSettings(size, ttl, file);
+        return file == null ? PageStateStore.of(size, ttl) : PageStateStore.open(size, ttl, file);
     }
 
     /**
@@ -337,6 +617,9 @@ public class CommandManager {
      * identified. Whenever a user requests a command, the bot will run the method with the same name as the requested
      * command (as defined by the "name" key in the Json). The input types of the method must be the same as required by
      * the Command subclass it uses.
+     * <p><br>
+     * If the class has methods annotated with {@link CommandMethod} and was compiled with the annotation processor,
+     * its generated {@link CommandMethodRegistry} is used and the class is never scanned with reflection.
      *
      * @return this {@link CommandManager} instance for chaining
      */
@@ -372,12 +655,40 @@ public class CommandManager {
      * name. This class must extend the Command class and not be null. Do not add the Function or CallResponse classes
      * as they are included by default. This will take effect the next time the CommandManager is built with {@link
      * #build()}.
+     * <p><br>
+     * The class's constructor is called with reflection. Prefer {@link #addCommandType(String,
+     * CommandTypeFactory.Creator)}, which calls it directly.
      *
      * @param command the Command subclass to add
      * @return this {@link CommandManager} instance for chaining
      */
     public CommandManager addCommandType(Class<? extends Command> command) {
-        commandTypes.put(command.getName(), command);
+        return addCommandType(CommandTypeFactory.of(command));
+    }
+
+    /**
+     * Add a type of {@link Command} that is created by the given code when a Json file has a "type" argument that
+     * matches the given type name. This is usually a constructor reference, as in {@code addCommandType("Dice",
+     * Dice::new)}. This will take effect the next time the CommandManager is built with {@link #build()}.
+     *
+     * @param type    the value of the "type" key for this kind of command (case sensitive)
+     * @param creator the code that creates the command from Json
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public CommandManager addCommandType(@NotNull String type, @NotNull CommandTypeFactory.Creator creator) {
+        return addCommandType(CommandTypeFactory.of(type, creator));
+    }
+
+    /**
+     * Add a {@link CommandTypeFactory} for a type of {@link Command}. If there was already a factory with the same
+     * type name, it is replaced. This will take effect the next time the CommandManager is built with {@link
+     * #build()}.
+     *
+     * @param factory the factory to add
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public CommandManager addCommandType(@NotNull CommandTypeFactory factory) {
+        commandTypes.put(factory.getType(), factory);
         return this;
     }
 
@@ -404,20 +715,57 @@ public class CommandManager {
     }
 
     /**
-     * Gets all the methods from each of the commandCodeClasses and puts it in the methods {@link HashMap}. The methods
-     * map is cleared beforehand to ensure that doubly building the CommandManager will not add double the methods. Note
-     * that method names are not case sensitive. They are converted to lowercase for matching.
+     * Gets all the methods from each of the commandCodeClasses and puts invokers for them in a new {@link HashMap} for
+     * the next {@link Registry}. Note that method names are not case sensitive. They are converted to lowercase for
+     * matching.
+     * <p><br>
+     * Classes with a generated {@link CommandMethodRegistry} (found through {@link ServiceLoader}) use that registry.
+     * Registries that can't be loaded are skipped with a warning. All other classes are scanned with reflection, where
+     * every public static method taking a {@link CommandCallData} is included. These methods are named by their {@link
+     * CommandMethod} annotation if they have one.
+     *
+     * @return the invokers keyed by their lowercase names
+     * @throws DuplicateMethodsException if multiple methods have the same name
      */
-    private void setCodeMethods() throws DuplicateMethodsException {
-        commandCodeMethods.clear();
-        for (Class<?> c : commandCodeClasses)
-            for (Method m : c.getDeclaredMethods())
-                if (isMethodStatic(m) && isMethodParamCorrect(m))
-                    if (commandCodeMethods.containsKey(m.getName()))
-                        throw new DuplicateMethodsException(
-                                "More than one command method with same name: " + m.getName());
-                    else
-                        commandCodeMethods.put(m.getName().toLowerCase(Locale.ROOT), m);
+    private @NotNull Map<String, CommandInvoker> getCodeMethods() throws DuplicateMethodsException {
+        Map<Class<?>, CommandMethodRegistry> generated = new HashMap<>();
+        Iterator<CommandMethodRegistry> registries = ServiceLoader.load(CommandMethodRegistry.class).iterator();
+        while (true)
+            try {
+                if (!registries.hasNext())
+                    break;
+                CommandMethodRegistry r = registries.next();
+                generated.put(r.getDeclaringClass(), r);
+            } catch (ServiceConfigurationError e) {
+                // A stale entry in META-INF/services, such as a registry for a class that was deleted
+                System.out.println("Warning: skipping a command method registry that could not be loaded. The " +
+                        "methods it was generated for are found with reflection instead: " + e.getMessage());
+            }
+
+        Map<String, CommandInvoker> methods = new HashMap<>();
+        for (Class<?> c : commandCodeClasses) {
+            Map<String, CommandInvoker> classMethods = new HashMap<>();
+            CommandMethodRegistry r = generated.get(c);
+
+            if (r != null)
+                r.register(classMethods);
+            else
+                for (Method m : c.getDeclaredMethods())
+                    if (isMethodStatic(m) && isMethodParamCorrect(m)) {
+                        CommandMethod annotation = m.getAnnotation(CommandMethod.class);
+                        String name = annotation == null || annotation.value().isEmpty() ?
+                                m.getName() : annotation.value();
+                        if (classMethods.put(name.toLowerCase(Locale.ROOT), CommandInvoker.of(m)) != null)
+                            throw new DuplicateMethodsException(
+                                    "More than one command method with same name: " + name);
+                    }
+
+            for (Map.Entry<String, CommandInvoker> entry : classMethods.entrySet())
+                if (methods.put(entry.getKey(), entry.getValue()) != null)
+                    throw new DuplicateMethodsException(
+                            "More than one command method with same name: " + entry.getKey());
+        }
+        return methods;
     }
 
     /**
@@ -447,19 +795,17 @@ public class CommandManager {
     }
 
     /**
-     * Grabs all the Json files in the given root folder and adds them to {@link #jsonFiles}. This method runs
-     * recursively on all sub folders as well.
+     * Grabs all the Json files and command packs in the given root folder and adds them to {@link #jsonFiles}. All sub
+     * folders are searched as well. This works the same way for folders on disk and folders inside a jar. If the root
+     * is a command pack itself, it is the only file added.
      *
      * @param root the root folder to begin searching from
+     * @throws IOException if the folder could not be read
      */
-    private void setJsonFiles(@NotNull File root) {
-        File[] files = root.listFiles();
-
-        for (File file : files)
-            if (file.isDirectory())
-                setJsonFiles(file);
-            else if (Checks.fileIsJsonBool(file))
-                jsonFiles.add(file);
+    private void setJsonFiles(@NotNull Path root) throws IOException {
+        try (Stream<Path> stream = Files.walk(root)) {
+            stream.filter(Files::isRegularFile).filter(Checks::pathIsCommandFileBool).forEach(jsonFiles::add);
+        }
     }
 
     /**
@@ -481,7 +827,7 @@ public class CommandManager {
     public CommandManager build() throws ManagerBuildException {
         try {
             return rawBuild();
-        } catch (IllegalStateException | CloneNotSupportedException | DuplicateMethodsException e) {
+        } catch (IllegalStateException | CloneNotSupportedException | DuplicateMethodsException | IOException e) {
             throw new ManagerBuildException(e);
         }
     }
@@ -495,68 +841,830 @@ public class CommandManager {
      * @throws DuplicateMethodsException  if multiple methods in classes added through {@link #addCommandCodeClass} have
      *                                    the same name
      * @throws CloneNotSupportedException if there is an error cloning the {@link ManagerConfig} config instance
+     * @throws IOException                if the folder could not be searched for Json files
      */
-    private CommandManager rawBuild() throws CloneNotSupportedException, DuplicateMethodsException {
-        Checks.commandManagerBuildState(this, false);
-        System.out.println("Building CommandManager from folder '" + folder.getPath() + "'...");
+    private CommandManager rawBuild() throws CloneNotSupportedException, DuplicateMethodsException, IOException {
+        synchronized (buildLock) {
+            Checks.commandManagerBuildState(this, false);
+            System.out.println(definitions == null ? "Building CommandManager from folder '" + folder + "'..." :
+                    "Building CommandManager '" + name + "' from the commands in '" + definitions.getName() + "'...");
+
+            // TODO check to see if there are duplicate aliases or typo aliases across all commands
+            ManagerConfig config = getConfig().clone();
+            BuildReport report = new BuildReport(name);
+
+            // Keep the command list messages, and only replace the store if its settings changed
+            commandListStore = updateCommandListStore(commandListStore, config);
+
+            // Get a list of all the Methods that are eligible to be called by Commands
+            long phase = System.nanoTime();
+            Map<String, CommandInvoker> methods = getCodeMethods();
+            report.recordPhase(BuildReport.Phase.METHOD_DISCOVERY, phase);
+
+            // A manager sharing the definitions of another one doesn't read any Json. It just uses the same commands.
+            if (definitions != null) {
+                Registry shared = definitions.registry;
+                if (shared == null)
+                    throw new IllegalStateException("'" + definitions.getName() + "' must be built before the " +
+                            "managers that share its commands.");
+
+                phase = System.nanoTime();
+                registry = Registry.of(name + " " + config.getCommandListTitle(), shared.getCommandSet(), methods,
+                        config);
+                definitions.sharingManagers.add(this);
+                report.recordPhase(BuildReport.Phase.REGISTRY, phase);
+
+                buildReport = report.finish();
+                System.out.println("Shared " + shared.getCommands().size() + " commands");
+                return this;
+            }
 
-        // TODO check to see if there are duplicate aliases or typo aliases across all commands
-        builtConfig = getConfig().clone();
+            // Get a list of all the command Json files in the folder for this manager
+            phase = System.nanoTime();
+            jsonFiles.clear();
+            setJsonFiles(folder);
+            report.recordPhase(BuildReport.Phase.FILE_WALK, phase);
+
+            ArrayList<String> errors = new ArrayList<>();
+            Map<Path, Command> fileCommands = new LinkedHashMap<>();
+
+            // Load the command cache, if there is one, so that unchanged files don't need to be read or built
+            CommandCache cache = null;
+            if (config.getCommandCacheFile() != null) {
+                phase = System.nanoTime();
+                cache = CommandCache.load(config.getCommandCacheFile());
+                report.recordPhase(BuildReport.Phase.CACHE_LOAD, phase);
+            }
 
-        // Reset the list of command list messages
-        commandListMessageCache.clear();
-        listEligibleCommands = 0;
+            // Equal values across all the files are only kept once
+            InternPool pool = config.doPoolValues() ? InternPool.of() : null;
+            internPool = pool;
+
+            // Iterate through each of the Json files
+            phase = System.nanoTime();
+            for (Path f : jsonFiles) {
+                // Each command in a pack gets its own timing, so a pack is timed as it's read
+                if (Checks.pathIsCommandPackBool(f)) {
+                    try {
+                        fileCommands.putAll(loadPack(f, config.isLazyCommands(), errors, report));
+                    } catch (IOException e) {
+                        errors.add(e.getClass().getName() + " in " + f.getFileName());
+                        e.printStackTrace();
+                    }
+                    continue;
+                }
 
-        // Get a list of all the Methods that are eligible to be called by Commands
-        setCodeMethods();
+                BuildReport.FileTiming timing = new BuildReport.FileTiming(f);
+                report.addFile(timing);
 
-        // Clear the Commands and get a list of all the command Json files in the folder for this manager
-        commands.clear();
-        jsonFiles.clear();
-        setJsonFiles(folder);
+                // Try to parse it. The file is read in one go and then streamed, so no JsonObject tree is built for it
+                try {
+                    fileCommands.put(f, loadFile(f, cache, config.isLazyCommands(), timing));
+                } catch (Exception e) {
+                    // Record any errors for the summary report sent later
+                    errors.add(e.getClass().getName() + " in " + f.getFileName());
+                    timing.setError(e.getClass().getName());
+                    e.printStackTrace();
+                }
+            }
 
-        ArrayList<String> errors = new ArrayList<>();
-        FileReader r = null;
-        Gson gson = new Gson();
+            // Create the commands that were registered in code. Those from builders are read straight from their Json.
+            Map<String, Command> registeredCommands = new LinkedHashMap<>();
+            for (Map.Entry<String, Callable<Command>> entry : registeredSources.entrySet()) {
+                try {
+                    registeredCommands.put(entry.getKey(), entry.getValue().call());
+                } catch (Exception e) {
+                    errors.add(e.getClass().getName() + " in registered command '" + entry.getKey() + "'");
+                    e.printStackTrace();
+                }
+            }
+            report.recordPhase(BuildReport.Phase.FILE_LOAD, phase);
 
-        // Iterate through each of the Json files
-        for (File f : jsonFiles)
+            if (cache != null) {
+                phase = System.nanoTime();
+                try {
+                    cache.save();
+                } catch (IOException e) {
+                    System.out.println("Failed to save the command cache to '" +
+                            config.getCommandCacheFile().getPath() + "'.");
+                    e.printStackTrace();
+                }
+                report.recordPhase(BuildReport.Phase.CACHE_SAVE, phase);
+            }
 
-            // Try to parse it
-            try {
-                r = new FileReader(f);
-                JsonObject json = gson.fromJson(r, JsonObject.class);
-                commands.add(buildCommand(json));
+            // Send the summary of errors report
+            List<String> details = new ArrayList<>();
+            if (!registeredCommands.isEmpty())
+                details.add(registeredCommands.size() + " registered");
+            if (cache != null)
+                details.add(cache.getHits() + " from cache");
+            if (pool != null) {
+                report.setPoolSavings(pool.getDuplicates(), pool.getSavedBytes());
+                details.add(pool.toString());
+            }
 
-                // Check if the command is eligible for being in the commands list and if so update the count
-                if (commands.get(commands.size() - 1).doIncludeInCommandsList())
-                    listEligibleCommands++;
+            StringBuilder errorResult = new StringBuilder("Loaded " +
+                    (fileCommands.size() + registeredCommands.size()) + " commands" +
+                    (details.isEmpty() ? "" : " (" + String.join(", ", details) + ")") + " with " +
+                    errors.size() + " errors" + (errors.size() == 0 ? "" : ":"));
+            for (String error : errors)
+                errorResult.append("\n   ").append(error);
+
+            System.out.println(errorResult);
+
+            // The CommandManager is now built
+            phase = System.nanoTime();
+            registry = Registry.of(name + " " + config.getCommandListTitle(),
+                    CommandSet.of(fileCommands, registeredCommands), methods, config);
+            report.recordPhase(BuildReport.Phase.REGISTRY, phase);
+            updateSharingManagers(registry.getCommandSet());
+
+            buildReport = report.finish();
+            if (config.getSlowestFilesToLog() > 0) {
+                System.out.println(report.getPhaseSummary());
+                System.out.println(report.getSlowestFilesSummary(config.getSlowestFilesToLog()));
+            }
 
-            } catch (Exception e) {
-                // Record any errors for the summary report sent later
-                errors.add(e.getClass().getName() + " in " + f.getName());
-                e.printStackTrace();
+            if (config.isLazyCommands() && config.doPrewarmLazyCommands())
+                prewarm(registry.getCommands());
+
+            return this;
+        }
+    }
+
+    /**
+     * Reads a single Json file and builds the {@link Command} it defines through {@link #buildCommand(String, Supplier,
+     * boolean)}.
+     *
+     * @param file the Json file
+     * @param lazy true to build a {@link LazyCommand} that only reads the rest of the Json when it's first used
+     * @return the newly created {@link Command}
+     * @throws Exception if there is any error reading the file or building the command
+     */
+    private @NotNull Command loadFile(@NotNull Path file, boolean lazy) throws Exception {
+        return loadFile(file, null, lazy, null);
+    }
+
+    /**
+     * Same as {@link #loadFile(Path, boolean)}, except that if a {@link CommandCache} is given and the file hasn't
+     * changed since it was cached, a {@link LazyCommand} is made from the cached base values without reading the file.
+     * Otherwise, the file is built and then cached. If a {@link BuildReport.FileTiming} is given, the time spent
+     * reading and building the file is recorded in it.
+     *
+     * @param file   the Json file
+     * @param cache  the command cache, or null to read the file directly
+     * @param lazy   true to build a {@link LazyCommand} that only reads the rest of the Json when it's first used
+     * @param timing the timing to record to, or null to not record the time
+     * @return the newly created {@link Command}
+     * @throws Exception if there is any error reading the file or building the command
+     */
+    private @NotNull Command loadFile(@NotNull Path file, @Nullable CommandCache cache, boolean lazy,
+                                      @Nullable BuildReport.FileTiming timing) throws Exception {
+        long start = System.nanoTime();
+
+        if (cache == null) {
+            // A lazy command reads its Json again when it's first used, so it keeps the text
+            if (lazy) {
+                String json = Files.readString(file);
+                if (timing != null)
+                    timing.setReadNanos(System.nanoTime() - start);
+                return loadJson(json, true, timing);
+            }
+
+            // Otherwise the file is read in a single pass, keeping only the keys before the type in memory
+            try (JsonReader reader = JsonStreamReader.of(Files.newBufferedReader(file))) {
+                JsonStreamReader.Scan scan = JsonStreamReader.scanFor(reader, "type");
+                long read = System.nanoTime();
+                if (timing != null)
+                    timing.setReadNanos(read - start);
+
+                try {
+                    return buildCommand(scan.getValue(), scan::getReader, false);
+                } finally {
+                    if (timing != null)
+                        timing.setBuildNanos(System.nanoTime() - read);
+                }
+            }
+        }
+
+        CommandCache.Entry entry = cache.get(file, !lazy);
+        long read = System.nanoTime();
+        if (timing != null) {
+            timing.setReadNanos(read - start);
+            timing.setFromCache(entry != null);
+        }
+
+        if (entry != null) {
+            // Only the base values were cached, so the file is read and built when the command is first used
+            try {
+                getCommandType(entry.getType());
+                return inPool(internPool, () -> new LazyCommand(entry.header(), this, () -> loadFile(file, false)));
             } finally {
-                // Close the FileReader before moving on to the next Json file
+                if (timing != null)
+                    timing.setBuildNanos(System.nanoTime() - read);
+            }
+        }
+
+        byte[] bytes = Files.readAllBytes(file);
+        String json = new String(bytes, StandardCharsets.UTF_8);
+        read = System.nanoTime();
+        if (timing != null)
+            timing.setReadNanos(read - start);
+
+        // The type is needed for the cache entry, so it's found here rather than in loadJson(String, boolean, ...)
+        Command command;
+        JsonStreamReader.Scan scan;
+        try {
+            scan = JsonStreamReader.scanFor(JsonStreamReader.of(json), "type");
+            command = loadJson(json, scan, lazy);
+        } finally {
+            if (timing != null)
+                timing.setBuildNanos(System.nanoTime() - read);
+        }
+
+        cache.put(file, bytes, scan.getValue(), command);
+        return command;
+    }
+
+    /**
+     * Builds the {@link Command} defined by the given Json through {@link #buildCommand(String, Supplier, boolean)}. The
+     * type is found with {@link JsonStreamReader#scanFor(JsonReader, String)}, so the text is only parsed once (or
+     * twice for a lazy command, the second time when it's first used).
+     *
+     * @param json   the Json text of the command
+     * @param lazy   true to build a {@link LazyCommand} that only reads the rest of the Json when it's first used
+     * @param timing the timing to record the build time to, or null to not record the time
+     * @return the newly created {@link Command}
+     * @throws Exception if there is any error building the command
+     */
+    private @NotNull Command loadJson(@NotNull String json, boolean lazy, @Nullable BuildReport.FileTiming timing)
+            throws Exception {
+        long start = System.nanoTime();
+        try {
+            return loadJson(json, JsonStreamReader.scanFor(JsonStreamReader.of(json), "type"), lazy);
+        } finally {
+            if (timing != null)
+                timing.setBuildNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Same as {@link #loadJson(String, boolean, BuildReport.FileTiming)}, except that the type was already found with
+     * {@link JsonStreamReader#scanFor(JsonReader, String)}, and the build time isn't recorded.
+     *
+     * @param json the Json text of the command
+     * @param scan the result of scanning the text for its type
+     * @param lazy true to build a {@link LazyCommand} that only reads the rest of the Json when it's first used
+     * @return the newly created {@link Command}
+     * @throws Exception if there is any error building the command
+     */
+    private @NotNull Command loadJson(@NotNull String json, @NotNull JsonStreamReader.Scan scan, boolean lazy)
+            throws Exception {
+        AtomicReference<JsonReader> scanned = new AtomicReference<>(scan.getReader());
+        return buildCommand(scan.getValue(), () -> {
+            JsonReader reader = scanned.getAndSet(null);
+            return reader == null ? JsonStreamReader.of(json) : reader;
+        }, lazy);
+    }
+
+    /**
+     * Reads and builds every command in a command pack, one line at a time. Each command is keyed by the pack's path
+     * resolved against its line number (for example, {@code commands.ndjson/12}), so that everything from the pack
+     * can be found and replaced together when the pack changes.
+     * <p><br>
+     * A command that fails to build is recorded in the list of errors and skipped, and the rest of the pack is still
+     * read.
+     *
+     * @param pack   the command pack
+     * @param lazy   true to build {@link LazyCommand LazyCommands} that only read the rest of their Json when first used
+     * @param errors the list to add the errors for any commands that fail to build
+     * @param report the build report to add the timing for each command to, or null to not time them
+     * @return the commands in the pack, keyed as described above
+     * @throws IOException if the pack could not be opened or read
+     */
+    private @NotNull Map<Path, Command> loadPack(@NotNull Path pack, boolean lazy, @NotNull List<String> errors,
+                                                 @Nullable BuildReport report) throws IOException {
+        Map<Path, Command> commands = new LinkedHashMap<>();
+
+        try (CommandPackReader reader = CommandPackReader.of(pack)) {
+            while (true) {
+                long start = System.nanoTime();
+                String json = reader.next();
+                if (json == null)
+                    break;
+
+                Path key = pack.resolve(String.valueOf(reader.getLineNumber()));
+                BuildReport.FileTiming timing = null;
+                if (report != null) {
+                    timing = new BuildReport.FileTiming(key);
+                    timing.setReadNanos(System.nanoTime() - start);
+                    report.addFile(timing);
+                }
+
                 try {
-                    assert r != null;
-                    r.close();
-                } catch (Exception ignore) {
+                    commands.put(key, loadJson(json, lazy, timing));
+                } catch (Exception e) {
+                    errors.add(e.getClass().getName() + " in " + pack.getFileName() + " line " +
+                            reader.getLineNumber());
+                    if (timing != null)
+                        timing.setError(e.getClass().getName());
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        return commands;
+    }
+
+    /**
+     * Fully reads every {@link LazyCommand} in the given collection that hasn't been read yet, in a low priority
+     * background thread. This is used when {@link ManagerConfig#doPrewarmLazyCommands()} is enabled, so that the
+     * commands are ready before anyone uses them and any errors in their Json are printed soon after starting.
+     * <p><br>
+     * Commands that someone uses before the thread gets to them are read on the spot as usual. Either way, each one is
+     * only read once.
+     *
+     * @param commands the commands to read
+     */
+    private void prewarm(@NotNull Collection<Command> commands) {
+        List<LazyCommand> lazyCommands = new ArrayList<>();
+        for (Command command : commands)
+            if (command instanceof LazyCommand && !((LazyCommand) command).isLoaded())
+                lazyCommands.add((LazyCommand) command);
+
+        if (lazyCommands.isEmpty())
+            return;
+
+        Thread thread = new Thread(() -> {
+            long start = System.nanoTime();
+            int errors = 0;
+
+            for (LazyCommand command : lazyCommands)
+                try {
+                    command.get();
+                } catch (Exception e) {
+                    errors++;
+                    System.out.println("Failed to load the command '" + command.getName() + "':");
+                    e.printStackTrace();
+                }
+
+            System.out.println("Pre-warmed " + lazyCommands.size() + " commands in '" + name + "' in " +
+                    (System.nanoTime() - start) / 1000000 + " ms with " + errors + " errors.");
+        }, "CommandPrewarm-" + name);
+
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Re-reads only the given Json files and updates the {@link Command Commands} loaded from them, without rebuilding
+     * the rest of this {@link CommandManager}. This is what a {@link CommandWatcher} calls when it detects changes, but
+     * it can also be called directly.
+     * <p><br>
+     * Each file is handled as follows:
+     * <ul>
+     *     <li>If it exists and is a Json file, it is parsed and its command is added or replaced.</li>
+     *     <li>If it no longer exists, the command that was loaded from it is removed. If it was a directory, the
+     *     commands from every file that was inside it are removed.</li>
+     *     <li>If it fails to parse, an error is printed and the previous version of its command (if any) is kept.
+     *     This way, saving a file partway through an edit doesn't make the command disappear.</li>
+     * </ul>
+     * The changes are made to a copy of the current {@link Registry}, and once every file has been handled, the new
+     * {@link Registry} is published all at once. Events being processed concurrently never see a partially reloaded
+     * manager, and this manager never leaves the built state.
+     * <p><br>
+     * If this {@link CommandManager} is not built, nothing happens, as the next {@link #build()} will read every file
+     * anyway.
+     *
+     * @param files the files (or directories) that were added, modified, or deleted
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull CommandManager reload(@NotNull Collection<Path> files) {
+        // The commands belong to the manager this one shares them with, which updates this one when it's done
+        if (definitions != null) {
+            definitions.reload(files);
+            return this;
+        }
+
+        ArrayList<String> errors = new ArrayList<>();
+        int updated = 0, removed = 0;
+
+        synchronized (buildLock) {
+            Registry current = registry;
+            if (current == null)
+                return this;
+
+            // Only the changed files are passed on, so the new commands share everything else with the current ones
+            CommandSet commandSet = current.getCommandSet();
+            Map<Path, Command> changes = new LinkedHashMap<>();
+            List<Command> reloaded = new ArrayList<>();
+            boolean lazy = current.getConfig().isLazyCommands();
+
+            for (Path file : files) {
+                if (Files.isRegularFile(file) && Checks.pathIsCommandPackBool(file)) {
+                    try {
+                        Map<Path, Command> packCommands = loadPack(file, lazy, errors, null);
+
+                        // Replace everything from the old version of the pack, since its lines may have moved
+                        removed += removeCommands(commandSet, changes, file);
+                        changes.putAll(packCommands);
+                        reloaded.addAll(packCommands.values());
+                        updated += packCommands.size();
+                    } catch (IOException e) {
+                        errors.add(e.getClass().getName() + " in " + file.getFileName());
+                        e.printStackTrace();
+                    }
+                } else if (Files.isRegularFile(file) && Checks.pathIsJsonBool(file)) {
+                    try {
+                        Command command = loadFile(file, lazy);
+                        changes.put(file, command);
+                        reloaded.add(command);
+                        updated++;
+                    } catch (Exception e) {
+                        errors.add(e.getClass().getName() + " in " + file.getFileName());
+                        e.printStackTrace();
+                    }
+                } else if (Files.notExists(file)) {
+                    // The file (or a whole directory) was deleted. Remove everything that was loaded from it.
+                    removed += removeCommands(commandSet, changes, file);
                 }
             }
 
-        // Send the summary of errors report
-        StringBuilder errorResult = new StringBuilder("Loaded " + commands.size() + " commands with " +
-                errors.size() + " errors" + (errors.size() == 0 ? "" : ":"));
+            publish(current, commandSet.withChanges(changes, Map.of()));
+
+            if (lazy && current.getConfig().doPrewarmLazyCommands())
+                prewarm(reloaded);
+        }
+
+        StringBuilder result = new StringBuilder("Reloaded " + updated + " and removed " + removed +
+                " commands in '" + folder + "' with " + errors.size() + " errors" +
+                (errors.size() == 0 ? "" : ":"));
         for (String error : errors)
-            errorResult.append("\n   ").append(error);
+            result.append("\n   ").append(error);
+
+        System.out.println(result);
+        return this;
+    }
+
+    /**
+     * Adds a {@link Command} defined in code with a {@link CommandBuilder}, such as a {@link
+     * botUtils.commandsSystem.builder.FunctionBuilder FunctionBuilder} or {@link
+     * botUtils.commandsSystem.builder.CallResponseBuilder CallResponseBuilder}. The command is created directly from
+     * the builder's {@link CommandBuilder#getJson() Json}, without it being written to a file and read back.
+     * <p><br>
+     * This works whether or not this {@link CommandManager} is built:
+     * <ul>
+     *     <li>If it isn't built, the command is created along with the rest during the next {@link #build()}. Any
+     *     error creating it is reported with the errors for the Json files.</li>
+     *     <li>If it is built, the command is created right away and added to the current commands. Only the index
+     *     entries for its name and aliases are updated, and the change is published all at once like a {@link
+     *     #reload(Collection)}. If creating it fails, the exception is thrown and nothing changes.</li>
+     * </ul>
+     * Either way, the command is kept through every later build and reload. Registering another command with the same
+     * name (ignoring case) replaces it. Registered commands come after the ones from Json files in the command list,
+     * and a registered command never replaces one from a Json file.
+     * <p><br>
+     * Registered commands are never {@link LazyCommand lazy}, since their Json is already in memory.
+     *
+     * @param builder the builder for the command
+     * @return this {@link CommandManager} instance for chaining
+     * @throws ClassNotFoundException if there is an error building the Json
+     * @throws JsonParseException     if the name or type is missing from the Json
+     * @throws CommandClassException  if the type in the Json is not a registered {@link Command} type
+     * @throws Exception              if there is some other problem creating the {@link Command}
+     */
+    public @NotNull CommandManager register(@NotNull CommandBuilder builder) throws Exception {
+        // Commands belong to the manager this one shares them with, which updates this one as well
+        if (definitions != null) {
+            definitions.register(builder);
+            return this;
+        }
+
+        JsonObject json = builder.getJson();
+        String name = JsonParser.getString(json, "name").toLowerCase(Locale.ROOT);
+
+        synchronized (buildLock) {
+            Registry current = registry;
+            if (current != null) {
+                Command command = buildCommand(json);
+                publish(current, current.getCommandSet().withRegistered(command));
+                checkMethod(current, command);
+            }
+            registeredSources.put(name, () -> buildCommand(json));
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds a {@link Command} that was already created, such as one created by a {@link CommandTypeFactory} or the
+     * constructor of a {@link Command} subclass. It works just like {@link #register(CommandBuilder)}, except that the
+     * same instance is used every time this {@link CommandManager} is built rather than a new one being created.
+     * <p><br>
+     * The command must have been created for this manager. Unlike {@link #register(CommandBuilder)}, a command can't
+     * be added if there's already one with the same name (ignoring case). Use {@link #replaceCommand(Command)} instead.
+     * <p><br>
+     * If this {@link CommandManager} is built, the new command is available as soon as this returns. Only the index
+     * entries for its name and aliases are updated, and the change is published all at once, so events being
+     * processed concurrently see either the old commands or the new ones.
+     *
+     * @param command the command to add
+     * @return this {@link CommandManager} instance for chaining
+     * @throws IllegalArgumentException if the command was created for a different manager, or there's already a
+     *                                  command with the same name
+     */
+    public @NotNull CommandManager addCommand(@NotNull Command command) {
+        return addCommands(List.of(command));
+    }
+
+    /**
+     * Adds many {@link Command Commands} at once through {@link #addCommand(Command)}. They are all published together
+     * in a single update, so this is much faster than adding thousands of commands one at a time.
+     * <p><br>
+     * Every command is checked before any are added, so if one of them can't be added, none of them are.
+     *
+     * @param commands the commands to add
+     * @return this {@link CommandManager} instance for chaining
+     * @throws IllegalArgumentException if a command was created for a different manager, or there's already a command
+     *                                  with the same name as one of them (including another one in the collection)
+     */
+    public @NotNull CommandManager addCommands(@NotNull Collection<? extends Command> commands) {
+        if (definitions != null) {
+            definitions.addCommands(commands);
+            return this;
+        }
+
+        synchronized (buildLock) {
+            Registry current = registry;
+            Map<String, Command> added = new LinkedHashMap<>();
+
+            for (Command command : commands) {
+                if (command.getManager() != this)
+                    throw new IllegalArgumentException("The command '" + command.getName() + "' was created for " +
+                            "the CommandManager '" + command.getManager().getName() + "', not '" + name + "'.");
+
+                String lower = command.getNameLower();
+                if (added.containsKey(lower) || registeredSources.containsKey(lower) ||
+                        (current != null && current.getCommandSet().getCommand(lower) != null))
+                    throw new IllegalArgumentException("There is already a command named '" + command.getName() +
+                            "'. Use replaceCommand() to replace it.");
+                added.put(lower, command);
+            }
+
+            if (current != null) {
+                publish(current, current.getCommandSet().withChanges(Map.of(), added));
+                for (Command command : added.values())
+                    checkMethod(current, command);
+            }
+
+            for (Map.Entry<String, Command> entry : added.entrySet()) {
+                Command command = entry.getValue();
+                registeredSources.put(entry.getKey(), () -> command);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Replaces the {@link Command} with the same name (ignoring case) as the given one. The new command takes the
+     * place of the old one in the command list.
+     * <p><br>
+     * If the old command was registered in code, the new one is kept through every later build and reload. If it was
+     * loaded from a Json file, it is only replaced until that file is reloaded or this {@link CommandManager} is built
+     * again. If this manager isn't built, only registered commands can be replaced.
+     *
+     * @param command the new command
+     * @return this {@link CommandManager} instance for chaining
+     * @throws IllegalArgumentException if the command was created for a different manager, or there isn't a command
+     *                                  with the same name to replace
+     */
+    public @NotNull CommandManager replaceCommand(@NotNull Command command) {
+        if (definitions != null) {
+            definitions.replaceCommand(command);
+            return this;
+        }
+
+        if (command.getManager() != this)
+            throw new IllegalArgumentException("The command '" + command.getName() + "' was created for the " +
+                    "CommandManager '" + command.getManager().getName() + "', not '" + name + "'.");
+
+        String lower = command.getNameLower();
+        synchronized (buildLock) {
+            Registry current = registry;
+
+            if (registeredSources.containsKey(lower)) {
+                if (current != null)
+                    publish(current, current.getCommandSet().withChanges(Map.of(), Map.of(lower, command)));
+                registeredSources.put(lower, () -> command);
+            } else {
+                Path file = current == null ? null : current.getCommandSet().getFile(lower);
+                if (file == null)
+                    throw new IllegalArgumentException("There is no command named '" + command.getName() + "' to " +
+                            "replace.");
+                publish(current, current.getCommandSet().withChanges(Map.of(file, command), Map.of()));
+            }
+
+            if (current != null)
+                checkMethod(current, command);
+        }
+
+        return this;
+    }
+
+    /**
+     * Removes the {@link Command} with the given name (ignoring case). If it was registered in code, it is removed for
+     * good. If it was loaded from a Json file, it is only removed until that file is reloaded or this {@link
+     * CommandManager} is built again. To remove it for good, delete the file.
+     * <p><br>
+     * If this manager is built, the change is published all at once, just like {@link #addCommand(Command)}.
+     *
+     * @param name the name of the command
+     * @return true if a command was removed; false if there wasn't one with that name
+     */
+    public boolean removeCommand(@NotNull String name) {
+        if (definitions != null)
+            return definitions.removeCommand(name);
+
+        String lower = name.toLowerCase(Locale.ROOT);
+        synchronized (buildLock) {
+            boolean removed = registeredSources.remove(lower) != null;
+
+            Registry current = registry;
+            if (current == null)
+                return removed;
+
+            // Only one command is removed, so a file command with the same name is left alone
+            CommandSet commandSet = current.getCommandSet();
+            if (removed || commandSet.isRegistered(lower)) {
+                if (commandSet.isRegistered(lower))
+                    publish(current, commandSet.withChanges(Map.of(), Collections.singletonMap(lower, null)));
+                return true;
+            }
+
+            Path file = commandSet.getFile(lower);
+            if (file == null)
+                return removed;
+
+            publish(current, commandSet.withChanges(Collections.singletonMap(file, null), Map.of()));
+            return true;
+        }
+    }
+
+    /**
+     * Publishes a new set of commands for this {@link CommandManager} and every manager sharing them. This must be
+     * called while holding the {@link #buildLock}.
+     *
+     * @param current    the current {@link Registry}
+     * @param commandSet the new commands
+     */
+    private void publish(@NotNull Registry current, @NotNull CommandSet commandSet) {
+        registry = current.withCommands(commandSet);
+        updateSharingManagers(commandSet);
+    }
+
+    /**
+     * Prints a warning if a {@link Function} added at runtime calls a method that this {@link CommandManager} doesn't
+     * have, since it would fail every time it's used. Lazy commands are not checked, as that would mean reading them.
+     *
+     * @param registry the current {@link Registry}
+     * @param command  the command that was added
+     */
+    private static void checkMethod(@NotNull Registry registry, @NotNull Command command) {
+        if (command instanceof Function && registry.getMethod(command.getMethodName()) == null)
+            System.out.println("Warning: the command '" + command.getName() + "' calls the method '" +
+                    command.getMethodName() + "', which was not found in any of the command code classes.");
+    }
+
+    /**
+     * Switches every built manager that shares the command definitions of this one to the given commands. Managers
+     * that aren't built are skipped, since they'll get the latest commands when they are.
+     *
+     * @param commandSet the new commands
+     */
+    private void updateSharingManagers(@NotNull CommandSet commandSet) {
+        for (CommandManager manager : sharingManagers)
+            synchronized (manager.buildLock) {
+                Registry current = manager.registry;
+                if (current != null)
+                    manager.registry = current.withCommands(commandSet);
+            }
+    }
+
+    /**
+     * Removes every command that was loaded from the given path. This includes the commands from every file inside it
+     * if it's a directory, and every command in it if it's a command pack.
+     *
+     * @param commandSet the current commands
+     * @param changes    the changes made so far, to which a null removal is added for each command
+     * @param path       the path to remove the commands of
+     * @return the number of commands removed
+     */
+    private static int removeCommands(@NotNull CommandSet commandSet, @NotNull Map<Path, Command> changes,
+                                      @NotNull Path path) {
+        int removed = 0;
+        for (Path file : commandSet.getFileCommands().keySet())
+            if (file.startsWith(path) && !changes.containsKey(file)) {
+                changes.put(file, null);
+                removed++;
+            }
+
+        // Commands added earlier in the same reload
+        for (Map.Entry<Path, Command> change : changes.entrySet())
+            if (change.getKey().startsWith(path) && change.getValue() != null) {
+                change.setValue(null);
+                removed++;
+            }
+        return removed;
+    }
+
+    /**
+     * Re-scans the {@link #folder} for this {@link CommandManager} and reloads every Json file through {@link
+     * #reload(Collection)}, along with removing commands whose files have disappeared. Unlike {@link #unbuild()} and
+     * {@link #build()}, this never leaves the manager unbuilt.
+     *
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull CommandManager reloadAll() {
+        if (definitions != null) {
+            definitions.reloadAll();
+            return this;
+        }
+
+        Set<Path> files;
+        synchronized (buildLock) {
+            Registry current = registry;
+            if (current == null)
+                return this;
 
-        System.out.println(errorResult);
+            files = new LinkedHashSet<>(current.getFileCommands().keySet());
+            jsonFiles.clear();
+            try {
+                setJsonFiles(folder);
+            } catch (IOException e) {
+                // Files that were already loaded are still reloaded (or removed if they're gone)
+                e.printStackTrace();
+            }
+            files.addAll(jsonFiles);
+        }
+        return reload(files);
+    }
 
-        totalCommandListPages = (int) Math.ceil(listEligibleCommands / (double) builtConfig.getCommandsPerPage());
+    /**
+     * Starts watching the {@link #folder} for this {@link CommandManager} (and all of its sub folders) for changes to
+     * Json files. Changes are collected until none have occurred for the given debounce period, and then only the
+     * changed files are reloaded with {@link #reload(Collection)}. This lets you edit commands while the bot is running
+     * without the manager ever becoming unbuilt.
+     * <p><br>
+     * If this manager was already being watched, the old {@link CommandWatcher} is closed first.
+     * <p><br>
+     * Only folders in a {@link FileSystem} that supports a {@link java.nio.file.WatchService} can be watched. Folders
+     * inside a jar can't be, since their contents never change. If this manager was created from a single command pack
+     * rather than a folder, it can't be watched either. Command packs inside the folder are watched like any Json
+     * file.
+     *
+     * @param debounceMillis the number of milliseconds without any changes to wait before reloading
+     * @return the new {@link CommandWatcher}, which can be closed to stop watching
+     * @throws IOException                   if the watch service could not be created or the folder could not be
+     *                                       registered
+     * @throws UnsupportedOperationException if the folder's {@link FileSystem} doesn't support watching, this manager
+     *                                       was created from a command pack, or it shares the commands of another
+     *                                       manager
+     */
+    public synchronized @NotNull CommandWatcher watch(long debounceMillis) throws IOException {
+        if (definitions != null)
+            throw new UnsupportedOperationException("'" + name + "' shares the commands of '" +
+                    definitions.getName() + "'. Watch that manager instead.");
+        if (!Files.isDirectory(folder))
+            throw new UnsupportedOperationException("Only a folder can be watched, not '" + folder + "'.");
+
+        stopWatching();
+        watcher = CommandWatcher.of(this, folder, debounceMillis);
+        return watcher;
+    }
 
-        // The CommandManager is now built
-        built = true;
+    /**
+     * Convenience method to call {@link #watch(long)} with the default debounce period of {@link
+     * CommandWatcher#DEFAULT_DEBOUNCE} milliseconds.
+     *
+     * @return the new {@link CommandWatcher}, which can be closed to stop watching
+     * @throws IOException if the watch service could not be created or the folder could not be registered
+     */
+    public @NotNull CommandWatcher watch() throws IOException {
+        return watch(CommandWatcher.DEFAULT_DEBOUNCE);
+    }
+
+    /**
+     * Stops the {@link CommandWatcher} started by {@link #watch(long)}, if there is one.
+     *
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public synchronized @NotNull CommandManager stopWatching() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
         return this;
     }
 
@@ -567,61 +1675,115 @@ public class CommandManager {
      * @return true if it is build and false otherwise
      */
     public boolean isBuilt() {
-        return built;
+        return registry != null;
     }
 
     /**
      * Unbuilds this {@link CommandManager}. This prevents it from executing any Discord commands but allows its
      * settings to be modified through the {@link ManagerConfig}. You can adjust these settings by getting the
      * configuration object with {@link #getConfigManager()}.
+     * <p><br>
+     * If this manager shares the command definitions of another one, it stops following that manager's changes until it
+     * is built again. Unbuild a sharing manager once it's no longer needed, so the other manager doesn't keep it alive.
      *
      * @return this {@link CommandManager} instance for chaining
      */
     public CommandManager unbuild() {
-        built = false;
+        synchronized (buildLock) {
+            if (definitions != null)
+                definitions.sharingManagers.remove(this);
+            registry = null;
+            internPool = null;
+            commandListStore.close();
+        }
         return this;
     }
 
     /**
-     * Takes a {@link JsonObject} read from a Json file and uses it to build a {@link Command}. It grabs the Class type
-     * from the Json and finds a {@link Command} subclass with a matching name from {@link #commandTypes} (case
-     * sensitive) to instantiate. If there is an error getting the required type from the Json or a class with the right
-     * name is not found, an exception is thrown.
+     * Takes the contents of a Json file and uses it to build a {@link Command}. It grabs the type from the Json and
+     * finds the {@link CommandTypeFactory} with a matching name in {@link #commandTypes} (case sensitive) to create it.
+     * If there is an error getting the required type from the Json or a factory with the right name is not found, an
+     * exception is thrown.
+     * <p><br>
+     * The type is found before the Json is streamed, so it doesn't have to be the first key. Any exception thrown while
+     * creating the command is passed on unchanged.
+     * <p><br>
+     * If it is lazy, a {@link LazyCommand} is returned instead, and only the base {@link Command} keys are read now. The
+     * type is still checked, so an unregistered type is reported during the build either way.
+     * <p><br>
+     * If values are being pooled (see {@link ManagerConfig#doPoolValues()}), the {@link #internPool} is open while the
+     * Json is read, including when a {@link LazyCommand} reads the rest of its Json later.
      *
-     * @param json the JsonObject imported from a file
+     * @param type   the value of the top level "type" key in the Json
+     * @param source creates a new reader positioned at the start of the Json each time it is called
+     * @param lazy   true to create a {@link LazyCommand} that reads the rest of the Json when it's first used
      * @return the newly created {@link Command} subclass instance
-     * @throws JsonParseException    if there is an error getting the command type from the Json
-     * @throws CommandClassException if the type in the Json is not a valid {@link Command} subclass
+     * @throws JsonParseException    if the command type is missing from the Json
+     * @throws CommandClassException if the type in the Json is not a registered {@link Command} type
      * @throws Exception             if there is some other problem instantiating the new {@link Command} object
      */
-    private Command buildCommand(JsonObject json) throws Exception {
-        String type = JsonParser.getString(json, "type");
-        Class<? extends Command> commandType = commandTypes.get(type);
+    private Command buildCommand(@Nullable String type, @NotNull Supplier<JsonReader> source, boolean lazy)
+            throws Exception {
+        CommandTypeFactory factory = getCommandType(type);
+        InternPool pool = internPool;
+        return inPool(pool, () -> {
+            if (lazy)
+                // The factory runs on whichever thread first needs the command, so the pool is opened on it again
+                return new LazyCommand(source.get(), this, () -> inPool(pool, () -> factory.create(source.get(), this)));
+
+            return factory.create(source.get(), this);
+        });
+    }
+
+    /**
+     * Finds the {@link CommandTypeFactory} registered in {@link #commandTypes} with the given name (case sensitive).
+     *
+     * @param type the value of the top level "type" key in the Json
+     * @return the factory for the type
+     * @throws JsonParseException    if the type is null because it is missing from the Json
+     * @throws CommandClassException if the type is not a registered {@link Command} type
+     */
+    private @NotNull CommandTypeFactory getCommandType(@Nullable String type)
+            throws JsonParseException, CommandClassException {
+        CommandTypeFactory factory = commandTypes.get(JsonStreamReader.required(type, "type"));
 
-        if (commandType == null)
+        if (factory == null)
             throw new CommandClassException("   Type '" + type + "' possibly not registered with CommandManager.\n" +
-                    "   Try registering it with addCommandType(Class<? extends Command>).");
+                    "   Try registering it with addCommandType(String, CommandTypeFactory.Creator).");
+        return factory;
+    }
+
+    /**
+     * Builds the {@link Command} defined by a Json tree that is already in memory through {@link #buildCommand(String,
+     * Supplier, boolean)}. The tree is read directly rather than being converted to text.
+     *
+     * @param json the Json of the command
+     * @return the newly created {@link Command}
+     * @throws Exception if there is any error building the command
+     */
+    private @NotNull Command buildCommand(@NotNull JsonObject json) throws Exception {
+        return buildCommand(JsonParser.getString(json, "type", null), () -> JsonStreamReader.of(json), false);
+    }
+
+    /**
+     * Runs a task with the given {@link InternPool} open on the current thread, if there is one. The pool that was open
+     * before is restored afterwards, even if the task fails.
+     *
+     * @param pool the pool, or null if values aren't being pooled
+     * @param task the task that reads the Json
+     * @param <T>  the type returned by the task
+     * @return the result of the task
+     * @throws Exception if the task throws an exception
+     */
+    private static <T> T inPool(@Nullable InternPool pool, @NotNull Callable<T> task) throws Exception {
+        if (pool == null)
+            return task.call();
 
+        InternPool.Scope scope = pool.open();
         try {
-            Constructor<? extends Command> constructor = commandType.getConstructor(
-                    JsonObject.class, CommandManager.class);
-            return constructor.newInstance(json, this);
-        } catch (NoSuchMethodException e) {
-            throw new CommandClassException("   '" + type + "' command class does not have a valid constructor.\n" +
-                    "   It must accept a JsonObject and CommandManager as parameters in that order.");
-        } catch (InvocationTargetException e) {
-            // If a console error brought you here, it most likely means there is something wrong with the Json file.
-            // Check the error message for assistance, or follow the stack trace to wherever the error was thrown
-            // before this location. If the error occurred in the try-catch immediately beneath this comment, then that
-            // probably means somehow initializing a constructor threw an invalid InvocableTargetException. That
-            // shouldn't have even been possible. ¯\_(ツ)_/¯
-            Exception f;
-            try {
-                f = (Exception) e.getCause();
-            } catch (Exception ignore) {
-                throw e;
-            }
-            throw f;
+            return task.call();
+        } finally {
+            scope.close();
         }
     }
 
@@ -633,7 +1795,7 @@ public class CommandManager {
      * @param error   the message to send the user (accepts Discord formatting)
      */
     public void sendError(@NotNull MessageChannel channel, @NotNull String error) {
-        sendError(channel, ErrorBuilder.of(error, builtConfig.getErrorColor()));
+        sendError(channel, ErrorBuilder.of(error, getConfig().getErrorColor()));
     }
 
     /**
@@ -643,97 +1805,57 @@ public class CommandManager {
      * Note that errors sent through this method are sent as temporary/permanent errors depending on the configuration
      * setting in {@link ManagerConfig#areErrorsTemporary()}. To override this you'll have to make your own send method
      * call through an {@link ErrorBuilder}.
+     * <p><br>
+     * The error is dropped if the same error was just sent in the channel, or if the channel has been sent too many
+     * errors recently (see {@link #getReplyLimiter()}).
      *
      * @param channel the channel to send the error in
      * @param error   the error to send
      */
     public void sendError(@NotNull MessageChannel channel, @NotNull ErrorBuilder error) {
-        if (builtConfig.areErrorsTemporary())
-            error.sendTemp(channel, TempMsgConfig.DEFAULT_SPEED);
-        else
-            error.send(channel);
+        sendError(channel, error.build());
     }
 
     /**
-     * Get a list of {@link Command} instances corresponding to the given page. This is called when printing command
-     * lists in Discord.
-     * <p><br>
-     * <u>Precondition:</u> because this method is called mainly by {@link #getCommandListPage(int)}, it is
-     * assumed that the given page number is valid, and thus it is not checked to see if it's out of bounds. It is also
-     * assumed that the {@link CommandManager} has been built with {@link #build()}.
+     * Same as {@link #sendError(MessageChannel, ErrorBuilder)}, but for an error embed that was already rendered, such
+     * as {@link Registry#getUnknownCommandError()}. Errors that are sent often can be rendered once and reused this
+     * way.
      *
-     * @param pageNum the number of the page to grab (1 indexed)
-     * @return the list of commands on the given page
+     * @param channel the channel to send the error in
+     * @param error   the error to send
      */
-    private @NotNull ArrayList<Command> getCommandsList(int pageNum) {
-        int pageLen = builtConfig.getCommandsPerPage();
+    public void sendError(@NotNull MessageChannel channel, @NotNull MessageEmbed error) {
+        ManagerConfig config = getConfig();
+        if (!replyLimiter.tryError(channel.getIdLong(), ReplyLimiter.hash(error), config))
+            return;
 
-        int first = pageLen * (pageNum - 1);
-        int i = 0;
-        ArrayList<Command> list = new ArrayList<>();
-
-        while (i < commands.size()) {
-            if (i >= first && commands.get(i).doIncludeInCommandsList())
-                list.add(commands.get(i));
-            if (list.size() == pageLen)
-                break;
-            i++;
-        }
-
-        return list;
+        if (config.areErrorsTemporary())
+            MessageUtils.sendTemp(channel.sendMessage(error), TempMsgConfig.DEFAULT_SPEED.getDelay(error.getLength()));
+        else
+            channel.sendMessage(error).queue();
     }
 
     /**
      * Returns an {@link EmbedBuilder} containing a list of commands for this {@link CommandManager} at the specified
-     * page number. This method simply retrieves the list of commands from {@link #getCommandsList(int)} and formats
-     * them nicely in an {@link EmbedBuilder}.
+     * page number. Every page is rendered once when the manager is built (see {@link Registry#getCommandListPage(int)}),
+     * so this just copies the finished page into a new {@link EmbedBuilder} that can be modified.
      * <p><br>
      * If the given page number is less than 1, the last page will be returned. If the given page number is greater than
      * the number of pages, the first page will be returned. The number of commands on a page is determined by {@link
      * ManagerConfig#getCommandsPerPage()}.
      *
-     * @param curPage the page of commands (1 indexed) that is passed to {@link #getCommandsList(int)}
+     * @param curPage the page of commands (1 indexed)
      * @return an EmbedBuilder with the commands listed out
      * @throws IllegalStateException if the CommandManager has not yet been built with {@link #build()}.
      */
     public @NotNull EmbedBuilder getCommandListPage(int curPage) {
-        Checks.commandManagerBuildState(this, true);
-
-        // If the pageNum is out of bounds, put it in bounds (with wrapping)
-        curPage = curPage < 1 ? totalCommandListPages : curPage > totalCommandListPages ? 1 : curPage;
-
-        EmbedField[] fields = getCommandsList(curPage)
-                .stream()
-                .map(command -> EmbedField.of(command.getName(), command.getShortDescription()))
-                .toArray(EmbedField[]::new);
-
-        String footer = builtConfig.getCommandListFooter() == null ? "" : " | " + builtConfig.getCommandListFooter();
-
-        if (fields.length == 0)
-            return MessageUtils.makeEmbedBuilder(
-                    getCommandListTitle(),
-                    "",
-                    "There are no commands to list.",
-                    builtConfig.getCommandListColor(),
-                    "Page 1 of 1" + footer,
-                    builtConfig.getCommandListFooterImg(),
-                    fields);
-        else
-            return MessageUtils.makeEmbedBuilder(
-                    getCommandListTitle(),
-                    "",
-                    getConfig().getCommandListDescription(),
-                    builtConfig.getCommandListColor(),
-                    "Page " + curPage + " of " + totalCommandListPages + footer,
-                    builtConfig.getCommandListFooterImg(),
-                    fields);
+        return new EmbedBuilder(getRegistry().getCommandListPage(curPage));
     }
 
     /**
-     * This is a convenience method to call {@link #getCommandListPage(int)} for the first page, build it, and send it
-     * in the specified channel. The resulting message is also added to the {@link #commandListMessageCache} for this
-     * {@link CommandManager}, and the appropriate arrow emojis for changing pages are added (but only if there's more
-     * than one page for the command list).
+     * This is a convenience method to send the first page of the command list in the specified channel. The resulting
+     * message is also remembered in the {@link #commandListStore} for this {@link CommandManager}, and the appropriate
+     * arrow emojis for changing pages are added (but only if there's more than one page for the command list).
      * <p><br>
      * <u>Precondition:</u> this method assumes that the {@link CommandManager} was built with {@link
      * CommandManager#build()}.
@@ -741,12 +1863,72 @@ public class CommandManager {
      * @param channel the channel to send the command list in
      */
     public void sendCommandList(@NotNull MessageChannel channel) {
-        channel.sendMessage(getCommandListPage(1).build()).queue(
+        sendCommandList(channel, 0);
+    }
+
+    /**
+     * Same as {@link #sendCommandList(MessageChannel)}, except that the user who asked for the command list is
+     * remembered along with the message (see {@link PageState#getOwnerId()}).
+     *
+     * @param channel the channel to send the command list in
+     * @param ownerId the ID of the user who asked for the command list, or 0 if it isn't known
+     */
+    public void sendCommandList(@NotNull MessageChannel channel, long ownerId) {
+        Registry registry = getRegistry();
+        channel.sendMessage(registry.getCommandListPage(1)).queue(
+                m -> {
+                    commandListStore.put(m.getIdLong(), PageState.of(1, channel.getIdLong(), ownerId));
+                    if (registry.getTotalCommandListPages() > 1) {
+                        JDAUtils.react(m, registry.getConfig().getLeftArrowEmoji());
+                        JDAUtils.react(m, registry.getConfig().getRightArrowEmoji());
+                    }
+                });
+    }
+
+    /**
+     * Searches the command list (see {@link Registry#searchCommands(String)}) and sends the results in the specified
+     * channel. The results look just like the command list. If they don't fit on a single page, they're sent with
+     * {@link #sendPaginator(MessageChannel, Paginator, long)} so users can flip through them.
+     * <p><br>
+     * <u>Precondition:</u> this method assumes that the {@link CommandManager} was built with {@link
+     * CommandManager#build()}.
+     *
+     * @param channel the channel to send the results in
+     * @param query   the search
+     * @param ownerId the ID of the user who searched, or 0 if it isn't known
+     */
+    public void sendCommandSearch(@NotNull MessageChannel channel, @NotNull String query, long ownerId) {
+        Registry registry = getRegistry();
+        Paginator results = registry.getCommandListPages()
+                .getSearchResults(query, registry.searchCommands(query));
+
+        // A single page can't be flipped, so there's no need to remember it
+        if (results.getTotalPages() == 1)
+            channel.sendMessage(results.getPage(1)).queue();
+        else
+            sendPaginator(channel, results, ownerId);
+    }
+
+    /**
+     * Sends the first page of a {@link Paginator} in the specified channel. The message is remembered in the {@link
+     * #commandListStore} along with the command lists, and the arrow emojis for changing pages are added (but only if
+     * there's more than one page).
+     * <p><br>
+     * <u>Precondition:</u> this method assumes that the {@link CommandManager} was built with {@link
+     * CommandManager#build()}.
+     *
+     * @param channel   the channel to send the pages in
+     * @param paginator the pages
+     * @param ownerId   the ID of the user who asked for the pages, or 0 if it isn't known
+     */
+    public void sendPaginator(@NotNull MessageChannel channel, @NotNull Paginator paginator, long ownerId) {
+        ManagerConfig config = getRegistry().getConfig();
+        channel.sendMessage(paginator.getPage(1)).queue(
                 m -> {
-                    commandListMessageCache.put(m.getIdLong(), m);
-                    if (totalCommandListPages > 1) {
-                        JDAUtils.react(m, builtConfig.getLeftArrowEmoji());
-                        JDAUtils.react(m, builtConfig.getRightArrowEmoji());
+                    commandListStore.put(m.getIdLong(), PageState.of(1, channel.getIdLong(), ownerId, paginator));
+                    if (paginator.getTotalPages() > 1) {
+                        JDAUtils.react(m, config.getLeftArrowEmoji());
+                        JDAUtils.react(m, config.getRightArrowEmoji());
                     }
                 });
     }
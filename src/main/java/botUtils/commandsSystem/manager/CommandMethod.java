@@ -0,0 +1,35 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.commandsSystem.types.CommandCallData;
+import botUtils.commandsSystem.types.function.Function;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a method as the code for a {@link Function} (or any other command type that runs code). The method must be
+ * public and static, and it must take a single {@link CommandCallData} (or a subclass such as {@link
+ * botUtils.commandsSystem.types.function.FunctionCallData}) as its only parameter.
+ * <p><br>
+ * When the {@code processor} module is on the annotation processor path, every class with annotated methods gets a
+ * generated {@link CommandMethodRegistry} that calls those methods directly. A {@link CommandManager} finds these
+ * registries through {@link java.util.ServiceLoader} when it is built, so no reflection is needed to find or call the
+ * methods. If the processor wasn't run, the annotation is still honored when the class is scanned with reflection.
+ * <p><br>
+ * Either way, the class must still be added to the manager with {@link CommandManager#addCommandCodeClass(Class)}.
+ * <pre>{@code
+ * @CommandMethod("roll")
+ * public static void rollDice(FunctionCallData data) { ... }
+ * }</pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CommandMethod {
+    /**
+     * The name of the command whose code this is (not case sensitive). If it is left empty, the name of the method is
+     * used instead.
+     *
+     * @return the command name
+     */
+    String value() default "";
+}
@@ -0,0 +1,30 @@
+package botUtils.commandsSystem.manager;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * A compile time registry of the {@link CommandMethod} methods in a single class. Implementations are generated by the
+ * annotation processor in the {@code processor} module and listed in {@code
+ * META-INF/services/botUtils.commandsSystem.manager.CommandMethodRegistry}, where a {@link CommandManager} finds them
+ * with {@link java.util.ServiceLoader}.
+ * <p><br>
+ * When a class added with {@link CommandManager#addCommandCodeClass(Class)} has a registry, the manager uses it instead
+ * of scanning the class with reflection. Only the annotated methods are registered in that case.
+ */
+public interface CommandMethodRegistry {
+    /**
+     * Gets the class containing the methods in this registry.
+     *
+     * @return the class the methods were declared in
+     */
+    @NotNull Class<?> getDeclaringClass();
+
+    /**
+     * Adds an invoker for every method in this registry to the given map.
+     *
+     * @param methods the map to add to, keyed by lowercase command name
+     */
+    void register(@NotNull Map<String, CommandInvoker> methods);
+}
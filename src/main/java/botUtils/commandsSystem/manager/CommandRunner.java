@@ -2,9 +2,8 @@ package botUtils.commandsSystem.manager;
 
 import botUtils.commandsSystem.types.Command;
 import botUtils.commandsSystem.types.CommandCallData;
+import botUtils.commandsSystem.types.LazyCommand;
 import botUtils.tools.Checks;
-import botUtils.tools.JDAUtils;
-import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.events.Event;
 import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
@@ -14,6 +13,7 @@ import net.dv8tion.jda.api.events.message.react.MessageReactionAddEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.Locale;
 import java.util.Objects;
 
@@ -157,31 +157,54 @@ public class CommandRunner {
      */
     public static boolean runMessage(@NotNull CommandManager manager, @NotNull Message message,
                                      @NotNull MessageChannel channel, Member member, @NotNull User user) {
+        // Use the same snapshot of the manager for this entire message, even if it's reloaded in the meantime
+        Registry registry = manager.getRegistry();
+        ManagerConfig config = registry.getConfig();
+
         // Ignore messages from this bot and other bots if those are disabled too
         if (Checks.eventAuthorIsIgnored(message.getAuthor(), manager.getJda().getSelfUser(),
-                manager.getConfig().doAllowBotEvents()))
+                config.doAllowBotEvents()))
             return false;
 
         // Ensure the message starts with the prefix. If not, do nothing and return false.
-        String messageStr = removePrefix(manager.getConfig(), message.getContentRaw(), channel.getType());
+        String messageStr = removePrefix(config, message.getContentRaw(), channel.getType());
         if (messageStr == null)
             return false;
 
         String[] args = messageStr.split("\\s+");
 
-        // Check to see if the command list was requested.
-        for (String prompt : manager.getConfig().getCommandListPrompts())
-            if (Checks.stringArrayStartsWith(args, prompt.split("\\s+"))) {
-                manager.sendCommandList(channel);
+        // Check to see if the command list was requested. Any words after the prompt are a search through it.
+        for (String prompt : config.getCommandListPrompts()) {
+            String[] promptArgs = prompt.split("\\s+");
+            if (Checks.stringArrayStartsWith(args, promptArgs)) {
+                if (args.length > promptArgs.length)
+                    manager.sendCommandSearch(channel,
+                            String.join(" ", Arrays.copyOfRange(args, promptArgs.length, args.length)),
+                            message.getAuthor().getIdLong());
+                else
+                    manager.sendCommandList(channel, message.getAuthor().getIdLong());
                 return true;
             }
+        }
 
-        // Check to see if the user requested one of the commands associated with the command manager.
-        for (Command command : manager.getCommands()) {
+        // Check to see if the user requested one of the commands associated with the command manager. Only the
+        // commands with a name or alias starting with the first word of the message could possibly match.
+        for (Command command : registry.getCandidates(args[0])) {
             String[] match = command.checkForMatch(args);
 
             if (match != null)
                 try {
+                    // Lazy commands are fully read the first time they're used, so that the call data refers to the
+                    // real command
+                    if (command instanceof LazyCommand)
+                        try {
+                            command = ((LazyCommand) command).get();
+                        } catch (Exception e) {
+                            manager.sendError(channel, "Failed to load the **" + command.getName() + "** command.");
+                            e.printStackTrace();
+                            return true;
+                        }
+
                     CommandCallData data = command.getCallDataClass()
                             .getConstructor(CommandManager.class, Command.class)
                             .newInstance(manager, command)
@@ -189,10 +212,11 @@ public class CommandRunner {
                             .setMessageArgs(match)
                             .setChannel(channel)
                             .setMember(member)
-                            .setUser(user);
+                            .setUser(user)
+                            .setBuffered(config.doBufferReplies());
                     // Instantiate both the Command and its associated CommandCallData instance
 
-                    execute(command, data);
+                    execute(command, data, registry.getMethod(command.getMethodName()));
                     return true;
                 } catch (Exception e) {
                     e.printStackTrace();
@@ -201,8 +225,8 @@ public class CommandRunner {
 
         // If this point is reached the user used a proper prefix but the command wasn't recognized.
         // Throw an error unless unknown command errors were disabled.
-        if (manager.getConfig().doSendUnknownCommandError()) {
-            manager.sendError(channel, "Unknown command.");
+        if (config.doSendUnknownCommandError()) {
+            manager.sendError(channel, registry.getUnknownCommandError());
             return true;
         }
 
@@ -211,8 +235,8 @@ public class CommandRunner {
 
     /**
      * Evaluates a reaction a user added to a {@link Message} in a Discord {@link MessageChannel}. Currently, this just
-     * means checking to see if the user was reacting with an arrow emoji to request changing pages in a command list.
-     * In the future this may include commands that are executed when reactions are added.
+     * means checking to see if the user was reacting with an arrow emoji to request changing pages in a command list
+     * or a {@link Paginator}. In the future this may include commands that are executed when reactions are added.
      *
      * <p><br>
      * <u>Precondition:</u> this method assumes that the {@link CommandManager} was built with {@link
@@ -226,87 +250,60 @@ public class CommandRunner {
      */
     public static boolean runReaction(@NotNull CommandManager manager, @NotNull User user,
                                       @NotNull MessageReaction reaction, boolean isPrivateMessage) {
+        ManagerConfig config = manager.getConfig();
+
         // Ignore reactions from this bot and other bots if those are disabled too
-        if (Checks.eventAuthorIsIgnored(user, manager.getJda().getSelfUser(), manager.getConfig().doAllowBotEvents()))
+        if (Checks.eventAuthorIsIgnored(user, manager.getJda().getSelfUser(), config.doAllowBotEvents()))
             return false;
 
         String code = reaction.getReactionEmote().getAsReactionCode();
-        boolean nextPage = code.equalsIgnoreCase(manager.getConfig().getRightArrowEmoji());
+        boolean nextPage = code.equalsIgnoreCase(config.getRightArrowEmoji());
 
         // If the emoji reaction wasn't recognized give up and do nothing
-        if (!code.equalsIgnoreCase(manager.getConfig().getLeftArrowEmoji()) && !nextPage)
+        if (!code.equalsIgnoreCase(config.getLeftArrowEmoji()) && !nextPage)
             return false;
 
-        // If the command list message was cached update it with the next page and finish
-        if (manager.getCommandListMessageCache().containsKey(reaction.getMessageIdLong())) {
-            updateCommandList(manager, manager.getCommandListMessageCache().get(reaction.getMessageIdLong()),
-                    user, reaction, !isPrivateMessage, nextPage);
-            return true;
-        }
-
-        // Since the fast detection with the cache didn't work, try the slow method. Check to see if the message
-        // was sent by the bot and is a command list for this manager
-        Message message = reaction.getChannel().retrieveMessageById(reaction.getMessageIdLong()).complete();
-
-        try {
-            // Confirm that the message was sent by the bot
-            if (message.getAuthor().getIdLong() != manager.getJda().getSelfUser().getIdLong())
-                return false;
+        // Only command lists and paginators remembered by the manager can change pages. Anything else is ignored without
+        // asking Discord for the message, so reactions never block the event thread.
+        PageStateStore store = manager.getCommandListStore();
+        PageState state = store.get(reaction.getMessageIdLong());
+        if (state == null)
+            return false;
 
-            // Confirm that it has an embed and the title of the embed uses the name of the CommandManager
-            if(!manager.getCommandListTitle().equals(message.getEmbeds().get(0).getTitle()))
-                return false;
+        // The edit is combined with any other clicks on the same message that arrive soon after this one
+        Registry registry = manager.getRegistry();
+        Paginator paginator = state.getPaginator();
+        manager.getPageFlipper().flip(store, paginator == null ? registry.getCommandListPages() : paginator,
+                reaction.getChannel(), reaction.getMessageIdLong(),
+                new String[]{config.getLeftArrowEmoji(), config.getRightArrowEmoji()}, nextPage ? 1 : -1,
+                Math.max(0, registry.getConfig().getPageFlipDelay()), isPrivateMessage ? null : reaction,
+                isPrivateMessage ? null : user);
+        return true;
+    }
 
-            updateCommandList(manager, message, user, reaction, !isPrivateMessage, nextPage);
-            return true;
-        } catch (Exception ignore) {
-            return false;
-        }
+    public static void execute(@NotNull Command command, @NotNull CommandCallData commandData) {
+        execute(command, commandData, commandData.getManager().getCommandInvoker(command));
     }
 
     /**
-     * Replaces a message containing a command list with the next page of commands and stores it in the message cache
-     * for the {@link CommandManager}.
-     * <p><br>
-     * <u>Precondition:</u> this method assumes that the {@link Message} contains an {@link EmbedBuilder} that
-     * contains a {@link MessageEmbed.Footer} that contains text in the format "{@code Page x of y}", or any other
-     * footer syntax where the second argument (when split by spaces) is the current page number.
+     * Processes a {@link Command} with the given method. Any errors are sent to the user. If the call data is {@link
+     * CommandCallData#setBuffered(boolean) buffered}, the messages it collected are sent once the command finishes.
      *
-     * @param manager  the operating manager
-     * @param message  the old command list message
-     * @param reaction the reaction a user added to this message
-     * @param doRemove true if the reaction should be removed after editing the message
-     * @param nextPage true to go to the next page; false to go to the previous page
+     * @param command     the command to process
+     * @param commandData the data about the user's message
+     * @param method      the invoker for the method written by the bot developer that should be executed (or null if
+     *                    there's no code, such as for a CallResponse command)
      */
-    private static void updateCommandList(@NotNull CommandManager manager, @NotNull Message message, @NotNull User user,
-                                          @NotNull MessageReaction reaction, boolean doRemove, boolean nextPage) {
-        int page;
-        try {
-            String footer = Objects.requireNonNull(message.getEmbeds().get(0).getFooter()).getText();
-            assert footer != null;
-            page = Integer.parseInt(footer.split("\\s+")[1]) +
-                    (nextPage ? 1 : -1);
-        } catch (Exception ignore) {
-            return;
-        }
-
-        message.editMessage(manager.getCommandListPage(page).build()).queue(
-                m -> manager.getCommandListMessageCache().put(m.getIdLong(), m));
-        if (doRemove)
-            JDAUtils.removeReaction(reaction, user, false);
-    }
-
-    public static void execute(@NotNull Command command, @NotNull CommandCallData commandData) {
+    private static void execute(@NotNull Command command, @NotNull CommandCallData commandData,
+                                @Nullable CommandInvoker method) {
         try {
-            command.process(
-                    commandData,
-                    // This is the method written by bot developer that should be executed (or null if there's
-                    // no code, such as for a CallResponse command)
-                    commandData.getManager().getCommandCodeMethod(command)
-            );
+            command.process(commandData, method);
+            // Send anything the command buffered. Messages sent later, like from a callback, go out right away.
+            commandData.setBuffered(false);
         } catch (Exception e) {
-            // If processing the command threw any errors, show it to the end user
-            command.sendError(commandData.getChannel(), e.getMessage());
+            // If processing the command threw any errors, show it to the end user after anything it already sent
+            commandData.setBuffered(false);
+            commandData.getManager().sendError(commandData.getChannel(), e.getMessage());
         }
     }
 
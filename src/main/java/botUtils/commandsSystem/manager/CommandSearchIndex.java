@@ -0,0 +1,181 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.commandsSystem.types.Command;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * An inverted index over the {@link Command Commands} in the command list, used to answer searches like {@code !commands
+ * roll} without making users flip through every page.
+ * <p><br>
+ * Every command name, alias and short description is split into lowercase words, and each word points to the commands
+ * that use it along with a weight for where it was found. The words are kept in a sorted array, so every word starting
+ * with a search term is found with a single binary search. This means "ro" finds "roll" and "role".
+ * <p><br>
+ * Results must match every word in the search, and are ranked by:
+ * <ol>
+ *     <li>Whether the whole search is exactly the command's name, or one of its aliases.</li>
+ *     <li>The total weight of the matching words. Words in the name count for more than words in an alias, which
+ *     count for more than words in the short description, and whole words count for more than prefixes.</li>
+ *     <li>The position of the command in the command list.</li>
+ * </ol>
+ * The index is immutable and built once for each {@link Registry}.
+ */
+final class CommandSearchIndex {
+    private static final int NAME_WEIGHT = 16;
+    private static final int ALIAS_WEIGHT = 8;
+    private static final int DESCRIPTION_WEIGHT = 2;
+    private static final int EXACT_NAME_BONUS = 1000;
+    private static final int EXACT_ALIAS_BONUS = 500;
+
+    /**
+     * The commands in the order they appear in the command list.
+     */
+    private final @NotNull Command[] commands;
+
+    /**
+     * Every distinct word, sorted.
+     */
+    private final @NotNull String[] terms;
+
+    /**
+     * For each word in {@link #terms}, the positions in {@link #commands} of the commands that use it, in ascending
+     * order.
+     */
+    private final @NotNull int[][] postings;
+
+    /**
+     * For each word in {@link #terms}, the weight of the word in each command in {@link #postings}.
+     */
+    private final @NotNull int[][] weights;
+
+    private CommandSearchIndex(@NotNull Command[] commands) {
+        this.commands = commands;
+
+        Map<String, int[]> postingLists = new HashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        for (int i = 0; i < commands.length; i++) {
+            // The weight of each word is the best one from any of the places it was found in this command
+            Map<String, Integer> words = new HashMap<>();
+            addWords(words, commands[i].getName(), NAME_WEIGHT);
+            for (String alias : commands[i].getAliases())
+                addWords(words, alias, ALIAS_WEIGHT);
+            addWords(words, commands[i].getShortDescription(), DESCRIPTION_WEIGHT);
+
+            for (Map.Entry<String, Integer> word : words.entrySet()) {
+                // Each posting list stores pairs of command positions and weights
+                int size = sizes.getOrDefault(word.getKey(), 0);
+                int[] list = postingLists.get(word.getKey());
+                if (list == null || list.length == size * 2)
+                    postingLists.put(word.getKey(),
+                            list = list == null ? new int[4] : Arrays.copyOf(list, list.length * 2));
+                list[size * 2] = i;
+                list[size * 2 + 1] = word.getValue();
+                sizes.put(word.getKey(), size + 1);
+            }
+        }
+
+        this.terms = postingLists.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        this.postings = new int[terms.length][];
+        this.weights = new int[terms.length][];
+        for (int t = 0; t < terms.length; t++) {
+            int[] list = postingLists.get(terms[t]);
+            int size = sizes.get(terms[t]);
+            postings[t] = new int[size];
+            weights[t] = new int[size];
+            for (int j = 0; j < size; j++) {
+                postings[t][j] = list[j * 2];
+                weights[t][j] = list[j * 2 + 1];
+            }
+        }
+    }
+
+    /**
+     * Builds the index for every {@link Command} in the command list.
+     *
+     * @param commandSet the commands
+     * @return the new index
+     */
+    static @NotNull CommandSearchIndex of(@NotNull CommandSet commandSet) {
+        Command[] commands = new Command[commandSet.getListEligibleCommands()];
+        for (int i = 0; i < commands.length; i++)
+            commands[i] = commandSet.getListCommand(i);
+        return new CommandSearchIndex(commands);
+    }
+
+    /**
+     * Splits text into lowercase words, keeping the highest weight for each one.
+     *
+     * @param words  the words found so far, with their weights
+     * @param text   the text to split
+     * @param weight the weight of the words in this text
+     */
+    private static void addWords(@NotNull Map<String, Integer> words, @NotNull String text, int weight) {
+        for (String word : tokenize(text))
+            words.merge(word, weight, Math::max);
+    }
+
+    private static @NotNull String[] tokenize(@NotNull String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Finds the {@link Command Commands} matching a search, best match first.
+     *
+     * @param query the search
+     * @return the matching commands, which may be empty
+     */
+    @NotNull Command[] search(@NotNull String query) {
+        String[] words = tokenize(query);
+        if (words.length == 0)
+            return new Command[0];
+
+        int[] scores = new int[commands.length];
+        int[] matches = new int[commands.length];
+        int[] best = new int[commands.length];
+
+        for (String word : words) {
+            Arrays.fill(best, 0);
+
+            // Every term starting with the word is next to each other in the sorted array
+            int first = Arrays.binarySearch(terms, word);
+            for (int t = first < 0 ? ~first : first; t < terms.length && terms[t].startsWith(word); t++) {
+                boolean whole = terms[t].length() == word.length();
+                for (int j = 0; j < postings[t].length; j++) {
+                    int weight = whole ? weights[t][j] : Math.max(1, weights[t][j] / 2);
+                    best[postings[t][j]] = Math.max(best[postings[t][j]], weight);
+                }
+            }
+
+            for (int i = 0; i < commands.length; i++)
+                if (best[i] > 0) {
+                    scores[i] += best[i];
+                    matches[i]++;
+                }
+        }
+
+        String whole = query.trim();
+        List<Integer> results = new ArrayList<>();
+        for (int i = 0; i < commands.length; i++)
+            if (matches[i] == words.length) {
+                if (commands[i].getName().equalsIgnoreCase(whole))
+                    scores[i] += EXACT_NAME_BONUS;
+                else
+                    for (String alias : commands[i].getAliases())
+                        if (alias.equalsIgnoreCase(whole)) {
+                            scores[i] += EXACT_ALIAS_BONUS;
+                            break;
+                        }
+                results.add(i);
+            }
+
+        // Sorting is stable, so commands with the same score stay in command list order
+        results.sort((a, b) -> Integer.compare(scores[b], scores[a]));
+        return results.stream().map(i -> commands[i]).toArray(Command[]::new);
+    }
+}
@@ -0,0 +1,469 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.commandsSystem.types.Command;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * This is an immutable set of {@link Command} definitions, along with the index used to find the commands that could
+ * match a message. It is part of a {@link Registry}, and it is everything in the {@link Registry} that doesn't depend
+ * on a particular {@link CommandManager}.
+ * <p><br>
+ * When many managers use the same commands (see {@link CommandManager#of(net.dv8tion.jda.api.JDA, CommandManager,
+ * String)}), they all share a single {@link CommandSet}. Only the methods and {@link ManagerConfig} in each {@link
+ * Registry} are specific to one manager.
+ */
+public final class CommandSet {
+    /**
+     * The order of the first registered {@link Command}. Commands from Json files are numbered from 0, so they always
+     * come before the registered ones.
+     */
+    private static final long REGISTERED_ORDER = 1L << 62;
+
+    private static final CommandSet EMPTY = new CommandSet(OrderTree.of(), OrderTree.of(), HashTrie.of(), HashTrie.of(),
+            HashTrie.of(), 0, REGISTERED_ORDER, null, 0, 0);
+
+    /**
+     * A {@link Command} along with where it came from.
+     */
+    private static final class Slot {
+        private final @NotNull Command command;
+        private final @Nullable Path file;
+        private final @Nullable String name;
+
+        private Slot(@NotNull Command command, @Nullable Path file, @Nullable String name) {
+            this.command = command;
+            this.file = file;
+            this.name = name;
+        }
+    }
+
+    /**
+     * The {@link Command Commands} that use one word in the index, sorted by their order.
+     */
+    private static final class Bucket {
+        private final @NotNull Command[] commands;
+        private final long @NotNull [] orders;
+
+        private Bucket(@NotNull Command[] commands, long @NotNull [] orders) {
+            this.commands = commands;
+            this.orders = orders;
+        }
+    }
+
+    /**
+     * Every {@link Command}, keyed by its order: first those from Json files, in the order in which their files were
+     * loaded, and then those that were {@link CommandManager#register(botUtils.commandsSystem.builder.CommandBuilder)
+     * registered} in code. A replacement keeps the order of the command it replaces.
+     */
+    private final @NotNull OrderTree<Slot> commands;
+
+    /**
+     * Every {@link Command} that is included in the command list, keyed by its order.
+     */
+    private final @NotNull OrderTree<Command> listCommands;
+
+    /**
+     * The order of the {@link Command} loaded from each Json file.
+     */
+    private final @NotNull HashTrie<Path, Long> fileOrders;
+
+    /**
+     * The order of each {@link Command} that was registered in code rather than loaded from a file, keyed by its
+     * lowercase name.
+     */
+    private final @NotNull HashTrie<String, Long> registeredOrders;
+
+    /**
+     * Maps the first word (in lowercase) of every command name, alias, and typo alias to the commands that use it, in
+     * the same order as {@link #commands}. A user's message can only match a command whose name or alias starts with
+     * the message's first word, so only those candidates need to be checked.
+     */
+    private final @NotNull HashTrie<String, Bucket> index;
+
+    /**
+     * The orders to give the next {@link Command} from a Json file and the next registered one.
+     */
+    private final long nextFileOrder, nextRegisteredOrder;
+
+    /**
+     * Identifies this {@link CommandSet}, and the one this was created from with {@link #withChanges(Map, Map)}.
+     * Only the marker of the previous set is kept, so that a chain of changes doesn't keep every old set in memory.
+     */
+    private final Object version = new Object();
+    private final @Nullable Object previousVersion;
+
+    /**
+     * The positions in the command list that may be different from the previous set: everything before {@code
+     * listChangeFrom} is the same, and if the list is the same length, so is everything from {@code listChangeTo} on.
+     */
+    private final int listChangeFrom, listChangeTo;
+
+    /**
+     * The unmodifiable views returned by the getters, which are only created when they're first used.
+     */
+    private volatile @Nullable List<Command> commandList = null;
+    private volatile @Nullable Map<Path, Command> fileCommands = null;
+    private volatile @Nullable Map<String, Command> registeredCommands = null;
+
+    private CommandSet(@NotNull OrderTree<Slot> commands, @NotNull OrderTree<Command> listCommands,
+                       @NotNull HashTrie<Path, Long> fileOrders, @NotNull HashTrie<String, Long> registeredOrders,
+                       @NotNull HashTrie<String, Bucket> index, long nextFileOrder, long nextRegisteredOrder,
+                       @Nullable Object previousVersion, int listChangeFrom, int listChangeTo) {
+        this.commands = commands;
+        this.listCommands = listCommands;
+        this.fileOrders = fileOrders;
+        this.registeredOrders = registeredOrders;
+        this.index = index;
+        this.nextFileOrder = nextFileOrder;
+        this.nextRegisteredOrder = nextRegisteredOrder;
+        this.previousVersion = previousVersion;
+        this.listChangeFrom = listChangeFrom;
+        this.listChangeTo = listChangeTo;
+    }
+
+    /**
+     * Creates a new {@link CommandSet} from the commands loaded from each Json file.
+     *
+     * @param fileCommands the {@link Command} loaded from each Json file
+     * @return the new {@link CommandSet}
+     */
+    static @NotNull CommandSet of(@NotNull Map<Path, Command> fileCommands) {
+        return of(fileCommands, Map.of());
+    }
+
+    /**
+     * Creates a new {@link CommandSet} from the commands loaded from each Json file and the commands registered in
+     * code.
+     *
+     * @param fileCommands       the {@link Command} loaded from each Json file
+     * @param registeredCommands the commands registered in code, keyed by their lowercase names
+     * @return the new {@link CommandSet}
+     */
+    static @NotNull CommandSet of(@NotNull Map<Path, Command> fileCommands,
+                                  @NotNull Map<String, Command> registeredCommands) {
+        return EMPTY.withChanges(fileCommands, registeredCommands);
+    }
+
+    /**
+     * Creates a copy of this {@link CommandSet} with one more registered {@link Command}. If a command with the same
+     * name was already registered, it is replaced, and the new command takes its place in the command list and the
+     * index.
+     *
+     * @param command the command to register
+     * @return the new {@link CommandSet}
+     */
+    @NotNull CommandSet withRegistered(@NotNull Command command) {
+        return withChanges(Map.of(), Map.of(command.getNameLower(), command));
+    }
+
+    /**
+     * Creates a copy of this {@link CommandSet} with some of the commands added, replaced, or removed. A replacement
+     * keeps the place of the command it replaces in {@link #getCommands()}, the command list and the index, even if
+     * the old command wasn't in the command list. New commands from Json files are added after the other files, and
+     * new registered commands are added at the end.
+     * <p><br>
+     * Nothing is copied in full. The commands, the command list and the index are persistent trees, so the copy only
+     * replaces the few nodes leading to each changed command and shares everything else with this set. Of the index,
+     * only the candidates for the names and aliases of the changed commands are copied, and each of those only once no
+     * matter how many of the changes use it. Changing a few commands in a large set stays cheap.
+     *
+     * @param fileChanges       the new command for each Json file that changed, or null for those that were removed
+     * @param registeredChanges the new command for each registered command that changed, keyed by its lowercase name,
+     *                          or null for those that were removed
+     * @return the new {@link CommandSet}, or this one if nothing changed
+     */
+    @NotNull CommandSet withChanges(@NotNull Map<Path, Command> fileChanges,
+                                    @NotNull Map<String, Command> registeredChanges) {
+        OrderTree<Slot> commands = this.commands;
+        OrderTree<Command> listCommands = this.listCommands;
+        HashTrie<Path, Long> fileOrders = this.fileOrders;
+        HashTrie<String, Long> registeredOrders = this.registeredOrders;
+        long nextFileOrder = this.nextFileOrder, nextRegisteredOrder = this.nextRegisteredOrder;
+
+        // The changes to the candidates for each word, keyed by order. A null command removes that order.
+        Map<String, TreeMap<Long, Command>> indexChanges = new HashMap<>();
+        long listFrom = Long.MAX_VALUE, listTo = Long.MIN_VALUE;
+
+        for (Map.Entry<?, Command> entry : concat(fileChanges, registeredChanges)) {
+            boolean isFile = entry.getKey() instanceof Path;
+            Long existing = isFile ? fileOrders.get(entry.getKey()) : registeredOrders.get(entry.getKey());
+            Command replacement = entry.getValue();
+            if (existing == null && replacement == null)
+                continue;
+
+            long order;
+            Command old;
+            if (existing != null) {
+                order = existing;
+                old = Objects.requireNonNull(commands.get(order)).command;
+            } else if (isFile) {
+                order = nextFileOrder++;
+                old = null;
+                fileOrders = fileOrders.put((Path) entry.getKey(), order);
+            } else {
+                order = nextRegisteredOrder++;
+                old = null;
+                registeredOrders = registeredOrders.put((String) entry.getKey(), order);
+            }
+
+            if (replacement == null) {
+                commands = commands.remove(order);
+                if (isFile)
+                    fileOrders = fileOrders.remove(entry.getKey());
+                else
+                    registeredOrders = registeredOrders.remove(entry.getKey());
+            } else {
+                commands = commands.put(order, new Slot(replacement,
+                        isFile ? (Path) entry.getKey() : null, isFile ? null : (String) entry.getKey()));
+            }
+
+            boolean wasListed = old != null && old.doIncludeInCommandsList();
+            boolean isListed = replacement != null && replacement.doIncludeInCommandsList();
+            if (wasListed || isListed) {
+                listCommands = isListed ? listCommands.put(order, replacement) : listCommands.remove(order);
+                listFrom = Math.min(listFrom, order);
+                listTo = Math.max(listTo, order);
+            }
+
+            Set<String> oldWords = old == null ? Set.of() : getFirstWords(old);
+            Set<String> newWords = replacement == null ? Set.of() : getFirstWords(replacement);
+            for (String word : oldWords)
+                if (!newWords.contains(word))
+                    indexChanges.computeIfAbsent(word, w -> new TreeMap<>()).put(order, null);
+            for (String word : newWords)
+                indexChanges.computeIfAbsent(word, w -> new TreeMap<>()).put(order, replacement);
+        }
+
+        if (commands == this.commands)
+            return this;
+
+        HashTrie<String, Bucket> index = this.index;
+        for (Map.Entry<String, TreeMap<Long, Command>> entry : indexChanges.entrySet()) {
+            Bucket bucket = merge(index.get(entry.getKey()), entry.getValue());
+            index = bucket == null ? index.remove(entry.getKey()) : index.put(entry.getKey(), bucket);
+        }
+
+        // If the command list didn't change, every position is the same
+        int from = listFrom > listTo ? listCommands.size() : listCommands.rankOf(listFrom);
+        int to = listFrom > listTo ? listCommands.size() : listCommands.rankOf(listTo + 1);
+
+        return new CommandSet(commands, listCommands, fileOrders, registeredOrders, index, nextFileOrder,
+                nextRegisteredOrder, version, from, to);
+    }
+
+    /**
+     * Gets the entries of the file changes followed by those of the registered changes.
+     */
+    private static @NotNull Iterable<Map.Entry<?, Command>> concat(@NotNull Map<Path, Command> fileChanges,
+                                                                  @NotNull Map<String, Command> registeredChanges) {
+        List<Map.Entry<?, Command>> entries = new ArrayList<>(fileChanges.size() + registeredChanges.size());
+        entries.addAll(fileChanges.entrySet());
+        entries.addAll(registeredChanges.entrySet());
+        return entries;
+    }
+
+    /**
+     * Applies changes to the candidates for one word in the index. The candidates and the changes are both sorted by
+     * order, so they are merged in a single pass.
+     *
+     * @param bucket  the current candidates, or null if there aren't any
+     * @param changes the new command at each changed order, or null for those that were removed
+     * @return the new candidates, or null if there are none left
+     */
+    private static @Nullable Bucket merge(@Nullable Bucket bucket, @NotNull TreeMap<Long, Command> changes) {
+        Command[] oldCommands = bucket == null ? new Command[0] : bucket.commands;
+        long[] oldOrders = bucket == null ? new long[0] : bucket.orders;
+        Command[] commands = new Command[oldCommands.length + changes.size()];
+        long[] orders = new long[commands.length];
+
+        int i = 0, count = 0;
+        for (Map.Entry<Long, Command> change : changes.entrySet()) {
+            long order = change.getKey();
+            while (i < oldOrders.length && oldOrders[i] < order) {
+                commands[count] = oldCommands[i];
+                orders[count++] = oldOrders[i++];
+            }
+            if (i < oldOrders.length && oldOrders[i] == order)
+                i++;
+            if (change.getValue() != null) {
+                commands[count] = change.getValue();
+                orders[count++] = order;
+            }
+        }
+        while (i < oldOrders.length) {
+            commands[count] = oldCommands[i];
+            orders[count++] = oldOrders[i++];
+        }
+
+        return count == 0 ? null : new Bucket(Arrays.copyOf(commands, count), Arrays.copyOf(orders, count));
+    }
+
+    /**
+     * Gets the first word (in lowercase) of the name and every alias and typo alias of a {@link Command}. These are its
+     * keys in the index.
+     *
+     * @param command the command
+     * @return the first words, in order, without duplicates
+     */
+    private static @NotNull Set<String> getFirstWords(@NotNull Command command) {
+        // A command with an alias that starts with its own name shouldn't be checked twice
+        Set<String> words = new LinkedHashSet<>();
+        words.add(getFirstWord(command.getNameLower()));
+        for (String alias : command.getAliases())
+            words.add(getFirstWord(alias));
+        for (String alias : command.getTypoAliases())
+            words.add(getFirstWord(alias));
+        return words;
+    }
+
+    private static @NotNull String getFirstWord(@NotNull String name) {
+        return name.split("\\s+")[0].toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets the unmodifiable list of every {@link Command}.
+     *
+     * @return the commands
+     */
+    public @NotNull List<Command> getCommands() {
+        List<Command> list = commandList;
+        if (list == null) {
+            List<Command> all = new ArrayList<>(commands.size());
+            commands.forEach(slot -> all.add(slot.command));
+            commandList = list = Collections.unmodifiableList(all);
+        }
+        return list;
+    }
+
+    /**
+     * Gets the unmodifiable map of each Json file to the {@link Command} loaded from it.
+     *
+     * @return the commands by file
+     */
+    public @NotNull Map<Path, Command> getFileCommands() {
+        Map<Path, Command> map = fileCommands;
+        if (map == null) {
+            Map<Path, Command> files = new LinkedHashMap<>();
+            commands.forEach(slot -> {
+                if (slot.file != null)
+                    files.put(slot.file, slot.command);
+            });
+            fileCommands = map = Collections.unmodifiableMap(files);
+        }
+        return map;
+    }
+
+    /**
+     * Gets the unmodifiable map of the {@link Command Commands} that were registered in code rather than loaded from a
+     * Json file.
+     *
+     * @return the registered commands, keyed by their lowercase names
+     */
+    public @NotNull Map<String, Command> getRegisteredCommands() {
+        Map<String, Command> map = registeredCommands;
+        if (map == null) {
+            Map<String, Command> registered = new LinkedHashMap<>();
+            commands.forEach(slot -> {
+                if (slot.name != null)
+                    registered.put(slot.name, slot.command);
+            });
+            registeredCommands = map = Collections.unmodifiableMap(registered);
+        }
+        return map;
+    }
+
+    /**
+     * Checks whether a {@link Command} with the given name was registered in code.
+     *
+     * @param name the lowercase name of the command
+     * @return true if there is a registered command with that name; false otherwise
+     */
+    boolean isRegistered(@NotNull String name) {
+        return registeredOrders.get(name) != null;
+    }
+
+    /**
+     * Finds the Json file that the {@link Command} with the given name was loaded from.
+     *
+     * @param name the lowercase name of the command
+     * @return the file (or the key of the command in a command pack), or null if no file has a command with that name
+     */
+    @Nullable Path getFile(@NotNull String name) {
+        Bucket bucket = index.get(getFirstWord(name));
+        if (bucket == null)
+            return null;
+
+        for (int i = 0; i < bucket.commands.length; i++)
+            if (bucket.commands[i].getNameLower().equals(name)) {
+                Path file = Objects.requireNonNull(commands.get(bucket.orders[i])).file;
+                if (file != null)
+                    return file;
+            }
+        return null;
+    }
+
+    /**
+     * Gets the {@link Command Commands} that could match a message starting with the given word. These are the only
+     * commands that need to be checked with {@link Command#checkForMatch(String[])}. They are returned in the same
+     * order as {@link #getCommands()}.
+     *
+     * @param firstArg the first word of the message (after the prefix)
+     * @return the candidate commands, which may be empty. Do not modify this array.
+     */
+    public @NotNull Command[] getCandidates(@NotNull String firstArg) {
+        Bucket bucket = index.get(firstArg.toLowerCase(Locale.ROOT));
+        return bucket == null ? new Command[0] : bucket.commands;
+    }
+
+    /**
+     * Finds the {@link Command} with the given name.
+     *
+     * @param name the name of the command (case insensitive)
+     * @return the command, or null if there isn't one with that name. If a Json file and a registered command both use
+     * the name, the one from the Json file is returned.
+     */
+    public @Nullable Command getCommand(@NotNull String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (Command command : getCandidates(getFirstWord(lower)))
+            if (command.getNameLower().equals(lower))
+                return command;
+        return null;
+    }
+
+    /**
+     * Gets the number of {@link Command Commands} that are included in the command list.
+     *
+     * @return the number of list eligible commands
+     */
+    public int getListEligibleCommands() {
+        return listCommands.size();
+    }
+
+    /**
+     * Gets the list eligible {@link Command} at the given position in the command list.
+     *
+     * @param index the position, starting at 0
+     * @return the command
+     * @throws IndexOutOfBoundsException if the index is not less than {@link #getListEligibleCommands()}
+     */
+    public @NotNull Command getListCommand(int index) {
+        return listCommands.valueAt(index);
+    }
+
+    /**
+     * Gets the positions in the command list that may be different from another {@link CommandSet}, if this set was
+     * created from it with {@link #withChanges(Map, Map)}. Every position before the first one shows the same command
+     * in both sets. If both lists are the same length, so does every position from the second one on.
+     *
+     * @param previous the other set
+     * @return the first position that may be different and the position after the last one, or null if this set
+     * wasn't created directly from the other one
+     */
+    int @Nullable [] getListChanges(@NotNull CommandSet previous) {
+        return previous.version == previousVersion ? new int[]{listChangeFrom, listChangeTo} : null;
+    }
+}
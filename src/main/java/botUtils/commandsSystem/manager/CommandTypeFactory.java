@@ -0,0 +1,137 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.commandsSystem.types.Command;
+import botUtils.exceptions.CommandClassException;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Creates instances of one {@link Command} subclass from Json. Each Json file has a "type" key, and the {@link
+ * CommandManager} uses the factory whose {@link #getType()} matches it to build the command.
+ * <p><br>
+ * Factories are found in two ways:
+ * <ul>
+ *     <li>Through {@link java.util.ServiceLoader}. Any library can provide command types by listing its factories
+ *     in {@code META-INF/services/botUtils.commandsSystem.manager.CommandTypeFactory}. This is how the built-in
+ *     {@link botUtils.commandsSystem.types.function.Function Function} and {@link
+ *     botUtils.commandsSystem.types.callResponse.CallResponse CallResponse} types are registered.</li>
+ *     <li>Through {@link CommandManager#addCommandType(String, Creator)}, usually with a constructor reference such as
+ *     {@code manager.addCommandType("Dice", Dice::new)}.</li>
+ * </ul>
+ * Either way, commands are created with a direct call, and any exception the constructor throws reaches the manager
+ * unchanged.
+ */
+public interface CommandTypeFactory {
+    /**
+     * Gets the value of the "type" key in Json files that this factory builds (case sensitive).
+     *
+     * @return the command type name
+     */
+    @NotNull String getType();
+
+    /**
+     * Creates a new {@link Command} from Json.
+     *
+     * @param reader  a reader positioned at the start of the command's Json object
+     * @param manager the manager the command belongs to
+     * @return the new command
+     * @throws Exception if the Json is not a valid command of this type
+     */
+    @NotNull Command create(@NotNull JsonReader reader, @NotNull CommandManager manager) throws Exception;
+
+    /**
+     * The code that creates a {@link Command}, usually a reference to a constructor that accepts a {@link JsonReader}
+     * and {@link CommandManager}.
+     */
+    @FunctionalInterface
+    interface Creator {
+        @NotNull Command create(@NotNull JsonReader reader, @NotNull CommandManager manager) throws Exception;
+    }
+
+    /**
+     * Creates a {@link CommandTypeFactory} for the given type name that calls the given {@link Creator}.
+     *
+     * @param type    the value of the "type" key this factory builds
+     * @param creator the code that creates the command
+     * @return the new factory
+     */
+    static @NotNull CommandTypeFactory of(@NotNull String type, @NotNull Creator creator) {
+        return new CommandTypeFactory() {
+            @Override
+            public @NotNull String getType() {
+                return type;
+            }
+
+            @Override
+            public @NotNull Command create(@NotNull JsonReader reader, @NotNull CommandManager manager)
+                    throws Exception {
+                return creator.create(reader, manager);
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link CommandTypeFactory} for a {@link Command} subclass that only has a constructor, named by the
+     * class's {@link Class#getName() name}. This is for subclasses registered with {@link
+     * CommandManager#addCommandType(Class)}.
+     * <p><br>
+     * The constructor is found once, here, rather than for every file. A constructor accepting a {@link JsonReader}
+     * and {@link CommandManager} is preferred, so that the Json can be streamed. Otherwise, a constructor accepting a
+     * {@link JsonObject} and {@link CommandManager} is used. That still works, but it means building the whole Json
+     * tree for every command of the type, so it's slower and uses more memory. If there is neither, every command of
+     * this type fails with a {@link CommandClassException}.
+     *
+     * @param type the {@link Command} subclass
+     * @return the new factory
+     */
+    static @NotNull CommandTypeFactory of(@NotNull Class<? extends Command> type) {
+        Creator creator;
+
+        try {
+            Constructor<? extends Command> constructor = type.getConstructor(JsonReader.class, CommandManager.class);
+            creator = (reader, manager) -> newInstance(constructor, reader, manager);
+        } catch (NoSuchMethodException ignore) {
+            try {
+                // Command types that can't be streamed still get the full JsonObject
+                Constructor<? extends Command> constructor =
+                        type.getConstructor(JsonObject.class, CommandManager.class);
+                creator = (reader, manager) -> newInstance(
+                        constructor, new Gson().<JsonObject>fromJson(reader, JsonObject.class), manager);
+            } catch (NoSuchMethodException e) {
+                creator = (reader, manager) -> {
+                    throw new CommandClassException("   '" + type.getName() + "' command class does not have a " +
+                            "valid constructor.\n   It must accept a JsonReader or JsonObject and CommandManager as " +
+                            "parameters in that order.");
+                };
+            }
+        }
+
+        return of(type.getName(), creator);
+    }
+
+    /**
+     * Calls a reflected {@link Command} constructor, unwrapping any exception it throws.
+     *
+     * @param constructor the constructor
+     * @param args        the arguments for the constructor
+     * @return the new command
+     * @throws Exception whatever the constructor throws
+     */
+    private static @NotNull Command newInstance(@NotNull Constructor<? extends Command> constructor,
+                                                @NotNull Object... args) throws Exception {
+        try {
+            return constructor.newInstance(args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception)
+                throw (Exception) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw e;
+        }
+    }
+}
@@ -15,6 +15,14 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.Collections;
 
 public class CommandUtils {
 
@@ -33,6 +41,47 @@ public class CommandUtils {
         return CommandManager.of(jda, directory, name);
     }
 
+    /**
+     * Finds a folder on the classpath and returns it as a {@link Path} that a {@link CommandManager} can read. The
+     * resource is looked up with the thread's context {@link ClassLoader}, or the one that loaded this library if
+     * there isn't one.
+     * <p><br>
+     * If the folder is on disk (as it usually is when running from an IDE), its regular path is returned. If it's
+     * inside a jar, the jar is opened as a zip {@link FileSystem} (or the existing one is reused if it was opened
+     * already) and the path inside it is returned, so the Json files can be read without extracting them. The {@link
+     * FileSystem} is left open, since the commands may be reloaded at any time.
+     *
+     * @param resource the resource name of the folder, such as {@code "commands"}
+     * @return the path to the folder
+     * @throws IllegalArgumentException if the resource could not be found
+     * @throws IOException              if the jar containing the resource could not be opened
+     */
+    public static @NotNull Path getResourcePath(@NotNull String resource) throws IOException {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null)
+            loader = CommandUtils.class.getClassLoader();
+
+        URL url = loader.getResource(resource);
+        if (url == null)
+            throw new IllegalArgumentException("Resource '" + resource + "' could not be found on the classpath.");
+
+        URI uri;
+        try {
+            uri = url.toURI();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Resource '" + resource + "' has an invalid location: " + url, e);
+        }
+
+        if (uri.getScheme().equals("jar"))
+            try {
+                FileSystems.newFileSystem(uri, Collections.emptyMap());
+            } catch (FileSystemAlreadyExistsException ignore) {
+                // Another manager already opened this jar
+            }
+
+        return Path.of(uri);
+    }
+
     /**
      * Creates a default {@link CallResponse} command via the {@link
      * CallResponseBuilder} class and writes it to the given json file. If the file
@@ -0,0 +1,170 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.tools.Checks;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches the folder of a {@link CommandManager} for changes to command Json files and reloads only the files that
+ * changed. It is created through {@link CommandManager#watch(long)}.
+ * <p><br>
+ * A {@link WatchService} is registered on the folder and every one of its sub folders (as well as any folders created
+ * later). Editors often write a file several times in quick succession when saving, so changes are not applied
+ * immediately. Instead they are collected until no new changes have arrived for the debounce period, and then the whole
+ * batch is passed to {@link CommandManager#reload(java.util.Collection)} at once.
+ * <p><br>
+ * The watching happens on a single daemon thread, so it will not prevent the bot from shutting down.
+ */
+public class CommandWatcher implements Closeable {
+    /**
+     * The default number of milliseconds to wait after the last change before reloading.
+     */
+    public static final long DEFAULT_DEBOUNCE = 500;
+
+    private final CommandManager manager;
+    private final long debounceMillis;
+    private final WatchService watchService;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private CommandWatcher(@NotNull CommandManager manager, @NotNull Path folder, long debounceMillis)
+            throws IOException {
+        this.manager = manager;
+        this.debounceMillis = debounceMillis;
+        this.watchService = folder.getFileSystem().newWatchService();
+
+        registerAll(folder);
+
+        this.thread = new Thread(this::run, "CommandWatcher-" + manager.getName());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Creates a new {@link CommandWatcher} and immediately starts watching the given folder.
+     *
+     * @param manager        the manager to reload when changes are found
+     * @param folder         the root folder of the manager's Json files
+     * @param debounceMillis the number of milliseconds without changes to wait before reloading
+     * @return the new, running {@link CommandWatcher}
+     * @throws IOException                   if the watch service could not be created or the folder could not be
+     *                                       registered
+     * @throws UnsupportedOperationException if the folder's file system doesn't support watching
+     */
+    static @NotNull CommandWatcher of(@NotNull CommandManager manager, @NotNull Path folder, long debounceMillis)
+            throws IOException {
+        return new CommandWatcher(manager, folder, debounceMillis);
+    }
+
+    /**
+     * Returns whether this watcher is still running. It stops running once {@link #close()} is called.
+     *
+     * @return true if it is running; false otherwise
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops watching for changes. Any changes that were collected but not yet applied are discarded.
+     */
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            watchService.close();
+        } catch (IOException ignore) {
+        }
+    }
+
+    /**
+     * Registers the given directory and all of its sub directories with the {@link #watchService}.
+     *
+     * @param dir the directory to start from
+     * @throws IOException if a directory could not be registered
+     */
+    private void registerAll(@NotNull Path dir) throws IOException {
+        try (Stream<Path> stream = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) stream.filter(Files::isDirectory)::iterator)
+                p.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+    }
+
+    /**
+     * The main loop of the watcher thread. It blocks until a change is found, then keeps collecting changes until the
+     * debounce period passes quietly, and then reloads the batch.
+     */
+    private void run() {
+        while (running) {
+            try {
+                Set<Path> changed = new LinkedHashSet<>();
+
+                // Wait for the first change
+                collect(watchService.take(), changed);
+
+                // Keep collecting until there's a quiet period
+                WatchKey key;
+                while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null)
+                    collect(key, changed);
+
+                if (changed.contains(null))
+                    // Events were lost, so there's no way to know which files changed. Check all of them.
+                    manager.reloadAll();
+                else if (!changed.isEmpty())
+                    manager.reload(changed);
+
+            } catch (InterruptedException | ClosedWatchServiceException ignore) {
+                // This watcher was closed
+                return;
+            } catch (Exception e) {
+                // Never let an unexpected error kill the watcher thread
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Adds the files affected by all the events on the given key to the set of changed files. Newly created directories
+     * are registered so that their contents are watched too, and any Json files already inside them are added to the
+     * set. If events were lost, null is added to signal that a full reload is needed.
+     *
+     * @param key     the key with pending events
+     * @param changed the set of changed files to add to
+     */
+    private void collect(@NotNull WatchKey key, @NotNull Set<Path> changed) {
+        Path dir = (Path) key.watchable();
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.add(null);
+                continue;
+            }
+
+            Path path = dir.resolve((Path) event.context());
+
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path))
+                try {
+                    registerAll(path);
+                    try (Stream<Path> stream = Files.walk(path)) {
+                        stream.filter(Checks::pathIsCommandFileBool).forEach(changed::add);
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            else if (Checks.pathIsCommandFileBool(path) || Files.notExists(path))
+                // Deleted paths can't be checked for being Json or directories anymore, so the manager sorts them out
+                changed.add(path);
+        }
+
+        key.reset();
+    }
+}
@@ -0,0 +1,299 @@
+package botUtils.commandsSystem.manager;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable hash map that is changed by making a modified copy. The keys are kept in a trie of their hash codes, 5
+ * bits per level, so a copy only replaces the few nodes on the path to the changed key and shares everything else with
+ * the original. Looking up a key takes a handful of array reads no matter how many keys there are, much like a {@link
+ * java.util.HashMap}.
+ * <p><br>
+ * This is what lets a {@link CommandSet} be changed one command at a time without copying every command.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class HashTrie<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final HashTrie<?, ?> EMPTY = new HashTrie<>(new Branch(0, new Object[0]), 0);
+
+    /**
+     * A key and its value.
+     */
+    private static final class Leaf {
+        private final @NotNull Object key;
+        private final @NotNull Object value;
+        private final int hash;
+
+        private Leaf(@NotNull Object key, @NotNull Object value, int hash) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * A level of the trie. Each bit in the bitmap marks one of the 32 possible hash fragments at this level that has a
+     * child, and the children are stored in the same order as the bits. A child is a {@link Leaf}, another {@link
+     * Branch} or a {@link Collision}.
+     */
+    private static final class Branch {
+        private final int bitmap;
+        private final @NotNull Object[] children;
+
+        private Branch(int bitmap, @NotNull Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+    }
+
+    /**
+     * Keys whose hash codes are exactly the same, which no amount of levels could separate.
+     */
+    private static final class Collision {
+        private final int hash;
+        private final @NotNull Leaf[] leaves;
+
+        private Collision(int hash, @NotNull Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+    }
+
+    private final @NotNull Branch root;
+    private final int size;
+
+    private HashTrie(@NotNull Branch root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Gets the empty {@link HashTrie}.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @return the empty trie
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> @NotNull HashTrie<K, V> of() {
+        return (HashTrie<K, V>) EMPTY;
+    }
+
+    /**
+     * Gets the number of keys.
+     *
+     * @return the size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the value for a key.
+     *
+     * @param key the key
+     * @return the value, or null if the key isn't present
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable V get(@NotNull Object key) {
+        int hash = hash(key);
+        Object node = root;
+        for (int shift = 0; ; shift += BITS) {
+            if (node instanceof Branch) {
+                Branch branch = (Branch) node;
+                int bit = 1 << ((hash >>> shift) & MASK);
+                if ((branch.bitmap & bit) == 0)
+                    return null;
+                node = branch.children[Integer.bitCount(branch.bitmap & (bit - 1))];
+            } else if (node instanceof Leaf) {
+                Leaf leaf = (Leaf) node;
+                return leaf.hash == hash && leaf.key.equals(key) ? (V) leaf.value : null;
+            } else {
+                for (Leaf leaf : ((Collision) node).leaves)
+                    if (leaf.key.equals(key))
+                        return (V) leaf.value;
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of this trie with a key set to a value.
+     *
+     * @param key   the key
+     * @param value the new value
+     * @return the new trie
+     */
+    @NotNull HashTrie<K, V> put(@NotNull K key, @NotNull V value) {
+        Leaf leaf = new Leaf(key, value, hash(key));
+        boolean[] added = {false};
+        Branch root = (Branch) put(this.root, leaf, 0, added);
+        return new HashTrie<>(root, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Creates a copy of this trie without a key.
+     *
+     * @param key the key
+     * @return the new trie, or this one if the key isn't present
+     */
+    @NotNull HashTrie<K, V> remove(@NotNull Object key) {
+        if (get(key) == null)
+            return this;
+
+        Object root = remove(this.root, key, hash(key), 0);
+        // The root stays a branch, even if only one key is left
+        if (!(root instanceof Branch))
+            root = root == null ? new Branch(0, new Object[0]) : branch((Leaf) root, 0);
+        return new HashTrie<>((Branch) root, size - 1);
+    }
+
+    /**
+     * Passes every key and value to the given action, in no particular order.
+     *
+     * @param action the action
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(@NotNull BiConsumer<? super K, ? super V> action) {
+        forEach(root, (BiConsumer<Object, Object>) action);
+    }
+
+    private static void forEach(@NotNull Object node, @NotNull BiConsumer<Object, Object> action) {
+        if (node instanceof Branch)
+            for (Object child : ((Branch) node).children)
+                forEach(child, action);
+        else if (node instanceof Leaf)
+            action.accept(((Leaf) node).key, ((Leaf) node).value);
+        else
+            for (Leaf leaf : ((Collision) node).leaves)
+                action.accept(leaf.key, leaf.value);
+    }
+
+    private static @NotNull Object put(@NotNull Object node, @NotNull Leaf leaf, int shift, boolean @NotNull [] added) {
+        if (node instanceof Leaf) {
+            Leaf existing = (Leaf) node;
+            if (existing.hash == leaf.hash && existing.key.equals(leaf.key))
+                return leaf;
+
+            added[0] = true;
+            return existing.hash == leaf.hash ? new Collision(leaf.hash, new Leaf[]{existing, leaf}) :
+                    put(branch(existing, shift), leaf, shift, added);
+        }
+
+        if (node instanceof Collision) {
+            Collision collision = (Collision) node;
+            if (collision.hash != leaf.hash)
+                return put(branch(collision, collision.hash, shift), leaf, shift, added);
+
+            Leaf[] leaves = collision.leaves;
+            for (int i = 0; i < leaves.length; i++)
+                if (leaves[i].key.equals(leaf.key)) {
+                    leaves = leaves.clone();
+                    leaves[i] = leaf;
+                    return new Collision(leaf.hash, leaves);
+                }
+
+            added[0] = true;
+            leaves = Arrays.copyOf(leaves, leaves.length + 1);
+            leaves[leaves.length - 1] = leaf;
+            return new Collision(leaf.hash, leaves);
+        }
+
+        Branch branch = (Branch) node;
+        int bit = 1 << ((leaf.hash >>> shift) & MASK);
+        int index = Integer.bitCount(branch.bitmap & (bit - 1));
+
+        if ((branch.bitmap & bit) == 0) {
+            added[0] = true;
+            Object[] children = new Object[branch.children.length + 1];
+            System.arraycopy(branch.children, 0, children, 0, index);
+            children[index] = leaf;
+            System.arraycopy(branch.children, index, children, index + 1, branch.children.length - index);
+            return new Branch(branch.bitmap | bit, children);
+        }
+
+        Object[] children = branch.children.clone();
+        children[index] = put(children[index], leaf, shift + BITS, added);
+        return new Branch(branch.bitmap, children);
+    }
+
+    /**
+     * Removes a key from a node.
+     *
+     * @return the new node, which is just a {@link Leaf} if that's all that's left, or null if nothing is left
+     */
+    private static @Nullable Object remove(@NotNull Object node, @NotNull Object key, int hash, int shift) {
+        if (node instanceof Leaf)
+            return null;
+
+        if (node instanceof Collision) {
+            Leaf[] leaves = ((Collision) node).leaves;
+            if (leaves.length == 2)
+                return leaves[0].key.equals(key) ? leaves[1] : leaves[0];
+
+            Leaf[] remaining = new Leaf[leaves.length - 1];
+            int count = 0;
+            for (Leaf leaf : leaves)
+                if (!leaf.key.equals(key))
+                    remaining[count++] = leaf;
+            return new Collision(hash, remaining);
+        }
+
+        Branch branch = (Branch) node;
+        int bit = 1 << ((hash >>> shift) & MASK);
+        int index = Integer.bitCount(branch.bitmap & (bit - 1));
+        Object child = remove(branch.children[index], key, hash, shift + BITS);
+
+        if (child == null) {
+            if (branch.children.length == 1)
+                return null;
+            // A branch with just one leaf left can be replaced by the leaf
+            if (branch.children.length == 2 && branch.children[1 - index] instanceof Leaf)
+                return branch.children[1 - index];
+
+            Object[] children = new Object[branch.children.length - 1];
+            System.arraycopy(branch.children, 0, children, 0, index);
+            System.arraycopy(branch.children, index + 1, children, index, children.length - index);
+            return new Branch(branch.bitmap & ~bit, children);
+        }
+
+        if (branch.children.length == 1 && child instanceof Leaf)
+            return child;
+
+        Object[] children = branch.children.clone();
+        children[index] = child;
+        return new Branch(branch.bitmap, children);
+    }
+
+    /**
+     * Creates a branch at the given level containing only one leaf.
+     */
+    private static @NotNull Branch branch(@NotNull Leaf leaf, int shift) {
+        return branch(leaf, leaf.hash, shift);
+    }
+
+    /**
+     * Creates a branch at the given level containing only one child.
+     */
+    private static @NotNull Branch branch(@NotNull Object child, int hash, int shift) {
+        return new Branch(1 << ((hash >>> shift) & MASK), new Object[]{child});
+    }
+
+    /**
+     * Spreads the bits of a key's hash code, so that keys with similar hash codes don't share long paths in the trie.
+     *
+     * @param key the key
+     * @return the hash
+     */
+    private static int hash(@NotNull Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
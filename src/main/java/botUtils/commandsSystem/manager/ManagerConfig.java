@@ -1,6 +1,7 @@
 package botUtils.commandsSystem.manager;
 
 import botUtils.commandsSystem.types.Command;
+import botUtils.commandsSystem.types.CommandCallData;
 import botUtils.commandsSystem.types.callResponse.CallResponse;
 import botUtils.tools.Checks;
 import botUtils.tools.Colors;
@@ -9,8 +10,10 @@ import botUtils.tools.GenericUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.awt.*;
+import java.io.File;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Locale;
@@ -45,16 +48,34 @@ public class ManagerConfig implements Cloneable {
                 .setJsonReplacements(GenericUtils.cloneHashMap(getJsonReplacements()))
                 .setImplementJsonReplacements(doImplementJsonReplacements())
                 .setArrowEmojis(getLeftArrowEmoji(), getRightArrowEmoji())
-                .setAllowBotEvents(doAllowBotEvents());
+                .setAllowBotEvents(doAllowBotEvents())
+                .setCommandCacheFile(getCommandCacheFile())
+                .setLazyCommands(isLazyCommands())
+                .setPrewarmLazyCommands(doPrewarmLazyCommands())
+                .setSlowestFilesToLog(getSlowestFilesToLog())
+                .setPoolValues(doPoolValues())
+                .setCommandListCacheSize(getCommandListCacheSize())
+                .setCommandListCacheSeconds(getCommandListCacheSeconds())
+                .setCommandListStateFile(getCommandListStateFile())
+                .setPageFlipDelay(getPageFlipDelay())
+                .setBufferReplies(doBufferReplies())
+                .setDuplicateErrorWindow(getDuplicateErrorWindow())
+                .setDuplicateMessageWindow(getDuplicateMessageWindow())
+                .setErrorLimit(getErrorLimit())
+                .setErrorLimitSeconds(getErrorLimitSeconds());
     }
 
     /**
      * When a user requests a list of commands in this {@link CommandManager}, this number controls the maximum number
      * of commands that can be printed at once on a single page in the list.
      * <p><br>
+     * Discord allows at most 25 fields in an embed, so higher values are treated as 25. Every page is rendered when the
+     * {@link CommandManager} is built. If a page goes over Discord's character limit for embeds, a warning is printed
+     * suggesting to lower this number or shorten the short descriptions, and the short descriptions on that page are
+     * cut short to fit.
+     * <p><br>
      * <b>Default Value: <u>{@value}</u></b>
      */
-    // TODO on building CommandManager, check to see if any command list pages will go over the character limit and if so tell user to lower this number or decrease command shortDescription length
     private int commandsPerPage = 10;
 
     /**
@@ -161,6 +182,10 @@ public class ManagerConfig implements Cloneable {
      * you can't create {@link Command} Json instances with the same name as any of the command list prompts. So by
      * default if you make a {@link Command} called '<u>{@code commands}</u>' the {@link CommandManager} will throw an
      * error when you build it.
+     * <p><br>
+     * Any words after a prompt are treated as a search through the command list, so '<u>{@code !commands roll}</u>'
+     * lists the commands with a name, alias or short description containing a word starting with '{@code roll}' (see
+     * {@link Registry#searchCommands(String)}).
      *
      * <p><br>
      * <b>Default Values: <u'>{@code command}</u>' and '<u>{@code commands}</u>'</b>
@@ -287,6 +312,165 @@ public class ManagerConfig implements Cloneable {
     private String commandListDescription = "This is a list of commands I recognize. " +
             "For additional information on a command, type `%[command-name] help`.";
 
+    /**
+     * This is the file where the {@link CommandManager} stores its command cache. When it is set, every {@link
+     * CommandManager#build()} saves the base keys of each command (such as its name, aliases, and short description),
+     * and on the next build, files that haven't changed (based on their size, last modified time, and contents) aren't
+     * read or built at all. Each of them becomes a {@link botUtils.commandsSystem.types.LazyCommand LazyCommand} made
+     * from the cache, and the rest of its Json is read the first time it's used. This makes restarting a bot with many
+     * commands much faster.
+     * <p><br>
+     * A file is only cached once its command was built without errors. Unless {@link #lazyCommands} is enabled, that
+     * means it was built in full, so errors anywhere in a command's Json are still found when the file first changes.
+     * <p><br>
+     * The cache is thrown away automatically if it was written by a different version of this library. Deleting the
+     * file is always safe; it will simply be rebuilt.
+     * <p><br>
+     * <b>Default Value: <u>null</u></b> (no cache is used)
+     */
+    private @Nullable File commandCacheFile = null;
+
+    /**
+     * This controls whether the {@link CommandManager} reads each command's Json in full when it is built. When it is
+     * enabled, building only reads the keys needed to recognize the command in messages and list it in the command
+     * list (such as the name, aliases, and short description). Everything else, like the arguments of a {@link
+     * botUtils.commandsSystem.types.function.Function Function}, is read the first time the command is used. See
+     * {@link botUtils.commandsSystem.types.LazyCommand LazyCommand} for details.
+     * <p><br>
+     * This makes starting a bot with many commands faster, at the cost of errors in the rest of a command's Json only
+     * being found when it is first used (or pre-warmed with {@link #prewarmLazyCommands}).
+     * <p><br>
+     * <b>Default Value: <u>{@value}</u></b>
+     */
+    private boolean lazyCommands = false;
+
+    /**
+     * If {@link #lazyCommands} is enabled, this controls whether every command is fully read in a low priority
+     * background thread right after the {@link CommandManager} is built or reloaded. The manager can be used right
+     * away, and commands used before the thread reaches them are simply read on the spot. Any errors are printed to the
+     * console as they're found.
+     * <p><br>
+     * <b>Default Value: <u>{@value}</u></b>
+     */
+    private boolean prewarmLazyCommands = false;
+
+    /**
+     * After every {@link CommandManager#build()}, this many of the slowest Json files are printed to the console, along
+     * with the time spent in each phase of the build. This helps find command files that slow down starting the bot.
+     * The same information is always available through {@link CommandManager#getBuildReport()}.
+     * <p><br>
+     * <b>Default Value: <u>{@value}</u></b> (nothing is printed)
+     */
+    private int slowestFilesToLog = 0;
+
+    /**
+     * Controls whether the Strings, String arrays and {@link botUtils.tools.EmbedField EmbedFields} read from the
+     * command Json files are deduplicated through an {@link botUtils.commandsSystem.json.InternPool InternPool}. When
+     * many commands share the same descriptions, aliases, footers or image URLs, they all use a single copy of each
+     * instead of one per file. The estimated memory saved is included in the summary printed after every build.
+     * <p><br>
+     * The pool is kept while the {@link CommandManager} is built, so that reloaded and lazy commands are deduplicated
+     * against the rest.
+     * <p><br>
+     * <b>Default Value: <u>{@value}</u></b>
+     */
+    private boolean poolValues = true;
+
+    /**
+     * The maximum number of command list messages the {@link CommandManager} remembers at once (see {@link
+     * PageStateStore}). Remembered messages change pages immediately when a user reacts with an arrow emoji. Once a
+     * command list is forgotten, reacting to it does nothing.
+     * <p><br>
+     * <b>Default Value: <u>{@value}</u></b>
+     */
+    private int commandListCacheSize = 1000;
+
+    /**
+     * The number of seconds the {@link CommandManager} remembers a command list message after it was sent or its page
+     * was last changed (see {@link #commandListCacheSize}).
+     * <p><br>
+     * <b>Default Value: <u>{@value}</u></b> (one hour)
+     */
+    private int commandListCacheSeconds = 3600;
+
+    /**
+     * This is the file where the {@link CommandManager} saves the command list messages it remembers (see {@link
+     * #commandListCacheSize}). When it is set, every page change is appended to the file, so command lists sent before
+     * the bot restarted can still change pages afterwards. Without it, only command lists sent since the last {@link
+     * CommandManager#build()} can change pages.
+     * <p><br>
+     * The file is rewritten on every build with only the messages that haven't expired. Deleting it is always safe.
+     * <p><br>
+     * <b>Default Value: <u>null</u></b> (command lists are only remembered in memory)
+     */
+    private @Nullable File commandListStateFile = null;
+
+    /**
+     * When a user reacts with an arrow emoji to change the page of a command list, the bot waits this many milliseconds
+     * for more clicks on the same message before editing it. Every click in that time is combined into a single edit,
+     * and only one edit per message is sent at a time. This keeps users who click quickly from hitting Discord's rate
+     * limits or seeing the pages change out of order.
+     * <p><br>
+     * Set this to 0 to edit the message as soon as possible. Clicks that arrive while an edit is being sent are still
+     * combined.
+     * <p><br>
+     * <b>Default Value: <u>{@value}</u></b>
+     */
+    private int pageFlipDelay = 250;
+
+    /**
+     * Controls whether the messages a {@link Command} sends through {@link CommandCallData#message(CharSequence)
+     * CommandCallData.message()} are buffered while its method runs. If this is true, they're sent together as the
+     * fewest messages possible once the method returns, instead of one request to Discord for every call. Text is
+     * joined with line breaks and only split again at Discord's character limit. Commands can still send the buffered
+     * messages early with {@link CommandCallData#flush()}, or turn buffering on or off for themselves with {@link
+     * CommandCallData#setBuffered(boolean)}.
+     * <p><br>
+     * <b>Default Value: <u>{@value}</u></b>
+     */
+    private boolean bufferReplies = false;
+
+    /**
+     * An error message is not sent in a channel if the same error was sent there within this many milliseconds. This
+     * keeps a user (or another bot) that repeats the same mistyped command from filling the channel with identical
+     * errors. Errors are compared by their title, description, fields and footer. See {@link
+     * CommandManager#getReplyLimiter()} for how many were dropped.
+     * <p><br>
+     * Set this to 0 to send every error.
+     * <p><br>
+     * <b>Default Value: <u>{@value}</u></b>
+     */
+    private long duplicateErrorWindow = 5000;
+
+    /**
+     * A message a {@link Command} sends through {@link CommandCallData#message(CharSequence) CommandCallData.message()}
+     * is not sent in a channel if the same message was sent there by a command within this many milliseconds.
+     * <p><br>
+     * This is off (0) by default, since many commands are supposed to give the same reply when they're used twice in a
+     * row. Turn it on if commands are being spammed faster than their replies are useful.
+     * <p><br>
+     * <b>Default Value: <u>{@value}</u></b>
+     */
+    private long duplicateMessageWindow = 0;
+
+    /**
+     * The most error messages that are sent in a single channel in every {@link #errorLimitSeconds} seconds. Once a
+     * channel reaches it, any more errors there are dropped until the interval ends, and a warning is printed to the
+     * console. See {@link CommandManager#getReplyLimiter()} for how many were dropped.
+     * <p><br>
+     * Set this to 0 to send every error.
+     * <p><br>
+     * <b>Default Value: <u>{@value}</u></b>
+     */
+    private int errorLimit = 10;
+
+    /**
+     * The length of the interval in seconds for the {@link #errorLimit}.
+     * <p><br>
+     * <b>Default Value: <u>{@value}</u></b>
+     */
+    private int errorLimitSeconds = 60;
+
     private @NotNull ManagerConfig() {
     }
 
@@ -806,4 +990,284 @@ public class ManagerConfig implements Cloneable {
         this.commandListDescription = state;
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the current {@link #commandCacheFile} <i>(click for more info on the setting)</i>.
+     *
+     * @return the cache file, or null if there is no cache
+     */
+    public @Nullable File getCommandCacheFile() {
+        return commandCacheFile;
+    }
+
+    /**
+     * Sets the new {@link #commandCacheFile} <i>(click for more info on the setting)</i>.
+     *
+     * @param file the new cache file, or null to disable the cache
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setCommandCacheFile(@Nullable File file) {
+        this.commandCacheFile = file;
+        return this;
+    }
+
+    /**
+     * Retrieves the current state of {@link #lazyCommands} <i>(click for more info on the setting)</i>.
+     *
+     * @return the current setting state
+     */
+    public boolean isLazyCommands() {
+        return lazyCommands;
+    }
+
+    /**
+     * Sets the new state for {@link #lazyCommands} <i>(click for more info on the setting)</i>.
+     *
+     * @param state the new state
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setLazyCommands(boolean state) {
+        this.lazyCommands = state;
+        return this;
+    }
+
+    /**
+     * Retrieves the current state of {@link #prewarmLazyCommands} <i>(click for more info on the setting)</i>.
+     *
+     * @return the current setting state
+     */
+    public boolean doPrewarmLazyCommands() {
+        return prewarmLazyCommands;
+    }
+
+    /**
+     * Sets the new state for {@link #prewarmLazyCommands} <i>(click for more info on the setting)</i>.
+     *
+     * @param state the new state
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setPrewarmLazyCommands(boolean state) {
+        this.prewarmLazyCommands = state;
+        return this;
+    }
+
+    /**
+     * Retrieves the current state of {@link #slowestFilesToLog} <i>(click for more info on the setting)</i>.
+     *
+     * @return the current setting state
+     */
+    public int getSlowestFilesToLog() {
+        return slowestFilesToLog;
+    }
+
+    /**
+     * Sets the new state for {@link #slowestFilesToLog} <i>(click for more info on the setting)</i>.
+     *
+     * @param state the new state (0 to print nothing)
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setSlowestFilesToLog(int state) {
+        this.slowestFilesToLog = state;
+        return this;
+    }
+
+    /**
+     * Retrieves the current state of {@link #poolValues} <i>(click for more info on the setting)</i>.
+     *
+     * @return the current setting state
+     */
+    public boolean doPoolValues() {
+        return poolValues;
+    }
+
+    /**
+     * Sets the new state for {@link #poolValues} <i>(click for more info on the setting)</i>.
+     *
+     * @param state the new state
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setPoolValues(boolean state) {
+        this.poolValues = state;
+        return this;
+    }
+
+    /**
+     * Retrieves the current state of {@link #commandListCacheSize} <i>(click for more info on the setting)</i>.
+     *
+     * @return the current setting state
+     */
+    public int getCommandListCacheSize() {
+        return commandListCacheSize;
+    }
+
+    /**
+     * Sets the new state for {@link #commandListCacheSize} <i>(click for more info on the setting)</i>.
+     *
+     * @param state the new state
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setCommandListCacheSize(int state) {
+        this.commandListCacheSize = state;
+        return this;
+    }
+
+    /**
+     * Retrieves the current state of {@link #commandListCacheSeconds} <i>(click for more info on the setting)</i>.
+     *
+     * @return the current setting state
+     */
+    public int getCommandListCacheSeconds() {
+        return commandListCacheSeconds;
+    }
+
+    /**
+     * Sets the new state for {@link #commandListCacheSeconds} <i>(click for more info on the setting)</i>.
+     *
+     * @param state the new state
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setCommandListCacheSeconds(int state) {
+        this.commandListCacheSeconds = state;
+        return this;
+    }
+
+    /**
+     * Retrieves the current {@link #commandListStateFile} <i>(click for more info on the setting)</i>.
+     *
+     * @return the state file, or null if command lists are only remembered in memory
+     */
+    public @Nullable File getCommandListStateFile() {
+        return commandListStateFile;
+    }
+
+    /**
+     * Sets the new {@link #commandListStateFile} <i>(click for more info on the setting)</i>.
+     *
+     * @param file the new state file, or null to only remember command lists in memory
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setCommandListStateFile(@Nullable File file) {
+        this.commandListStateFile = file;
+        return this;
+    }
+
+    /**
+     * Retrieves the current state of {@link #pageFlipDelay} <i>(click for more info on the setting)</i>.
+     *
+     * @return the current setting state
+     */
+    public int getPageFlipDelay() {
+        return pageFlipDelay;
+    }
+
+    /**
+     * Sets the new state for {@link #pageFlipDelay} <i>(click for more info on the setting)</i>.
+     *
+     * @param state the new state
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setPageFlipDelay(int state) {
+        this.pageFlipDelay = state;
+        return this;
+    }
+
+    /**
+     * Retrieves the current state of {@link #bufferReplies} <i>(click for more info on the setting)</i>.
+     *
+     * @return the current setting state
+     */
+    public boolean doBufferReplies() {
+        return bufferReplies;
+    }
+
+    /**
+     * Sets the new state for {@link #bufferReplies} <i>(click for more info on the setting)</i>.
+     *
+     * @param state the new state
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setBufferReplies(boolean state) {
+        this.bufferReplies = state;
+        return this;
+    }
+
+    /**
+     * Retrieves the current state of {@link #duplicateErrorWindow} <i>(click for more info on the setting)</i>.
+     *
+     * @return the current setting state
+     */
+    public long getDuplicateErrorWindow() {
+        return duplicateErrorWindow;
+    }
+
+    /**
+     * Sets the new state for {@link #duplicateErrorWindow} <i>(click for more info on the setting)</i>.
+     *
+     * @param state the new state
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setDuplicateErrorWindow(long state) {
+        this.duplicateErrorWindow = state;
+        return this;
+    }
+
+    /**
+     * Retrieves the current state of {@link #duplicateMessageWindow} <i>(click for more info on the setting)</i>.
+     *
+     * @return the current setting state
+     */
+    public long getDuplicateMessageWindow() {
+        return duplicateMessageWindow;
+    }
+
+    /**
+     * Sets the new state for {@link #duplicateMessageWindow} <i>(click for more info on the setting)</i>.
+     *
+     * @param state the new state
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setDuplicateMessageWindow(long state) {
+        this.duplicateMessageWindow = state;
+        return this;
+    }
+
+    /**
+     * Retrieves the current state of {@link #errorLimit} <i>(click for more info on the setting)</i>.
+     *
+     * @return the current setting state
+     */
+    public int getErrorLimit() {
+        return errorLimit;
+    }
+
+    /**
+     * Sets the new state for {@link #errorLimit} <i>(click for more info on the setting)</i>.
+     *
+     * @param state the new state
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setErrorLimit(int state) {
+        this.errorLimit = state;
+        return this;
+    }
+
+    /**
+     * Retrieves the current state of {@link #errorLimitSeconds} <i>(click for more info on the setting)</i>.
+     *
+     * @return the current setting state
+     */
+    public int getErrorLimitSeconds() {
+        return errorLimitSeconds;
+    }
+
+    /**
+     * Sets the new state for {@link #errorLimitSeconds} <i>(click for more info on the setting)</i>.
+     *
+     * @param state the new state
+     * @return this {@link CommandManager} instance for chaining
+     */
+    public @NotNull ManagerConfig setErrorLimitSeconds(int state) {
+        this.errorLimitSeconds = state;
+        return this;
+    }
+}
@@ -0,0 +1,245 @@
+package botUtils.commandsSystem.manager;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+/**
+ * An immutable sorted map from {@code long} keys to values that is changed by making a modified copy. It's a balanced
+ * binary tree (a treap) that records the size of every subtree, so besides looking up a key, it can find the value at
+ * any position in key order. A copy only replaces the nodes on the path to the changed key and shares everything else
+ * with the original, so changing one entry takes a few dozen steps even with thousands of entries.
+ * <p><br>
+ * A {@link CommandSet} keys its commands by the order they were added in, so a command that is replaced keeps its key,
+ * and with it its position.
+ *
+ * @param <V> the type of the values
+ */
+final class OrderTree<V> {
+    private static final OrderTree<?> EMPTY = new OrderTree<>(null);
+
+    private static final class Node {
+        private final long key;
+        private final @NotNull Object value;
+        private final @Nullable Node left;
+        private final @Nullable Node right;
+        private final int size;
+
+        private Node(long key, @NotNull Object value, @Nullable Node left, @Nullable Node right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+        }
+
+        private @NotNull Node with(@Nullable Node left, @Nullable Node right) {
+            return new Node(key, value, left, right);
+        }
+    }
+
+    private final @Nullable Node root;
+
+    private OrderTree(@Nullable Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Gets the empty {@link OrderTree}.
+     *
+     * @param <V> the type of the values
+     * @return the empty tree
+     */
+    @SuppressWarnings("unchecked")
+    static <V> @NotNull OrderTree<V> of() {
+        return (OrderTree<V>) EMPTY;
+    }
+
+    /**
+     * Gets the number of keys.
+     *
+     * @return the size
+     */
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Gets the value for a key.
+     *
+     * @param key the key
+     * @return the value, or null if the key isn't present
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable V get(long key) {
+        Node node = root;
+        while (node != null) {
+            if (key == node.key)
+                return (V) node.value;
+            node = key < node.key ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the value at a position in key order.
+     *
+     * @param index the position, starting at 0
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is negative or not less than {@link #size()}
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull V valueAt(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+
+        Node node = root;
+        while (true) {
+            int left = size(node.left);
+            if (index == left)
+                return (V) node.value;
+            if (index < left) {
+                node = node.left;
+            } else {
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of keys less than the given key, which is the position the key has or would have in key order.
+     *
+     * @param key the key
+     * @return the number of smaller keys
+     */
+    int rankOf(long key) {
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            if (key <= node.key) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Creates a copy of this tree with a key set to a value.
+     *
+     * @param key   the key
+     * @param value the new value
+     * @return the new tree
+     */
+    @NotNull OrderTree<V> put(long key, @NotNull V value) {
+        return new OrderTree<>(put(root, key, value));
+    }
+
+    /**
+     * Creates a copy of this tree without a key.
+     *
+     * @param key the key
+     * @return the new tree, or this one if the key isn't present
+     */
+    @NotNull OrderTree<V> remove(long key) {
+        return get(key) == null ? this : new OrderTree<>(remove(root, key));
+    }
+
+    /**
+     * Passes every value to the given action, in key order.
+     *
+     * @param action the action
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(@NotNull Consumer<? super V> action) {
+        forEach(root, (Consumer<Object>) action);
+    }
+
+    private static void forEach(@Nullable Node node, @NotNull Consumer<Object> action) {
+        while (node != null) {
+            forEach(node.left, action);
+            action.accept(node.value);
+            node = node.right;
+        }
+    }
+
+    private static @NotNull Node put(@Nullable Node node, long key, @NotNull Object value) {
+        if (node == null)
+            return new Node(key, value, null, null);
+        if (key == node.key)
+            return new Node(key, value, node.left, node.right);
+
+        // The new key goes above this node if its priority is higher, which keeps the tree balanced
+        if (priority(key) > priority(node.key)) {
+            Node[] halves = split(node, key);
+            return new Node(key, value, halves[0], halves[1]);
+        }
+
+        return key < node.key ?
+                node.with(put(node.left, key, value), node.right) : node.with(node.left, put(node.right, key, value));
+    }
+
+    private static @Nullable Node remove(@NotNull Node node, long key) {
+        if (key == node.key)
+            return merge(node.left, node.right);
+        return key < node.key ?
+                node.with(remove(node.left, key), node.right) : node.with(node.left, remove(node.right, key));
+    }
+
+    /**
+     * Splits a tree into the keys less than the given key and the keys greater than it. The key itself must not be
+     * present.
+     *
+     * @return the two halves
+     */
+    private static @Nullable Node @NotNull [] split(@Nullable Node node, long key) {
+        if (node == null)
+            return new Node[2];
+
+        if (key < node.key) {
+            Node[] halves = split(node.left, key);
+            halves[1] = node.with(halves[1], node.right);
+            return halves;
+        } else {
+            Node[] halves = split(node.right, key);
+            halves[0] = node.with(node.left, halves[0]);
+            return halves;
+        }
+    }
+
+    /**
+     * Joins two trees, where every key in the left one is less than every key in the right one.
+     *
+     * @return the joined tree
+     */
+    private static @Nullable Node merge(@Nullable Node left, @Nullable Node right) {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+
+        return priority(left.key) > priority(right.key) ?
+                left.with(left.left, merge(left.right, right)) : right.with(merge(left, right.left), right.right);
+    }
+
+    private static int size(@Nullable Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Gets the priority of a key, which decides how high in the tree it goes. This scrambles the key, so that keys
+     * added in order still end up in a balanced tree.
+     *
+     * @param key the key
+     * @return the priority
+     */
+    private static long priority(long key) {
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return key ^ (key >>> 31);
+    }
+}
@@ -0,0 +1,326 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.tools.JDAUtils;
+import net.dv8tion.jda.api.entities.*;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This changes the pages of paginated messages, such as command lists, when users react with the arrow emojis. Users
+ * tend to click the arrows many times in a row, and editing the message for every click quickly runs into Discord's
+ * rate limits and can make the edits arrive out of order.
+ * <p><br>
+ * Instead, the first click on a message starts a short window (see {@link ManagerConfig#getPageFlipDelay()}). Every
+ * click on the same message during the window is folded into a single net change, so three clicks forward and one back
+ * become one edit two pages forward. Only one edit per message is ever sent at a time. Clicks that arrive while an edit
+ * is still being sent are collected and applied as the next edit once it finishes.
+ * <p><br>
+ * The reactions are removed at the same time as the edit. A user can only have one reaction with each emoji on a
+ * message, so every duplicate removal in the window is dropped. If the bot can manage messages in the channel and
+ * there are more removals left than it takes requests to clear the arrows and add them back, the arrows are cleared
+ * instead. Only the arrow emojis are cleared, so any other reactions users added to the message stay. Otherwise, each
+ * reaction is removed on its own.
+ * <p><br>
+ * If an edit fails because the message was deleted, the message is forgotten. If it fails for any other reason, the
+ * page change is put back and tried again with the next clicks, up to {@value #EDIT_ATTEMPTS} times in a row.
+ * <p><br>
+ * The page each message shows is kept in a {@link PageStateStore}, which is updated before each edit is sent.
+ */
+final class PageFlipper {
+    /**
+     * The number of times in a row an edit is tried before its page change is given up.
+     */
+    static final int EDIT_ATTEMPTS = 3;
+
+    /**
+     * The pages of a paginated message, which must already be rendered.
+     */
+    interface Pages {
+        /**
+         * Gets the number of pages.
+         *
+         * @return the total number of pages, which is at least 1
+         */
+        int getTotalPages();
+
+        /**
+         * Gets one of the pages.
+         *
+         * @param page the page number, starting at 1
+         * @return the page
+         */
+        @NotNull MessageEmbed getPage(int page);
+    }
+
+    /**
+     * The clicks waiting to be applied to a single message.
+     */
+    private static final class Pending {
+        private @NotNull PageStateStore store;
+        private @NotNull Pages pages;
+        private @NotNull MessageChannel channel;
+        private @NotNull String[] arrows;
+        private int delta = 0;
+        private int failures = 0;
+
+        /**
+         * The reactions to remove, keyed by their emoji and then by the user ID, so that each one is only removed once.
+         */
+        private final Map<String, Map<Long, Runnable>> removals = new LinkedHashMap<>();
+
+        private Pending(@NotNull PageStateStore store, @NotNull Pages pages, @NotNull MessageChannel channel,
+                        @NotNull String[] arrows) {
+            this.store = store;
+            this.pages = pages;
+            this.channel = channel;
+            this.arrows = arrows;
+        }
+    }
+
+    /**
+     * The messages with clicks waiting or an edit being sent, keyed by message ID. An entry is removed as soon as its
+     * message has nothing left to do, so this stays tiny.
+     */
+    private final Map<Long, Pending> pending = new HashMap<>();
+
+    private PageFlipper() {
+    }
+
+    static @NotNull PageFlipper of() {
+        return new PageFlipper();
+    }
+
+    /**
+     * Records a click on one of the arrows of a paginated message. The message is edited once the window for it ends.
+     *
+     * @param store       the store with the page the message shows
+     * @param pages       the pages of the message
+     * @param channel     the channel with the message
+     * @param messageId   the ID of the message
+     * @param arrows      the arrow emojis on the message, in the order they were added
+     * @param delta       the number of pages to move: 1 for the next page, -1 for the previous one
+     * @param delayMillis the length of the window to wait for more clicks, in milliseconds
+     * @param reaction    the reaction to remove from the message, or null to leave it
+     * @param user        the user who added the reaction, or null to leave it
+     */
+    void flip(@NotNull PageStateStore store, @NotNull Pages pages, @NotNull MessageChannel channel, long messageId,
+              @NotNull String[] arrows, int delta, long delayMillis, @Nullable MessageReaction reaction,
+              @Nullable User user) {
+        synchronized (this) {
+            Pending p = pending.get(messageId);
+            boolean start = p == null;
+            if (start) {
+                p = new Pending(store, pages, channel, arrows);
+                pending.put(messageId, p);
+            } else {
+                // The latest click always uses the latest pages, in case the commands were reloaded
+                p.store = store;
+                p.pages = pages;
+                p.channel = channel;
+                p.arrows = arrows;
+            }
+
+            p.delta += delta;
+            if (reaction != null && user != null)
+                p.removals.computeIfAbsent(reaction.getReactionEmote().getAsReactionCode(), e -> new LinkedHashMap<>())
+                        .putIfAbsent(user.getIdLong(), () -> JDAUtils.removeReaction(reaction, user, false));
+
+            // If an edit is already waiting or being sent, this click will be applied with it or right after it
+            if (!start)
+                return;
+        }
+
+        schedule(messageId, delayMillis);
+    }
+
+    private void schedule(long messageId, long delayMillis) {
+        CompletableFuture.runAsync(() -> send(messageId, delayMillis),
+                CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Applies the net change from every click on a message in the window as a single edit, and removes the reactions.
+     *
+     * @param messageId   the ID of the message
+     * @param delayMillis the length of the window, used again if more clicks arrive while the edit is being sent
+     */
+    private void send(long messageId, long delayMillis) {
+        PageStateStore store;
+        Pages pages;
+        MessageChannel channel;
+        String[] arrows;
+        int delta;
+        Map<String, Map<Long, Runnable>> removals;
+
+        synchronized (this) {
+            Pending p = pending.get(messageId);
+            if (p == null)
+                return;
+
+            store = p.store;
+            pages = p.pages;
+            channel = p.channel;
+            arrows = p.arrows;
+            delta = p.delta;
+            p.delta = 0;
+            removals = new LinkedHashMap<>(p.removals);
+            p.removals.clear();
+        }
+
+        removeReactions(channel, messageId, arrows, removals);
+
+        // If the message was forgotten while waiting or the clicks cancelled out, there's nothing to edit
+        PageState state = store.get(messageId);
+        int totalPages = pages.getTotalPages();
+        if (state == null || delta % totalPages == 0) {
+            finish(messageId, delayMillis);
+            return;
+        }
+
+        // Move by the net change, wrapping around either end of the list
+        int page = Math.floorMod(state.getPage() - 1 + delta, totalPages) + 1;
+        MessageEmbed embed;
+        try {
+            embed = pages.getPage(page);
+        } catch (Exception e) {
+            // A paginator's code failed to render the page, so leave the message as it is
+            e.printStackTrace();
+            finish(messageId, delayMillis);
+            return;
+        }
+
+        store.put(messageId, state.withPage(page));
+        channel.editMessageById(messageId, embed).queue(
+                success -> {
+                    synchronized (this) {
+                        Pending p = pending.get(messageId);
+                        if (p != null)
+                            p.failures = 0;
+                    }
+                    finish(messageId, delayMillis);
+                },
+                failure -> failed(store, state, messageId, delta, delayMillis, failure));
+    }
+
+    /**
+     * Removes the reactions users clicked on a message. If the bot is allowed to and it takes fewer requests, the
+     * clicked arrows are cleared and added back instead. An arrow that's added back moves after the other reactions,
+     * so every arrow from the first clicked one on is cleared and added back in its original order. Any reaction that
+     * isn't an arrow, or whose arrow fails to clear, is removed on its own.
+     *
+     * @param channel   the channel with the message
+     * @param messageId the ID of the message
+     * @param arrows    the arrow emojis on the message, in order
+     * @param removals  the individual removals, keyed by emoji and then by user ID
+     */
+    private static void removeReactions(@NotNull MessageChannel channel, long messageId, @NotNull String[] arrows,
+                                        @NotNull Map<String, Map<Long, Runnable>> removals) {
+        List<String> arrowList = Arrays.asList(arrows);
+        int first = arrows.length;
+        int count = 0;
+        for (Map.Entry<String, Map<Long, Runnable>> entry : removals.entrySet()) {
+            int index = arrowList.indexOf(entry.getKey());
+            if (index >= 0) {
+                first = Math.min(first, index);
+                count += entry.getValue().size();
+            } else
+                entry.getValue().values().forEach(Runnable::run);
+        }
+
+        // Each cleared arrow takes one request to clear it and another to add it back
+        if (count <= 2 * (arrows.length - first) || !JDAUtils.canManageMessages(channel)) {
+            for (String arrow : arrows)
+                removals.getOrDefault(arrow, Map.of()).values().forEach(Runnable::run);
+            return;
+        }
+
+        // The arrows are only added back once they're all cleared, and requests for the same message's reactions are
+        // sent in order, so the arrows keep their order
+        List<String> cleared = arrowList.subList(first, arrows.length);
+        AtomicInteger left = new AtomicInteger(cleared.size());
+        Runnable addBack = () -> {
+            if (left.decrementAndGet() == 0)
+                for (String arrow : cleared)
+                    channel.addReactionById(messageId, arrow).queue();
+        };
+        for (String arrow : cleared)
+            ((TextChannel) channel).clearReactionsById(messageId, arrow).queue(
+                    success -> addBack.run(),
+                    failure -> {
+                        removals.getOrDefault(arrow, Map.of()).values().forEach(Runnable::run);
+                        addBack.run();
+                    });
+    }
+
+    /**
+     * Called when an edit fails. If the message was deleted, it's forgotten. Otherwise, the page change is put back so
+     * that it's sent again with any new clicks, unless it already failed {@link #EDIT_ATTEMPTS} times in a row.
+     *
+     * @param store       the store with the page the message shows
+     * @param previous    the state of the message before the edit
+     * @param messageId   the ID of the message
+     * @param delta       the page change the edit was sending
+     * @param delayMillis the length of the window
+     * @param failure     the reason the edit failed
+     */
+    private void failed(@NotNull PageStateStore store, @NotNull PageState previous, long messageId, int delta,
+                        long delayMillis, @NotNull Throwable failure) {
+        if (failure instanceof ErrorResponseException &&
+            ((ErrorResponseException) failure).getErrorResponse() == ErrorResponse.UNKNOWN_MESSAGE) {
+            store.remove(messageId);
+            synchronized (this) {
+                pending.remove(messageId);
+            }
+            return;
+        }
+
+        // The message still shows the page it had before the edit
+        store.put(messageId, previous);
+        synchronized (this) {
+            Pending p = pending.get(messageId);
+            if (p == null)
+                return;
+
+            if (++p.failures >= EDIT_ATTEMPTS) {
+                System.out.println("Warning: failed to change the page of message " + messageId + " " +
+                                   EDIT_ATTEMPTS + " times in a row. Giving up on the clicks so far.");
+                failure.printStackTrace();
+                p.failures = 0;
+                p.delta = 0;
+            } else {
+                p.delta += delta;
+            }
+        }
+
+        finish(messageId, delayMillis);
+    }
+
+    /**
+     * Called once an edit finishes. If more clicks arrived while it was being sent, another edit is scheduled for them.
+     * Otherwise, the message is forgotten until it is clicked again.
+     *
+     * @param messageId   the ID of the message
+     * @param delayMillis the length of the window
+     */
+    private void finish(long messageId, long delayMillis) {
+        synchronized (this) {
+            Pending p = pending.get(messageId);
+            if (p == null)
+                return;
+
+            if (p.delta == 0 && p.removals.isEmpty()) {
+                pending.remove(messageId);
+                return;
+            }
+        }
+
+        schedule(messageId, delayMillis);
+    }
+}
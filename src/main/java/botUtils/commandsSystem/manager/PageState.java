@@ -0,0 +1,102 @@
+package botUtils.commandsSystem.manager;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The state of one paginated message the bot sent, such as a command list: the page it currently shows, the channel
+ * it's in, the user who asked for it, and the {@link Paginator} with its pages (unless it's a command list). These are
+ * kept in a {@link PageStateStore} keyed by the message ID, so that changing pages doesn't require retrieving the
+ * message from Discord.
+ * <p><br>
+ * {@link PageState PageStates} are immutable. Changing the page creates a new one with {@link #withPage(int)}.
+ */
+public final class PageState {
+    private final int page;
+    private final long channelId;
+    private final long ownerId;
+    private final @Nullable Paginator paginator;
+
+    private PageState(int page, long channelId, long ownerId, @Nullable Paginator paginator) {
+        this.page = page;
+        this.channelId = channelId;
+        this.ownerId = ownerId;
+        this.paginator = paginator;
+    }
+
+    /**
+     * Creates a new {@link PageState}.
+     *
+     * @param page      the page the message shows, starting at 1
+     * @param channelId the ID of the channel the message is in
+     * @param ownerId   the ID of the user who asked for the message, or 0 if it isn't known
+     * @return the new state
+     */
+    public static @NotNull PageState of(int page, long channelId, long ownerId) {
+        return new PageState(page, channelId, ownerId, null);
+    }
+
+    /**
+     * Creates a new {@link PageState} for a message whose pages come from a {@link Paginator}.
+     *
+     * @param page      the page the message shows, starting at 1
+     * @param channelId the ID of the channel the message is in
+     * @param ownerId   the ID of the user who asked for the message, or 0 if it isn't known
+     * @param paginator the pages of the message
+     * @return the new state
+     */
+    public static @NotNull PageState of(int page, long channelId, long ownerId, @NotNull Paginator paginator) {
+        return new PageState(page, channelId, ownerId, paginator);
+    }
+
+    /**
+     * Creates a copy of this {@link PageState} showing a different page.
+     *
+     * @param page the new page, starting at 1
+     * @return the new state
+     */
+    public @NotNull PageState withPage(int page) {
+        return new PageState(page, channelId, ownerId, paginator);
+    }
+
+    /**
+     * Gets the page the message currently shows.
+     *
+     * @return the page, starting at 1
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * Gets the ID of the channel the message was sent in.
+     *
+     * @return the channel ID
+     */
+    public long getChannelId() {
+        return channelId;
+    }
+
+    /**
+     * Gets the ID of the user who asked for the message.
+     *
+     * @return the user ID, or 0 if it isn't known (for example, if the message was found after the bot restarted)
+     */
+    public long getOwnerId() {
+        return ownerId;
+    }
+
+    /**
+     * Gets the {@link Paginator} with the pages of the message.
+     *
+     * @return the paginator, or null if the message is a command list
+     */
+    public @Nullable Paginator getPaginator() {
+        return paginator;
+    }
+
+    @Override
+    public String toString() {
+        return "page " + page + " in channel " + channelId + (ownerId == 0 ? "" : " for user " + ownerId);
+    }
+}
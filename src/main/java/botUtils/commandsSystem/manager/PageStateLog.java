@@ -0,0 +1,214 @@
+package botUtils.commandsSystem.manager;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This is the append-only file that lets a {@link PageStateStore} remember paginated messages across restarts. It is
+ * used when a {@link ManagerConfig#getCommandListStateFile() command list state file} is set.
+ * <p><br>
+ * Every change to the store is appended to the file as a small fixed-size binary record, so saving a page change is a
+ * single short write. When the store is opened, the records are replayed in order, and the file is then rewritten with
+ * only the messages that are still remembered. The file is also rewritten whenever it grows to several times the size
+ * of the store, so it never grows without limit.
+ * <p><br>
+ * Expiry times are stored as wall clock times, since the monotonic clock used by the store starts over with the JVM. If
+ * the bot crashes partway through writing a record, the partial record is ignored. Deleting the file is always safe;
+ * the bot simply forgets its old messages.
+ */
+class PageStateLog implements Closeable {
+    /**
+     * The first four bytes of every state file, "JCPS".
+     */
+    private static final int MAGIC = 0x4A435053;
+
+    /**
+     * The version of the file format. Increment this whenever the layout of the records changes.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    /**
+     * The file is rewritten once it has this many records and at least {@link #COMPACT_FACTOR} times as many records as
+     * there are messages in the store.
+     */
+    private static final int COMPACT_MIN_RECORDS = 1024;
+    private static final int COMPACT_FACTOR = 4;
+
+    /**
+     * Receives the records read from the file when it is opened.
+     */
+    interface Replay {
+        /**
+         * Handles a message that was remembered.
+         *
+         * @param messageId the ID of the message
+         * @param state     its state
+         * @param expiresAt the wall clock time it should be forgotten, in milliseconds
+         */
+        void put(long messageId, @NotNull PageState state, long expiresAt);
+
+        /**
+         * Handles a message that was forgotten.
+         *
+         * @param messageId the ID of the message
+         */
+        void remove(long messageId);
+    }
+
+    private final @NotNull File file;
+    private @Nullable DataOutputStream out;
+
+    /**
+     * The number of records written since the file was last rewritten.
+     */
+    private int records = 0;
+
+    private PageStateLog(@NotNull File file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads every record in the given file. The file isn't written until {@link #rewrite(long[], PageState[], long[],
+     * int)} is called with the state that was rebuilt from the records.
+     *
+     * @param file   the state file, which doesn't need to exist yet
+     * @param replay receives every record in the file, in the order they were written
+     * @return the log
+     */
+    static @NotNull PageStateLog open(@NotNull File file, @NotNull Replay replay) {
+        if (file.isFile())
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() == MAGIC && in.readInt() == FORMAT_VERSION)
+                    // A crash can leave a partial record at the end, which is simply ignored
+                    while (in.available() > 0)
+                        switch (in.readByte()) {
+                            case PUT -> {
+                                long messageId = in.readLong();
+                                PageState state = PageState.of(in.readInt(), in.readLong(), in.readLong());
+                                replay.put(messageId, state, in.readLong());
+                            }
+                            case REMOVE -> replay.remove(in.readLong());
+                            default -> throw new IOException("Unknown record type");
+                        }
+            } catch (EOFException ignore) {
+            } catch (IOException e) {
+                System.out.println("Ignoring the rest of the unreadable command list state file '" + file.getPath() +
+                        "': " + e.getMessage());
+            }
+
+        return new PageStateLog(file);
+    }
+
+    /**
+     * Appends a record for a message that was remembered or changed.
+     *
+     * @param messageId the ID of the message
+     * @param state     its new state
+     * @param expiresAt the wall clock time it should be forgotten, in milliseconds
+     * @throws IOException if the record could not be written
+     */
+    void appendPut(long messageId, @NotNull PageState state, long expiresAt) throws IOException {
+        DataOutputStream out = getOut();
+        out.writeByte(PUT);
+        out.writeLong(messageId);
+        out.writeInt(state.getPage());
+        out.writeLong(state.getChannelId());
+        out.writeLong(state.getOwnerId());
+        out.writeLong(expiresAt);
+        out.flush();
+        records++;
+    }
+
+    /**
+     * Appends a record for a message that was forgotten.
+     *
+     * @param messageId the ID of the message
+     * @throws IOException if the record could not be written
+     */
+    void appendRemove(long messageId) throws IOException {
+        DataOutputStream out = getOut();
+        out.writeByte(REMOVE);
+        out.writeLong(messageId);
+        out.flush();
+        records++;
+    }
+
+    /**
+     * Checks whether the file has grown enough that it should be {@link #rewrite(long[], PageState[], long[], int)
+     * rewritten}.
+     *
+     * @param size the number of messages in the store
+     * @return true if the file should be rewritten; false otherwise
+     */
+    boolean needsRewrite(int size) {
+        return records >= COMPACT_MIN_RECORDS && records >= (long) size * COMPACT_FACTOR;
+    }
+
+    /**
+     * Replaces the file with one record for each message in the store. The new file is written to a temporary file
+     * first and then moved into place, so a crash partway through can't lose the old one.
+     *
+     * @param messageIds the IDs of the messages
+     * @param states     the state of each message
+     * @param expiresAt  the wall clock time each message should be forgotten, in milliseconds
+     * @param count      the number of messages
+     * @throws IOException if the file could not be written
+     */
+    void rewrite(long[] messageIds, PageState[] states, long[] expiresAt, int count) throws IOException {
+        close();
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null)
+            Files.createDirectories(parent.toPath());
+
+        Path temp = new File(file.getPath() + ".tmp").toPath();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            for (int i = 0; i < count; i++) {
+                out.writeByte(PUT);
+                out.writeLong(messageIds[i]);
+                out.writeInt(states[i].getPage());
+                out.writeLong(states[i].getChannelId());
+                out.writeLong(states[i].getOwnerId());
+                out.writeLong(expiresAt[i]);
+            }
+        }
+
+        Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        records = count;
+    }
+
+    private @NotNull DataOutputStream getOut() throws IOException {
+        if (out == null)
+            out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        return out;
+    }
+
+    /**
+     * Gets the state file.
+     *
+     * @return the file
+     */
+    @NotNull File getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.tools.TimingWheel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A bounded cache of the {@link PageState} of paginated messages the bot sent, keyed by the message ID. A {@link
+ * CommandManager} uses one to remember its command list messages and the messages sent with a {@link Paginator}, so
+ * that when a user reacts to change the page the bot can tell it's paginated and edit it straight away, without
+ * retrieving it from Discord first.
+ * <p><br>
+ * The cache never grows past its maximum size, and every entry is forgotten once it hasn't been used for the time to
+ * live. Expired entries are found with a {@link TimingWheel}, which is advanced every time the cache is used, so no
+ * background thread is needed. When the cache is full, the entry closest to expiring (the one used least recently) is
+ * evicted to make room. Reacting to a message that was forgotten does nothing.
+ * <p><br>
+ * If the store is {@link #open(int, long, File) opened} with a file, every change is appended to it with a {@link
+ * PageStateLog}, and the messages are remembered again the next time the bot starts. This way a message never has to
+ * be retrieved from Discord just to find out whether it's a command list or which page it shows.
+ * <p><br>
+ * Message IDs are stored as primitive {@code long} values in an open addressing hash table, so there are no boxed
+ * {@link Long} keys or map entries. Every method is synchronized. The critical sections are tiny and page changes are
+ * rare compared to messages, so this is never a bottleneck.
+ */
+public final class PageStateStore implements AutoCloseable {
+    /**
+     * The number of slots in the {@link TimingWheel}. One turn of the wheel covers the time to live.
+     */
+    private static final int WHEEL_SLOTS = 64;
+
+    /**
+     * Marks an empty position in the table. Discord IDs are never 0.
+     */
+    private static final long EMPTY = 0;
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final TimingWheel wheel;
+
+    private long[] keys = new long[16];
+    private PageState[] values = new PageState[16];
+    private long[] deadlines = new long[16];
+    private int size = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+
+    /**
+     * The file every change is saved to, or null if the store is only kept in memory.
+     */
+    private @Nullable PageStateLog log = null;
+
+    private PageStateStore(int maxSize, long ttlMillis) {
+        if (maxSize < 1 || ttlMillis < 1)
+            throw new IllegalArgumentException("A PageStateStore needs a maximum size and time to live of at least 1.");
+
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.wheel = TimingWheel.of(Math.max(1, ttlMillis / WHEEL_SLOTS), WHEEL_SLOTS, TimingWheel.now());
+    }
+
+    /**
+     * Creates a new, empty {@link PageStateStore}.
+     *
+     * @param maxSize   the maximum number of messages to remember
+     * @param ttlMillis how long to remember each message after it was last changed, in milliseconds
+     * @return the new store
+     * @throws IllegalArgumentException if the maximum size or time to live is less than 1
+     */
+    public static @NotNull PageStateStore of(int maxSize, long ttlMillis) {
+        return new PageStateStore(maxSize, ttlMillis);
+    }
+
+    /**
+     * Creates a {@link PageStateStore} that saves every change to the given file, and remembers every message saved to
+     * it before that hasn't expired yet. If the file can't be read or written, a warning is printed and the store is
+     * only kept in memory.
+     *
+     * @param maxSize   the maximum number of messages to remember
+     * @param ttlMillis how long to remember each message after it was last changed, in milliseconds
+     * @param file      the state file, which doesn't need to exist yet
+     * @return the new store
+     * @throws IllegalArgumentException if the maximum size or time to live is less than 1
+     */
+    public static @NotNull PageStateStore open(int maxSize, long ttlMillis, @NotNull File file) {
+        PageStateStore store = new PageStateStore(maxSize, ttlMillis);
+        synchronized (store) {
+            long now = TimingWheel.now();
+            long wallNow = System.currentTimeMillis();
+
+            PageStateLog log = PageStateLog.open(file, new PageStateLog.Replay() {
+                @Override
+                public void put(long messageId, @NotNull PageState state, long expiresAt) {
+                    // Entries saved with a longer time to live are cut short to this store's
+                    long remaining = Math.min(expiresAt - wallNow, ttlMillis);
+                    if (remaining > 0 && messageId != EMPTY)
+                        store.insert(messageId, state, now + remaining);
+                    else
+                        store.remove(messageId);
+                }
+
+                @Override
+                public void remove(long messageId) {
+                    store.remove(messageId);
+                }
+            });
+
+            store.log = log;
+            store.rewriteLog(now);
+        }
+        return store;
+    }
+
+    /**
+     * Gets a store with the given settings that remembers the same messages as this one. If the settings are the same
+     * as this store's, this store is returned as it is. Otherwise, this store is {@link #close() closed}, and a new one
+     * is created (and {@link #open(int, long, File) opened} from the file, if there is one). Every message this store
+     * still remembers is moved to the new one with the time it had left, and so are the counters. If the new store is
+     * smaller, the messages closest to expiring are left out.
+     *
+     * @param maxSize   the maximum number of messages to remember
+     * @param ttlMillis how long to remember each message after it was last changed, in milliseconds
+     * @param file      the state file, or null to only keep the messages in memory
+     * @return this store, or the new one if the settings changed
+     * @throws IllegalArgumentException if the maximum size or time to live is less than 1
+     */
+    public synchronized @NotNull PageStateStore withSettings(int maxSize, long ttlMillis, @Nullable File file) {
+        File currentFile = log == null ? null : log.getFile();
+        if (maxSize == this.maxSize && ttlMillis == this.ttlMillis && Objects.equals(file, currentFile))
+            return this;
+
+        // Close the file first, in case the new store opens the same one
+        close();
+        PageStateStore store = file == null ? of(maxSize, ttlMillis) : open(maxSize, ttlMillis, file);
+
+        long now = TimingWheel.now();
+        expire(now);
+        Integer[] order = new Integer[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] != EMPTY)
+                order[count++] = i;
+
+        // The messages closest to expiring go first, so they're the ones evicted if the new store is too small
+        Arrays.sort(order, Comparator.comparingLong(i -> deadlines[i]));
+        synchronized (store) {
+            for (int i : order)
+                store.insert(keys[i], values[i], now + Math.min(deadlines[i] - now, ttlMillis));
+
+            store.hits += hits;
+            store.misses += misses;
+            store.evictions += evictions;
+            store.expirations += expirations;
+            if (store.log != null)
+                store.rewriteLog(now);
+        }
+        return store;
+    }
+
+    /**
+     * Gets the state of a message, if it is remembered.
+     *
+     * @param messageId the ID of the message
+     * @return the state, or null if the message isn't remembered
+     */
+    public synchronized @Nullable PageState get(long messageId) {
+        long now = TimingWheel.now();
+        expire(now);
+
+        int index = find(messageId);
+        if (index < 0 || deadlines[index] <= now) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return values[index];
+    }
+
+    /**
+     * Remembers the state of a message, replacing any previous state. This restarts its time to live. If the store is
+     * full, the message closest to expiring is evicted first.
+     *
+     * @param messageId the ID of the message
+     * @param state     the state
+     */
+    public synchronized void put(long messageId, @NotNull PageState state) {
+        if (messageId == EMPTY)
+            throw new IllegalArgumentException("A message ID can't be 0.");
+
+        long now = TimingWheel.now();
+        expire(now);
+        insert(messageId, state, now + ttlMillis);
+
+        // Paginators can't be saved, since their pages come from code
+        if (log != null && state.getPaginator() == null)
+            try {
+                log.appendPut(messageId, state, System.currentTimeMillis() + ttlMillis);
+                if (log.needsRewrite(size))
+                    rewriteLog(now);
+            } catch (IOException e) {
+                logFailed(e);
+            }
+    }
+
+    /**
+     * Adds or replaces a message in the table and schedules it to expire, evicting the message closest to expiring
+     * first if the store is full. Nothing is saved to the {@link #log}.
+     *
+     * @param messageId the ID of the message
+     * @param state     the state
+     * @param deadline  the time it should be forgotten, in milliseconds from {@link TimingWheel#now()}
+     */
+    private void insert(long messageId, @NotNull PageState state, long deadline) {
+        int index = find(messageId);
+        if (index < 0) {
+            while (size >= maxSize && wheel.size() > 0)
+                wheel.pollEarliest((key, scheduled) -> {
+                    if (removeIfCurrent(key, scheduled))
+                        evictions++;
+                });
+
+            if ((size + 1) * 2 > keys.length)
+                resize(keys.length * 2);
+            index = ~find(messageId);
+            keys[index] = messageId;
+            size++;
+        }
+
+        values[index] = state;
+        deadlines[index] = deadline;
+        wheel.schedule(messageId, deadline);
+    }
+
+    /**
+     * Forgets a message, such as when it was deleted.
+     *
+     * @param messageId the ID of the message
+     * @return true if the message was remembered; false otherwise
+     */
+    public synchronized boolean remove(long messageId) {
+        int index = find(messageId);
+        if (index < 0)
+            return false;
+
+        delete(index);
+        if (log != null)
+            try {
+                log.appendRemove(messageId);
+            } catch (IOException e) {
+                logFailed(e);
+            }
+        return true;
+    }
+
+    /**
+     * Forgets every message. The counters are not reset.
+     */
+    public synchronized void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+        wheel.clear();
+
+        if (log != null)
+            rewriteLog(TimingWheel.now());
+    }
+
+    /**
+     * Stops saving changes to the state file, if there is one. The store can still be used, but it is only kept in
+     * memory from now on.
+     */
+    @Override
+    public synchronized void close() {
+        if (log != null)
+            try {
+                log.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                log = null;
+            }
+    }
+
+    /**
+     * Replaces the state file with one record for each message currently remembered, dropping everything that expired
+     * or was removed.
+     *
+     * @param now the current time in milliseconds from {@link TimingWheel#now()}
+     */
+    private void rewriteLog(long now) {
+        long wallNow = System.currentTimeMillis();
+        long[] messageIds = new long[size];
+        PageState[] states = new PageState[size];
+        long[] expiresAt = new long[size];
+
+        int count = 0;
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] != EMPTY && deadlines[i] > now && values[i].getPaginator() == null) {
+                messageIds[count] = keys[i];
+                states[count] = values[i];
+                expiresAt[count++] = wallNow + deadlines[i] - now;
+            }
+
+        try {
+            log.rewrite(messageIds, states, expiresAt, count);
+        } catch (IOException e) {
+            logFailed(e);
+        }
+    }
+
+    /**
+     * Stops saving to the state file after an error writing to it.
+     *
+     * @param e the error
+     */
+    private void logFailed(@NotNull IOException e) {
+        System.out.println("Failed to write the command list state file '" + log.getFile().getPath() +
+                "'. Command lists will only be remembered until the bot restarts.");
+        e.printStackTrace();
+        close();
+    }
+
+    /**
+     * Removes every message whose time to live has passed.
+     *
+     * @param now the current time in milliseconds
+     */
+    private void expire(long now) {
+        wheel.advance(now, (key, deadline) -> {
+            if (removeIfCurrent(key, deadline))
+                expirations++;
+        });
+    }
+
+    /**
+     * Removes a message that was taken from the {@link TimingWheel}, but only if the deadline it was scheduled with is
+     * still its current one. Otherwise, it was changed since then and scheduled again with a later deadline.
+     *
+     * @param key      the message ID
+     * @param deadline the deadline from the wheel
+     * @return true if the message was removed; false if it was already gone or has a later deadline
+     */
+    private boolean removeIfCurrent(long key, long deadline) {
+        int index = find(key);
+        if (index < 0 || deadlines[index] != deadline)
+            return false;
+
+        delete(index);
+        return true;
+    }
+
+    /**
+     * Finds the position of a message ID in the table.
+     *
+     * @param key the message ID
+     * @return the position, or the bitwise complement of the empty position where it would go if it isn't there
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int index = hash(key) & mask; ; index = (index + 1) & mask) {
+            if (keys[index] == key)
+                return index;
+            if (keys[index] == EMPTY)
+                return ~index;
+        }
+    }
+
+    /**
+     * Removes the entry at a position in the table, shifting any entries after it back so that they can still be found.
+     *
+     * @param index the position
+     */
+    private void delete(int index) {
+        int mask = keys.length - 1;
+        int gap = index;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            // Move the entry into the gap unless its home position lies after the gap, cyclically
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                deadlines[gap] = deadlines[next];
+                gap = next;
+            }
+        }
+
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        PageState[] oldValues = values;
+        long[] oldDeadlines = deadlines;
+
+        keys = new long[capacity];
+        values = new PageState[capacity];
+        deadlines = new long[capacity];
+
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != EMPTY) {
+                int index = ~find(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                deadlines[index] = oldDeadlines[i];
+            }
+    }
+
+    /**
+     * Spreads the bits of a message ID. The low bits of Discord IDs are a counter and a process ID, which would
+     * cluster badly on their own.
+     *
+     * @param key the message ID
+     * @return the hash
+     */
+    private static int hash(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+
+    /**
+     * Gets the number of messages currently remembered.
+     *
+     * @return the number of messages
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the maximum number of messages this store remembers at once.
+     *
+     * @return the maximum size
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets how long each message is remembered after it was last changed.
+     *
+     * @return the time to live in milliseconds
+     */
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Gets the number of times {@link #get(long)} found a remembered message.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of times {@link #get(long)} didn't find a remembered message. Most of these are reactions to
+     * messages that aren't paginated at all.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of messages that were forgotten early to make room for new ones because the store was full. If
+     * this is high, consider raising the maximum size.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the number of messages that were forgotten because their time to live passed.
+     *
+     * @return the number of expirations
+     */
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return size + "/" + maxSize + " messages (" + hits + " hits, " + misses + " misses, " + evictions +
+                " evictions, " + expirations + " expirations, " +
+                String.format(Locale.ROOT, "%.1f", hits + misses == 0 ? 0 : 100.0 * hits / (hits + misses)) +
+                "% hit rate)";
+    }
+}
@@ -0,0 +1,98 @@
+package botUtils.commandsSystem.manager;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * The pages of a paginated message sent by a command, such as a leaderboard or a list of search results. Users change
+ * pages by reacting with the same arrow emojis as the command list, and rapid clicks are combined in the same way (see
+ * {@link ManagerConfig#getPageFlipDelay()}).
+ * <p><br>
+ * A command only supplies the number of pages and a function that renders any one of them. Pages are rendered when
+ * they are first shown, not all at once, and the most recently shown ones are kept in a small cache so that flipping
+ * back and forth doesn't render them again. Use {@link botUtils.commandsSystem.types.CommandCallData#paginate(int,
+ * IntFunction) CommandCallData.paginate()} to send one from a command:
+ * <pre>{@code
+ * data.paginate(scores.size() / 10 + 1, page -> new EmbedBuilder()
+ *         .setTitle("Leaderboard")
+ *         .setDescription(getScores(page))
+ *         .setFooter("Page " + page + " of " + (scores.size() / 10 + 1)));
+ * }</pre>
+ * The paginated message is remembered in the same {@link PageStateStore} as the command list messages, so it stops
+ * changing pages once it expires or is evicted. Unlike command lists, paginated messages are never saved to the {@link
+ * ManagerConfig#getCommandListStateFile() state file}, since the function rendering their pages can't be saved.
+ */
+public final class Paginator implements PageFlipper.Pages {
+    /**
+     * The number of rendered pages kept in the cache if no other size is {@link #setCacheSize(int) set}.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 5;
+
+    private final int totalPages;
+    private final @NotNull IntFunction<EmbedBuilder> renderer;
+    private int cacheSize = DEFAULT_CACHE_SIZE;
+
+    /**
+     * The most recently shown pages, keyed by page number, with the least recently shown first.
+     */
+    private final Map<Integer, MessageEmbed> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, MessageEmbed> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    private Paginator(int totalPages, @NotNull IntFunction<EmbedBuilder> renderer) {
+        if (totalPages < 1)
+            throw new IllegalArgumentException("A Paginator must have at least 1 page.");
+
+        this.totalPages = totalPages;
+        this.renderer = renderer;
+    }
+
+    /**
+     * Creates a new {@link Paginator}.
+     *
+     * @param totalPages the number of pages
+     * @param renderer   the function that renders a page, given its number starting at 1
+     * @return the new paginator
+     * @throws IllegalArgumentException if there are no pages
+     */
+    public static @NotNull Paginator of(int totalPages, @NotNull IntFunction<EmbedBuilder> renderer) {
+        return new Paginator(totalPages, renderer);
+    }
+
+    /**
+     * Sets the number of rendered pages kept in the cache. Pages that are expensive to render (for example, ones that
+     * query a database) may be worth caching more of.
+     *
+     * @param cacheSize the maximum number of cached pages, which is at least 1
+     * @return this {@link Paginator} instance for chaining
+     */
+    public synchronized @NotNull Paginator setCacheSize(int cacheSize) {
+        this.cacheSize = Math.max(1, cacheSize);
+        return this;
+    }
+
+    @Override
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    /**
+     * Gets a page, rendering it only if it isn't in the cache. Page numbers out of range wrap around to the other end.
+     *
+     * @param page the page number, starting at 1
+     * @return the page
+     */
+    @Override
+    public synchronized @NotNull MessageEmbed getPage(int page) {
+        page = page < 1 ? totalPages : page > totalPages ? 1 : page;
+        return cache.computeIfAbsent(page, p -> renderer.apply(p).build());
+    }
+}
@@ -0,0 +1,240 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.commandsSystem.types.Command;
+import botUtils.tools.ErrorBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is an immutable snapshot of everything a {@link CommandManager} needs to dispatch events: its {@link Command
+ * Commands} and the index used to find them (together, a {@link CommandSet}), the methods they call, and the {@link
+ * ManagerConfig} they were built with.
+ * <p><br>
+ * A built {@link CommandManager} holds exactly one {@link Registry} in a single volatile field. Nothing in a {@link
+ * Registry} changes after it is created. When the manager is rebuilt or reloaded, a fresh {@link Registry} is created
+ * from a copy of the old one and published in its place. This means that threads processing events never need to lock
+ * anything. As long as they read the {@link Registry} once at the start of an event, everything they see is consistent,
+ * even if the commands are reloaded partway through.
+ */
+public final class Registry {
+    /**
+     * The {@link Command Commands} and the index used to find them. This may be shared with the {@link Registry} of
+     * other managers using the same command definitions.
+     */
+    private final CommandSet commandSet;
+
+    /**
+     * The invokers for the code of each {@link Command}, keyed by their lowercase names.
+     */
+    private final Map<String, CommandInvoker> methods;
+
+    /**
+     * The settings the {@link CommandManager} was built with. This must never be modified.
+     */
+    private final ManagerConfig config;
+
+    /**
+     * Every page of the command list, rendered when the {@link Registry} is created.
+     */
+    private final CommandListPages commandListPages;
+
+    /**
+     * The index used to search the command list. This is built with the {@link Registry} on a full build, but only
+     * when it's first needed after the commands are reloaded, since a search may never come before the next reload.
+     */
+    private volatile CommandSearchIndex searchIndex;
+
+    /**
+     * The error sent when a message starts with the prefix but doesn't match any command, rendered with the error color
+     * from the {@link #config}.
+     */
+    private final MessageEmbed unknownCommandError;
+
+    private Registry(@NotNull CommandSet commandSet, @NotNull Map<String, CommandInvoker> methods,
+                     @NotNull ManagerConfig config, @NotNull CommandListPages commandListPages,
+                     @Nullable CommandSearchIndex searchIndex, @NotNull MessageEmbed unknownCommandError) {
+        this.commandSet = commandSet;
+        this.methods = Map.copyOf(methods);
+        this.config = config;
+        this.commandListPages = commandListPages;
+        this.searchIndex = searchIndex;
+        this.unknownCommandError = unknownCommandError;
+    }
+
+    /**
+     * Creates a new {@link Registry} from an existing {@link CommandSet}, which is not copied. This is how managers
+     * share the same command definitions. Every page of the command list is rendered here, and the index for searching
+     * it is built.
+     *
+     * @param listTitle  the title of the command list (see {@link CommandManager#getCommandListTitle()})
+     * @param commandSet the commands
+     * @param methods    the invokers for the code of each command, keyed by lowercase name
+     * @param config     the cloned settings the manager is being built with
+     * @return the new {@link Registry}
+     */
+    static @NotNull Registry of(@NotNull String listTitle, @NotNull CommandSet commandSet,
+                                @NotNull Map<String, CommandInvoker> methods, @NotNull ManagerConfig config) {
+        return new Registry(commandSet, methods, config, CommandListPages.of(listTitle, commandSet, config),
+                CommandSearchIndex.of(commandSet), ErrorBuilder.of("Unknown command.", config.getErrorColor()).build());
+    }
+
+    /**
+     * Creates a copy of this {@link Registry} with a different set of commands, but the same methods and settings. This
+     * is used when some of the Json files are reloaded. Only the command list pages that changed are rendered again.
+     *
+     * @param commandSet the new commands
+     * @return the new {@link Registry}
+     */
+    @NotNull Registry withCommands(@NotNull CommandSet commandSet) {
+        return new Registry(commandSet, methods, config, commandListPages.update(commandSet),
+                commandSet == this.commandSet ? searchIndex : null, unknownCommandError);
+    }
+
+    /**
+     * Gets the {@link CommandSet} with every {@link Command} and the index used to find them.
+     *
+     * @return the commands
+     */
+    public @NotNull CommandSet getCommandSet() {
+        return commandSet;
+    }
+
+    /**
+     * Gets the unmodifiable list of every {@link Command}.
+     *
+     * @return the commands
+     */
+    public @NotNull List<Command> getCommands() {
+        return commandSet.getCommands();
+    }
+
+    /**
+     * Gets the unmodifiable map of each Json file to the {@link Command} loaded from it.
+     *
+     * @return the commands by file
+     */
+    public @NotNull Map<Path, Command> getFileCommands() {
+        return commandSet.getFileCommands();
+    }
+
+    /**
+     * Gets the {@link Command Commands} that could match a message starting with the given word. See {@link
+     * CommandSet#getCandidates(String)}.
+     *
+     * @param firstArg the first word of the message (after the prefix)
+     * @return the candidate commands, which may be empty. Do not modify this array.
+     */
+    public @NotNull Command[] getCandidates(@NotNull String firstArg) {
+        return commandSet.getCandidates(firstArg);
+    }
+
+    /**
+     * Gets the invoker for the code of a {@link Command}, based on its lowercase name.
+     *
+     * @param name the name of the method
+     * @return the invoker, or null if there isn't one with that name
+     */
+    public @Nullable CommandInvoker getMethod(@NotNull String name) {
+        return methods.get(name);
+    }
+
+    /**
+     * Gets the unmodifiable map of the invokers for every method available to {@link Command Commands}.
+     *
+     * @return the invokers, keyed by lowercase name
+     */
+    public @NotNull Map<String, CommandInvoker> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Gets the settings this {@link Registry} was built with. These must not be modified.
+     *
+     * @return the config
+     */
+    public @NotNull ManagerConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Gets the number of {@link Command Commands} that are included in the command list.
+     *
+     * @return the number of list eligible commands
+     */
+    public int getListEligibleCommands() {
+        return commandSet.getListEligibleCommands();
+    }
+
+    /**
+     * Gets the list eligible {@link Command} at the given position in the command list.
+     *
+     * @param index the position, starting at 0
+     * @return the command
+     * @throws IndexOutOfBoundsException if the index is not less than {@link #getListEligibleCommands()}
+     */
+    public @NotNull Command getListCommand(int index) {
+        return commandSet.getListCommand(index);
+    }
+
+    /**
+     * Gets the number of pages needed to show every command in the command list. This is always at least 1, since the
+     * command list has a page saying there are no commands when there aren't any.
+     *
+     * @return the total number of pages
+     */
+    public int getTotalCommandListPages() {
+        return commandListPages.getTotalPages();
+    }
+
+    /**
+     * Gets every page of the command list.
+     *
+     * @return the pages
+     */
+    @NotNull CommandListPages getCommandListPages() {
+        return commandListPages;
+    }
+
+    /**
+     * Gets a page of the command list. This was rendered when the {@link Registry} was created, so it can be sent
+     * straight away. Page numbers out of range wrap around to the other end of the list.
+     *
+     * @param page the page number, starting at 1
+     * @return the page
+     */
+    public @NotNull MessageEmbed getCommandListPage(int page) {
+        return commandListPages.getPage(page);
+    }
+
+    /**
+     * Searches the names, aliases and short descriptions of the {@link Command Commands} in the command list. Every
+     * word in the search must match the start of a word in the command, so "ro" finds "roll". The best matches come
+     * first, starting with the command whose name is exactly the search. See {@link CommandSearchIndex} for the full
+     * ranking.
+     *
+     * @param query the search
+     * @return the matching commands, best match first, which may be empty
+     */
+    public @NotNull Command[] searchCommands(@NotNull String query) {
+        CommandSearchIndex index = searchIndex;
+        if (index == null)
+            // Building it twice in a race is harmless, since both threads build the same index
+            searchIndex = index = CommandSearchIndex.of(commandSet);
+        return index.search(query);
+    }
+
+    /**
+     * Gets the error sent when a message starts with the prefix but doesn't match any {@link Command}. This is rendered
+     * once when the {@link Registry} is created.
+     *
+     * @return the error embed
+     */
+    public @NotNull MessageEmbed getUnknownCommandError() {
+        return unknownCommandError;
+    }
+}
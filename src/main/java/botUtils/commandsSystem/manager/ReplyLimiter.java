@@ -0,0 +1,246 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.tools.TimingWheel;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps a {@link CommandManager} from flooding a channel with the same replies. During a raid or a loop between bots, a
+ * channel can receive hundreds of mistyped commands a minute, and answering every one with an error uses up the bot's
+ * rate limits for everything else.
+ * <p><br>
+ * Two checks are made for each channel before a reply is sent:
+ * <ul>
+ *     <li><b>Duplicates:</b> a reply identical to one sent in the same channel recently is dropped. Replies are
+ *     compared by a hash of their content, and only the last {@value #RECENT} replies in each channel are remembered.
+ *     See {@link ManagerConfig#getDuplicateErrorWindow()} and {@link ManagerConfig#getDuplicateMessageWindow()}.</li>
+ *     <li><b>Error limit:</b> once a channel has been sent a certain number of errors in an interval, the rest of the
+ *     errors in that interval are dropped. See {@link ManagerConfig#getErrorLimit()}.</li>
+ * </ul>
+ * Every dropped reply is counted, and a warning is printed the first time a channel reaches the error limit in each
+ * interval. Channels that haven't been sent anything for a while are forgotten, so this stays small. This class is
+ * thread safe.
+ */
+public final class ReplyLimiter {
+    /**
+     * The number of recent replies remembered in each channel for finding duplicates.
+     */
+    static final int RECENT = 16;
+
+    /**
+     * After this many replies, channels that haven't been sent anything in a while are forgotten.
+     */
+    private static final int PRUNE_INTERVAL = 1024;
+
+    /**
+     * The replies recently sent in one channel.
+     */
+    private static final class Channel {
+        private final int[] hashes = new int[RECENT];
+        private final long[] sentAt = new long[RECENT];
+        private int next = 0;
+        private int count = 0;
+
+        private long intervalStart;
+        private int errors = 0;
+        private long lastUsed;
+
+        private Channel(long now) {
+            this.intervalStart = now;
+            this.lastUsed = now;
+        }
+    }
+
+    private final Map<Long, Channel> channels = new HashMap<>();
+    private int untilPrune = PRUNE_INTERVAL;
+
+    private long duplicates = 0;
+    private long throttledErrors = 0;
+
+    private ReplyLimiter() {
+    }
+
+    static @NotNull ReplyLimiter of() {
+        return new ReplyLimiter();
+    }
+
+    /**
+     * Checks whether an error may be sent in a channel, and records it if so.
+     *
+     * @param channelId the ID of the channel
+     * @param hash      the hash of the error (see {@link #hash(MessageEmbed)})
+     * @param config    the settings of the manager sending it
+     * @return true if the error should be sent; false if it should be dropped
+     */
+    public synchronized boolean tryError(long channelId, int hash, @NotNull ManagerConfig config) {
+        long now = TimingWheel.now();
+        Channel channel = channel(channelId, now);
+        if (isDuplicate(channel, hash, now, config.getDuplicateErrorWindow()))
+            return false;
+
+        int limit = config.getErrorLimit();
+        if (limit > 0) {
+            long intervalMillis = config.getErrorLimitSeconds() * 1000L;
+            if (now - channel.intervalStart >= intervalMillis) {
+                channel.intervalStart = now;
+                channel.errors = 0;
+            }
+
+            if (channel.errors >= limit) {
+                if (channel.errors++ == limit)
+                    System.out.println("Warning: channel " + channelId + " was sent " + limit + " errors in " +
+                            config.getErrorLimitSeconds() + " seconds. Further errors in it are suppressed until " +
+                            "the interval ends.");
+                throttledErrors++;
+                return false;
+            }
+            channel.errors++;
+        }
+
+        record(channel, hash, now);
+        return true;
+    }
+
+    /**
+     * Checks whether a message from a command may be sent in a channel, and records it if so. Messages are only checked
+     * for duplicates, not counted against the error limit.
+     *
+     * @param channelId the ID of the channel
+     * @param hash      the hash of the message (see {@link #hash(CharSequence)})
+     * @param config    the settings of the manager sending it
+     * @return true if the message should be sent; false if it should be dropped
+     */
+    public synchronized boolean tryMessage(long channelId, int hash, @NotNull ManagerConfig config) {
+        long window = config.getDuplicateMessageWindow();
+        if (window <= 0)
+            return true;
+
+        long now = TimingWheel.now();
+        Channel channel = channel(channelId, now);
+        if (isDuplicate(channel, hash, now, window))
+            return false;
+
+        record(channel, hash, now);
+        return true;
+    }
+
+    private @NotNull Channel channel(long channelId, long now) {
+        if (--untilPrune <= 0) {
+            untilPrune = PRUNE_INTERVAL;
+            prune(now);
+        }
+
+        Channel channel = channels.computeIfAbsent(channelId, id -> new Channel(now));
+        channel.lastUsed = now;
+        return channel;
+    }
+
+    /**
+     * Forgets the channels that haven't been sent anything in the last ten minutes. Nothing they remember could still
+     * stop a reply, as long as the windows and intervals are shorter than that.
+     *
+     * @param now the current time in milliseconds
+     */
+    private void prune(long now) {
+        Iterator<Channel> iterator = channels.values().iterator();
+        while (iterator.hasNext())
+            if (now - iterator.next().lastUsed > 600_000)
+                iterator.remove();
+    }
+
+    private boolean isDuplicate(@NotNull Channel channel, int hash, long now, long windowMillis) {
+        if (windowMillis <= 0)
+            return false;
+
+        for (int i = 0; i < channel.count; i++)
+            if (channel.hashes[i] == hash && now - channel.sentAt[i] < windowMillis) {
+                duplicates++;
+                return true;
+            }
+        return false;
+    }
+
+    private void record(@NotNull Channel channel, int hash, long now) {
+        channel.hashes[channel.next] = hash;
+        channel.sentAt[channel.next] = now;
+        channel.next = (channel.next + 1) % RECENT;
+        channel.count = Math.min(channel.count + 1, RECENT);
+    }
+
+    /**
+     * Gets the hash used to compare a text reply.
+     *
+     * @param text the text
+     * @return the hash
+     */
+    public static int hash(@NotNull CharSequence text) {
+        return text.toString().hashCode();
+    }
+
+    /**
+     * Gets the hash used to compare an embed reply. It covers the text Discord shows: the title, description, fields
+     * and footer.
+     *
+     * @param embed the embed
+     * @return the hash
+     */
+    public static int hash(@NotNull MessageEmbed embed) {
+        int hash = Objects.hash(embed.getTitle(), embed.getDescription(),
+                embed.getFooter() == null ? null : embed.getFooter().getText());
+        for (MessageEmbed.Field field : embed.getFields())
+            hash = 31 * hash + Objects.hash(field.getName(), field.getValue());
+        return hash;
+    }
+
+    /**
+     * Gets the hash used to compare a reply with both text and embeds.
+     *
+     * @param message the message
+     * @return the hash
+     */
+    public static int hash(@NotNull Message message) {
+        int hash = hash(message.getContentRaw());
+        for (MessageEmbed embed : message.getEmbeds())
+            hash = 31 * hash + hash(embed);
+        return hash;
+    }
+
+    /**
+     * Gets the number of replies dropped because they were identical to a recent one in the same channel.
+     *
+     * @return the number of duplicates
+     */
+    public synchronized long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Gets the number of errors dropped because their channel had reached the error limit.
+     *
+     * @return the number of throttled errors
+     */
+    public synchronized long getThrottledErrors() {
+        return throttledErrors;
+    }
+
+    /**
+     * Gets the total number of replies that were dropped.
+     *
+     * @return the number of suppressed replies
+     */
+    public synchronized long getSuppressed() {
+        return duplicates + throttledErrors;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return getSuppressed() + " replies suppressed (" + duplicates + " duplicates, " + throttledErrors +
+                " throttled errors) across " + channels.size() + " channels";
+    }
+}
@@ -1,27 +1,33 @@
 package botUtils.commandsSystem.types;
 
+import botUtils.commandsSystem.manager.CommandInvoker;
 import botUtils.commandsSystem.manager.CommandManager;
+import botUtils.commandsSystem.manager.ManagerConfig;
 import botUtils.commandsSystem.types.callResponse.CallResponse;
 import botUtils.commandsSystem.types.function.Argument;
 import botUtils.commandsSystem.types.function.Function;
 import botUtils.commandsSystem.types.function.FunctionCallData;
 import botUtils.commandsSystem.types.function.Value;
 import botUtils.exceptions.JsonParseException;
+import botUtils.commandsSystem.json.InternPool;
 import botUtils.commandsSystem.json.JsonParser;
+import botUtils.commandsSystem.json.JsonStreamReader;
 import botUtils.tools.*;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.MessageBuilder;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageChannel;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.User;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Locale;
+import java.util.*;
 
 /**
  * This is the root of the Commands object tree. It contains the basic information required for a command to be
@@ -42,6 +48,11 @@ import java.util.Locale;
  * help`, which means that the help argument is unnecessary. Setting this to true will allow the base argument to run
  * code rather than being redirected to the help panel. This is useful for functions or CallResponse commands with a
  * default code execution when you don't pass in any arguments
+ * <p><br>
+ * A {@link Command} is only a definition. It can be shared by several {@link CommandManager CommandManagers} (see
+ * {@link CommandManager#of(JDA, CommandManager, String)}), so anything that depends on the manager, such as the prefix
+ * and colors, is taken from the manager running the command, which is available from {@link
+ * CommandCallData#getManager()}.
  */
 public abstract class Command {
     // Required
@@ -95,7 +106,8 @@ public abstract class Command {
      * <p><br>
      * For example, for a prefix '{@code !}' and command name '{@code command}', if this list contains '{@code help}'
      * and the user types {@code !command help}, they will be sent the help embed for this {@link Command}. Note that
-     * the specific help embed sent is controlled through {@link #getInfo()} and {@link #generateInfo()}.
+     * the specific help embed sent is controlled through {@link #getInfoEmbed(CommandManager)} and {@link
+     * #generateInfo(CommandManager)}.
      * <p><br>
      * You cannot make this array empty. Doing so in the Json will result in it simply reverting to the default. If you
      * are trying to remove all the help keys such that the help embed is never sent, assign an empty string {@code ""}
@@ -105,8 +117,39 @@ public abstract class Command {
      */
     private final String[] helpKeys;
 
+    /**
+     * The default {@link #helpKeys}. Every command that doesn't set its own help keys shares this array.
+     */
+    private static final String[] DEFAULT_HELP_KEYS = {"help", "info", "information"};
+
+    /**
+     * Whether each subclass overrides the deprecated {@link #process(CommandCallData, Method)}, which is called for
+     * subclasses that don't override {@link #process(CommandCallData, CommandInvoker)}.
+     */
+    private static final ClassValue<Boolean> OVERRIDES_METHOD_PROCESS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(@NotNull Class<?> type) {
+            try {
+                return type.getMethod("process", CommandCallData.class, Method.class).getDeclaringClass() !=
+                       Command.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
     // Other variables
-    private EmbedBuilder infoEmbed;
+    /**
+     * The finished info embed for this command, rendered once for each set of settings a manager is built with. The
+     * settings are copied on every build, so an embed is rendered again after a rebuild in case the prefix or colors
+     * changed. See {@link #getInfoEmbed(CommandManager)}.
+     */
+    private final Map<ManagerConfig, MessageEmbed> infoEmbeds = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The {@link CommandManager} that loaded this command. If the command is shared by several managers, this is the one
+     * it was loaded by, not necessarily the one running it.
+     */
     protected final CommandManager manager;
 
     protected Command(@NotNull JsonObject json, @NotNull CommandManager manager) throws JsonParseException {
@@ -123,7 +166,7 @@ public abstract class Command {
         this.helpEmbedTimeout = JsonParser.getInteger(json, "helpEmbedTimeout", 60);
 
         String[] help = JsonParser.getStringArrayNoError(json, "helpKeys");
-        this.helpKeys = help.length > 0 ? help : new String[]{"help", "info", "information"};
+        this.helpKeys = help.length > 0 ? InternPool.intern(help) : DEFAULT_HELP_KEYS;
 
         if (includeInCommandsList)
             // A short description is only required if the command is included in the command list
@@ -132,8 +175,88 @@ public abstract class Command {
             this.shortDescription = JsonParser.getString(json, "shortDescription", "");
 
         // All Command aliases are optional. typoAliases don't show up in the command help embed.
-        this.aliases = JsonParser.getStringArrayNoError(json, "aliases");
-        this.typoAliases = JsonParser.getStringArrayNoError(json, "typoAliases");
+        this.aliases = InternPool.intern(JsonParser.getStringArrayNoError(json, "aliases"));
+        this.typoAliases = InternPool.intern(JsonParser.getStringArrayNoError(json, "typoAliases"));
+    }
+
+    /**
+     * Creates a {@link Command} by streaming its Json directly from a {@link JsonReader} rather than from a parsed
+     * {@link JsonObject} tree. The values for the base {@link Command} keys are read into their final fields as they are
+     * encountered. Any other key is passed to the given {@link JsonStreamReader.KeyReader} so that subclasses can read
+     * their own values in the same pass, and keys that neither recognizes are skipped.
+     * <p><br>
+     * The defaults and requirements are identical to those of {@link #Command(JsonObject, CommandManager)}.
+     *
+     * @param reader       the reader, positioned at the start of the command's Json object
+     * @param manager      the {@link CommandManager} this command belongs to
+     * @param subclassKeys the reader for keys specific to the subclass, or null if there are none
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if a required key is missing or a value is the wrong type
+     */
+    protected Command(@NotNull JsonReader reader, @NotNull CommandManager manager,
+                      @Nullable JsonStreamReader.KeyReader subclassKeys) throws IOException, JsonParseException {
+        this(new Header(), reader, manager, subclassKeys);
+    }
+
+    private Command(@NotNull Header header, @NotNull JsonReader reader, @NotNull CommandManager manager,
+                    @Nullable JsonStreamReader.KeyReader subclassKeys) throws IOException, JsonParseException {
+        this.manager = manager;
+
+        JsonStreamReader.readObject(reader, (key, r) ->
+                header.read(key, r) || (subclassKeys != null && subclassKeys.read(key, r)));
+
+        this.name = JsonStreamReader.required(header.name, "name");
+        this.description = JsonStreamReader.required(header.description, "description");
+
+        this.includeInCommandsList = header.includeInCommandsList;
+        this.allowNoArgs = header.allowNoArgs;
+        this.link = header.link;
+        this.helpEmbedTimeout = header.helpEmbedTimeout;
+        this.helpKeys = header.helpKeys.length > 0 ? InternPool.intern(header.helpKeys) : DEFAULT_HELP_KEYS;
+
+        if (includeInCommandsList)
+            this.shortDescription = JsonStreamReader.required(header.shortDescription, "shortDescription");
+        else
+            this.shortDescription = header.shortDescription == null ? "" : header.shortDescription;
+
+        this.aliases = InternPool.intern(header.aliases);
+        this.typoAliases = InternPool.intern(header.typoAliases);
+    }
+
+    /**
+     * Holds the base {@link Command} values while they are streamed from a {@link JsonReader}, as the keys may appear in
+     * any order and the final fields can only be assigned once.
+     */
+    private static class Header {
+        private String name;
+        private String description;
+        private String shortDescription;
+        private String link;
+        private boolean includeInCommandsList = true;
+        private boolean allowNoArgs = false;
+        private int helpEmbedTimeout = 60;
+        private String[] helpKeys = new String[0];
+        private String[] aliases = new String[0];
+        private String[] typoAliases = new String[0];
+
+        private boolean read(@NotNull String key, @NotNull JsonReader reader) throws IOException, JsonParseException {
+            switch (key) {
+                case "name" -> name = JsonStreamReader.nextString(reader, key);
+                case "description" -> description = JsonStreamReader.nextString(reader, key);
+                case "shortDescription" -> shortDescription = JsonStreamReader.nextString(reader, key);
+                case "link" -> link = JsonStreamReader.nextString(reader, key);
+                case "includeInCommandsList" -> includeInCommandsList = JsonStreamReader.nextBoolean(reader, key);
+                case "allowNoArgs" -> allowNoArgs = JsonStreamReader.nextBoolean(reader, key);
+                case "helpEmbedTimeout" -> helpEmbedTimeout = JsonStreamReader.nextInteger(reader, key);
+                case "helpKeys" -> helpKeys = JsonStreamReader.nextStringArrayNoError(reader, key);
+                case "aliases" -> aliases = JsonStreamReader.nextStringArrayNoError(reader, key);
+                case "typoAliases" -> typoAliases = JsonStreamReader.nextStringArrayNoError(reader, key);
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
     /**
@@ -147,7 +270,7 @@ public abstract class Command {
     }
 
     /**
-     * Returns the name of the {@link Method} to execute when this {@link Command} is triggered. By default, this is
+     * Returns the name of the method to execute when this {@link Command} is triggered. By default, this is
      * simply the {@link #name} of the command. But this method can be overridden, as in {@link
      * Function#getMethodName()} to allow for method names that are different from the command name.
      *
@@ -218,6 +341,16 @@ public abstract class Command {
         return aliases;
     }
 
+    /**
+     * Get the typo aliases for this command. These match the command just like normal aliases, but they are not shown
+     * in the help embed.
+     *
+     * @return the command typo aliases
+     */
+    public @NotNull String[] getTypoAliases() {
+        return typoAliases;
+    }
+
     /**
      * Same as getAliases() except the result is in an ArrayList rather than an Array of Strings
      *
@@ -237,19 +370,62 @@ public abstract class Command {
         return includeInCommandsList;
     }
 
+    /**
+     * Check whether this command runs when it is sent with no arguments. See {@link #allowNoArgs}.
+     *
+     * @return true if the command runs with no arguments; false if the help embed is sent instead
+     */
+    public boolean doAllowNoArgs() {
+        return allowNoArgs;
+    }
+
+    /**
+     * Get the number of seconds the help embed for this command stays before it is deleted. See {@link
+     * #helpEmbedTimeout}.
+     *
+     * @return the help embed timeout
+     */
+    public int getHelpEmbedTimeout() {
+        return helpEmbedTimeout;
+    }
+
+    /**
+     * Get the arguments that make this command send its help embed instead of running. See {@link #helpKeys}.
+     *
+     * @return the help keys
+     */
+    public @NotNull String[] getHelpKeys() {
+        return helpKeys;
+    }
+
     /**
      * Returns the name of this command followed by the "help" argument and preceded by the prefix. Note that it is not
      * enclosed in code block tick marks.
      *
      * @return the command a user must type to get help for this command
+     * @deprecated this uses the prefix of the manager that loaded the command. Use {@link
+     * #getHelpString(CommandManager)} with {@link CommandCallData#getManager()}, since a shared command may be run by a
+     * manager with a different prefix.
      */
+    @Deprecated
     public @NotNull String getHelpString() {
+        return getHelpString(manager);
+    }
+
+    /**
+     * Same as {@link #getHelpString()}, but using the prefix of the given manager. This is the one to use while running
+     * a command, as the command may be shared by a manager with a different prefix.
+     *
+     * @param manager the manager running this command
+     * @return the command a user must type to get help for this command
+     */
+    public @NotNull String getHelpString(@NotNull CommandManager manager) {
         return manager.getMainPrefix() + name.toLowerCase(Locale.ROOT) + " help";
     }
 
     /**
-     * Gets the {@link CommandManager} that manages this Command instance. Useful for things like getting the default
-     * prefix.
+     * Gets the {@link CommandManager} that loaded this Command instance. If the command is shared by several managers,
+     * use {@link CommandCallData#getManager()} to get the one that is running it.
      *
      * @return the associated {@link CommandManager} instance
      */
@@ -258,8 +434,9 @@ public abstract class Command {
     }
 
     /**
-     * Returns {@link #infoEmbed}. First, a check is made to confirm that the info panel has been generated already. If
-     * so, it is simply returned. But if not, it is first generated with {@link #generateInfo()} and then returned.
+     * Returns the info embed for the {@link #manager} that loaded this command. First, a check is made to confirm that
+     * the info panel has been generated already. If so, a copy of it is simply returned. But if not, it is first
+     * generated with {@link #generateInfo(CommandManager)} and then returned.
      * Generating the info embed only now when it is requested has two advantages.
      * <p><br>
      * First, it means that the generation of the info embed occurs outside of the constructor for this {@link Command}.
@@ -270,12 +447,37 @@ public abstract class Command {
      * Second, this allows for better memory optimization, as info embeds are not generated in advance for commands, but
      * rather they only enter memory once they have been requested for the first time by a user.
      *
-     * @return the generated {@link #infoEmbed}
+     * @return the generated info embed
+     * @deprecated this uses the prefix and colors of the manager that loaded the command. Use {@link
+     * #getInfo(CommandManager)} with {@link CommandCallData#getManager()}, since a shared command may be run by a
+     * manager with different settings.
      */
+    @Deprecated
     public @NotNull EmbedBuilder getInfo() {
-        if (infoEmbed == null)
-            infoEmbed = generateInfo();
-        return infoEmbed;
+        return getInfo(manager);
+    }
+
+    /**
+     * Same as {@link #getInfo()}, but with the prefix and colors of the given manager. This is a new copy of {@link
+     * #getInfoEmbed(CommandManager)}, so it can be modified freely.
+     *
+     * @param manager the manager running this command
+     * @return the generated info embed
+     */
+    public @NotNull EmbedBuilder getInfo(@NotNull CommandManager manager) {
+        return new EmbedBuilder(getInfoEmbed(manager));
+    }
+
+    /**
+     * Gets the finished info embed for this command with the prefix and colors of the given manager. It's rendered with
+     * {@link #generateInfo(CommandManager)} the first time it's requested after the manager is built, and the same
+     * immutable embed is sent every time after that.
+     *
+     * @param manager the manager running this command
+     * @return the info embed
+     */
+    public @NotNull MessageEmbed getInfoEmbed(@NotNull CommandManager manager) {
+        return infoEmbeds.computeIfAbsent(manager.getConfig(), config -> generateInfo(manager).build());
     }
 
     /**
@@ -315,15 +517,44 @@ public abstract class Command {
 
     /**
      * Start by checking to see if the user indicated that they want to see the help panel for this command. If so send
-     * it to them. Otherwise, run the command. If a valid {@link Method} was provided, execute that.
+     * it to them. Otherwise, run the command. If a valid {@link CommandInvoker} was provided, execute that.
      * <p>
      * This method should deal with all exceptions and return them to the user where applicable. It should not throw any
      * exceptions (even runtime ones).
      *
+     * <p><br>
+     * Subclasses should override this method. Those written before {@link CommandInvoker} existed override {@link
+     * #process(CommandCallData, Method)} instead, and still work: for them, this passes on the reflected method of the
+     * invoker. Code from a generated {@link botUtils.commandsSystem.manager.CommandMethodRegistry} has no reflected
+     * method, so they are given null for it.
+     *
+     * @param data   the {@link CommandCallData} instance with all the info about the command message the user called
+     * @param method the optional invoker for the method to execute which allows for custom code in another class to
+     *               run
+     * @throws UnsupportedOperationException if the subclass overrides neither form of this method
+     */
+    public void process(@NotNull CommandCallData data, @Nullable CommandInvoker method) {
+        if (!OVERRIDES_METHOD_PROCESS.get(getClass()))
+            throw new UnsupportedOperationException(getClass().getName() + " must override " +
+                    "process(CommandCallData, CommandInvoker).");
+        process(data, method == null ? null : method.getMethod());
+    }
+
+    /**
+     * Processes a call to this command with a reflected {@link Method}, as commands did before {@link CommandInvoker}.
+     * Unless a subclass overrides this, the method is wrapped with {@link CommandInvoker#of(Method)} and passed to
+     * {@link #process(CommandCallData, CommandInvoker)}.
+     *
      * @param data   the {@link CommandCallData} instance with all the info about the command message the user called
      * @param method the optional method to execute which allows for custom code in another class to run
+     * @deprecated Override and call {@link #process(CommandCallData, CommandInvoker)} instead. Subclasses that only
+     * override this are given null for methods from a generated {@link
+     * botUtils.commandsSystem.manager.CommandMethodRegistry}, since those aren't called through reflection.
      */
-    public abstract void process(@NotNull CommandCallData data, Method method);
+    @Deprecated
+    public void process(@NotNull CommandCallData data, @Nullable Method method) {
+        process(data, method == null ? null : CommandInvoker.of(method));
+    }
 
     /**
      * Subclasses of {@link Command} such as {@link Function} and {@link CallResponse} represent instances of a Json
@@ -347,24 +578,24 @@ public abstract class Command {
     /**
      * Check to see if the user just wants the help embed for this command
      *
-     * @param info the info help embed retrieved with getInfo() for this command
+     * @param info the info help embed retrieved with {@link #getInfoEmbed(CommandManager)} for this command
      * @param data the data regarding a specific instance of a user calling the command
      * @return true if the user just wanted the info embed and it was sent to them; false otherwise
      */
     protected boolean checkInfoRequest(
-            @NotNull EmbedBuilder info, @NotNull CommandCallData data) {
+            @NotNull MessageEmbed info, @NotNull CommandCallData data) {
         // If there are no arguments and allowNoArgs was disabled, send the help embed
         if (data.getMsgArgs().length == 0)
             if (allowNoArgs)
                 return false;
             else {
-                sendInfoEmbed(data.getChannel());
+                sendInfoEmbed(data.getChannel(), info);
                 return true;
             }
 
         // If the user specifically requested the help embed with 'help' or 'info' or 'information', give it to them
         if (GenericUtils.stringContains(helpKeys, mergeArgs(data.getMsgArgs(), 0))) {
-            sendInfoEmbed(data.getChannel());
+            sendInfoEmbed(data.getChannel(), info);
             return true;
         }
 
@@ -372,25 +603,69 @@ public abstract class Command {
     }
 
     /**
-     * Sends the info embed for this {@link Command}, retrieved through {@link #getInfo()}. It is sent as a temporary
-     * message controlled by a {@link TempMsgConfig} instance with the default factor and a base value set by {@link
-     * #helpEmbedTimeout}.
+     * Same as {@link #checkInfoRequest(MessageEmbed, CommandCallData)}, but with an {@link EmbedBuilder} that is built
+     * first.
+     *
+     * @param info the info help embed retrieved with {@link #getInfo(CommandManager)} for this command
+     * @param data the data regarding a specific instance of a user calling the command
+     * @return true if the user just wanted the info embed and it was sent to them; false otherwise
+     * @deprecated use {@link #checkInfoRequest(MessageEmbed, CommandCallData)} with {@link
+     * #getInfoEmbed(CommandManager)}, which is only built once
+     */
+    @Deprecated
+    protected boolean checkInfoRequest(@NotNull EmbedBuilder info, @NotNull CommandCallData data) {
+        return checkInfoRequest(info.build(), data);
+    }
+
+    /**
+     * Sends the info embed for this {@link Command}, retrieved through {@link #getInfoEmbed(CommandManager)}. It is
+     * sent as a temporary message controlled by a {@link TempMsgConfig} instance with the default factor and a base
+     * value set by {@link #helpEmbedTimeout}.
+     *
+     * @param channel the channel to send it in
+     * @param info    the info embed
+     */
+    protected void sendInfoEmbed(@NotNull MessageChannel channel, @NotNull MessageEmbed info) {
+        MessageUtils.sendTemp(channel.sendMessage(info),
+                TempMsgConfig.of(helpEmbedTimeout, TempMsgConfig.DEFAULT_FACTOR).getDelay(info.getLength()));
+    }
+
+    /**
+     * Same as {@link #sendInfoEmbed(MessageChannel, MessageEmbed)}, but with an {@link EmbedBuilder} that is built
+     * first.
      *
      * @param channel the channel to send it in
+     * @param info    the info embed
+     * @deprecated use {@link #sendInfoEmbed(MessageChannel, MessageEmbed)} with {@link
+     * #getInfoEmbed(CommandManager)}, which is only built once
      */
+    @Deprecated
+    protected void sendInfoEmbed(@NotNull MessageChannel channel, @NotNull EmbedBuilder info) {
+        sendInfoEmbed(channel, info.build());
+    }
+
+    /**
+     * Sends the info embed for this {@link Command} with the prefix and colors of the {@link #manager} that loaded it.
+     *
+     * @param channel the channel to send it in
+     * @deprecated use {@link #sendInfoEmbed(MessageChannel, MessageEmbed)} with the info embed of the manager running
+     * the command, which may be a different one if the command is shared
+     */
+    @Deprecated
     protected void sendInfoEmbed(@NotNull MessageChannel channel) {
-        MessageUtils.sendTemp(channel, getInfo(), TempMsgConfig.of(helpEmbedTimeout, TempMsgConfig.DEFAULT_FACTOR));
+        sendInfoEmbed(channel, getInfoEmbed(manager));
     }
 
     /**
      * Combines the arguments with their descriptions and puts all that plus the command description and aliases in a
      * nice pretty {@link EmbedBuilder} using {@link MessageUtils}.
      *
+     * @param manager the manager whose prefix and colors are used
      * @return a finished EmbedBuilder with all the info about this function
      * @throws IllegalArgumentException if there is an error assembling the {@link EmbedBuilder}, likely due to
      *                                  unresolvable URLs or exceeding character limits
      */
-    protected @NotNull EmbedBuilder generateInfo() {
+    protected @NotNull EmbedBuilder generateInfo(@NotNull CommandManager manager) {
         EmbedBuilder e = MessageUtils.makeEmbedBuilder(
                 "Command Info: " + getNameCapital(),
                 "",
@@ -404,13 +679,75 @@ public abstract class Command {
         return e;
     }
 
+    /**
+     * Same as {@link #generateInfo(CommandManager)} with the {@link #manager} that loaded this command.
+     *
+     * @return a finished EmbedBuilder with all the info about this function
+     * @deprecated the info embed depends on the manager running the command. Override and call {@link
+     * #generateInfo(CommandManager)} instead.
+     */
+    @Deprecated
+    protected @NotNull EmbedBuilder generateInfo() {
+        return generateInfo(manager);
+    }
+
     /**
      * Convenience method to call {@link CommandManager#sendError(MessageChannel, ErrorBuilder)} from the {@link
-     * CommandManager} associated with this {@link Command}.
+     * CommandManager} running this {@link Command}, in the channel the command was called in.
+     *
+     * @param data  the data about the command call
+     * @param error the error to send
+     */
+    public final void sendError(@NotNull CommandCallData data, @NotNull ErrorBuilder error) {
+        data.getManager().sendError(data.getChannel(), error);
+    }
+
+    /**
+     * Convenience method to create an {@link ErrorBuilder} from the given {@link Exception} using {@link
+     * ErrorBuilder#of(Exception)} and then pass it to {@link #sendError(CommandCallData, ErrorBuilder)}.
+     *
+     * @param data the data about the command call
+     * @param e    the exception to convert to an {@link ErrorBuilder} and then send in Discord
+     */
+    public final void sendError(@NotNull CommandCallData data, @NotNull Exception e) {
+        sendError(data, ErrorBuilder.of(e));
+    }
+
+    /**
+     * Convenience method to call {@link CommandManager#sendError(MessageChannel, String)} from the {@link
+     * CommandManager} running this {@link Command}, in the channel the command was called in.
+     *
+     * @param data  the data about the command call
+     * @param error the error to send
+     */
+    public final void sendError(@NotNull CommandCallData data, @NotNull String error) {
+        data.getManager().sendError(data.getChannel(), error);
+    }
+
+    /**
+     * Convenience method to send an error with some fields from the {@link CommandManager} running this {@link
+     * Command}, in the channel the command was called in.
+     *
+     * @param data   the data about the command call
+     * @param error  the error to send
+     * @param fields any fields to add to the error, such as syntax
+     */
+    public final void sendError(@NotNull CommandCallData data, @NotNull String error, @Nullable EmbedField... fields) {
+        CommandManager manager = data.getManager();
+        manager.sendError(data.getChannel(),
+                ErrorBuilder.of(error, manager.getConfig().getErrorColor()).addField(fields));
+    }
+
+    /**
+     * Convenience method to call {@link CommandManager#sendError(MessageChannel, ErrorBuilder)} from the {@link
+     * CommandManager} that loaded this {@link Command}.
      *
      * @param error   the error to send
      * @param channel the channel to send the error in
+     * @deprecated this uses the settings and error limits of the manager that loaded the command. Use {@link
+     * #sendError(CommandCallData, ErrorBuilder)}, which uses the manager running it.
      */
+    @Deprecated
     public final void sendError(@NotNull MessageChannel channel, @NotNull ErrorBuilder error) {
         manager.sendError(channel, error);
     }
@@ -421,30 +758,39 @@ public abstract class Command {
      *
      * @param channel the channel to send the error in
      * @param e       the exception to convert to an {@link ErrorBuilder} and then send in Discord
+     * @deprecated this uses the settings and error limits of the manager that loaded the command. Use {@link
+     * #sendError(CommandCallData, Exception)}, which uses the manager running it.
      */
+    @Deprecated
     public final void sendError(@NotNull MessageChannel channel, @NotNull Exception e) {
         manager.sendError(channel, ErrorBuilder.of(e));
     }
 
     /**
      * Convenience method to call {@link CommandManager#sendError(MessageChannel, String)} from the {@link
-     * CommandManager} associated with this {@link Command}.
+     * CommandManager} that loaded this {@link Command}.
      *
      * @param error   the error to send
      * @param channel the channel to send the error in
+     * @deprecated this uses the settings and error limits of the manager that loaded the command. Use {@link
+     * #sendError(CommandCallData, String)}, which uses the manager running it.
      */
+    @Deprecated
     public final void sendError(@NotNull MessageChannel channel, @NotNull String error) {
         manager.sendError(channel, error);
     }
 
     /**
      * Convenience method to call {@link CommandManager#sendError(MessageChannel, ErrorBuilder)} from the {@link
-     * CommandManager} associated with this {@link Command}.
+     * CommandManager} that loaded this {@link Command}.
      *
      * @param error   the error to send
      * @param channel the channel to send the error in
      * @param fields  any fields to add to the error, such as syntax
+     * @deprecated this uses the settings and error limits of the manager that loaded the command. Use {@link
+     * #sendError(CommandCallData, String, EmbedField...)}, which uses the manager running it.
      */
+    @Deprecated
     public final void sendError(@NotNull MessageChannel channel, @NotNull String error, @Nullable EmbedField... fields) {
         manager.sendError(channel, ErrorBuilder.of(error, manager.getConfig().getErrorColor()).addField(fields));
     }
@@ -1,9 +1,14 @@
 package botUtils.commandsSystem.types;
 
 import botUtils.commandsSystem.manager.CommandManager;
+import botUtils.commandsSystem.manager.ManagerConfig;
+import botUtils.commandsSystem.manager.Paginator;
+import botUtils.commandsSystem.manager.ReplyLimiter;
 import botUtils.tools.Checks;
+import botUtils.tools.MessageBuffer;
 import botUtils.tools.MessageUtils;
 import botUtils.tools.TempMsgConfig;
+import botUtils.tools.TrackedEmbedBuilder;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.MessageBuilder;
 import net.dv8tion.jda.api.entities.*;
@@ -11,6 +16,8 @@ import net.dv8tion.jda.api.requests.RestAction;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.function.IntFunction;
+
 /**
  * This class represents all the basic information from a command a user typed that is passed to a function. It contains
  * things like the member who sent it, where it was sent, and the contents of the message.
@@ -66,6 +73,12 @@ public class CommandCallData {
      */
     private String[] messageArgs;
 
+    /**
+     * The buffer collecting the messages sent with {@link #message(CharSequence)} and its overloads, or null if they're
+     * sent right away. See {@link #setBuffered(boolean)}.
+     */
+    private @Nullable MessageBuffer buffer;
+
     /**
      * Creates a new {@link CommandCallData} instance based on the {@link CommandManager} and {@link Command} associated
      * with it. It is assumed that immediately after creating this command you will set the {@link #message}, {@link
@@ -148,6 +161,58 @@ public class CommandCallData {
         return this;
     }
 
+    /**
+     * Controls whether the messages sent with {@link #message(CharSequence)} and its overloads are buffered. When they
+     * are, nothing is sent until {@link #flush()} is called, and then everything is sent as the fewest messages
+     * possible (see {@link MessageBuffer}). This saves a request to Discord for every extra message, which matters
+     * for commands that send several short lines one after another.
+     * <p><br>
+     * The call data for a command is buffered when {@link ManagerConfig#doBufferReplies()} is enabled, and it's
+     * flushed automatically when the command's method returns. Turning buffering off flushes anything waiting, so any
+     * messages sent afterwards (such as from a callback that runs later) are sent right away.
+     *
+     * @param buffered true to buffer messages; false to send them right away
+     * @return this {@link CommandCallData} instance for chaining
+     */
+    public @NotNull CommandCallData setBuffered(boolean buffered) {
+        MessageBuffer old;
+        synchronized (this) {
+            old = buffer;
+            if (buffered && buffer == null)
+                buffer = MessageBuffer.of(channel);
+            else if (!buffered)
+                buffer = null;
+        }
+
+        if (!buffered && old != null)
+            old.flush();
+        return this;
+    }
+
+    /**
+     * Checks whether the messages sent with {@link #message(CharSequence)} and its overloads are being buffered. See
+     * {@link #setBuffered(boolean)}.
+     *
+     * @return true if messages are buffered; false if they're sent right away
+     */
+    public synchronized boolean isBuffered() {
+        return buffer != null;
+    }
+
+    /**
+     * Sends any messages waiting in the buffer right away. Buffering stays on, so later messages are buffered again.
+     * This does nothing if messages aren't being {@link #setBuffered(boolean) buffered}.
+     */
+    public void flush() {
+        MessageBuffer buffer = getBuffer();
+        if (buffer != null)
+            buffer.flush();
+    }
+
+    private synchronized @Nullable MessageBuffer getBuffer() {
+        return buffer;
+    }
+
     /**
      * Retrieves The {@link CommandManager} that operates the {@link Command} being called.
      *
@@ -242,11 +307,20 @@ public class CommandCallData {
 
     /**
      * This is a convenience method to send a message to the channel given in {@link #getChannel()}.
+     * If messages are {@link #setBuffered(boolean) buffered}, it's sent with the next {@link #flush()} instead. It's
+     * dropped if it {@link #isRepeated(int) repeats} a recent message.
      *
      * @param message the message to send
      */
     public void message(CharSequence message) {
-        channel.sendMessage(message).queue();
+        if (isRepeated(ReplyLimiter.hash(message)))
+            return;
+
+        MessageBuffer buffer = getBuffer();
+        if (buffer == null)
+            channel.sendMessage(message).queue();
+        else
+            buffer.append(message);
     }
 
     /**
@@ -260,11 +334,20 @@ public class CommandCallData {
 
     /**
      * This is a convenience method to send a message to the channel given in {@link #getChannel()}.
+     * If messages are {@link #setBuffered(boolean) buffered}, it's sent with the next {@link #flush()} instead. It's
+     * dropped if it {@link #isRepeated(int) repeats} a recent message.
      *
      * @param message the message to send
      */
     public void message(MessageEmbed message) {
-        channel.sendMessage(message).queue();
+        if (isRepeated(ReplyLimiter.hash(message)))
+            return;
+
+        MessageBuffer buffer = getBuffer();
+        if (buffer == null)
+            channel.sendMessage(message).queue();
+        else
+            buffer.append(message);
     }
 
     /**
@@ -273,7 +356,18 @@ public class CommandCallData {
      * @param message the message to send
      */
     public void message(EmbedBuilder message) {
-        channel.sendMessage(message.build()).queue();
+        message(message.build());
+    }
+
+    /**
+     * This is a convenience method to send a message to the channel given in {@link #getChannel()}. Each embed the
+     * {@link TrackedEmbedBuilder} is split into is sent with {@link #message(MessageEmbed)}.
+     *
+     * @param message the message to send
+     */
+    public void message(TrackedEmbedBuilder message) {
+        for (MessageEmbed embed : message.build())
+            message(embed);
     }
 
     /**
@@ -282,18 +376,35 @@ public class CommandCallData {
      * @param message the message to send
      */
     public void message(MessageBuilder message) {
-        channel.sendMessage(message.build()).queue();
+        message(message.build());
     }
 
     /**
-     * This is a convenience method to send a message to the channel given in {@link #getChannel()}.
+     * This is a convenience method to send a message to the channel given in {@link #getChannel()}. It's dropped if it
+     * {@link #isRepeated(int) repeats} a recent message.
      *
      * @param message the message to send
      */
     public void message(Message message) {
+        if (isRepeated(ReplyLimiter.hash(message)))
+            return;
+
+        // A complete message is sent as it is, after anything before it in the buffer
+        flush();
         channel.sendMessage(message).queue();
     }
 
+    /**
+     * Checks whether a message is the same as one sent by a command in this channel within the last {@link
+     * ManagerConfig#getDuplicateMessageWindow()} milliseconds. This is never the case if that setting is 0.
+     *
+     * @param hash the hash of the message from {@link ReplyLimiter#hash(CharSequence) ReplyLimiter.hash()}
+     * @return true if the message should be dropped; false if it should be sent
+     */
+    private boolean isRepeated(int hash) {
+        return !manager.getReplyLimiter().tryMessage(channel.getIdLong(), hash, manager.getConfig());
+    }
+
     /**
      * This is a convenience method to send a temporary message to the channel given in {@link #getChannel()}. It uses
      * {@link MessageUtils#sendTemp(MessageChannel, CharSequence, TempMsgConfig)} with {@link
@@ -302,6 +413,7 @@ public class CommandCallData {
      * @param message the message to send
      */
     public void messageTemp(CharSequence message) {
+        flush();
         MessageUtils.sendTemp(channel, message, TempMsgConfig.DEFAULT_SPEED);
     }
 
@@ -324,6 +436,7 @@ public class CommandCallData {
      * @param seconds the number of seconds to leave the message in Discord before deleting it
      */
     public void messageTemp(CharSequence message, int seconds) {
+        flush();
         MessageUtils.sendTemp(channel.sendMessage(message), seconds);
     }
 
@@ -335,6 +448,7 @@ public class CommandCallData {
      * @param message the message to send
      */
     public void messageTemp(EmbedBuilder message) {
+        flush();
         MessageUtils.sendTemp(channel, message, TempMsgConfig.DEFAULT_SPEED);
     }
 
@@ -346,6 +460,7 @@ public class CommandCallData {
      * @param seconds the number of seconds to leave the message in Discord before deleting it
      */
     public void messageTemp(MessageEmbed message, int seconds) {
+        flush();
         MessageUtils.sendTemp(channel.sendMessage(message), seconds);
     }
 
@@ -357,6 +472,7 @@ public class CommandCallData {
      * @param message the message to send
      */
     public void messageTemp(MessageBuilder message) {
+        flush();
         MessageUtils.sendTemp(channel, message, TempMsgConfig.DEFAULT_SPEED);
     }
 
@@ -368,6 +484,7 @@ public class CommandCallData {
      * @param seconds the number of seconds to leave the message in Discord before deleting it
      */
     public void messageTemp(Message message, int seconds) {
+        flush();
         MessageUtils.sendTemp(channel.sendMessage(message), seconds);
     }
 
@@ -379,6 +496,7 @@ public class CommandCallData {
      * @param message the message to reply with
      */
     public void reply(CharSequence message) {
+        flush();
         this.message.reply(message).queue();
     }
 
@@ -390,6 +508,7 @@ public class CommandCallData {
      * @param message the message to reply with
      */
     public void reply(MessageEmbed message) {
+        flush();
         this.message.reply(message).queue();
     }
 
@@ -401,6 +520,32 @@ public class CommandCallData {
      * @param message the message to reply with
      */
     public void reply(Message message) {
+        flush();
         this.message.reply(message).queue();
     }
+
+    /**
+     * This is a convenience method to send paginated output, such as a leaderboard or search results, to the channel
+     * given in {@link #getChannel()}. The first page is sent right away, and users change pages by reacting with the
+     * arrow emojis, just like the command list. Each page is only rendered when it is first shown.
+     *
+     * @param totalPages the number of pages
+     * @param renderer   the function that renders a page, given its number starting at 1
+     * @throws IllegalArgumentException if there are no pages
+     * @see Paginator
+     */
+    public void paginate(int totalPages, @NotNull IntFunction<EmbedBuilder> renderer) {
+        paginate(Paginator.of(totalPages, renderer));
+    }
+
+    /**
+     * This is a convenience method to send the pages of a {@link Paginator} to the channel given in {@link
+     * #getChannel()}. Users change pages by reacting with the arrow emojis, just like the command list.
+     *
+     * @param paginator the pages
+     */
+    public void paginate(@NotNull Paginator paginator) {
+        flush();
+        manager.sendPaginator(channel, paginator, user.getIdLong());
+    }
 }
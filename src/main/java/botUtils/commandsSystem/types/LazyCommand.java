@@ -0,0 +1,124 @@
+package botUtils.commandsSystem.types;
+
+import botUtils.commandsSystem.manager.CommandInvoker;
+import botUtils.commandsSystem.manager.CommandManager;
+import botUtils.commandsSystem.manager.ManagerConfig;
+import botUtils.exceptions.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * A stand-in for a {@link Command} whose Json has only been partly read. It is used by a {@link CommandManager} when
+ * {@link ManagerConfig#isLazyCommands()} is enabled.
+ * <p><br>
+ * Building a {@link LazyCommand} only reads the base {@link Command} keys (the name, aliases, descriptions, and so on),
+ * which is everything needed to match messages to commands and to show the command list. Everything specific to the
+ * command type, such as the arguments and syntaxes of a {@link botUtils.commandsSystem.types.function.Function
+ * Function} or the responses of a {@link botUtils.commandsSystem.types.callResponse.CallResponse CallResponse}, is
+ * skipped. The real command is only created the first time it is needed, through {@link #get()}.
+ * <p><br>
+ * Creating the real command happens exactly once, even if several threads need it at the same time. If it fails, the
+ * error is remembered and thrown again every time, rather than parsing the broken Json over and over.
+ */
+public class LazyCommand extends Command {
+    /**
+     * Creates the real command. It is set to null once it has been used, so that the Json it holds can be freed.
+     */
+    private @Nullable Callable<Command> loader;
+
+    private volatile @Nullable Command command;
+    private @Nullable Exception error;
+
+    /**
+     * Creates a {@link LazyCommand} by reading the base {@link Command} keys from the given reader.
+     *
+     * @param header  a reader positioned at the start of the command's Json object
+     * @param manager the manager the command belongs to
+     * @param loader  the code that creates the real command when it is first needed
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if a required base key is missing or a value is the wrong type
+     */
+    public LazyCommand(@NotNull JsonReader header, @NotNull CommandManager manager, @NotNull Callable<Command> loader)
+            throws IOException, JsonParseException {
+        super(header, manager, null);
+        this.loader = loader;
+    }
+
+    /**
+     * Gets the real {@link Command}, creating it first if this is the first time it's needed.
+     *
+     * @return the real command
+     * @throws Exception if the real command could not be created from its Json
+     */
+    public @NotNull Command get() throws Exception {
+        Command command = this.command;
+        if (command != null)
+            return command;
+
+        synchronized (this) {
+            if (this.command != null)
+                return this.command;
+            if (error != null)
+                throw error;
+
+            try {
+                this.command = command = loader.call();
+                return command;
+            } catch (Exception e) {
+                error = e;
+                throw e;
+            } finally {
+                loader = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the real {@link Command}, wrapping any error creating it in an {@link IllegalStateException}. This is used by
+     * the methods that can't throw checked exceptions.
+     *
+     * @return the real command
+     * @throws IllegalStateException if the real command could not be created
+     */
+    private @NotNull Command getUnchecked() {
+        try {
+            return get();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load the command '" + getName() + "'.", e);
+        }
+    }
+
+    /**
+     * Returns whether the real {@link Command} has been created yet.
+     *
+     * @return true if it has been created; false if it hasn't been or it failed
+     */
+    public boolean isLoaded() {
+        return command != null;
+    }
+
+    @Override
+    public @NotNull String getMethodName() {
+        return getUnchecked().getMethodName();
+    }
+
+    @Override
+    public @NotNull MessageEmbed getInfoEmbed(@NotNull CommandManager manager) {
+        return getUnchecked().getInfoEmbed(manager);
+    }
+
+    @Override
+    public void process(@NotNull CommandCallData data, @Nullable CommandInvoker method) {
+        getUnchecked().process(data, method);
+    }
+
+    @Override
+    public Class<? extends CommandCallData> getCallDataClass() {
+        return getUnchecked().getCallDataClass();
+    }
+}
@@ -1,14 +1,18 @@
 package botUtils.commandsSystem.types.callResponse;
 
 import botUtils.commandsSystem.json.JsonParser;
+import botUtils.commandsSystem.json.JsonStreamReader;
+import botUtils.commandsSystem.manager.CommandInvoker;
 import botUtils.commandsSystem.manager.CommandManager;
+import botUtils.commandsSystem.manager.CommandTypeFactory;
 import botUtils.commandsSystem.types.Command;
 import botUtils.commandsSystem.types.CommandCallData;
 import botUtils.exceptions.JsonParseException;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.reflect.Method;
+import java.io.IOException;
 
 /**
  * This is a less intensive Command extension than Functions. It doesn't allow for arguments, but simply sends a
@@ -28,8 +32,17 @@ public class CallResponse extends Command {
     // TODO implement this stuff \|/
     private final String[] replaceKeys = {
             "PREFIX"};
-    private final String[] replaceValues = {
-            super.manager.getMainPrefix()};
+
+    /**
+     * Gets the value for each of the {@link #replaceKeys}. These come from the manager running the command, since a
+     * shared command may be run by a manager with a different prefix than the one that loaded it.
+     *
+     * @param manager the manager running the command
+     * @return the values, in the same order as the keys
+     */
+    private static @NotNull String[] replaceValues(@NotNull CommandManager manager) {
+        return new String[]{manager.getMainPrefix()};
+    }
 
     public CallResponse(@NotNull JsonObject json, @NotNull CommandManager manager) throws JsonParseException {
         super(json, manager);
@@ -43,6 +56,65 @@ public class CallResponse extends Command {
                 .getString(json, "defaultResponseKey", responses.length == 0 ? "" : responses[0].getMainKey());
     }
 
+    /**
+     * Creates a {@link CallResponse} by streaming its Json from a {@link JsonReader}. Each {@link Response} is decoded
+     * directly from the stream without building an intermediate {@link JsonObject}.
+     *
+     * @param reader  the reader, positioned at the start of the command's Json object
+     * @param manager the {@link CommandManager} this command belongs to
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if a required key is missing or a value is the wrong type
+     */
+    public CallResponse(@NotNull JsonReader reader, @NotNull CommandManager manager)
+            throws IOException, JsonParseException {
+        this(new Body(), reader, manager);
+    }
+
+    private CallResponse(@NotNull Body body, @NotNull JsonReader reader, @NotNull CommandManager manager)
+            throws IOException, JsonParseException {
+        super(reader, manager, body::read);
+        this.responses = JsonStreamReader.required(body.responses, "responses");
+        this.defaultResponseKey = body.defaultResponseKey != null ? body.defaultResponseKey :
+                responses.length == 0 ? "" : responses[0].getMainKey();
+    }
+
+    /**
+     * Holds the {@link CallResponse} specific values while they are streamed by the {@link Command} constructor.
+     */
+    private static class Body {
+        private Response[] responses;
+        private String defaultResponseKey;
+
+        private boolean read(@NotNull String key, @NotNull JsonReader reader) throws IOException, JsonParseException {
+            switch (key) {
+                case "responses" -> responses = JsonStreamReader.readArray(reader, key, Response::of)
+                        .toArray(new Response[0]);
+                case "defaultResponseKey" -> defaultResponseKey = JsonStreamReader.nextString(reader, key);
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The {@link CommandTypeFactory} for {@link CallResponse} commands, which have the type "CallResponse" in their
+     * Json. It is registered through {@link java.util.ServiceLoader}.
+     */
+    public static class Factory implements CommandTypeFactory {
+        @Override
+        public @NotNull String getType() {
+            return "CallResponse";
+        }
+
+        @Override
+        public @NotNull Command create(@NotNull JsonReader reader, @NotNull CommandManager manager)
+                throws IOException, JsonParseException {
+            return new CallResponse(reader, manager);
+        }
+    }
+
     /**
      * This represents the class that should be used for storing information about a specific triggering of a {@link
      * CallResponse} by a user in Discord. See {@link Command#getCallDataClass()} for more detailed documentation about
@@ -55,9 +127,9 @@ public class CallResponse extends Command {
         return CommandCallData.class;
     }
 
-    public void process(@NotNull CommandCallData data, Method method) {
+    public void process(@NotNull CommandCallData data, CommandInvoker method) {
 
-        if (checkInfoRequest(getInfo(), data))
+        if (checkInfoRequest(getInfoEmbed(data.getManager()), data))
             return;
 
         String key;
@@ -74,8 +146,8 @@ public class CallResponse extends Command {
             }
 
         // If no response was sent it means a matching key wasn't found
-        sendError(data.getChannel(),
-                "Error loading response (unknown term). Try `" + getHelpString() + "` for more information.");
+        data.getManager().sendError(data.getChannel(), "Error loading response (unknown term). Try `" +
+                getHelpString(data.getManager()) + "` for more information.");
     }
 
 }
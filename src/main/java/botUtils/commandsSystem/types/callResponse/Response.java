@@ -1,13 +1,23 @@
 package botUtils.commandsSystem.types.callResponse;
 
+import botUtils.commandsSystem.json.InternPool;
 import botUtils.commandsSystem.json.JsonBuilder;
 import botUtils.commandsSystem.json.JsonParser;
+import botUtils.commandsSystem.json.JsonStreamReader;
 import botUtils.exceptions.JsonParseException;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import net.dv8tion.jda.api.MessageBuilder;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+
 public class Response {
+    /**
+     * The keys used when none are given: a single empty key. Every such response shares this array.
+     */
+    private static final String[] DEFAULT_KEYS = {""};
+
     private final String[] keys;
     private final MessageBuilder message;
 
@@ -16,7 +26,7 @@ public class Response {
 
         // Keys are optional. If none are given, a single empty key is assumed
         String[] k = JsonParser.getStringArrayNoError(json, "keys");
-        keys = k.length == 0 ? new String[]{""} : k;
+        keys = k.length == 0 ? DEFAULT_KEYS : InternPool.intern(k);
 
         switch (type) {
             // TODO implement the replacement strings doing substitutions like ?PREFIX? becoming %
@@ -28,6 +38,39 @@ public class Response {
         }
     }
 
+    private Response(JsonReader reader) throws IOException, JsonParseException {
+        String type = null, contents = null;
+        String[] k = new String[0];
+        // The embed keys sit alongside the response keys, so they're collected in the same pass
+        JsonBuilder.EmbedReader embed = new JsonBuilder.EmbedReader();
+
+        JsonStreamReader.beginObject(reader);
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            switch (key) {
+                case "type" -> type = JsonStreamReader.nextString(reader, key);
+                case "keys" -> k = JsonStreamReader.nextStringArrayNoError(reader, key);
+                case "contents" -> contents = JsonStreamReader.nextString(reader, key);
+                default -> {
+                    if (!embed.read(key, reader))
+                        reader.skipValue();
+                }
+            }
+        }
+        reader.endObject();
+
+        keys = k.length == 0 ? DEFAULT_KEYS : InternPool.intern(k);
+
+        type = JsonStreamReader.required(type, "type");
+        switch (type) {
+            case "text" -> this.message = new MessageBuilder(JsonStreamReader.required(contents, "contents"));
+            case "embed" -> message = new MessageBuilder(embed.build());
+
+            default -> throw new JsonParseException("Unknown message type '" + type + "'. " +
+                    "Expected 'text' or 'embed'.");
+        }
+    }
+
     /**
      * Create a new {@link Response} from a {@link JsonObject} read from a file
      *
@@ -39,6 +82,18 @@ public class Response {
         return new Response(json);
     }
 
+    /**
+     * Create a new {@link Response} by streaming its Json object from a {@link JsonReader}
+     *
+     * @param reader the reader, positioned at the start of the response's Json object
+     * @return the newly created response
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if there is an error parsing the Json
+     */
+    public static Response of(JsonReader reader) throws IOException, JsonParseException {
+        return new Response(reader);
+    }
+
     public MessageBuilder getMessage() {
         return message;
     }
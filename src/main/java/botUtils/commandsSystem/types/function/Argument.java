@@ -1,12 +1,15 @@
 package botUtils.commandsSystem.types.function;
 
 import botUtils.commandsSystem.json.JsonParser;
+import botUtils.commandsSystem.json.JsonStreamReader;
 import botUtils.exceptions.JsonParseException;
 import botUtils.tools.Checks;
 import botUtils.tools.GenericUtils;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -53,6 +56,48 @@ public class Argument {
         }
     }
 
+    private Argument(@NotNull JsonReader reader) throws IOException, JsonParseException {
+        String name = null, description = null, type = null, defaultValue = null;
+        String[] allowedValues = new String[0];
+        Double floor = null, ceiling = null;
+        boolean floorInclusive = true, ceilingInclusive = true;
+        int sigFigs = 99;
+
+        // The keys can come in any order, so the type is only known once the whole object has been read
+        JsonStreamReader.beginObject(reader);
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            switch (key) {
+                case "name" -> name = JsonStreamReader.nextString(reader, key);
+                case "description" -> description = JsonStreamReader.nextString(reader, key);
+                case "type" -> type = JsonStreamReader.nextString(reader, key);
+                case "defaultValue" -> defaultValue = JsonStreamReader.nextString(reader, key);
+                case "allowedValues" -> allowedValues = JsonStreamReader.nextStringArrayNoError(reader, key);
+                case "floor" -> floor = JsonStreamReader.nextDouble(reader, key);
+                case "floorInclusive" -> floorInclusive = JsonStreamReader.nextBoolean(reader, key);
+                case "ceiling" -> ceiling = JsonStreamReader.nextDouble(reader, key);
+                case "ceilingInclusive" -> ceilingInclusive = JsonStreamReader.nextBoolean(reader, key);
+                case "sigFigs" -> sigFigs = JsonStreamReader.nextInteger(reader, key);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        this.name = JsonStreamReader.required(name, "name");
+        this.description = JsonStreamReader.required(description, "description");
+        this.type = ArgType.getType(JsonStreamReader.required(type, "type"));
+        this.defaultValue = defaultValue;
+        this.allowedValues = allowedValues.length == 0 ? null : allowedValues;
+
+        if (ArgType.isNumber(this.type)) {
+            this.floor = floor == null ? ArgType.getMinValue(this.type) : floor;
+            this.floorInclusive = floorInclusive;
+            this.ceiling = ceiling == null ? ArgType.getMaxValue(this.type) : ceiling;
+            this.ceilingInclusive = ceilingInclusive;
+            this.sigFigs = sigFigs;
+        }
+    }
+
     /**
      * Builds a new {@link Argument} based on the contents of a {@link JsonObject}, which was read from a Json file for
      * a {@link Function}. The following Json keys are recognized when constructing an {@link Argument}:
@@ -85,6 +130,33 @@ public class Argument {
         return args;
     }
 
+    /**
+     * Builds a new {@link Argument} by streaming its Json object from a {@link JsonReader}. The recognized keys and
+     * their defaults are the same as those for {@link #of(JsonObject)}.
+     *
+     * @param reader the reader, positioned at the start of the argument's Json object
+     * @return a completed {@link Argument}
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if there is an error parsing the Json
+     */
+    public static @NotNull Argument of(@NotNull JsonReader reader) throws IOException, JsonParseException {
+        return new Argument(reader);
+    }
+
+    /**
+     * Streams a Json array of {@link Argument} objects from a {@link JsonReader}, decoding each with {@link
+     * #of(JsonReader)}.
+     *
+     * @param reader the reader, positioned at the start of the array
+     * @param key    the key of the array (used for error messages)
+     * @return an array of {@link Argument} instances
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if there is an error parsing the Json for any of the arguments
+     */
+    public static @NotNull Argument[] ofArray(@NotNull JsonReader reader, @NotNull String key)
+            throws IOException, JsonParseException {
+        return JsonStreamReader.readArray(reader, key, Argument::of).toArray(new Argument[0]);
+    }
     /**
      * Returns the name of the {@link Argument}.
      *
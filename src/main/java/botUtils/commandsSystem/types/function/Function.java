@@ -1,6 +1,7 @@
 package botUtils.commandsSystem.types.function;
 
 import botUtils.commandsSystem.json.JsonParser;
+import botUtils.commandsSystem.json.JsonStreamReader;
 import botUtils.commandsSystem.types.Command;
 import botUtils.commandsSystem.types.CommandCallData;
 import botUtils.exceptions.FuncException;
@@ -8,18 +9,18 @@ import botUtils.exceptions.InvalidMethodException;
 import botUtils.exceptions.JsonParseException;
 import botUtils.exceptions.SyntaxException;
 import botUtils.tools.*;
+import botUtils.commandsSystem.manager.CommandInvoker;
 import botUtils.commandsSystem.manager.CommandManager;
+import botUtils.commandsSystem.manager.CommandTypeFactory;
+import botUtils.commandsSystem.manager.ManagerConfig;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.entities.MessageChannel;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
+import java.io.IOException;
+import java.util.*;
 
 /**
  * This class takes the Command object a step further by adding support for custom arguments
@@ -28,10 +29,16 @@ public class Function extends Command {
     private final Argument[] arguments;
     private final Syntax[] syntaxes;
     /**
-     * This is the name of the {@link Method} with the code to execute for this {@link Function}.
+     * This is the name of the method with the code to execute for this {@link Function}.
      */
     private final String methodName;
 
+    /**
+     * The syntax fields shown in syntax errors and the info embed, rendered once for each set of settings a manager is
+     * built with, since they start with the manager's prefix. See {@link #getSyntaxFields(CommandManager)}.
+     */
+    private final Map<ManagerConfig, EmbedField[]> syntaxFields = Collections.synchronizedMap(new WeakHashMap<>());
+
     public Function(@NotNull JsonObject json, @NotNull CommandManager manager) throws JsonParseException {
         super(json, manager);
         this.arguments = Argument.ofArray(JsonParser.getJsonObjectArray(json, "arguments"));
@@ -39,6 +46,67 @@ public class Function extends Command {
         syntaxes = Syntax.ofArray(JsonParser.getJsonArrayArray(json, "syntax"), this);
     }
 
+    /**
+     * Creates a {@link Function} by streaming its Json from a {@link JsonReader}. The {@link Argument Arguments} are
+     * decoded directly into their final array. The syntaxes are read alongside them and resolved against the
+     * arguments once the whole object has been read, so the keys can appear in any order.
+     *
+     * @param reader  the reader, positioned at the start of the function's Json object
+     * @param manager the {@link CommandManager} this function belongs to
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if a required key is missing or a value is the wrong type
+     */
+    public Function(@NotNull JsonReader reader, @NotNull CommandManager manager)
+            throws IOException, JsonParseException {
+        this(new Body(), reader, manager);
+    }
+
+    private Function(@NotNull Body body, @NotNull JsonReader reader, @NotNull CommandManager manager)
+            throws IOException, JsonParseException {
+        super(reader, manager, body::read);
+        this.arguments = JsonStreamReader.required(body.arguments, "arguments");
+        this.methodName = (body.method == null ? getName() : body.method).toLowerCase(Locale.ROOT);
+        this.syntaxes = Syntax.ofDefinitions(JsonStreamReader.required(body.syntaxes, "syntax"), this);
+    }
+
+    /**
+     * Holds the {@link Function} specific values while they are streamed by the {@link Command} constructor.
+     */
+    private static class Body {
+        private Argument[] arguments;
+        private String method;
+        private List<Syntax.Definition> syntaxes;
+
+        private boolean read(@NotNull String key, @NotNull JsonReader reader) throws IOException, JsonParseException {
+            switch (key) {
+                case "arguments" -> arguments = Argument.ofArray(reader, key);
+                case "method" -> method = JsonStreamReader.nextString(reader, key);
+                case "syntax" -> syntaxes = Syntax.readDefinitions(reader, key);
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The {@link CommandTypeFactory} for {@link Function} commands, which have the type "Function" in their Json. It is
+     * registered through {@link java.util.ServiceLoader}.
+     */
+    public static class Factory implements CommandTypeFactory {
+        @Override
+        public @NotNull String getType() {
+            return "Function";
+        }
+
+        @Override
+        public @NotNull Command create(@NotNull JsonReader reader, @NotNull CommandManager manager)
+                throws IOException, JsonParseException {
+            return new Function(reader, manager);
+        }
+    }
+
     /**
      * Retrieves the name of the method that should be executed when this {@link Function} is called in Discord. This is
      * a replacement for the default {@link Command} behavior of simply returning the name, as in {@link #getName()}.
@@ -67,10 +135,11 @@ public class Function extends Command {
      * arguments to be in the required range and the right number of args.
      *
      * @param commandData the {@link CommandCallData} instance with all the information on the command the user called
-     * @param method      the method to call when running this function
+     * @param method      the invoker for the method to call when running this function
      */
-    public void process(@NotNull CommandCallData commandData, Method method) {
+    public void process(@NotNull CommandCallData commandData, @Nullable CommandInvoker method) {
         FunctionCallData data = (FunctionCallData) commandData;
+        CommandManager manager = data.getManager();
 
         try {
             // Parse the arguments from the command. If something is sent to the user (help embed or error message)
@@ -78,37 +147,41 @@ public class Function extends Command {
             if (parseArgsForErrors(data))
                 return;
 
+            // If the method is null it's probably because the class with it wasn't passed to the command manager
+            if (method == null) {
+                manager.sendError(data.getChannel(), ErrorBuilder.of("Failed to process the **" + getName() +
+                        "** function. Unable to locate and execute the **" + getMethodName() + "** method. Ensure " +
+                        "that the class with the specified method was passed to the command manager."));
+                return;
+            }
+
             // Confirm that the method associated with this function takes the right parameters and run it
-            Checks.checkMethodParameterTypes(method, FunctionCallData.class);
-            method.invoke(this, data);
+            if (!method.getParameterType().isInstance(data))
+                throw new InvalidMethodException("Invalid parameters for method " + getMethodName() + "(" +
+                        method.getParameterType().getName() + "). Expected " + getMethodName() + "(" +
+                        FunctionCallData.class.getName() + ").");
+
+            try {
+                method.invoke(data);
+            } catch (FuncException e) {
+                // Errors thrown on purpose by the method have their own error embed
+                manager.sendError(data.getChannel(), e.getError());
+            } catch (Exception e) {
+                // Any other exception thrown by the method is shown to the user as is
+                manager.sendError(data.getChannel(), ErrorBuilder.of(e));
+            }
 
         } catch (SyntaxException e) {
             // Catches SyntaxExceptions and ArgumentExceptions, sending the user the proper syntax in the error
-            sendSyntaxError(e.getMessage(), data.getChannel(), e.getSyntax());
+            sendSyntaxError(e.getMessage(), data, e.getSyntax());
 
         } catch (InvalidMethodException | IllegalArgumentException e) {
             // Known errors with class names good enough for error embed titles
-            sendError(data.getChannel(), ErrorBuilder.of(e));
-
-        } catch (InvocationTargetException e) {
-            // An InvocationTargetException encases another exception that was thrown while invoking a method.
-            // Figure out what kind of exception that was.
-            Exception error = (Exception) e.getCause();
-
-            if (error instanceof FuncException)
-                sendError(data.getChannel(), ((FuncException) error).getError());
-            else
-                sendError(data.getChannel(), error);
-
-        } catch (NullPointerException ignore) {
-            // If the method is null it's probably because the class with it wasn't passed to the command manager
-            sendError(data.getChannel(), ErrorBuilder.of("Failed to process the **" + getName() + "** function. " +
-                    "Unable to locate and execute the **" + getMethodName() + "** method. Ensure that the class " +
-                    "with the specified method was passed to the command manager."));
+            manager.sendError(data.getChannel(), ErrorBuilder.of(e));
 
         } catch (Exception e) {
             // Unknown/unanticipated exceptions are also printed to the console
-            sendError(data.getChannel(), e.getMessage());
+            manager.sendError(data.getChannel(), e.getMessage());
             e.printStackTrace();
         }
     }
@@ -126,7 +199,7 @@ public class Function extends Command {
      */
     protected boolean parseArgsForErrors(@NotNull FunctionCallData data) throws Exception {
         // Check if the user merely wants the info/help panel for this command
-        if (checkInfoRequest(getInfo(), data))
+        if (checkInfoRequest(getInfoEmbed(data.getManager()), data))
             return true;
 
         // Determine the data type of each of the arguments the user provided
@@ -230,12 +303,13 @@ public class Function extends Command {
      * Combines the arguments with their descriptions and puts all that plus the command description and aliases in a
      * nice pretty {@link EmbedBuilder} using {@link MessageUtils}.
      *
+     * @param manager the manager whose prefix and colors are used
      * @return a finished EmbedBuilder with all the info about this function
      * @throws IllegalArgumentException if there is an error assembling the {@link EmbedBuilder}, likely due to
      *                                  unresolvable URLs or exceeding character limits
      */
     @Override
-    protected @NotNull EmbedBuilder generateInfo() {
+    protected @NotNull EmbedBuilder generateInfo(@NotNull CommandManager manager) {
         StringBuilder s = new StringBuilder();
         for (Argument arg : getArguments())
             s.append("\n").append(arg.getDescriptionFormat());
@@ -250,7 +324,7 @@ public class Function extends Command {
                 null, null, null, null,
                 new EmbedField[]{
                         EmbedField.of("Description", getDescription()),
-                        EmbedField.of("Syntax" + (syntaxes.length > 1 ? "es" : ""), getSyntaxes()),
+                        getSyntaxFields(manager)[syntaxes.length],
                         EmbedField.of("Arguments", syntaxDesc),
                         EmbedField.of("Alias" + (getAliases().length > 1 ? "es" : ""),
                                 GenericUtils.mergeList(getAliasesArray(), "and"))
@@ -262,17 +336,42 @@ public class Function extends Command {
      * object is provided, only that Syntax is listed in the embed. Otherwise, if null is passed for the Syntax then all
      * the Syntaxes associated with the function are displayed.
      *
-     * @param error   the error message to display at the top of the embed
-     * @param channel the channel to send the error in
-     * @param syntax  the syntax to display under the error (or null to list all syntaxes)
+     * @param error  the error message to display at the top of the embed
+     * @param data   the data about the command the user called, which has the channel and manager to use
+     * @param syntax the syntax to display under the error (or null to list all syntaxes)
      */
-    protected void sendSyntaxError(String error, MessageChannel channel, Syntax syntax) {
+    protected void sendSyntaxError(String error, @NotNull CommandCallData data, Syntax syntax) {
+        CommandManager manager = data.getManager();
+        EmbedField[] fields = getSyntaxFields(manager);
+
         // Set the Syntax part to either all the syntaxes (if syntax is null) or only the one provided
-        EmbedField syntaxField = EmbedField.of(
-                "Syntax" + (syntaxes.length > 1 && syntax == null ? "es" : ""),
-                syntax == null ? getSyntaxes() : "```\n" + syntax.toString() + "```");
+        EmbedField syntaxField = syntax == null ? fields[syntaxes.length] :
+                syntax.getIndex() <= syntaxes.length && syntaxes[syntax.getIndex() - 1] == syntax ?
+                        fields[syntax.getIndex() - 1] :
+                        EmbedField.of("Syntax", "```\n" + syntax.toString(manager.getMainPrefix()) + "```");
+
+        manager.sendError(data.getChannel(),
+                ErrorBuilder.of(error, manager.getConfig().getErrorColor()).addField(syntaxField));
+    }
 
-        sendError(channel, error, syntaxField);
+    /**
+     * Gets the fields listing the syntaxes of this {@link Function} with the prefix of the given manager. There is one
+     * field for each of the {@link #syntaxes} in order, followed by one listing all of them. They're rendered the first
+     * time they're needed after the manager is built, so sending a syntax error doesn't format any syntaxes.
+     *
+     * @param manager the manager running this function
+     * @return the fields, which must not be modified
+     */
+    private @NotNull EmbedField[] getSyntaxFields(@NotNull CommandManager manager) {
+        return syntaxFields.computeIfAbsent(manager.getConfig(), config -> {
+            String prefix = manager.getMainPrefix();
+            EmbedField[] fields = new EmbedField[syntaxes.length + 1];
+            for (int i = 0; i < syntaxes.length; i++)
+                fields[i] = EmbedField.of("Syntax", "```\n" + syntaxes[i].toString(prefix) + "```");
+            fields[syntaxes.length] = EmbedField.of("Syntax" + (syntaxes.length > 1 ? "es" : ""),
+                    getSyntaxes(prefix));
+            return fields;
+        });
     }
 
     /**
@@ -280,11 +379,24 @@ public class Function extends Command {
      * there's only one syntax for the command, this will simply look like the syntax enclosed in a code block.
      *
      * @return the list of syntaxes
+     * @deprecated this uses the prefix of the manager that loaded the function. Use {@link #getSyntaxes(String)} with
+     * the prefix of the manager running it.
      */
+    @Deprecated
     protected String getSyntaxes() {
+        return getSyntaxes(manager.getMainPrefix());
+    }
+
+    /**
+     * Same as {@link #getSyntaxes()}, but with each syntax starting with the given prefix.
+     *
+     * @param prefix the prefix of the manager running this function
+     * @return the list of syntaxes
+     */
+    protected String getSyntaxes(@NotNull String prefix) {
         StringBuilder s = new StringBuilder();
         for (Syntax syntax : this.syntaxes)
-            s.append("```\n").append(syntax.toString()).append("```");
+            s.append("```\n").append(syntax.toString(prefix)).append("```");
 
         return s.toString();
     }
@@ -1,16 +1,22 @@
 package botUtils.commandsSystem.types.function;
 
 import botUtils.commandsSystem.json.JsonParser;
+import botUtils.commandsSystem.json.JsonStreamReader;
+import botUtils.commandsSystem.manager.CommandManager;
 import botUtils.exceptions.JsonParseException;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 public class Syntax {
@@ -31,6 +37,13 @@ public class Syntax {
         this.index = index;
     }
 
+    private Syntax(@NotNull Definition definition, @NotNull Function function, int index) throws JsonParseException {
+        this.function = function;
+        for (int i = 0; i < definition.names.size(); i++)
+            arguments.add(new ArgumentGroup(definition.names.get(i), definition.repetitions.get(i), function));
+        this.index = index;
+    }
+
     /**
      * Creates a new {@link Syntax} instance based on a {@link JsonArray} and then {@link Function} that this syntax
      * belongs to.
@@ -65,13 +78,71 @@ public class Syntax {
     }
 
     /**
-     * Retrieves the names of the arguments in this {@link Syntax} in a nicely formatted {@link String}.
+     * Streams the Json array of syntaxes for a {@link Function} from a {@link JsonReader}. Each syntax is read into an
+     * unresolved {@link Definition} holding only the argument names and repetitions. They can't be resolved against
+     * the {@link Function} yet, because its {@code arguments} key may come after its {@code syntax} key in the Json.
+     * Once the whole {@link Function} has been read, pass the result to {@link #ofDefinitions(List, Function)}.
+     *
+     * @param reader the reader, positioned at the start of the array of syntaxes
+     * @param key    the key of the array (used for error messages)
+     * @return the unresolved syntax definitions in order
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if the Json for any of the syntaxes is malformed
+     */
+    static @NotNull List<Definition> readDefinitions(@NotNull JsonReader reader, @NotNull String key)
+            throws IOException, JsonParseException {
+        return JsonStreamReader.readArray(reader, key, r -> Definition.read(r, key));
+    }
+
+    /**
+     * Resolves a list of {@link Definition Definitions} read by {@link #readDefinitions(JsonReader, String)} into an
+     * array of {@link Syntax} instances, all of which belong to the given {@link Function}.
+     *
+     * @param definitions the unresolved syntaxes
+     * @param function    the {@link Function} that owns all of these syntaxes
+     * @return an array of newly created {@link Syntax} instances
+     * @throws JsonParseException if a syntax references an argument that the {@link Function} doesn't have
+     */
+    static @NotNull Syntax[] ofDefinitions(@NotNull List<Definition> definitions, @NotNull Function function)
+            throws JsonParseException {
+        Syntax[] array = new Syntax[definitions.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = new Syntax(definitions.get(i), function, i + 1);
+        return array;
+    }
+
+    /**
+     * Retrieves the names of the arguments in this {@link Syntax} in a nicely formatted {@link String}, starting with
+     * the prefix of the manager that loaded the {@link Function}. A shared function may be run by a manager with a
+     * different prefix, so anything shown to a user should use {@link #toString(CommandManager)} with {@link
+     * botUtils.commandsSystem.types.CommandCallData#getManager()} instead.
      *
      * @return the formatted syntax
      */
     @Override
     public @NotNull String toString() {
-        StringBuilder s = new StringBuilder(function.getManager().getMainPrefix() + function.getNameLower());
+        return toString(function.getManager().getMainPrefix());
+    }
+
+    /**
+     * Same as {@link #toString()}, but starting with the main prefix of the manager running the {@link Function}.
+     *
+     * @param manager the manager running the function
+     * @return the formatted syntax
+     */
+    public @NotNull String toString(@NotNull CommandManager manager) {
+        return toString(manager.getMainPrefix());
+    }
+
+    /**
+     * Same as {@link #toString()}, but starting with the given prefix instead of the prefix of the manager that loaded
+     * the {@link Function}.
+     *
+     * @param prefix the prefix of the manager running the function
+     * @return the formatted syntax
+     */
+    public @NotNull String toString(@NotNull String prefix) {
+        StringBuilder s = new StringBuilder(prefix + function.getNameLower());
         for (ArgumentGroup g : arguments)
             s.append(" ").append(g.toString());
         return s.toString();
@@ -198,6 +269,58 @@ public class Syntax {
         return newArray;
     }
 
+    /**
+     * An unresolved {@link Syntax} streamed from Json. It contains the names and maximum repetitions of each argument
+     * group, but the argument types have not been looked up from the {@link Function} yet.
+     */
+    static class Definition {
+        private final List<String[]> names = new ArrayList<>();
+        private final List<Integer> repetitions = new ArrayList<>();
+
+        private static @NotNull Definition read(@NotNull JsonReader reader, @NotNull String key)
+                throws IOException, JsonParseException {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY)
+                throw new JsonParseException("Unexpected type at key '" + key + "'. Expected array of JsonArrays.");
+
+            Definition definition = new Definition();
+            reader.beginArray();
+
+            while (reader.hasNext()) {
+                // An object is a group of arguments that can be repeated
+                if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    String[] args = null;
+                    Integer maxRepetitions = null;
+
+                    JsonStreamReader.beginObject(reader);
+                    while (reader.hasNext()) {
+                        String groupKey = reader.nextName();
+                        switch (groupKey) {
+                            case "args" -> args = JsonStreamReader.nextStringArray(reader, groupKey);
+                            case "maxRepetitions" -> maxRepetitions = JsonStreamReader.nextInteger(reader, groupKey);
+                            default -> reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+
+                    definition.names.add(JsonStreamReader.required(args, "args"));
+                    definition.repetitions.add(JsonStreamReader.required(maxRepetitions, "maxRepetitions"));
+                    continue;
+                }
+
+                // Otherwise it's the name of a single argument
+                String name = JsonStreamReader.nextString(reader, key);
+                if (name == null)
+                    throw new JsonParseException("Syntax element null must be one of JsonPrimitive String or " +
+                            "JsonObject.");
+                definition.names.add(new String[]{name});
+                definition.repetitions.add(1);
+            }
+
+            reader.endArray();
+            return definition;
+        }
+    }
+
     private static class ArgumentGroup {
         private final String[] names;
         private final ArgType[] types;
@@ -248,6 +371,29 @@ public class Syntax {
             throw new JsonParseException("Syntax element " + j + " must be one of JsonPrimitive String or JsonObject.");
         }
 
+        /**
+         * Creates an {@link ArgumentGroup} from the names and repetitions that were already read from a syntax while its
+         * Json was streamed. The type of each argument is taken from the associated {@link Function}.
+         *
+         * @param names       the names of the arguments in the group
+         * @param repetitions the maximum number of repetitions of the arguments
+         * @param function    the {@link Function} controlling this {@link Syntax} and {@link ArgumentGroup}
+         * @throws JsonParseException if one of the names doesn't match an argument of the function
+         */
+        public ArgumentGroup(String[] names, int repetitions, Function function) throws JsonParseException {
+            this.names = names;
+            this.repetitions = repetitions;
+            this.types = new ArgType[names.length];
+            for (int i = 0; i < names.length; i++) {
+                Argument argument = function.getArgument(names[i]);
+                if (argument == null)
+                    throw new JsonParseException("There should have been an argument assigned to this function " +
+                            "called '" + names[i] + "' because it was referenced in a syntax, but no matching " +
+                            "argument could be found.");
+                types[i] = argument.getType();
+            }
+        }
+
         /**
          * Retrieves the name(s) of the arguments in the {@link ArgumentGroup}.
          *
@@ -13,6 +13,8 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -129,6 +131,63 @@ public class Checks {
         }
     }
 
+    /**
+     * Confirms that the given {@link Path} is not null and <i>is</i> a directory. Unlike {@link #fileIsDirectory(File)},
+     * this works for paths in any {@link java.nio.file.FileSystem}, such as a folder inside a jar.
+     *
+     * @param path the directory to check
+     * @throws NullPointerException     if the path is null
+     * @throws IllegalArgumentException if the path is not a directory
+     */
+    public static void pathIsDirectory(Path path) {
+        if (path == null)
+            throw new NullPointerException("Directory must not be null.");
+        if (!Files.isDirectory(path))
+            throw new IllegalArgumentException("'" + path + "' must be a directory.");
+    }
+
+    /**
+     * Same as {@link #fileIsJsonBool(File)}, but for a {@link Path} in any {@link java.nio.file.FileSystem}. The path
+     * doesn't need to exist, but it must not be a directory and its name must end with ".json".
+     *
+     * @param path the path to test
+     * @return true if the path is a Json file; false otherwise
+     */
+    public static boolean pathIsJsonBool(Path path) {
+        if (path == null || path.getFileName() == null || Files.isDirectory(path))
+            return false;
+        return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json");
+    }
+
+    /**
+     * Checks whether the given {@link Path} is a command pack: a single file with one command Json object per line
+     * (NDJSON), optionally compressed with gzip. Its name must end with ".ndjson" or ".jsonl", followed by ".gz" if it
+     * is compressed. Like {@link #pathIsJsonBool(Path)}, the path doesn't need to exist.
+     *
+     * @param path the path to test
+     * @return true if the path is a command pack; false otherwise
+     */
+    public static boolean pathIsCommandPackBool(Path path) {
+        if (path == null || path.getFileName() == null || Files.isDirectory(path))
+            return false;
+
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz"))
+            name = name.substring(0, name.length() - 3);
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl");
+    }
+
+    /**
+     * Checks whether the given {@link Path} contains commands, meaning it is either a Json file or a command pack. See
+     * {@link #pathIsJsonBool(Path)} and {@link #pathIsCommandPackBool(Path)}.
+     *
+     * @param path the path to test
+     * @return true if commands can be loaded from the path; false otherwise
+     */
+    public static boolean pathIsCommandFileBool(Path path) {
+        return pathIsJsonBool(path) || pathIsCommandPackBool(path);
+    }
+
     /**
      * Confirms that a given input matches one of the options. Toggle the ignoreCase flag to change whether or not the
      * input must match the exact case of one of the options. If none of the options match, an error is thrown. Note
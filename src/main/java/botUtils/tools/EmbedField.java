@@ -1,16 +1,22 @@
 package botUtils.tools;
 
 import botUtils.commandsSystem.builder.ResponseBuilder;
+import botUtils.commandsSystem.json.InternPool;
 import botUtils.commandsSystem.json.JsonBuilder;
 import botUtils.commandsSystem.json.JsonMap;
 import botUtils.commandsSystem.json.JsonParser;
+import botUtils.commandsSystem.json.JsonStreamReader;
 import botUtils.exceptions.JsonParseException;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.util.Objects;
+
 public class EmbedField {
     private final @NotNull String title;
     private final @NotNull String content;
@@ -37,7 +43,7 @@ public class EmbedField {
      * @param content the content of the field
      */
     public static @NotNull EmbedField of(@Nullable String title, @Nullable String content) {
-        return new EmbedField(title, content);
+        return InternPool.intern(new EmbedField(title, content));
     }
 
     /**
@@ -53,7 +59,7 @@ public class EmbedField {
      * @return the newly created {@link EmbedField}
      */
     public static @NotNull EmbedField of(@Nullable String title, @Nullable String content, boolean inline) {
-        return new EmbedField(title, content, inline);
+        return InternPool.intern(new EmbedField(title, content, inline));
     }
 
     /**
@@ -68,11 +74,11 @@ public class EmbedField {
      * @throws JsonParseException if there is an error reading the Json for the 'title', 'text', or 'inline' keys
      */
     public static @NotNull EmbedField of(@NotNull JsonObject json) throws JsonParseException {
-        return new EmbedField(
+        return InternPool.intern(new EmbedField(
                 JsonParser.getString(json, "title"),
                 JsonParser.getString(json, "text"),
                 JsonParser.getBoolean(json, "inline", false)
-        );
+        ));
     }
 
     /**
@@ -91,6 +97,50 @@ public class EmbedField {
         return fields;
     }
 
+    /**
+     * Streams an {@link EmbedField} from a {@link JsonReader}. The keys, requirements and defaults are the same as
+     * those for {@link #of(JsonObject)}.
+     *
+     * @param reader the reader, positioned at the start of the field's Json object
+     * @return the newly created {@link EmbedField}
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if there is an error reading the Json for the 'title', 'text', or 'inline' keys
+     */
+    public static @NotNull EmbedField of(@NotNull JsonReader reader) throws IOException, JsonParseException {
+        String title = null, text = null;
+        boolean inline = false;
+
+        JsonStreamReader.beginObject(reader);
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            switch (key) {
+                case "title" -> title = JsonStreamReader.nextString(reader, key);
+                case "text" -> text = JsonStreamReader.nextString(reader, key);
+                case "inline" -> inline = JsonStreamReader.nextBoolean(reader, key);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return InternPool.intern(new EmbedField(JsonStreamReader.required(title, "title"),
+                JsonStreamReader.required(text, "text"), inline));
+    }
+
+    /**
+     * Streams a Json array of {@link EmbedField} objects from a {@link JsonReader}, decoding each with {@link
+     * #of(JsonReader)}.
+     *
+     * @param reader the reader, positioned at the start of the array
+     * @param key    the key of the array (used for error messages)
+     * @return a new array of {@link EmbedField} instances
+     * @throws IOException        if there is an error reading from the underlying source
+     * @throws JsonParseException if there is an error while converting Json to an embed for any items
+     */
+    public static @NotNull EmbedField[] ofArray(@NotNull JsonReader reader, @NotNull String key)
+            throws IOException, JsonParseException {
+        return JsonStreamReader.readArray(reader, key, EmbedField::of).toArray(new EmbedField[0]);
+    }
+
     /**
      * Get the title of this field (the bold header before each field that doesn't accept Discord markdown)
      *
@@ -132,6 +182,28 @@ public class EmbedField {
         return new MessageEmbed.Field(title, content, inline, true);
     }
 
+    /**
+     * Two {@link EmbedField EmbedFields} are equal if they have the same title, content, and inline state. This lets
+     * identical fields from different command files be shared through an {@link InternPool}.
+     *
+     * @param o the object to compare to
+     * @return true if the other object is an equal {@link EmbedField}; false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof EmbedField))
+            return false;
+        EmbedField field = (EmbedField) o;
+        return inline == field.inline && title.equals(field.title) && content.equals(field.content);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(title, content, inline);
+    }
+
     /**
      * Creates a standard {@link JsonObject} with the content of this {@link EmbedField}. This is used for {@link
      * ResponseBuilder} instances of type {@link net.dv8tion.jda.api.EmbedBuilder}
@@ -32,6 +32,27 @@ public class ErrorBuilder extends EmbedBuilder {
      */
     private static final Color DEFAULT_COLOR = Colors.RED;
 
+    /**
+     * The readable title for each exception class, made from its simple name with {@link
+     * GenericUtils#convertCamelCase(String)}. Each title is only converted the first time that exception is sent.
+     */
+    private static final ClassValue<String> SIMPLE_TITLES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return GenericUtils.convertCamelCase(type.getSimpleName());
+        }
+    };
+
+    /**
+     * Same as {@link #SIMPLE_TITLES}, but made from the full name of each exception class.
+     */
+    private static final ClassValue<String> FULL_TITLES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return GenericUtils.convertCamelCase(type.getName());
+        }
+    };
+
     private ErrorBuilder(@NotNull String message, @NotNull String title, @NotNull Color color) {
         setTitle(title);
         setDescription(message);
@@ -55,7 +76,7 @@ public class ErrorBuilder extends EmbedBuilder {
         MessageUtils.sendTemp(
                 channel,
                 MessageUtils.makeEmbedBuilder(
-                        GenericUtils.convertCamelCase(exception.getClass().getName()),
+                        FULL_TITLES.get(exception.getClass()),
                         exception.getMessage(), color),
                 config);
     }
@@ -117,9 +138,7 @@ public class ErrorBuilder extends EmbedBuilder {
      * @return the new {@link ErrorBuilder} instance
      */
     public static <T extends Exception> @NotNull ErrorBuilder of(@NotNull T exception) {
-        return new ErrorBuilder(
-                exception.getMessage(),
-                GenericUtils.convertCamelCase(exception.getClass().getSimpleName()), DEFAULT_COLOR);
+        return new ErrorBuilder(exception.getMessage(), SIMPLE_TITLES.get(exception.getClass()), DEFAULT_COLOR);
     }
 
     /**
@@ -135,9 +154,7 @@ public class ErrorBuilder extends EmbedBuilder {
      * @return the new {@link ErrorBuilder} instance
      */
     public static <T extends Exception> @NotNull ErrorBuilder of(@NotNull T exception, @NotNull Color color) {
-        return new ErrorBuilder(
-                exception.getMessage(),
-                GenericUtils.convertCamelCase(exception.getClass().getName()), color);
+        return new ErrorBuilder(exception.getMessage(), FULL_TITLES.get(exception.getClass()), color);
     }
 
     /**
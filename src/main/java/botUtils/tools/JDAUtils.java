@@ -1,9 +1,8 @@
 package botUtils.tools;
 
 import net.dv8tion.jda.api.JDABuilder;
-import net.dv8tion.jda.api.entities.Message;
-import net.dv8tion.jda.api.entities.MessageReaction;
-import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.*;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.FileNotFoundException;
@@ -56,6 +55,21 @@ public class JDAUtils {
         message.addReaction(emoji).queue();
     }
 
+    /**
+     * Checks whether the bot has permission to manage other users' messages and reactions in a channel. That's never
+     * the case in a private channel.
+     *
+     * @param channel the channel
+     * @return true if the channel is in a server and the bot can manage messages in it; false otherwise
+     */
+    public static boolean canManageMessages(@NotNull MessageChannel channel) {
+        if (!(channel instanceof TextChannel))
+            return false;
+
+        TextChannel textChannel = (TextChannel) channel;
+        return textChannel.getGuild().getSelfMember().hasPermission(textChannel, Permission.MESSAGE_MANAGE);
+    }
+
     /**
      * Reads the bot token from the give file path and returns it as a {@link String}. Make sure that the only thing in
      * the file is the bot's token. No line breaks or anything else.
@@ -0,0 +1,180 @@
+package botUtils.tools;
+
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageChannel;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects text and embeds meant for a single channel and sends them as the fewest messages possible. Every message
+ * sent to Discord is a separate request counting against the channel's rate limit, so a command that sends five short
+ * lines one at a time is much slower under load than one that sends them together.
+ * <p><br>
+ * Each piece of text starts on a new line, just as if it were sent as its own message. Text is only split into another
+ * message once it reaches Discord's limit of {@value Message#MAX_CONTENT_LENGTH} characters, preferably at a line break
+ * or a space. A message can only have one embed, and it appears below the text, so an embed is sent with the text
+ * added before it and any text added after it starts a new message. This keeps everything in the order it was added.
+ * <p><br>
+ * Nothing is sent until {@link #flush()} is called. This class is thread safe.
+ */
+public final class MessageBuffer {
+    private final @NotNull MessageChannel channel;
+
+    /**
+     * The text of each finished message that is waiting to be sent.
+     */
+    private final List<String> contents = new ArrayList<>();
+
+    /**
+     * The embed of each finished message in {@link #contents}, or null for a message with only text.
+     */
+    private final List<MessageEmbed> embeds = new ArrayList<>();
+
+    /**
+     * The text of the message currently being filled.
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    private MessageBuffer(@NotNull MessageChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Creates a new, empty {@link MessageBuffer}.
+     *
+     * @param channel the channel to send the messages in
+     * @return the new buffer
+     */
+    public static @NotNull MessageBuffer of(@NotNull MessageChannel channel) {
+        return new MessageBuffer(channel);
+    }
+
+    /**
+     * Adds text on a new line. Empty text is ignored, since Discord doesn't allow empty messages.
+     *
+     * @param message the text
+     * @return this {@link MessageBuffer} instance for chaining
+     */
+    public synchronized @NotNull MessageBuffer append(@NotNull CharSequence message) {
+        if (message.length() == 0)
+            return this;
+
+        if (text.length() > 0 && text.length() + 1 + message.length() <= Message.MAX_CONTENT_LENGTH) {
+            text.append('\n').append(message);
+            return this;
+        }
+
+        // The text doesn't fit in the current message, so start another one
+        if (text.length() > 0)
+            finish(null);
+
+        List<String> chunks = split(message, Message.MAX_CONTENT_LENGTH);
+        for (int i = 0; i < chunks.size() - 1; i++) {
+            contents.add(chunks.get(i));
+            embeds.add(null);
+        }
+        text.append(chunks.get(chunks.size() - 1));
+        return this;
+    }
+
+    /**
+     * Adds an embed, which is sent in the same message as any text added since the last embed.
+     *
+     * @param embed the embed
+     * @return this {@link MessageBuffer} instance for chaining
+     */
+    public synchronized @NotNull MessageBuffer append(@NotNull MessageEmbed embed) {
+        finish(embed);
+        return this;
+    }
+
+    /**
+     * Ends the message currently being filled.
+     *
+     * @param embed the embed to send with the message, or null for just the text
+     */
+    private void finish(@Nullable MessageEmbed embed) {
+        contents.add(text.toString());
+        embeds.add(embed);
+        text.setLength(0);
+    }
+
+    /**
+     * Checks whether anything is waiting to be sent.
+     *
+     * @return true if nothing has been added since the last {@link #flush()}; false otherwise
+     */
+    public synchronized boolean isEmpty() {
+        return contents.isEmpty() && text.length() == 0;
+    }
+
+    /**
+     * Sends everything added since the last flush, in order, and empties the buffer.
+     */
+    public void flush() {
+        String[] sendContents;
+        MessageEmbed[] sendEmbeds;
+
+        synchronized (this) {
+            if (text.length() > 0)
+                finish(null);
+
+            sendContents = contents.toArray(new String[0]);
+            sendEmbeds = embeds.toArray(new MessageEmbed[0]);
+            contents.clear();
+            embeds.clear();
+        }
+
+        // Messages queued in the same channel are sent in the order they were queued
+        for (int i = 0; i < sendContents.length; i++)
+            if (sendContents[i].isEmpty())
+                channel.sendMessage(sendEmbeds[i]).queue();
+            else if (sendEmbeds[i] == null)
+                channel.sendMessage(sendContents[i]).queue();
+            else
+                channel.sendMessage(sendContents[i]).embed(sendEmbeds[i]).queue();
+    }
+
+    /**
+     * Splits text into pieces no longer than the given length. Each split is made at the last line break in the second
+     * half of the piece if there is one, otherwise at the last whitespace there, and otherwise right at the limit.
+     * The line break or whitespace at the split is dropped.
+     *
+     * @param text the text to split
+     * @param max  the maximum length of each piece, which must be at least 2
+     * @return the pieces, which contain at least one string
+     */
+    public static @NotNull List<String> split(@NotNull CharSequence text, int max) {
+        List<String> pieces = new ArrayList<>();
+        String remaining = text.toString();
+
+        while (remaining.length() > max) {
+            int cut = remaining.lastIndexOf('\n', max);
+            if (cut < max / 2) {
+                cut = -1;
+                for (int i = max; i >= max / 2; i--)
+                    if (Character.isWhitespace(remaining.charAt(i))) {
+                        cut = i;
+                        break;
+                    }
+            }
+
+            if (cut < max / 2) {
+                // No good place to split, so cut at the limit without breaking up a surrogate pair
+                cut = Character.isHighSurrogate(remaining.charAt(max - 1)) ? max - 1 : max;
+                pieces.add(remaining.substring(0, cut));
+                remaining = remaining.substring(cut);
+            } else {
+                pieces.add(remaining.substring(0, cut));
+                remaining = remaining.substring(cut + 1);
+            }
+        }
+
+        pieces.add(remaining);
+        return pieces;
+    }
+}
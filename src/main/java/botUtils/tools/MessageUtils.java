@@ -4,6 +4,7 @@ import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.MessageBuilder;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageChannel;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.requests.restaction.MessageAction;
 import org.jetbrains.annotations.NotNull;
@@ -11,9 +12,31 @@ import org.jetbrains.annotations.Nullable;
 
 import java.awt.*;
 import java.time.temporal.TemporalAccessor;
-import java.util.concurrent.TimeUnit;
 
 public class MessageUtils {
+    /**
+     * Deletes every temporary message sent through this class.
+     */
+    private static final TempMessageDeleter TEMP_MESSAGE_DELETER = TempMessageDeleter.of();
+
+    /**
+     * Gets the {@link TempMessageDeleter} that deletes every temporary message sent through this class. This can be
+     * used to check how many messages are waiting to be deleted, or to schedule other messages for deletion with them.
+     *
+     * @return the deleter
+     */
+    public static @NotNull TempMessageDeleter getTempMessageDeleter() {
+        return TEMP_MESSAGE_DELETER;
+    }
+
+    /**
+     * Deletes every temporary message that is still waiting to be deleted right away. Call this before shutting down
+     * JDA, or those messages will stay in Discord. See {@link TempMessageDeleter#shutdown()}.
+     */
+    public static void shutdownTempMessages() {
+        TEMP_MESSAGE_DELETER.shutdown();
+    }
+
     /**
      * Generates a basic {@link EmbedBuilder} with a title, description, and color.
      *
@@ -185,6 +208,9 @@ public class MessageUtils {
      * Sends a message by executing {@link MessageAction#queue()} and waits the specified number of seconds before
      * deleting it. If deletion fails an error is not thrown because it is possible someone else deleted the message.
      * However if sending fails an error is thrown to console.
+     * <p><br>
+     * The deletion is scheduled with the shared {@link TempMessageDeleter} (see {@link #getTempMessageDeleter()}),
+     * which deletes messages expiring at about the same time in the same channel together.
      *
      * @param message the message action to send with {@link MessageAction#queue()}
      * @param delay   the number of seconds to wait before deleting the message
@@ -192,9 +218,7 @@ public class MessageUtils {
     public static void sendTemp(
             @NotNull RestAction<Message> message, int delay) {
         message.queue(
-                m -> m.delete().queueAfter(delay, TimeUnit.SECONDS, success -> {
-                }, fail -> {
-                }),
+                m -> TEMP_MESSAGE_DELETER.schedule(m, delay),
                 Throwable::printStackTrace);
     }
 
@@ -212,9 +236,7 @@ public class MessageUtils {
     public static void sendTempNoError(
             @NotNull RestAction<Message> message, int delay) {
         message.queue(
-                m -> m.delete().queueAfter(delay, TimeUnit.SECONDS, success -> {
-                }, fail -> {
-                }),
+                m -> TEMP_MESSAGE_DELETER.schedule(m, delay),
                 f -> {
                 });
     }
@@ -308,4 +330,23 @@ public class MessageUtils {
             @NotNull MessageChannel channel, @NotNull EmbedBuilder message, @NotNull TempMsgConfig config) {
         sendTemp(channel.sendMessage(message.build()), config.getDelay(message));
     }
-}
\ No newline at end of file
+
+    /**
+     * Sends every embed from a {@link TrackedEmbedBuilder} using {@link #sendTemp(RestAction, int)}, one message for
+     * each embed it's split into (see {@link TrackedEmbedBuilder#build()}).
+     * <p><br>
+     * The number of seconds that the messages wait before being deleted is determined by the {@link TempMsgConfig}
+     * configuration instance, based on the length of the whole {@link TrackedEmbedBuilder}, so every part is deleted
+     * at the same time. See the {@link TempMsgConfig} documentation for more information.
+     *
+     * @param channel the channel to send the messages in
+     * @param message the embeds to send
+     * @param config  the {@link TempMsgConfig} instance controlling how long the messages stay in Discord
+     */
+    public static void sendTemp(
+            @NotNull MessageChannel channel, @NotNull TrackedEmbedBuilder message, @NotNull TempMsgConfig config) {
+        int delay = config.getDelay(message);
+        for (MessageEmbed embed : message.build())
+            sendTemp(channel.sendMessage(embed), delay);
+    }
+}
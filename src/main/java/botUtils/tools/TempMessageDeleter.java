@@ -0,0 +1,256 @@
+package botUtils.tools;
+
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageChannel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes temporary messages once their time is up, such as the ones sent by {@link MessageUtils#sendTemp(
+ * net.dv8tion.jda.api.requests.RestAction, int) MessageUtils.sendTemp()} and temporary error messages. Scheduling a
+ * separate delete for every message means one waiting task and one request to Discord per message, and busy channels
+ * tend to have many temporary messages expiring at about the same time.
+ * <p><br>
+ * Instead, the messages are kept in a {@link TimingWheel} where each slot covers one window of time (see {@link
+ * #DEFAULT_WINDOW_MILLIS}). At the end of each window, the messages due in it are grouped by channel and each group is
+ * deleted with {@link MessageChannel#purgeMessagesById(List)}. In a server channel where the bot has permission to
+ * manage messages, that uses Discord's bulk delete endpoint for up to 100 messages at a time. Otherwise, or if there's
+ * only one message in the group, the messages are deleted one at a time as before. Messages are deleted up to one
+ * window late, never early.
+ * <p><br>
+ * Messages still waiting when the bot shuts down would never be deleted, so call {@link #shutdown()} (or {@link
+ * MessageUtils#shutdownTempMessages()}) before shutting down JDA. Failures to delete are ignored, since someone else
+ * may have deleted the message already. This class is thread safe.
+ */
+public final class TempMessageDeleter {
+    /**
+     * The length of each window in milliseconds if no other length is given. Temporary messages usually last at least
+     * several seconds, so a couple of seconds late is hardly noticeable.
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = 2000;
+
+    /**
+     * The number of windows in the {@link TimingWheel}. With the default window, one turn of the wheel covers a little
+     * over two minutes, which is longer than most temporary messages last.
+     */
+    private static final int SLOTS = 64;
+
+    /**
+     * A message waiting to be deleted.
+     */
+    private static final class Pending {
+        private final @NotNull MessageChannel channel;
+        private final long deadline;
+
+        private Pending(@NotNull MessageChannel channel, long deadline) {
+            this.channel = channel;
+            this.deadline = deadline;
+        }
+    }
+
+    private final long windowMillis;
+    private final @NotNull TimingWheel wheel;
+
+    /**
+     * The messages waiting to be deleted, keyed by message ID.
+     */
+    private final Map<Long, Pending> pending = new HashMap<>();
+
+    /**
+     * The thread that deletes the messages at the end of each window. It's only started once there's a message to
+     * delete, and stopped by {@link #shutdown()}.
+     */
+    private @Nullable ScheduledExecutorService executor = null;
+
+    private long deleted = 0;
+    private long groups = 0;
+
+    private TempMessageDeleter(long windowMillis) {
+        if (windowMillis < 1)
+            throw new IllegalArgumentException("A TempMessageDeleter needs a window of at least 1 ms.");
+
+        this.windowMillis = windowMillis;
+        this.wheel = TimingWheel.of(windowMillis, SLOTS, TimingWheel.now());
+    }
+
+    /**
+     * Creates a new {@link TempMessageDeleter} with the {@link #DEFAULT_WINDOW_MILLIS default window}.
+     *
+     * @return the new deleter
+     */
+    public static @NotNull TempMessageDeleter of() {
+        return new TempMessageDeleter(DEFAULT_WINDOW_MILLIS);
+    }
+
+    /**
+     * Creates a new {@link TempMessageDeleter}. Longer windows group more messages together, but delete them later.
+     *
+     * @param windowMillis the length of each window, in milliseconds
+     * @return the new deleter
+     * @throws IllegalArgumentException if the window is less than 1 millisecond
+     */
+    public static @NotNull TempMessageDeleter of(long windowMillis) {
+        return new TempMessageDeleter(windowMillis);
+    }
+
+    /**
+     * Schedules a message to be deleted after the given delay. If it's already scheduled, only the new delay is used.
+     *
+     * @param message the message
+     * @param seconds the number of seconds to wait before deleting it
+     */
+    public void schedule(@NotNull Message message, int seconds) {
+        schedule(message.getChannel(), message.getIdLong(), seconds * 1000L);
+    }
+
+    /**
+     * Schedules a message to be deleted after the given delay. If it's already scheduled, only the new delay is used.
+     *
+     * @param channel     the channel with the message
+     * @param messageId   the ID of the message
+     * @param delayMillis the number of milliseconds to wait before deleting it
+     */
+    public synchronized void schedule(@NotNull MessageChannel channel, long messageId, long delayMillis) {
+        long deadline = TimingWheel.now() + Math.max(0, delayMillis);
+        pending.put(messageId, new Pending(channel, deadline));
+        wheel.schedule(messageId, deadline);
+
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "TempMessageDeleter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleAtFixedRate(this::tick, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Deletes the messages whose window has ended.
+     */
+    private void tick() {
+        try {
+            Map<Long, List<Long>> due = new LinkedHashMap<>();
+            Map<Long, MessageChannel> channels = new HashMap<>();
+
+            synchronized (this) {
+                wheel.advance(TimingWheel.now(), (messageId, deadline) -> {
+                    // The message may have been scheduled again with a later deadline
+                    Pending p = pending.get(messageId);
+                    if (p == null || p.deadline != deadline)
+                        return;
+
+                    pending.remove(messageId);
+                    channels.putIfAbsent(p.channel.getIdLong(), p.channel);
+                    due.computeIfAbsent(p.channel.getIdLong(), id -> new ArrayList<>()).add(messageId);
+                });
+            }
+
+            delete(due, channels);
+        } catch (Exception e) {
+            // Keep the thread running, or no more messages would ever be deleted
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Deletes every message waiting to be deleted right away.
+     */
+    public void flush() {
+        Map<Long, List<Long>> due = new LinkedHashMap<>();
+        Map<Long, MessageChannel> channels = new HashMap<>();
+
+        synchronized (this) {
+            for (Map.Entry<Long, Pending> entry : pending.entrySet()) {
+                MessageChannel channel = entry.getValue().channel;
+                channels.putIfAbsent(channel.getIdLong(), channel);
+                due.computeIfAbsent(channel.getIdLong(), id -> new ArrayList<>()).add(entry.getKey());
+            }
+            pending.clear();
+            wheel.clear();
+        }
+
+        delete(due, channels);
+    }
+
+    /**
+     * Deletes every message waiting to be deleted right away with {@link #flush()}, and stops the thread that deletes
+     * them. If another message is scheduled afterwards, the thread is started again.
+     */
+    public void shutdown() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = this.executor;
+            this.executor = null;
+        }
+
+        if (executor != null)
+            executor.shutdown();
+        flush();
+    }
+
+    /**
+     * Deletes groups of messages, one request per group where Discord allows it.
+     *
+     * @param due      the IDs of the messages to delete, grouped by the ID of their channel
+     * @param channels the channels, keyed by ID
+     */
+    private void delete(@NotNull Map<Long, List<Long>> due, @NotNull Map<Long, MessageChannel> channels) {
+        for (Map.Entry<Long, List<Long>> group : due.entrySet()) {
+            List<String> ids = new ArrayList<>(group.getValue().size());
+            for (long id : group.getValue())
+                ids.add(Long.toUnsignedString(id));
+
+            // Server channels use the bulk delete endpoint when the bot can manage messages. Failures are ignored, since
+            // someone else may have deleted the messages already.
+            for (CompletableFuture<Void> future : channels.get(group.getKey()).purgeMessagesById(ids))
+                future.exceptionally(e -> null);
+
+            synchronized (this) {
+                deleted += ids.size();
+                if (ids.size() > 1 && JDAUtils.canManageMessages(channels.get(group.getKey())))
+                    groups++;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of messages waiting to be deleted.
+     *
+     * @return the number of pending deletions
+     */
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * Gets the number of messages this has deleted (or tried to delete, since failures are ignored).
+     *
+     * @return the number of deleted messages
+     */
+    public synchronized long getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Gets the number of times more than one message in a server channel was deleted together in a single request.
+     * Groups in channels where the bot doesn't have permission to manage messages aren't counted, since their messages
+     * are deleted one at a time.
+     *
+     * @return the number of groups
+     */
+    public synchronized long getGroups() {
+        return groups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return pending.size() + " messages pending (" + deleted + " deleted, " + groups + " groups)";
+    }
+}
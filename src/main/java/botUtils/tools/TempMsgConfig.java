@@ -139,7 +139,7 @@ public class TempMsgConfig {
      * @return the number of seconds to wait after sending the message before deleting it
      */
     public int getDelay(@NotNull CharSequence message) {
-        return (int) (base + message.length() / factor);
+        return getDelay(message.length());
     }
 
     /**
@@ -150,7 +150,7 @@ public class TempMsgConfig {
      * @return the number of seconds to wait after sending the message before deleting it
      */
     public int getDelay(@NotNull EmbedBuilder message) {
-        return base + message.build().getLength();
+        return getDelay(message.length());
     }
 
     /**
@@ -161,6 +161,29 @@ public class TempMsgConfig {
      * @return the number of seconds to wait after sending the message before deleting it
      */
     public int getDelay(@NotNull MessageBuilder message) {
-        return base + message.build().getContentStripped().length();
+        return getDelay(message.length());
+    }
+
+    /**
+     * Returns the number of seconds that the given message should remain in Discord for before being deleted. This is
+     * calculated based on the {@link #base} and {@link #factor} for this {@link TempMsgConfig}. The length of the embed
+     * is already known, so nothing needs to be built.
+     *
+     * @param message the message to check
+     * @return the number of seconds to wait after sending the message before deleting it
+     */
+    public int getDelay(@NotNull TrackedEmbedBuilder message) {
+        return getDelay(message.getLength());
+    }
+
+    /**
+     * Returns the number of seconds that a message with the given number of characters should remain in Discord for
+     * before being deleted. With a {@link #factor} of zero, this is always the {@link #base}.
+     *
+     * @param length the number of characters in the message
+     * @return the number of seconds to wait after sending the message before deleting it
+     */
+    public int getDelay(int length) {
+        return factor <= 0 ? base : (int) (base + length / factor);
     }
 }
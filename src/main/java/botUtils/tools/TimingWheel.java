@@ -0,0 +1,239 @@
+package botUtils.tools;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A hashed timing wheel that schedules primitive {@code long} keys to expire at a deadline. It is the eviction engine
+ * behind the caches that forget Discord messages after a while, where every key is a message ID.
+ * <p><br>
+ * The wheel is a ring of slots, each covering one tick of time. Scheduling a key is just appending it to the slot for
+ * its deadline, and {@link #advance(long, Expiry) advancing} the wheel only visits the slots for the ticks that passed
+ * since the last call. This makes both operations constant time no matter how many keys are scheduled, unlike a
+ * priority queue. Deadlines further away than one full turn of the wheel stay in their slot until the right turn comes
+ * around.
+ * <p><br>
+ * Keys are expired up to one tick late, never early. The wheel doesn't keep its own clock: every time is given by the
+ * caller in milliseconds, usually from {@link #now()}.
+ * <p><br>
+ * A key can't be cancelled or rescheduled. Instead, the owner of the wheel schedules the key again with its new
+ * deadline, and ignores the old one when it expires by comparing the deadline passed to {@link Expiry#expire(long,
+ * long)} with the one it has stored. This class is not thread safe, so the owner must synchronize access to it.
+ */
+public final class TimingWheel {
+    /**
+     * Called with every key that is removed from the wheel.
+     */
+    @FunctionalInterface
+    public interface Expiry {
+        /**
+         * Handles a key that was removed from the wheel.
+         *
+         * @param key      the key
+         * @param deadline the deadline it was scheduled with
+         */
+        void expire(long key, long deadline);
+    }
+
+    /**
+     * The length of a slot in the wheel is reset to this once the slot is emptied, so that a burst of keys doesn't hold
+     * onto memory forever.
+     */
+    private static final int INITIAL_SLOT_LENGTH = 4;
+
+    private final long tickMillis;
+    private final long[][] keys;
+    private final long[][] deadlines;
+    private final int[] sizes;
+
+    /**
+     * The last tick whose slot has been fully processed. Keys are never scheduled in this tick or before it.
+     */
+    private long currentTick;
+
+    private int size = 0;
+
+    private TimingWheel(long tickMillis, int slots, long now) {
+        if (tickMillis < 1 || slots < 1)
+            throw new IllegalArgumentException("A TimingWheel needs a tick of at least 1 ms and at least 1 slot.");
+
+        this.tickMillis = tickMillis;
+        this.keys = new long[slots][INITIAL_SLOT_LENGTH];
+        this.deadlines = new long[slots][INITIAL_SLOT_LENGTH];
+        this.sizes = new int[slots];
+        this.currentTick = tick(now) - 1;
+    }
+
+    /**
+     * Creates a new, empty {@link TimingWheel}. One full turn of the wheel covers {@code tickMillis * slots}
+     * milliseconds, which should be about the longest delay the keys are usually scheduled with.
+     *
+     * @param tickMillis the length of time covered by each slot, in milliseconds
+     * @param slots      the number of slots
+     * @param now        the current time in milliseconds (see {@link #now()})
+     * @return the new wheel
+     * @throws IllegalArgumentException if the tick or the number of slots is less than 1
+     */
+    public static @NotNull TimingWheel of(long tickMillis, int slots, long now) {
+        return new TimingWheel(tickMillis, slots, now);
+    }
+
+    /**
+     * Gets the current time in milliseconds from the monotonic clock. Unlike {@link System#currentTimeMillis()}, this
+     * never goes backwards when the system clock changes.
+     *
+     * @return the current time in milliseconds
+     */
+    public static long now() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    /**
+     * Schedules a key to expire at the given deadline. A key can be scheduled more than once, in which case it expires
+     * once for each deadline.
+     *
+     * @param key      the key
+     * @param deadline the time it should expire, in milliseconds
+     */
+    public void schedule(long key, long deadline) {
+        int slot = slot(Math.max(tick(deadline), currentTick + 1));
+        int index = sizes[slot]++;
+        if (index == keys[slot].length) {
+            keys[slot] = Arrays.copyOf(keys[slot], index * 2);
+            deadlines[slot] = Arrays.copyOf(deadlines[slot], index * 2);
+        }
+
+        keys[slot][index] = key;
+        deadlines[slot][index] = deadline;
+        size++;
+    }
+
+    /**
+     * Moves the wheel forward to the given time, removing every key whose deadline passed in a tick that has now
+     * finished.
+     *
+     * @param now    the current time in milliseconds
+     * @param expiry called with each expired key
+     * @return the number of keys that expired
+     */
+    public int advance(long now, @NotNull Expiry expiry) {
+        long lastTick = tick(now) - 1;
+        if (lastTick <= currentTick)
+            return 0;
+
+        // After a full turn of the wheel every slot has been visited, so there's no need to go around again
+        long steps = Math.min(lastTick - currentTick, keys.length);
+        long firstTick = lastTick - steps + 1;
+        currentTick = lastTick;
+
+        int expired = 0;
+        for (long tick = firstTick; tick <= lastTick; tick++) {
+            int slot = slot(tick);
+            for (int i = 0; i < sizes[slot]; ) {
+                long deadline = deadlines[slot][i];
+                if (tick(deadline) > lastTick) {
+                    // This key belongs to a later turn of the wheel
+                    i++;
+                    continue;
+                }
+
+                long key = keys[slot][i];
+                remove(slot, i);
+                expiry.expire(key, deadline);
+                expired++;
+            }
+        }
+
+        return expired;
+    }
+
+    /**
+     * Removes the key with the earliest deadline before it expires. This is used to make room when a cache is full.
+     * Keys in the current turn of the wheel are found without looking at the later ones, so this is only slow when
+     * every key is scheduled more than a full turn ahead.
+     *
+     * @param expiry called with the removed key
+     * @throws NoSuchElementException if the wheel is empty
+     */
+    public void pollEarliest(@NotNull Expiry expiry) {
+        if (size == 0)
+            throw new NoSuchElementException("The TimingWheel is empty.");
+
+        long turnEnd = currentTick + keys.length;
+        int bestSlot = -1;
+        int bestIndex = -1;
+
+        for (long tick = currentTick + 1; tick <= turnEnd && bestSlot == -1; tick++) {
+            int slot = slot(tick);
+            for (int i = 0; i < sizes[slot]; i++)
+                if (tick(deadlines[slot][i]) <= turnEnd &&
+                        (bestSlot == -1 || deadlines[slot][i] < deadlines[bestSlot][bestIndex])) {
+                    bestSlot = slot;
+                    bestIndex = i;
+                }
+        }
+
+        // Every key is beyond the current turn, so check all of them
+        if (bestSlot == -1)
+            for (int slot = 0; slot < keys.length; slot++)
+                for (int i = 0; i < sizes[slot]; i++)
+                    if (bestSlot == -1 || deadlines[slot][i] < deadlines[bestSlot][bestIndex]) {
+                        bestSlot = slot;
+                        bestIndex = i;
+                    }
+
+        long key = keys[bestSlot][bestIndex];
+        long deadline = deadlines[bestSlot][bestIndex];
+        remove(bestSlot, bestIndex);
+        expiry.expire(key, deadline);
+    }
+
+    /**
+     * Removes one key from a slot by moving the last key in the slot into its place.
+     *
+     * @param slot  the slot
+     * @param index the position of the key in the slot
+     */
+    private void remove(int slot, int index) {
+        int last = --sizes[slot];
+        keys[slot][index] = keys[slot][last];
+        deadlines[slot][index] = deadlines[slot][last];
+        size--;
+
+        if (last == 0 && keys[slot].length > INITIAL_SLOT_LENGTH * 16) {
+            keys[slot] = new long[INITIAL_SLOT_LENGTH];
+            deadlines[slot] = new long[INITIAL_SLOT_LENGTH];
+        }
+    }
+
+    /**
+     * Removes every key without expiring them.
+     */
+    public void clear() {
+        for (int slot = 0; slot < keys.length; slot++) {
+            sizes[slot] = 0;
+            keys[slot] = new long[INITIAL_SLOT_LENGTH];
+            deadlines[slot] = new long[INITIAL_SLOT_LENGTH];
+        }
+        size = 0;
+    }
+
+    private long tick(long time) {
+        return Math.floorDiv(time, tickMillis);
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) keys.length);
+    }
+
+    /**
+     * Gets the number of keys scheduled in the wheel, including any that the owner no longer cares about.
+     *
+     * @return the number of scheduled keys
+     */
+    public int size() {
+        return size;
+    }
+}
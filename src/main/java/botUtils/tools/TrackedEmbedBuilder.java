@@ -0,0 +1,401 @@
+package botUtils.tools;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A builder for embeds that keeps a running count of its characters as it's filled in. Checking an {@link EmbedBuilder}
+ * against Discord's limits, or working out how long a {@link TempMsgConfig temporary message} should last, means
+ * building the whole embed just to measure it. Here the {@link #getLength() length} and whether the embed {@link
+ * #isValidLength() fits in a single message} are always known without building anything.
+ * <p><br>
+ * Unlike an {@link EmbedBuilder}, this can hold more than fits in a single embed. {@link #build()} splits the contents
+ * into as many embeds as needed, each one built only once:
+ * <ul>
+ *     <li>The title, author, and thumbnail go on the first embed, and the image, footer, and timestamp on the last
+ *     one. Every embed has the color.</li>
+ *     <li>A description over Discord's limit continues on the next embed, split at a line break or a space if
+ *     possible.</li>
+ *     <li>Fields fill each embed until it has {@value #MAX_FIELDS} fields or reaches the total character limit, and
+ *     the rest go on the next one. A field value that's too long continues in another field with a blank name.</li>
+ *     <li>A title, author name, field name, or footer that's too long is shortened.</li>
+ * </ul>
+ * Each embed can then be sent as its own message, such as with {@link MessageUtils#sendTemp(
+ * net.dv8tion.jda.api.entities.MessageChannel, TrackedEmbedBuilder, TempMsgConfig)}.
+ */
+public final class TrackedEmbedBuilder {
+    /**
+     * The most fields Discord allows in a single embed.
+     */
+    public static final int MAX_FIELDS = 25;
+
+    /**
+     * The name used for fields that continue a value too long for one field. Discord doesn't allow empty names.
+     */
+    private static final String BLANK_NAME = "\u200B";
+
+    private @Nullable String title = null;
+    private @Nullable String titleUrl = null;
+    private final StringBuilder description = new StringBuilder();
+    private @Nullable Color color = null;
+    private @Nullable String authorName = null;
+    private @Nullable String authorUrl = null;
+    private @Nullable String authorIcon = null;
+    private @Nullable String thumbnail = null;
+    private @Nullable String image = null;
+    private @Nullable String footerText = null;
+    private @Nullable String footerIcon = null;
+    private @Nullable TemporalAccessor timestamp = null;
+    private final List<EmbedField> fields = new ArrayList<>();
+
+    /**
+     * The number of characters Discord counts towards the total limit: the title, description, author name, footer,
+     * and every field name and value.
+     */
+    private int length = 0;
+
+    /**
+     * The number of fields with a name or value longer than Discord allows.
+     */
+    private int oversizedFields = 0;
+
+    private TrackedEmbedBuilder() {
+    }
+
+    /**
+     * Creates a new, empty {@link TrackedEmbedBuilder}.
+     *
+     * @return the new builder
+     */
+    public static @NotNull TrackedEmbedBuilder of() {
+        return new TrackedEmbedBuilder();
+    }
+
+    /**
+     * Creates a new {@link TrackedEmbedBuilder} with a title, description, and color, like {@link
+     * MessageUtils#makeEmbedBuilder(String, String, Color)}.
+     *
+     * @param title       the bold title at the top of the embed
+     * @param description the description text under the title (accepts Discord markdown)
+     * @param color       the color of the vertical bar highlighting the embed
+     * @return the new builder
+     */
+    public static @NotNull TrackedEmbedBuilder of(@Nullable String title, @Nullable String description,
+                                                  @Nullable Color color) {
+        return new TrackedEmbedBuilder().setTitle(title).setDescription(description).setColor(color);
+    }
+
+    private static int length(@Nullable CharSequence text) {
+        return text == null ? 0 : text.length();
+    }
+
+    /**
+     * Sets the title.
+     *
+     * @param title the title, or null for none
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder setTitle(@Nullable String title) {
+        return setTitle(title, null);
+    }
+
+    /**
+     * Sets the title, and the link that opens when it's clicked.
+     *
+     * @param title the title, or null for none
+     * @param url   the link, or null for none
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder setTitle(@Nullable String title, @Nullable String url) {
+        length += length(title) - length(this.title);
+        this.title = title;
+        this.titleUrl = url;
+        return this;
+    }
+
+    /**
+     * Replaces the description.
+     *
+     * @param description the description, or null to remove it
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder setDescription(@Nullable CharSequence description) {
+        length -= this.description.length();
+        this.description.setLength(0);
+        return appendDescription(description);
+    }
+
+    /**
+     * Adds text to the end of the description.
+     *
+     * @param text the text to add
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder appendDescription(@Nullable CharSequence text) {
+        if (text != null) {
+            description.append(text);
+            length += text.length();
+        }
+        return this;
+    }
+
+    /**
+     * Sets the color of the bar on the side of the embed.
+     *
+     * @param color the color, or null for the default
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder setColor(@Nullable Color color) {
+        this.color = color;
+        return this;
+    }
+
+    /**
+     * Sets the author text above the title.
+     *
+     * @param name the author text, or null for none
+     * @param url  the link that opens when the author text is clicked, or null for none
+     * @param icon a url for the image next to the author text, or null for none
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder setAuthor(@Nullable String name, @Nullable String url, @Nullable String icon) {
+        length += length(name) - length(authorName);
+        this.authorName = name;
+        this.authorUrl = url;
+        this.authorIcon = icon;
+        return this;
+    }
+
+    /**
+     * Sets the thumbnail image.
+     *
+     * @param url a url for the thumbnail, or null for none
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder setThumbnail(@Nullable String url) {
+        this.thumbnail = url;
+        return this;
+    }
+
+    /**
+     * Sets the main image.
+     *
+     * @param url a url for the image, or null for none
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder setImage(@Nullable String url) {
+        this.image = url;
+        return this;
+    }
+
+    /**
+     * Sets the footer.
+     *
+     * @param text the text in the footer (no Discord markdown), or null for none
+     * @param icon a url for the image next to the footer text, or null for none
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder setFooter(@Nullable String text, @Nullable String icon) {
+        length += length(text) - length(footerText);
+        this.footerText = text;
+        this.footerIcon = icon;
+        return this;
+    }
+
+    /**
+     * Sets the timestamp shown in the footer.
+     *
+     * @param timestamp the timestamp, or null for none
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder setTimestamp(@Nullable TemporalAccessor timestamp) {
+        this.timestamp = timestamp;
+        return this;
+    }
+
+    /**
+     * Adds a field below the description.
+     *
+     * @param field the field
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder addField(@NotNull EmbedField field) {
+        fields.add(field);
+        length += field.getTitle().length() + field.getContent().length();
+        if (field.getTitle().length() > MessageEmbed.TITLE_MAX_LENGTH ||
+                field.getContent().length() > MessageEmbed.VALUE_MAX_LENGTH)
+            oversizedFields++;
+        return this;
+    }
+
+    /**
+     * Adds a field below the description.
+     *
+     * @param name   the name of the field (no Discord markdown)
+     * @param value  the contents of the field
+     * @param inline true to allow other inline fields on the same line; false to put it on its own line
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder addField(@Nullable String name, @Nullable String value, boolean inline) {
+        return addField(EmbedField.of(name, value, inline));
+    }
+
+    /**
+     * Adds several fields below the description. Null fields are skipped.
+     *
+     * @param fields the fields
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder addFields(@Nullable EmbedField... fields) {
+        if (fields != null)
+            for (EmbedField field : fields)
+                if (field != null)
+                    addField(field);
+        return this;
+    }
+
+    /**
+     * Removes every field.
+     *
+     * @return this {@link TrackedEmbedBuilder} instance for chaining
+     */
+    public @NotNull TrackedEmbedBuilder clearFields() {
+        for (EmbedField field : fields)
+            length -= field.getTitle().length() + field.getContent().length();
+        fields.clear();
+        oversizedFields = 0;
+        return this;
+    }
+
+    /**
+     * Gets the number of characters in the embed that count towards Discord's total limit. This is the same as {@link
+     * MessageEmbed#getLength()} would give for the built embed, but it's kept up to date as the embed is filled in.
+     *
+     * @return the number of characters
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Gets the number of fields that have been added.
+     *
+     * @return the number of fields
+     */
+    public int getFieldCount() {
+        return fields.size();
+    }
+
+    /**
+     * Checks whether everything fits in a single embed within Discord's limits. If it doesn't, {@link #build()}
+     * splits it into several embeds.
+     *
+     * @return true if this fits in one embed; false otherwise
+     */
+    public boolean isValidLength() {
+        return length <= MessageEmbed.EMBED_MAX_LENGTH_BOT &&
+                fields.size() <= MAX_FIELDS &&
+                oversizedFields == 0 &&
+                length(title) <= MessageEmbed.TITLE_MAX_LENGTH &&
+                length(authorName) <= MessageEmbed.AUTHOR_MAX_LENGTH &&
+                description.length() <= MessageEmbed.TEXT_MAX_LENGTH &&
+                length(footerText) <= MessageEmbed.TEXT_MAX_LENGTH;
+    }
+
+    /**
+     * Gets the number of seconds a temporary message with this embed should last. See {@link
+     * TempMsgConfig#getDelay(TrackedEmbedBuilder)}.
+     *
+     * @param config the config controlling how long temporary messages last
+     * @return the number of seconds to wait after sending the message before deleting it
+     */
+    public int getDelay(@NotNull TempMsgConfig config) {
+        return config.getDelay(this);
+    }
+
+    /**
+     * Builds the embeds, splitting the contents across as many as needed to fit Discord's limits (see the {@link
+     * TrackedEmbedBuilder class documentation}).
+     *
+     * @return the embeds, which always has at least one
+     */
+    public @NotNull List<MessageEmbed> build() {
+        String title = shorten(this.title, MessageEmbed.TITLE_MAX_LENGTH);
+        String authorName = shorten(this.authorName, MessageEmbed.AUTHOR_MAX_LENGTH);
+        String footerText = shorten(this.footerText, MessageEmbed.TEXT_MAX_LENGTH);
+
+        // The footer goes on the last embed, but that isn't known until the fields are placed, so leave room for it
+        // on every one
+        int reserved = length(footerText);
+
+        List<MessageEmbed> embeds = new ArrayList<>();
+        EmbedBuilder current = newEmbed();
+        current.setTitle(title, titleUrl);
+        if (authorName != null)
+            current.setAuthor(authorName, authorUrl, authorIcon);
+        if (thumbnail != null)
+            current.setThumbnail(thumbnail);
+        int currentLength = length(title) + length(authorName);
+        int currentFields = 0;
+        boolean hasDescription = false;
+
+        List<String> descriptions = description.length() == 0 ?
+                List.of() : MessageBuffer.split(description, MessageEmbed.TEXT_MAX_LENGTH);
+        for (String piece : descriptions) {
+            if (hasDescription || currentLength + piece.length() + reserved > MessageEmbed.EMBED_MAX_LENGTH_BOT) {
+                embeds.add(current.build());
+                current = newEmbed();
+                currentLength = 0;
+            }
+            current.setDescription(piece);
+            currentLength += piece.length();
+            hasDescription = true;
+        }
+
+        for (EmbedField field : fields) {
+            String name = shorten(field.getTitle(), MessageEmbed.TITLE_MAX_LENGTH);
+            List<String> values = MessageBuffer.split(field.getContent(), MessageEmbed.VALUE_MAX_LENGTH);
+            for (int i = 0; i < values.size(); i++) {
+                String fieldName = i == 0 ? name : BLANK_NAME;
+                int fieldLength = fieldName.length() + values.get(i).length();
+                if (currentFields == MAX_FIELDS ||
+                        currentLength + fieldLength + reserved > MessageEmbed.EMBED_MAX_LENGTH_BOT) {
+                    embeds.add(current.build());
+                    current = newEmbed();
+                    currentLength = 0;
+                    currentFields = 0;
+                }
+                current.addField(fieldName, values.get(i), field.isInline());
+                currentLength += fieldLength;
+                currentFields++;
+            }
+        }
+
+        if (image != null)
+            current.setImage(image);
+        if (footerText != null)
+            current.setFooter(footerText, footerIcon);
+        if (timestamp != null)
+            current.setTimestamp(timestamp);
+        embeds.add(current.build());
+        return embeds;
+    }
+
+    private @NotNull EmbedBuilder newEmbed() {
+        EmbedBuilder embed = new EmbedBuilder();
+        if (color != null)
+            embed.setColor(color);
+        return embed;
+    }
+
+    private static @Nullable String shorten(@Nullable String text, int max) {
+        return text == null || text.length() <= max ? text : text.substring(0, max - 3) + "...";
+    }
+}
@@ -0,0 +1,82 @@
+package botUtils.commandsSystem.json;
+
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that Json encoded with {@link BinaryJsonReader#encode(JsonReader)} reads back exactly as it was written.
+ */
+class BinaryJsonReaderTest {
+    private static final String JSON = "{\"name\":\"roll\",\"aliases\":[\"dice\",\"r\"],\"nested\":{\"empty\":{}," +
+            "\"list\":[[],[1,2.5,-3e10]]},\"unicode\":\"héllo 🎲\",\"escaped\":\"a\\\"b\\\\c\\n\"," +
+            "\"yes\":true,\"no\":false,\"nothing\":null,\"big\":123456789012345678901234567890}";
+
+    private static byte[] encode(String json) throws IOException {
+        return BinaryJsonReader.encode(JsonStreamReader.of(json));
+    }
+
+    @Test
+    void roundTripMatchesOriginal() throws IOException {
+        JsonElement expected = com.google.gson.JsonParser.parseString(JSON);
+        JsonElement actual = com.google.gson.JsonParser.parseReader(BinaryJsonReader.of(encode(JSON)));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void encodingIsRepeatable() throws IOException {
+        assertArrayEquals(encode(JSON), encode(JSON));
+    }
+
+    @Test
+    void numbersKeepTheirLiteral() throws IOException {
+        JsonReader reader = BinaryJsonReader.of(encode("[123456789012345678901234567890,1.0,0.1,3000000000]"));
+        reader.beginArray();
+        assertEquals(JsonToken.NUMBER, reader.peek());
+        assertEquals("123456789012345678901234567890", reader.nextString());
+        // A double with no fractional part can still be read as a long
+        assertEquals(1, reader.nextLong());
+        assertEquals("0.1", reader.nextString());
+
+        // A failed read leaves the number to be read some other way
+        assertThrows(NumberFormatException.class, reader::nextInt);
+        assertEquals(3000000000L, reader.nextLong());
+        reader.endArray();
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    void skipValueSkipsNestedValues() throws IOException {
+        JsonReader reader = BinaryJsonReader.of(encode(JSON));
+        reader.beginObject();
+        assertEquals("name", reader.nextName());
+        reader.skipValue();
+        assertEquals("aliases", reader.nextName());
+        reader.skipValue();
+        assertEquals("nested", reader.nextName());
+        reader.skipValue();
+        assertEquals("unicode", reader.nextName());
+        assertEquals("héllo 🎲", reader.nextString());
+    }
+
+    @Test
+    void skippingTheWholeDocumentReachesTheEnd() throws IOException {
+        JsonReader reader = BinaryJsonReader.of(encode(JSON));
+        reader.skipValue();
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    void onlyTheFirstValueIsEncoded() throws IOException {
+        JsonReader text = JsonStreamReader.of("{\"a\":1} {\"b\":2}");
+        text.setLenient(true);
+        JsonReader reader = BinaryJsonReader.of(BinaryJsonReader.encode(text));
+        assertEquals(com.google.gson.JsonParser.parseString("{\"a\":1}"),
+                com.google.gson.JsonParser.parseReader(reader));
+    }
+}
@@ -0,0 +1,87 @@
+package botUtils.commandsSystem.json;
+
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a {@link JsonElementReader} reads a tree exactly like the text it came from, and that {@link
+ * JsonStreamReader#scanFor(JsonReader, String)} replays the members it read before the key.
+ */
+class JsonElementReaderTest {
+    private static final String JSON = "{\"name\":\"roll\",\"aliases\":[\"dice\",\"r\"],\"nested\":{\"empty\":{}," +
+            "\"list\":[[],[1,2.5,-3e10]]},\"unicode\":\"héllo 🎲\",\"yes\":true,\"no\":false,\"nothing\":null," +
+            "\"big\":123456789012345678901234567890}";
+
+    private static JsonElement tree(String json) {
+        return com.google.gson.JsonParser.parseString(json);
+    }
+
+    @Test
+    void readsTheWholeTree() throws Exception {
+        JsonElement expected = tree(JSON);
+        assertEquals(expected, com.google.gson.JsonParser.parseReader(new JsonElementReader(expected)));
+        assertArrayEquals(BinaryJsonReader.encode(JsonStreamReader.of(JSON)),
+                BinaryJsonReader.encode(JsonStreamReader.of(expected)));
+    }
+
+    @Test
+    void numbersAndPaths() throws Exception {
+        JsonReader reader = new JsonElementReader(tree("{\"list\":[\"x\",1.0,3000000000]}"));
+        reader.beginObject();
+        assertEquals("list", reader.nextName());
+        reader.beginArray();
+        assertEquals("x", reader.nextString());
+        assertEquals("$.list[0]", reader.getPath());
+        assertEquals(JsonToken.NUMBER, reader.peek());
+        assertEquals(1, reader.nextLong());
+
+        // A failed read leaves the number to be read some other way
+        assertThrows(NumberFormatException.class, reader::nextInt);
+        assertEquals(3000000000L, reader.nextLong());
+        reader.endArray();
+        reader.endObject();
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    void wrongTokenIsRejected() {
+        JsonReader reader = new JsonElementReader(tree("{\"a\":true}"));
+        assertThrows(IllegalStateException.class, reader::beginArray);
+    }
+
+    @Test
+    void skipValueSkipsNestedValues() throws Exception {
+        JsonReader reader = new JsonElementReader(tree(JSON));
+        reader.beginObject();
+        while (reader.hasNext())
+            if (reader.nextName().equals("yes"))
+                assertTrue(reader.nextBoolean());
+            else
+                reader.skipValue();
+        reader.endObject();
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    void scanReplaysTheMembersBeforeTheKey() throws Exception {
+        String json = "{\"name\":\"roll\",\"aliases\":[\"dice\"],\"type\":\"Function\",\"nested\":{\"a\":1}}";
+        JsonStreamReader.Scan scan = JsonStreamReader.scanFor(JsonStreamReader.of(json), "type");
+
+        assertEquals("Function", scan.getValue());
+        assertEquals(tree(json).getAsJsonObject().entrySet().size(),
+                com.google.gson.JsonParser.parseReader(scan.getReader()).getAsJsonObject().entrySet().size());
+    }
+
+    @Test
+    void scanWithoutTheKeyKeepsEverything() throws Exception {
+        String json = "{\"name\":\"roll\",\"nested\":{\"a\":[1,2]}}";
+        JsonStreamReader.Scan scan = JsonStreamReader.scanFor(JsonStreamReader.of(json), "type");
+
+        assertNull(scan.getValue());
+        assertEquals(tree(json), com.google.gson.JsonParser.parseReader(scan.getReader()));
+    }
+}
@@ -0,0 +1,181 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.commandsSystem.json.JsonStreamReader;
+import botUtils.commandsSystem.types.Command;
+import botUtils.commandsSystem.types.LazyCommand;
+import botUtils.commandsSystem.types.callResponse.CallResponse;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link CommandCache} keeps only the base values of each command and notices when a file changes.
+ */
+class CommandCacheTest {
+    private static final String ROLL = "{\"name\":\"roll\",\"type\":\"CallResponse\",\"description\":\"d\"," +
+                                       "\"shortDescription\":\"s\",\"aliases\":[\"dice\"],\"responses\":[]}";
+    private static final String HELLO = "{\"type\":\"CallResponse\",\"name\":\"hello\",\"description\":\"d\"," +
+                                        "\"includeInCommandsList\":false,\"helpKeys\":[\"?\"],\"responses\":[]}";
+
+    private final CommandManager manager = CommandManager.of(null, new File(System.getProperty("java.io.tmpdir")),
+            "Cache");
+
+    @TempDir
+    Path dir;
+
+    private Path write(String name, String json, long modified) throws IOException {
+        Path file = dir.resolve(name);
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+        return file;
+    }
+
+    private File cacheFile() {
+        return dir.resolve("commands.cache").toFile();
+    }
+
+    /**
+     * Caches the given files as if their commands were just built in full, and saves the cache.
+     */
+    private void cache(Path... files) throws Exception {
+        CommandCache cache = CommandCache.load(cacheFile());
+        for (Path file : files) {
+            assertNull(cache.get(file, true));
+            byte[] bytes = Files.readAllBytes(file);
+            cache.put(file, bytes, "CallResponse",
+                    new CallResponse(JsonStreamReader.of(new String(bytes, StandardCharsets.UTF_8)), manager));
+        }
+        cache.save();
+    }
+
+    private LazyCommand lazy(CommandCache.Entry entry) throws Exception {
+        return new LazyCommand(entry.header(), manager, () -> null);
+    }
+
+    @Test
+    void uncachedFilesAreMisses() throws Exception {
+        Path roll = write("roll.json", ROLL, 1000);
+        CommandCache cache = CommandCache.load(cacheFile());
+
+        assertNull(cache.get(roll, false));
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void entriesKeepOnlyTheBaseValues() throws Exception {
+        Path roll = write("roll.json", ROLL, 1000);
+        Path hello = write("hello.json", HELLO, 1000);
+        cache(roll, hello);
+
+        CommandCache cache = CommandCache.load(cacheFile());
+        CommandCache.Entry entry = cache.get(roll, true);
+        assertNotNull(entry);
+        assertEquals("CallResponse", entry.getType());
+        assertFalse(((JsonObject) com.google.gson.JsonParser.parseReader(entry.header())).has("responses"));
+
+        Command command = lazy(entry);
+        assertEquals("roll", command.getName());
+        assertEquals("s", command.getShortDescription());
+        assertArrayEquals(new String[]{"dice"}, command.getAliases());
+        assertArrayEquals(new String[]{"help", "info", "information"}, command.getHelpKeys());
+
+        command = lazy(cache.get(hello, true));
+        assertFalse(command.doIncludeInCommandsList());
+        assertEquals("", command.getShortDescription());
+        assertArrayEquals(new String[]{"?"}, command.getHelpKeys());
+
+        assertEquals(2, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    void changedFilesAreMisses() throws Exception {
+        Path roll = write("roll.json", ROLL, 1000);
+        cache(roll);
+
+        write("roll.json", ROLL.replace("dice", "die"), 2000);
+        CommandCache cache = CommandCache.load(cacheFile());
+        assertNull(cache.get(roll, true));
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void sameSizeChangesAreCaughtByTheHash() throws Exception {
+        Path roll = write("roll.json", ROLL, 1000);
+        cache(roll);
+
+        String changed = ROLL.replace("dice", "dize");
+        assertEquals(ROLL.length(), changed.length());
+        write("roll.json", changed, 2000);
+        CommandCache cache = CommandCache.load(cacheFile());
+        assertNull(cache.get(roll, true));
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void touchedFilesWithTheSameContentsAreHits() throws Exception {
+        Path roll = write("roll.json", ROLL, 1000);
+        cache(roll);
+
+        Files.setLastModifiedTime(roll, FileTime.fromMillis(5000));
+        CommandCache second = CommandCache.load(cacheFile());
+        assertNotNull(second.get(roll, true));
+        second.save();
+        assertEquals(1, second.getHits());
+
+        // The new modified time was saved, so the next build doesn't even hash the file
+        CommandCache third = CommandCache.load(cacheFile());
+        assertNotNull(third.get(roll, true));
+        assertEquals(1, third.getHits());
+    }
+
+    @Test
+    void lazyEntriesAreOnlyUsedByLazyBuilds() throws Exception {
+        Path roll = write("roll.json", ROLL, 1000);
+        CommandCache first = CommandCache.load(cacheFile());
+        first.put(roll, Files.readAllBytes(roll), "CallResponse",
+                new LazyCommand(JsonStreamReader.of(ROLL), manager, () -> null));
+        first.save();
+
+        CommandCache second = CommandCache.load(cacheFile());
+        assertNotNull(second.get(roll, false));
+        assertNull(second.get(roll, true));
+        assertEquals(1, second.getHits());
+        assertEquals(1, second.getMisses());
+    }
+
+    @Test
+    void unusedEntriesAreDropped() throws Exception {
+        Path roll = write("roll.json", ROLL, 1000);
+        Path hello = write("hello.json", HELLO, 1000);
+        cache(roll, hello);
+
+        CommandCache second = CommandCache.load(cacheFile());
+        second.get(roll, true);
+        second.save();
+
+        CommandCache third = CommandCache.load(cacheFile());
+        assertNull(third.get(hello, true));
+        assertEquals(1, third.getMisses());
+    }
+
+    @Test
+    void unreadableCacheIsIgnored() throws Exception {
+        Files.write(cacheFile().toPath(), new byte[]{0x4A, 0x43, 0x4D, 0x43, 0, 0, 0, 2, 0, 3, 'd'});
+        Path roll = write("roll.json", ROLL, 1000);
+
+        CommandCache cache = CommandCache.load(cacheFile());
+        assertNull(cache.get(roll, false));
+        assertEquals(1, cache.getMisses());
+    }
+}
@@ -0,0 +1,97 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.commandsSystem.json.JsonStreamReader;
+import botUtils.commandsSystem.types.Command;
+import botUtils.commandsSystem.types.callResponse.CallResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link CommandSearchIndex} matches words by prefix and ranks the results.
+ */
+class CommandSearchIndexTest {
+    /**
+     * The manager the commands are created for. It's never built, so any existing folder will do.
+     */
+    private final CommandManager manager = CommandManager.of(null, new File(System.getProperty("java.io.tmpdir")),
+            "Test");
+
+    private final Command rolls, dicebag, roll, role, help, d20, rolex;
+    private final CommandSearchIndex index;
+
+    CommandSearchIndexTest() throws Exception {
+        rolls = command("rolls", true, "Show past rolls");
+        dicebag = command("dicebag", true, "Hold your dice");
+        roll = command("roll", true, "Roll some dice", "dice");
+        role = command("role", true, "Give yourself a role");
+        help = command("help", true, "Show the help page", "commands");
+        d20 = command("d20", true, "Roll a d20");
+        rolex = command("rolex", false, "Not in the command list");
+
+        Map<Path, Command> files = new LinkedHashMap<>();
+        for (Command command : new Command[]{rolls, dicebag, roll, role, help, d20, rolex})
+            files.put(Path.of(command.getName()), command);
+        index = CommandSearchIndex.of(CommandSet.of(files));
+    }
+
+    private Command command(String name, boolean listed, String description, String... aliases) throws Exception {
+        StringBuilder json = new StringBuilder("{\"name\":\"").append(name).append("\",\"description\":\"d\"," +
+                "\"shortDescription\":\"").append(description).append("\",\"type\":\"CallResponse\"," +
+                "\"includeInCommandsList\":").append(listed).append(",\"responses\":[],\"aliases\":[");
+        for (int i = 0; i < aliases.length; i++)
+            json.append(i == 0 ? "" : ",").append('"').append(aliases[i]).append('"');
+        return new CallResponse(JsonStreamReader.of(json.append("]}").toString()), manager);
+    }
+
+    @Test
+    void prefixesMatchEveryWordStartingWithThem() {
+        assertArrayEquals(new Command[]{rolls, roll, role, d20}, index.search("ro"));
+        assertArrayEquals(new Command[]{rolls, roll, role, d20}, index.search("RO"));
+        assertArrayEquals(new Command[]{help}, index.search("hel"));
+    }
+
+    @Test
+    void exactNameComesFirst() {
+        // "rolls" is first in the list and also starts with "roll", but only as a prefix
+        assertArrayEquals(new Command[]{roll, rolls, d20}, index.search("roll"));
+        assertArrayEquals(new Command[]{role}, index.search("role"));
+    }
+
+    @Test
+    void exactAliasComesBeforeOtherMatches() {
+        assertArrayEquals(new Command[]{roll, dicebag}, index.search("dice"));
+        assertArrayEquals(new Command[]{help}, index.search("commands"));
+    }
+
+    @Test
+    void namesRankAboveAliasesAndDescriptions() {
+        assertArrayEquals(new Command[]{dicebag, d20, roll}, index.search("d"));
+        // Commands with the same score stay in command list order
+        assertArrayEquals(new Command[]{rolls, help}, index.search("show"));
+    }
+
+    @Test
+    void everyWordMustMatch() {
+        assertArrayEquals(new Command[]{roll}, index.search("roll dice"));
+        assertArrayEquals(new Command[]{roll}, index.search("di ro"));
+        assertEquals(0, index.search("roll help").length);
+    }
+
+    @Test
+    void unlistedCommandsAreNotFound() {
+        assertEquals(0, index.search("rolex").length);
+    }
+
+    @Test
+    void searchesWithoutWordsFindNothing() {
+        assertEquals(0, index.search("").length);
+        assertEquals(0, index.search(" !? ").length);
+        assertEquals(0, index.search("zzz").length);
+    }
+}
@@ -0,0 +1,230 @@
+package botUtils.commandsSystem.manager;
+
+import botUtils.commandsSystem.json.JsonStreamReader;
+import botUtils.commandsSystem.types.Command;
+import botUtils.commandsSystem.types.callResponse.CallResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that {@link CommandSet#withChanges(Map, Map)} gives the same commands, command list and index as building the
+ * set from scratch, and leaves the original set alone.
+ */
+class CommandSetTest {
+    /**
+     * The manager the commands are created for. It's never built, so any existing folder will do.
+     */
+    private final CommandManager manager = CommandManager.of(null, new File(System.getProperty("java.io.tmpdir")),
+            "Test");
+
+    @TempDir
+    Path dir;
+
+    private Command command(String name, boolean listed, String... aliases) throws Exception {
+        StringBuilder json = new StringBuilder("{\"name\":\"").append(name).append("\",\"description\":\"d\"," +
+                "\"shortDescription\":\"s\",\"type\":\"CallResponse\",\"includeInCommandsList\":").append(listed)
+                .append(",\"responses\":[],\"aliases\":[");
+        for (int i = 0; i < aliases.length; i++)
+            json.append(i == 0 ? "" : ",").append('"').append(aliases[i]).append('"');
+        return new CallResponse(JsonStreamReader.of(json.append("]}").toString()), manager);
+    }
+
+    private static String json(String name, String shortDescription) {
+        return "{\"name\":\"" + name + "\",\"description\":\"d\",\"shortDescription\":\"" + shortDescription +
+                "\",\"type\":\"CallResponse\",\"responses\":[]}";
+    }
+
+    private static List<Command> list(CommandSet set) {
+        List<Command> list = new ArrayList<>();
+        for (int i = 0; i < set.getListEligibleCommands(); i++)
+            list.add(set.getListCommand(i));
+        return list;
+    }
+
+    private static Map<Path, Command> files(Object... pathsAndCommands) {
+        Map<Path, Command> files = new LinkedHashMap<>();
+        for (int i = 0; i < pathsAndCommands.length; i += 2)
+            files.put(Path.of((String) pathsAndCommands[i]), (Command) pathsAndCommands[i + 1]);
+        return files;
+    }
+
+    @Test
+    void replacementKeepsItsPosition() throws Exception {
+        Command a = command("a", true), b = command("b", true), c = command("c", true);
+        CommandSet set = CommandSet.of(files("a", a, "b", b, "c", c));
+
+        Command b2 = command("b", true, "bee");
+        CommandSet changed = set.withChanges(files("b", b2), Map.of());
+        assertEquals(List.of(a, b2, c), changed.getCommands());
+        assertEquals(List.of(a, b2, c), list(changed));
+        assertArrayEquals(new Command[]{b2}, changed.getCandidates("bee"));
+    }
+
+    @Test
+    void replacementThatBecomesListedKeepsItsListPosition() throws Exception {
+        Command a = command("a", true), b = command("b", false), c = command("c", true);
+        CommandSet set = CommandSet.of(files("a", a, "b", b, "c", c));
+        assertEquals(List.of(a, c), list(set));
+
+        Command b2 = command("b", true);
+        assertEquals(List.of(a, b2, c), list(set.withChanges(files("b", b2), Map.of())));
+    }
+
+    @Test
+    void newCommandsGoAfterTheirKind() throws Exception {
+        Command a = command("a", true), r = command("r", true);
+        CommandSet set = CommandSet.of(files("a", a), Map.of("r", r));
+
+        Command b = command("b", true), s = command("s", true);
+        CommandSet changed = set.withChanges(files("b", b), Map.of("s", s));
+        assertEquals(List.of(a, b, r, s), changed.getCommands());
+        assertEquals(List.of(Path.of("a"), Path.of("b")), new ArrayList<>(changed.getFileCommands().keySet()));
+        assertEquals(List.of("r", "s"), new ArrayList<>(changed.getRegisteredCommands().keySet()));
+    }
+
+    @Test
+    void removalsUpdateTheListAndIndex() throws Exception {
+        Command a = command("a", true, "shared"), b = command("b", true, "shared"), c = command("c", false);
+        CommandSet set = CommandSet.of(files("a", a, "b", b), Map.of("c", c));
+
+        CommandSet changed = set.withChanges(Collections.singletonMap(Path.of("a"), null),
+                Collections.singletonMap("c", null));
+        assertEquals(List.of(b), changed.getCommands());
+        assertEquals(List.of(b), list(changed));
+        assertArrayEquals(new Command[]{b}, changed.getCandidates("shared"));
+        assertEquals(0, changed.getCandidates("a").length);
+        assertNull(changed.getCommand("c"));
+    }
+
+    @Test
+    void originalIsUnchanged() throws Exception {
+        Command a = command("a", true), b = command("b", true);
+        CommandSet set = CommandSet.of(files("a", a, "b", b));
+
+        set.withChanges(Collections.singletonMap(Path.of("a"), null), Map.of("c", command("c", true)));
+        assertEquals(List.of(a, b), set.getCommands());
+        assertEquals(List.of(a, b), list(set));
+        assertSame(a, set.getCommand("A"));
+        assertNull(set.getCommand("c"));
+    }
+
+    @Test
+    void noChangesReturnsTheSameSet() throws Exception {
+        CommandSet set = CommandSet.of(files("a", command("a", true)));
+        assertSame(set, set.withChanges(Map.of(), Map.of()));
+        assertSame(set, set.withChanges(Collections.singletonMap(Path.of("missing"), null), Map.of()));
+    }
+
+    @Test
+    void fileCommandsComeFirst() throws Exception {
+        Command file = command("same", true), registered = command("same", true);
+        CommandSet set = CommandSet.of(Map.of(), Map.of("same", registered)).withChanges(files("same", file), Map.of());
+
+        assertSame(file, set.getCommand("same"));
+        assertArrayEquals(new Command[]{file, registered}, set.getCandidates("same"));
+        assertEquals(Path.of("same"), set.getFile("same"));
+        assertTrue(set.isRegistered("same"));
+        assertNull(set.getFile("other"));
+    }
+
+    @Test
+    void listChangesCoverTheChangedPositions() throws Exception {
+        Map<Path, Command> files = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++)
+            files.put(Path.of("c" + i), command("c" + i, true));
+        CommandSet set = CommandSet.of(files);
+
+        CommandSet changed = set.withChanges(files("c4", command("c4", true), "c6", command("c6", true)), Map.of());
+        assertArrayEquals(new Object[]{4, 7}, Arrays.stream(changed.getListChanges(set)).boxed().toArray());
+        assertNull(changed.getListChanges(changed));
+        assertNull(set.getListChanges(changed));
+    }
+
+    @Test
+    void reloadOnlyChangesTheReloadedFiles() throws Exception {
+        for (String name : new String[]{"a", "b", "c"})
+            Files.writeString(dir.resolve(name + ".json"), json(name, "s"));
+        CommandManager manager = CommandManager.of(null, dir, "Reload");
+        manager.build();
+        CommandSet before = manager.getRegistry().getCommandSet();
+
+        Files.writeString(dir.resolve("b.json"), json("b", "changed"));
+        Files.delete(dir.resolve("c.json"));
+        manager.reload(List.of(dir.resolve("b.json"), dir.resolve("c.json")));
+        CommandSet after = manager.getRegistry().getCommandSet();
+
+        // The new set was made from the old one, so only the changed pages of the command list are rendered again
+        int[] changes = after.getListChanges(before);
+        assertNotNull(changes);
+        assertTrue(changes[1] - changes[0] <= 2);
+        assertSame(before.getCommand("a"), after.getCommand("a"));
+        assertEquals("changed", after.getCommand("b").getShortDescription());
+        assertNull(after.getCommand("c"));
+    }
+
+    /**
+     * Applies random batches of changes and compares every view of the set with plain maps that are updated the same
+     * way.
+     */
+    @Test
+    void randomChangesMatchPlainMaps() throws Exception {
+        Random random = new Random(39);
+        String[] words = {"w0", "w1", "w2", "w3"};
+        Map<Path, Command> files = new LinkedHashMap<>();
+        Map<String, Command> registered = new LinkedHashMap<>();
+        CommandSet set = CommandSet.of(Map.of());
+
+        for (int step = 0; step < 500; step++) {
+            Map<Path, Command> fileChanges = new LinkedHashMap<>();
+            Map<String, Command> registeredChanges = new LinkedHashMap<>();
+            for (int i = random.nextInt(4); i >= 0; i--) {
+                int id = random.nextInt(40);
+                Command command = random.nextInt(3) == 0 ? null : command("n" + id, random.nextBoolean(),
+                        words[random.nextInt(words.length)] + " x", words[random.nextInt(words.length)]);
+                if (random.nextBoolean())
+                    fileChanges.put(Path.of("f" + id), command);
+                else
+                    registeredChanges.put("n" + id, command);
+            }
+
+            set = set.withChanges(fileChanges, registeredChanges);
+            apply(files, fileChanges);
+            apply(registered, registeredChanges);
+
+            List<Command> all = new ArrayList<>(files.values());
+            all.addAll(registered.values());
+            assertEquals(all, set.getCommands(), "commands at step " + step);
+            assertEquals(new ArrayList<>(files.keySet()), new ArrayList<>(set.getFileCommands().keySet()));
+            assertEquals(new ArrayList<>(registered.keySet()), new ArrayList<>(set.getRegisteredCommands().keySet()));
+
+            List<Command> listed = new ArrayList<>();
+            for (Command command : all)
+                if (command.doIncludeInCommandsList())
+                    listed.add(command);
+            assertEquals(listed, list(set), "command list at step " + step);
+
+            for (String word : words) {
+                List<Command> candidates = new ArrayList<>();
+                for (Command command : all)
+                    if (Arrays.stream(command.getAliases()).anyMatch(alias -> alias.split(" ")[0].equals(word)))
+                        candidates.add(command);
+                assertEquals(candidates, Arrays.asList(set.getCandidates(word)), "'" + word + "' at step " + step);
+            }
+        }
+    }
+
+    private static <K> void apply(Map<K, Command> map, Map<K, Command> changes) {
+        for (Map.Entry<K, Command> change : changes.entrySet())
+            if (change.getValue() == null)
+                map.remove(change.getKey());
+            else
+                map.put(change.getKey(), change.getValue());
+    }
+}
@@ -0,0 +1,133 @@
+package botUtils.commandsSystem.manager;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link PageStateLog} replays its records in order and compacts the file when it's rewritten.
+ */
+class PageStateLogTest {
+    @TempDir
+    Path dir;
+
+    private File file() {
+        return dir.resolve("pages.state").toFile();
+    }
+
+    /**
+     * Records every replayed record as a line of text.
+     */
+    private static class Recorder implements PageStateLog.Replay {
+        private final List<String> records = new ArrayList<>();
+
+        @Override
+        public void put(long messageId, @NotNull PageState state, long expiresAt) {
+            records.add("put " + messageId + " " + state + " until " + expiresAt);
+        }
+
+        @Override
+        public void remove(long messageId) {
+            records.add("remove " + messageId);
+        }
+    }
+
+    private List<String> replay() throws IOException {
+        Recorder recorder = new Recorder();
+        PageStateLog.open(file(), recorder).close();
+        return recorder.records;
+    }
+
+    @Test
+    void missingFileReplaysNothing() throws Exception {
+        assertEquals(List.of(), replay());
+        assertFalse(file().exists());
+    }
+
+    @Test
+    void recordsAreReplayedInOrder() throws Exception {
+        PageStateLog log = PageStateLog.open(file(), new Recorder());
+        log.rewrite(new long[0], new PageState[0], new long[0], 0);
+        log.appendPut(1, PageState.of(2, 100, 200), 5000);
+        log.appendPut(2, PageState.of(0, 100, 0), 6000);
+        log.appendRemove(1);
+        log.appendPut(1, PageState.of(3, 100, 200), 7000);
+        log.close();
+
+        assertEquals(List.of(
+                "put 1 page 2 in channel 100 for user 200 until 5000",
+                "put 2 page 0 in channel 100 until 6000",
+                "remove 1",
+                "put 1 page 3 in channel 100 for user 200 until 7000"
+        ), replay());
+    }
+
+    @Test
+    void partialRecordIsIgnored() throws Exception {
+        PageStateLog log = PageStateLog.open(file(), new Recorder());
+        log.rewrite(new long[0], new PageState[0], new long[0], 0);
+        log.appendPut(1, PageState.of(2, 100, 0), 5000);
+        log.appendPut(2, PageState.of(3, 100, 0), 6000);
+        log.close();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file(), "rw")) {
+            raf.setLength(raf.length() - 5);
+        }
+        assertEquals(List.of("put 1 page 2 in channel 100 until 5000"), replay());
+    }
+
+    @Test
+    void unknownFileIsIgnored() throws Exception {
+        Files.write(file().toPath(), "not a state file".getBytes(StandardCharsets.UTF_8));
+        assertEquals(List.of(), replay());
+    }
+
+    @Test
+    void needsRewriteOnceTheFileOutgrowsTheStore() throws Exception {
+        PageStateLog log = PageStateLog.open(file(), new Recorder());
+        for (int i = 0; i < 1023; i++)
+            log.appendPut(1, PageState.of(i, 1, 0), 5000);
+        assertFalse(log.needsRewrite(0));
+
+        log.appendRemove(1);
+        assertTrue(log.needsRewrite(0));
+        assertTrue(log.needsRewrite(256));
+        assertFalse(log.needsRewrite(257));
+        log.close();
+    }
+
+    @Test
+    void rewriteKeepsOnlyTheGivenMessages() throws Exception {
+        PageStateLog log = PageStateLog.open(file(), new Recorder());
+        for (int i = 0; i < 2000; i++)
+            log.appendPut(1 + i % 3, PageState.of(i, 1, 0), 5000 + i);
+        long before = file().length();
+
+        log.rewrite(new long[]{2, 3, 99}, new PageState[]{PageState.of(7, 1, 0), PageState.of(8, 1, 0), null},
+                new long[]{9000, 9500, 0}, 2);
+        assertFalse(log.needsRewrite(0));
+        assertTrue(file().length() < before);
+        assertFalse(new File(file().getPath() + ".tmp").exists());
+
+        // Appending continues after the rewritten records
+        log.appendRemove(2);
+        log.close();
+
+        assertEquals(List.of(
+                "put 2 page 7 in channel 1 until 9000",
+                "put 3 page 8 in channel 1 until 9500",
+                "remove 2"
+        ), replay());
+    }
+}
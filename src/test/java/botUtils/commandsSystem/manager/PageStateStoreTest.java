@@ -0,0 +1,221 @@
+package botUtils.commandsSystem.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link PageStateStore} remembers, evicts and expires messages, and saves them to its state file.
+ */
+class PageStateStoreTest {
+    /**
+     * A time to live long enough that nothing expires during a test.
+     */
+    private static final long TTL = 60_000;
+
+    @TempDir
+    Path dir;
+
+    private File stateFile() {
+        return dir.resolve("pages.state").toFile();
+    }
+
+    private static void assertState(int page, long channelId, long ownerId, PageState state) {
+        assertNotNull(state);
+        assertEquals(page, state.getPage());
+        assertEquals(channelId, state.getChannelId());
+        assertEquals(ownerId, state.getOwnerId());
+    }
+
+    @Test
+    void putGetAndRemove() {
+        PageStateStore store = PageStateStore.of(10, TTL);
+        store.put(1, PageState.of(2, 100, 200));
+        store.put(2, PageState.of(3, 100, 0));
+
+        assertState(2, 100, 200, store.get(1));
+        assertState(3, 100, 0, store.get(2));
+        assertNull(store.get(3));
+        assertEquals(2, store.size());
+
+        store.put(1, store.get(1).withPage(5));
+        assertState(5, 100, 200, store.get(1));
+        assertEquals(2, store.size());
+
+        assertTrue(store.remove(1));
+        assertFalse(store.remove(1));
+        assertNull(store.get(1));
+        assertEquals(1, store.size());
+
+        assertEquals(4, store.getHits());
+        assertEquals(2, store.getMisses());
+    }
+
+    @Test
+    void messageIdZeroIsRejected() {
+        PageStateStore store = PageStateStore.of(10, TTL);
+        assertThrows(IllegalArgumentException.class, () -> store.put(0, PageState.of(1, 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> PageStateStore.of(0, TTL));
+        assertThrows(IllegalArgumentException.class, () -> PageStateStore.of(10, 0));
+    }
+
+    @Test
+    void matchesAMapThroughManyChanges() {
+        // Small keys collide often, which exercises the probing and the shifting on removal
+        PageStateStore store = PageStateStore.of(1000, TTL);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(41);
+
+        for (int step = 0; step < 20_000; step++) {
+            long id = 1 + random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id) != null, store.remove(id));
+            } else {
+                store.put(id, PageState.of(step, id, 0));
+                expected.put(id, step);
+            }
+        }
+
+        assertEquals(expected.size(), store.size());
+        for (long id = 1; id <= 300; id++) {
+            PageState state = store.get(id);
+            if (expected.containsKey(id))
+                assertState(expected.get(id), id, 0, state);
+            else
+                assertNull(state);
+        }
+    }
+
+    @Test
+    void fullStoreEvictsTheLeastRecentlyChanged() throws Exception {
+        PageStateStore store = PageStateStore.of(3, TTL);
+        store.put(1, PageState.of(1, 1, 0));
+        store.put(2, PageState.of(1, 1, 0));
+        store.put(3, PageState.of(1, 1, 0));
+
+        // Changing a message restarts its time to live, so it's no longer the first to go
+        Thread.sleep(5);
+        store.put(1, PageState.of(2, 1, 0));
+        store.put(4, PageState.of(1, 1, 0));
+
+        assertEquals(3, store.size());
+        assertNull(store.get(2));
+        assertState(2, 1, 0, store.get(1));
+        assertNotNull(store.get(3));
+        assertNotNull(store.get(4));
+        assertEquals(1, store.getEvictions());
+        assertEquals(0, store.getExpirations());
+    }
+
+    @Test
+    void messagesExpireAfterTheirTimeToLive() throws Exception {
+        PageStateStore store = PageStateStore.of(10, 50);
+        store.put(1, PageState.of(1, 1, 0));
+        store.put(2, PageState.of(1, 1, 0));
+        assertNotNull(store.get(1));
+
+        Thread.sleep(150);
+        assertNull(store.get(1));
+        assertEquals(0, store.size());
+        assertEquals(2, store.getExpirations());
+        assertEquals(0, store.getEvictions());
+    }
+
+    @Test
+    void clearForgetsEverythingButTheCounters() {
+        PageStateStore store = PageStateStore.of(10, TTL);
+        for (long id = 1; id <= 5; id++)
+            store.put(id, PageState.of(1, 1, 0));
+        store.get(1);
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertNull(store.get(1));
+        assertEquals(1, store.getHits());
+        assertEquals(1, store.getMisses());
+
+        store.put(1, PageState.of(4, 1, 0));
+        assertState(4, 1, 0, store.get(1));
+    }
+
+    @Test
+    void openedStoreRemembersMessagesAfterRestart() {
+        PageStateStore store = PageStateStore.open(10, TTL, stateFile());
+        store.put(1, PageState.of(2, 100, 200));
+        store.put(2, PageState.of(3, 100, 0));
+        store.put(1, PageState.of(4, 100, 200));
+        store.remove(2);
+        store.close();
+
+        PageStateStore reopened = PageStateStore.open(10, TTL, stateFile());
+        assertEquals(1, reopened.size());
+        assertState(4, 100, 200, reopened.get(1));
+        assertNull(reopened.get(2));
+        reopened.close();
+    }
+
+    @Test
+    void reopenedStoreKeepsOnlyWhatFits() throws Exception {
+        PageStateStore store = PageStateStore.open(10, TTL, stateFile());
+        for (long id = 1; id <= 5; id++) {
+            store.put(id, PageState.of((int) id, 1, 0));
+            Thread.sleep(2);
+        }
+        store.close();
+
+        // The messages closest to expiring are evicted first
+        PageStateStore reopened = PageStateStore.open(2, TTL, stateFile());
+        assertEquals(2, reopened.size());
+        assertNull(reopened.get(3));
+        assertState(4, 1, 0, reopened.get(4));
+        assertState(5, 1, 0, reopened.get(5));
+        reopened.close();
+    }
+
+    @Test
+    void partialRecordAtTheEndIsIgnored() throws Exception {
+        PageStateStore store = PageStateStore.open(10, TTL, stateFile());
+        store.put(1, PageState.of(2, 100, 0));
+        store.close();
+
+        // A crash partway through writing a record
+        try (FileOutputStream out = new FileOutputStream(stateFile(), true)) {
+            out.write(new byte[]{1, 0, 0, 0});
+        }
+
+        PageStateStore reopened = PageStateStore.open(10, TTL, stateFile());
+        assertEquals(1, reopened.size());
+        assertState(2, 100, 0, reopened.get(1));
+        reopened.close();
+    }
+
+    @Test
+    void withSettingsKeepsTheMessages() {
+        PageStateStore store = PageStateStore.of(10, TTL);
+        assertSame(store, store.withSettings(10, TTL, null));
+
+        store.put(1, PageState.of(2, 1, 0));
+        store.get(1);
+
+        PageStateStore resized = store.withSettings(20, TTL, stateFile());
+        assertNotSame(store, resized);
+        assertEquals(20, resized.getMaxSize());
+        assertState(2, 1, 0, resized.get(1));
+        assertEquals(2, resized.getHits());
+        assertSame(resized, resized.withSettings(20, TTL, stateFile()));
+        resized.close();
+
+        // The moved messages were saved to the new file
+        PageStateStore reopened = PageStateStore.open(20, TTL, stateFile());
+        assertState(2, 1, 0, reopened.get(1));
+        reopened.close();
+    }
+}
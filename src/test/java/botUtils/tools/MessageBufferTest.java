@@ -0,0 +1,86 @@
+package botUtils.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that {@link MessageBuffer#split(CharSequence, int)} splits text at the limit and never breaks up a character.
+ */
+class MessageBufferTest {
+    /**
+     * An emoji, which is a single character made of a surrogate pair.
+     */
+    private static final String EMOJI = "😀";
+
+    private static void assertWellFormed(List<String> pieces, int max) {
+        for (String piece : pieces) {
+            assertTrue(piece.length() <= max, "piece longer than " + max + ": " + piece);
+            assertFalse(piece.isEmpty(), "empty piece");
+            assertFalse(Character.isLowSurrogate(piece.charAt(0)), "piece starts with half a character");
+            assertFalse(Character.isHighSurrogate(piece.charAt(piece.length() - 1)),
+                    "piece ends with half a character");
+        }
+    }
+
+    @Test
+    void textAtTheLimitIsNotSplit() {
+        assertEquals(List.of("abcdefghij"), MessageBuffer.split("abcdefghij", 10));
+        assertEquals(List.of("abcdefghij", "k"), MessageBuffer.split("abcdefghijk", 10));
+        assertEquals(List.of(""), MessageBuffer.split("", 10));
+    }
+
+    @Test
+    void splitsAtTheLastLineBreak() {
+        assertEquals(List.of("one two", "three four"), MessageBuffer.split("one two\nthree four", 10));
+        // The line break right at the limit is used, and dropped
+        assertEquals(List.of("abcdefghij", "klm"), MessageBuffer.split("abcdefghij\nklm", 10));
+    }
+
+    @Test
+    void splitsAtWhitespaceWhenTheLineBreakIsTooEarly() {
+        assertEquals(List.of("a\nbcdef", "ghijklm"), MessageBuffer.split("a\nbcdef ghijklm", 10));
+        assertEquals(List.of("abcdefghij", "klm"), MessageBuffer.split("abcdefghij klm", 10));
+    }
+
+    @Test
+    void cutsAtTheLimitWithoutWhitespace() {
+        assertEquals(List.of("abcdefghij", "klmnopqrst", "u"), MessageBuffer.split("abcdefghijklmnopqrstu", 10));
+        // Whitespace in the first half would leave too short a piece
+        assertEquals(List.of("ab cdefgh", "ijkl"), MessageBuffer.split("ab cdefghijkl", 9));
+    }
+
+    @Test
+    void surrogatePairAtTheLimitMovesToTheNextPiece() {
+        String text = "abcdefghi" + EMOJI + "xyz";
+        List<String> pieces = MessageBuffer.split(text, 10);
+
+        assertEquals(List.of("abcdefghi", EMOJI + "xyz"), pieces);
+        assertEquals(text, String.join("", pieces));
+    }
+
+    @Test
+    void surrogatePairEndingAtTheLimitStaysTogether() {
+        assertEquals(List.of("abcdefgh" + EMOJI, "xyz"), MessageBuffer.split("abcdefgh" + EMOJI + "xyz", 10));
+    }
+
+    @Test
+    void surrogatePairsAreNeverBrokenUp() {
+        String text = EMOJI.repeat(50);
+        for (int max = 2; max <= 12; max++) {
+            List<String> pieces = MessageBuffer.split(text, max);
+            assertWellFormed(pieces, max);
+            assertEquals(text, String.join("", pieces));
+        }
+
+        // Mixed with single characters, the pairs fall on every alignment
+        text = ("a" + EMOJI + "bc" + EMOJI + EMOJI).repeat(20);
+        for (int max = 3; max <= 12; max++) {
+            List<String> pieces = MessageBuffer.split(text, max);
+            assertWellFormed(pieces, max);
+            assertEquals(text, String.join("", pieces));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package botUtils.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the {@link TimingWheel} expires keys on time, keeps keys for later turns, and polls the earliest key.
+ */
+class TimingWheelTest {
+    /**
+     * Ticks of 10 ms and 8 slots, so one turn of the wheel covers 80 ms.
+     */
+    private final TimingWheel wheel = TimingWheel.of(10, 8, 0);
+
+    /**
+     * The keys passed to {@link #record(long, long)}, in order.
+     */
+    private final List<Long> expired = new ArrayList<>();
+
+    private void record(long key, long deadline) {
+        expired.add(key);
+    }
+
+    @Test
+    void keysExpireAtMostOneTickLate() {
+        wheel.schedule(1, 20);
+        wheel.schedule(2, 25);
+
+        assertEquals(0, wheel.advance(29, this::record));
+        assertEquals(List.of(), expired);
+
+        assertEquals(2, wheel.advance(30, this::record));
+        assertEquals(2, expired.size());
+        assertTrue(expired.containsAll(List.of(1L, 2L)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void keysInThePastExpireOnTheNextTick() {
+        wheel.advance(100, this::record);
+        wheel.schedule(1, 50);
+
+        assertEquals(0, wheel.advance(109, this::record));
+        assertEquals(1, wheel.advance(110, this::record));
+        assertEquals(List.of(1L), expired);
+    }
+
+    @Test
+    void keysBeyondOneTurnWaitForTheirTurn() {
+        // All three share the slot of tick 0, but only the first belongs to this turn
+        wheel.schedule(1, 5);
+        wheel.schedule(2, 85);
+        wheel.schedule(3, 245);
+
+        assertEquals(1, wheel.advance(10, this::record));
+        assertEquals(List.of(1L), expired);
+
+        assertEquals(0, wheel.advance(89, this::record));
+        assertEquals(1, wheel.advance(90, this::record));
+        assertEquals(List.of(1L, 2L), expired);
+
+        for (long now = 100; now < 250; now += 10)
+            wheel.advance(now, this::record);
+        assertEquals(List.of(1L, 2L), expired);
+
+        assertEquals(1, wheel.advance(250, this::record));
+        assertEquals(List.of(1L, 2L, 3L), expired);
+    }
+
+    @Test
+    void largeJumpsVisitEachSlotOnce() {
+        wheel.schedule(1, 15);
+        wheel.schedule(2, 500);
+        wheel.schedule(3, 5000);
+
+        // Many turns pass at once, but only keys whose deadline passed expire
+        assertEquals(2, wheel.advance(1000, this::record));
+        assertEquals(1, wheel.size());
+
+        wheel.schedule(4, 1005);
+        assertEquals(1, wheel.advance(1010, this::record));
+        assertEquals(0, wheel.advance(4990, this::record));
+        assertEquals(1, wheel.advance(5010, this::record));
+        assertEquals(List.of(4L, 3L), expired.subList(2, 4));
+    }
+
+    @Test
+    void pollEarliestRemovesTheEarliestDeadline() {
+        wheel.schedule(1, 50);
+        wheel.schedule(2, 30);
+        wheel.schedule(3, 35);
+        // Beyond the current turn of the wheel, in a slot that comes sooner
+        wheel.schedule(4, 300);
+
+        for (int i = 0; i < 4; i++)
+            wheel.pollEarliest(this::record);
+        assertEquals(List.of(2L, 3L, 1L, 4L), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pollEarliestFindsKeysBeyondTheCurrentTurn() {
+        wheel.schedule(1, 500);
+        wheel.schedule(2, 300);
+        wheel.schedule(3, 410);
+
+        wheel.pollEarliest(this::record);
+        assertEquals(List.of(2L), expired);
+
+        // Polled keys no longer expire
+        assertEquals(2, wheel.advance(1000, this::record));
+        assertEquals(3, expired.size());
+        assertTrue(expired.containsAll(List.of(1L, 3L)));
+    }
+
+    @Test
+    void pollEarliestPassesTheScheduledDeadline() {
+        wheel.schedule(7, 42);
+        long[] polled = new long[2];
+        wheel.pollEarliest((key, deadline) -> {
+            polled[0] = key;
+            polled[1] = deadline;
+        });
+        assertArrayEquals(new long[]{7, 42}, polled);
+    }
+
+    @Test
+    void pollEarliestOnEmptyWheelThrows() {
+        assertThrows(NoSuchElementException.class, () -> wheel.pollEarliest(this::record));
+    }
+
+    @Test
+    void keysScheduledTwiceExpireTwice() {
+        wheel.schedule(1, 20);
+        wheel.schedule(1, 40);
+        assertEquals(2, wheel.size());
+
+        wheel.advance(30, this::record);
+        wheel.advance(50, this::record);
+        assertEquals(List.of(1L, 1L), expired);
+    }
+
+    @Test
+    void clearRemovesKeysWithoutExpiringThem() {
+        for (long key = 1; key <= 100; key++)
+            wheel.schedule(key, key * 7);
+        assertEquals(100, wheel.size());
+
+        wheel.clear();
+        assertEquals(0, wheel.size());
+        assertEquals(0, wheel.advance(10_000, this::record));
+        assertEquals(List.of(), expired);
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TimingWheel.of(0, 8, 0));
+        assertThrows(IllegalArgumentException.class, () -> TimingWheel.of(10, 0, 0));
+    }
+}